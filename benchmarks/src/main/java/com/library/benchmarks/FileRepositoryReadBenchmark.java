@@ -0,0 +1,101 @@
+package com.library.benchmarks;
+
+import com.example.library.domain.MediaItem;
+import com.example.library.repository.FileMediaItemRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Listing the catalog from {@code FileMediaItemRepository}: the shared
+ * read-only items {@code findAll} returns against copying every item, as the
+ * repository used to. Compare the {@code gc.alloc.rate.norm} of the two.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FileRepositoryReadBenchmark {
+
+    private static final BigDecimal LATE_FEE = new BigDecimal("0.25");
+
+    /** Number of media items saved. */
+    @Param({"10000", "200000"})
+    public int items;
+
+    private Path directory;
+    private FileMediaItemRepository repository;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("file-repository-benchmark");
+        repository = new FileMediaItemRepository(directory);
+        for (int i = 0; i < items; i++) {
+            repository.save(createItem(i));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        repository.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public List<MediaItem> sharedFindAll() {
+        return repository.findAll();
+    }
+
+    @Benchmark
+    public List<MediaItem> copiedFindAll() {
+        List<MediaItem> items = repository.findAll();
+        List<MediaItem> copies = new ArrayList<>(items.size());
+        for (MediaItem item : items) {
+            copies.add(new MediaItem(item.getItemId(), item.getTitle(), item.getAuthor(), item.getType(),
+                    item.getIsbn(), item.getPublicationDate(), item.getPublisher(), item.getTotalCopies(),
+                    item.getAvailableCopies(), item.getLateFeesPerDay()));
+        }
+        return copies;
+    }
+
+    private static MediaItem createItem(int i) {
+        MediaItem item = new MediaItem();
+        item.setTitle("Title " + i);
+        item.setAuthor("Author " + (i % 5_000));
+        item.setType(i % 3 == 0 ? "CD" : "BOOK");
+        item.setIsbn("BENCH-" + i);
+        item.setPublicationDate(LocalDate.of(1950 + i % 70, 1 + i % 12, 1));
+        item.setPublisher("Publisher " + (i % 100));
+        item.setTotalCopies(3);
+        item.setAvailableCopies(3);
+        item.setLateFeesPerDay(LATE_FEE);
+        return item;
+    }
+}
@@ -0,0 +1,43 @@
+package com.library.benchmarks;
+
+import com.example.library.service.fine.FineCalculator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code FineCalculator.calculateFine}, which needs no database. The media
+ * type is passed in lower case so that the measurement includes its
+ * normalization.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FineCalculatorBenchmark {
+
+    @Param({"book", "cd"})
+    public String mediaType;
+
+    private final FineCalculator fineCalculator = new FineCalculator();
+    private long overdueDays;
+
+    @Benchmark
+    public BigDecimal calculateFine() {
+        // Cycling the days keeps the JIT from folding the result into a constant
+        overdueDays = overdueDays % 90 + 1;
+        return fineCalculator.calculateFine(mediaType, overdueDays);
+    }
+}
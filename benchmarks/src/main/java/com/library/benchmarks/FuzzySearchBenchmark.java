@@ -0,0 +1,111 @@
+package com.library.benchmarks;
+
+import com.example.library.service.search.BkTree;
+import com.example.library.service.search.Levenshtein;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code BkTree.search} against a linear {@code Levenshtein.distance} scan
+ * over the same terms, which needs no database. The terms are random
+ * lower-case words of five to ten letters, and every query is one of them
+ * with a letter replaced.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FuzzySearchBenchmark {
+
+    private static final int QUERIES = 200;
+
+    /** Number of distinct terms in the tree. */
+    @Param({"100000", "1000000"})
+    public int terms;
+
+    /** Largest edit distance a match may have. */
+    @Param({"1", "2"})
+    public int maxDistance;
+
+    private List<String> termList;
+    private BkTree tree;
+    private List<String> queries;
+
+    /** Per-thread position in the query list. */
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        String nextQuery(List<String> queries) {
+            next = (next + 1) % queries.size();
+            return queries.get(next);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        termList = new ArrayList<>(terms);
+        tree = new BkTree();
+        while (tree.size() < terms) {
+            String term = randomTerm(random);
+            if (tree.add(term)) {
+                termList.add(term);
+            }
+        }
+        queries = new ArrayList<>(QUERIES);
+        for (int i = 0; i < QUERIES; i++) {
+            queries.add(mutate(termList.get(random.nextInt(termList.size())), random));
+        }
+    }
+
+    @Benchmark
+    public List<BkTree.Match> bkTreeSearch(Cursor cursor) {
+        return tree.search(cursor.nextQuery(queries), maxDistance);
+    }
+
+    @Benchmark
+    public int linearScan(Cursor cursor) {
+        String query = cursor.nextQuery(queries);
+        int matches = 0;
+        for (String term : termList) {
+            if (Levenshtein.distance(query, term) <= maxDistance) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    private static String randomTerm(Random random) {
+        int length = 5 + random.nextInt(6);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append((char) ('a' + random.nextInt(26)));
+        }
+        return sb.toString();
+    }
+
+    private static String mutate(String term, Random random) {
+        StringBuilder sb = new StringBuilder(term);
+        int position = random.nextInt(sb.length());
+        sb.setCharAt(position, (char) ('a' + random.nextInt(26)));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,178 @@
+package com.library.benchmarks;
+
+import com.example.library.ConnectionPool;
+import com.example.library.repository.FacetIndexedMediaItemRepository;
+import com.example.library.repository.JdbcFineRepository;
+import com.example.library.repository.JdbcLoanRepository;
+import com.example.library.repository.JdbcMediaItemRepository;
+import com.example.library.repository.JdbcTransactionManager;
+import com.example.library.repository.JdbcUserRepository;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.MediaItemRepository;
+import com.example.library.repository.UserRepository;
+import com.example.library.service.EligibilityCache;
+import com.example.library.service.LibraryServiceImpl;
+import com.example.library.service.fine.FineCalculator;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import static com.library.benchmarks.SyntheticCatalog.TODAY;
+
+/**
+ * The software-project-main application on a seeded in-memory H2 database,
+ * wired the way {@code LibraryApplication} wires it: JDBC repositories on a
+ * connection pool, borrowing through the transaction manager, and the
+ * faceted index in front of the media item repository.
+ *
+ * Every trial recreates the schema from the application's own
+ * {@code schema.sql} and seeds {@link #items} media items, one user per ten
+ * items and a loan for every other item:
+ * <ul>
+ *   <li>every tenth loan is overdue and belongs to a user whose ID is a
+ *       multiple of ten, so those users may not borrow;</li>
+ *   <li>every third loan is active and not yet due;</li>
+ *   <li>the rest were returned on time.</li>
+ * </ul>
+ */
+@State(Scope.Benchmark)
+public class H2LibraryState {
+
+    private static final String URL = "jdbc:h2:mem:library-benchmark;MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+    private static final int BATCH_SIZE = 1_000;
+    private static final int COPIES_PER_ITEM = 5;
+    private static final BigDecimal BOOK_LATE_FEE = new BigDecimal("10.00");
+    private static final BigDecimal CD_LATE_FEE = new BigDecimal("20.00");
+
+    /** Number of media items seeded. */
+    @Param({"1000", "10000", "100000"})
+    public int items;
+
+    int userCount;
+    ConnectionPool pool;
+    UserRepository userRepository;
+    MediaItemRepository mediaItemRepository;
+    LoanRepository loanRepository;
+    LibraryServiceImpl libraryService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        userCount = SyntheticCatalog.userCountFor(items);
+        pool = new ConnectionPool(() -> DriverManager.getConnection(URL, "sa", ""), 2, 8, 5_000, 300_000, 0);
+        try (Connection conn = pool.getConnection()) {
+            LibrarySystemSchema.create(conn);
+            conn.setAutoCommit(false);
+            seedUsers(conn);
+            seedItemsAndLoans(conn);
+            conn.commit();
+            conn.setAutoCommit(true);
+        }
+
+        JdbcTransactionManager transactionManager = new JdbcTransactionManager(pool);
+        DataSource dataSource = transactionManager.getDataSource();
+        userRepository = new JdbcUserRepository(dataSource);
+        mediaItemRepository = new FacetIndexedMediaItemRepository(new JdbcMediaItemRepository(dataSource));
+        loanRepository = new JdbcLoanRepository(dataSource);
+        libraryService = new LibraryServiceImpl(userRepository, mediaItemRepository, loanRepository,
+                new JdbcFineRepository(dataSource), new FineCalculator(), transactionManager,
+                new EligibilityCache(Duration.ofSeconds(30)));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Connection conn = pool.getConnection(); Statement stmt = conn.createStatement()) {
+            stmt.execute("SHUTDOWN");
+        } finally {
+            pool.close();
+        }
+    }
+
+    private void seedUsers(Connection conn) throws SQLException {
+        String sql = "INSERT INTO app_user (username, password, email, role) VALUES (?, ?, ?, ?)";
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            for (int row = 1; row <= userCount; row++) {
+                pstmt.setString(1, SyntheticCatalog.username(row));
+                pstmt.setString(2, "password");
+                pstmt.setString(3, SyntheticCatalog.email(row));
+                pstmt.setString(4, row % 50 == 0 ? "LIBRARIAN" : "STUDENT");
+                addToBatch(pstmt, row);
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private void seedItemsAndLoans(Connection conn) throws SQLException {
+        String itemSql = "INSERT INTO media_item (title, author, type, isbn, publication_date, publisher, " +
+                "total_copies, available_copies, late_fees_per_day) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String loanSql = "INSERT INTO loan (user_id, item_id, loan_date, due_date, return_date, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?)";
+        try (PreparedStatement itemStmt = conn.prepareStatement(itemSql);
+             PreparedStatement loanStmt = conn.prepareStatement(loanSql)) {
+            for (int row = 1; row <= items; row++) {
+                boolean book = row % 4 != 0;
+                boolean overdue = row % 20 == 0;
+                boolean active = overdue || row % 6 == 0;
+                itemStmt.setString(1, SyntheticCatalog.title(row));
+                itemStmt.setString(2, SyntheticCatalog.author(row));
+                itemStmt.setString(3, book ? "BOOK" : "CD");
+                itemStmt.setString(4, SyntheticCatalog.isbn(row));
+                itemStmt.setDate(5, Date.valueOf(LocalDate.of(1950 + row % 75, 1 + row % 12, 1)));
+                itemStmt.setString(6, SyntheticCatalog.publisher(row));
+                itemStmt.setInt(7, COPIES_PER_ITEM);
+                itemStmt.setInt(8, active ? COPIES_PER_ITEM - 1 : COPIES_PER_ITEM);
+                itemStmt.setBigDecimal(9, book ? BOOK_LATE_FEE : CD_LATE_FEE);
+                addToBatch(itemStmt, row);
+
+                if (row % 2 != 0) {
+                    continue;
+                }
+                loanStmt.setInt(1, overdue ? 10 * (1 + (row / 20) % (userCount / 10)) : eligibleUserFor(row));
+                loanStmt.setInt(2, row);
+                if (overdue) {
+                    setLoanDates(loanStmt, TODAY.minusDays(40), TODAY.minusDays(12), null, "ACTIVE");
+                } else if (active) {
+                    setLoanDates(loanStmt, TODAY.minusDays(5), TODAY.plusDays(23), null, "ACTIVE");
+                } else {
+                    setLoanDates(loanStmt, TODAY.minusDays(60), TODAY.minusDays(32), TODAY.minusDays(35), "RETURNED");
+                }
+                addToBatch(loanStmt, row);
+            }
+            itemStmt.executeBatch();
+            loanStmt.executeBatch();
+        }
+    }
+
+    private int eligibleUserFor(int row) {
+        int userId = row % userCount + 1;
+        return userId % 10 == 0 ? userId - 1 : userId;
+    }
+
+    private static void setLoanDates(PreparedStatement pstmt, LocalDate loanDate, LocalDate dueDate,
+                                     LocalDate returnDate, String status) throws SQLException {
+        pstmt.setDate(3, Date.valueOf(loanDate));
+        pstmt.setDate(4, Date.valueOf(dueDate));
+        pstmt.setDate(5, returnDate == null ? null : Date.valueOf(returnDate));
+        pstmt.setString(6, status);
+    }
+
+    private static void addToBatch(PreparedStatement pstmt, int row) throws SQLException {
+        pstmt.addBatch();
+        if (row % BATCH_SIZE == 0) {
+            pstmt.executeBatch();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.library.benchmarks;
+
+import com.example.library.domain.BorrowingEligibility;
+import com.example.library.domain.Loan;
+import com.example.library.domain.MediaItem;
+import com.example.library.domain.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.library.benchmarks.SyntheticCatalog.TODAY;
+
+/**
+ * Finders of the software-project-main JDBC repositories against the seeded
+ * H2 database. Each call looks up a random row, so the measurements include
+ * the index lookups rather than one cached page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JdbcRepositoryBenchmark {
+
+    /** Per-thread random source, so threads do not contend on one generator. */
+    @State(Scope.Thread)
+    public static class Cursor {
+        final SplittableRandom random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public Optional<User> userFindById(H2LibraryState state, Cursor cursor) {
+        return state.userRepository.findById(1 + cursor.random.nextInt(state.userCount));
+    }
+
+    @Benchmark
+    public Optional<User> userFindByUsername(H2LibraryState state, Cursor cursor) {
+        return state.userRepository.findByUsername(
+                SyntheticCatalog.username(1 + cursor.random.nextInt(state.userCount)));
+    }
+
+    @Benchmark
+    public Optional<MediaItem> mediaItemFindById(H2LibraryState state, Cursor cursor) {
+        return state.mediaItemRepository.findById(1 + cursor.random.nextInt(state.items));
+    }
+
+    @Benchmark
+    public Optional<MediaItem> mediaItemFindByIsbn(H2LibraryState state, Cursor cursor) {
+        return state.mediaItemRepository.findByIsbn(SyntheticCatalog.isbn(1 + cursor.random.nextInt(state.items)));
+    }
+
+    @Benchmark
+    public List<MediaItem> mediaItemSearch(H2LibraryState state) {
+        return state.mediaItemRepository.search(SyntheticCatalog.KNOWN_WORD);
+    }
+
+    @Benchmark
+    public List<Loan> loanFindActiveByUserId(H2LibraryState state, Cursor cursor) {
+        return state.loanRepository.findActiveByUserId(1 + cursor.random.nextInt(state.userCount));
+    }
+
+    @Benchmark
+    public BorrowingEligibility loanFindBorrowingEligibility(H2LibraryState state, Cursor cursor) {
+        return state.loanRepository.findBorrowingEligibility(1 + cursor.random.nextInt(state.userCount), TODAY);
+    }
+
+    @Benchmark
+    public List<Loan> loanFindOverdueLoans(H2LibraryState state) {
+        return state.loanRepository.findOverdueLoans(TODAY);
+    }
+}
@@ -0,0 +1,73 @@
+package com.library.benchmarks;
+
+import com.example.library.domain.Loan;
+import com.example.library.domain.MediaItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import static com.library.benchmarks.SyntheticCatalog.TODAY;
+
+/**
+ * {@code LibraryServiceImpl} operations against the seeded H2 database.
+ *
+ * Borrowing is measured together with the return of the same loan, which
+ * keeps the number of available copies steady however long the run is;
+ * the loan table still grows by one returned loan per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LibraryServiceBenchmark {
+
+    /** Per-thread random source, so threads do not contend on one generator. */
+    @State(Scope.Thread)
+    public static class Cursor {
+        final SplittableRandom random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public Loan borrowAndReturnItem(H2LibraryState state, Cursor cursor) {
+        int userId = SyntheticCatalog.eligibleUserId(cursor.random, state.userCount);
+        int itemId = 1 + cursor.random.nextInt(state.items);
+        Loan loan = state.libraryService.borrowItem(userId, itemId, TODAY);
+        state.libraryService.returnItem(loan.getLoanId(), TODAY);
+        return loan;
+    }
+
+    @Benchmark
+    public boolean canUserBorrow(H2LibraryState state, Cursor cursor) {
+        int userId = cursor.random.nextBoolean()
+                ? SyntheticCatalog.eligibleUserId(cursor.random, state.userCount)
+                : SyntheticCatalog.delinquentUserId(cursor.random, state.userCount);
+        return state.libraryService.canUserBorrow(userId, TODAY);
+    }
+
+    @Benchmark
+    public List<MediaItem> searchItems(H2LibraryState state) {
+        return state.libraryService.searchItems(SyntheticCatalog.KNOWN_WORD);
+    }
+
+    /** A misspelled keyword misses the SQL search and falls back to the fuzzy index. */
+    @Benchmark
+    public List<MediaItem> searchItemsFuzzy(H2LibraryState state) {
+        return state.libraryService.searchItems(SyntheticCatalog.MISSPELLED_WORD);
+    }
+
+    @Benchmark
+    public List<Loan> getOverdueLoans(H2LibraryState state) {
+        return state.libraryService.getOverdueLoans(TODAY);
+    }
+}
@@ -0,0 +1,52 @@
+package com.library.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the software-project-main schema from the application's own
+ * {@code schema.sql}, which drops its tables first, so the same call also
+ * empties a database seeded earlier.
+ */
+public final class LibrarySystemSchema {
+
+    private LibrarySystemSchema() {
+    }
+
+    /**
+     * Runs {@code schema.sql} on the connection.
+     *
+     * @param conn the connection to an H2 database in PostgreSQL mode
+     * @throws SQLException if a statement fails
+     */
+    public static void create(Connection conn) throws SQLException {
+        String sql;
+        try (InputStream in = LibrarySystemSchema.class.getClassLoader().getResourceAsStream("schema.sql")) {
+            if (in == null) {
+                throw new IllegalStateException("schema.sql is not on the classpath");
+            }
+            sql = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))
+                    .lines()
+                    .collect(Collectors.joining("\n"));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read schema.sql", e);
+        }
+        // Split the same way DatabaseConnection does
+        try (Statement stmt = conn.createStatement()) {
+            for (String s : sql.split(";\\s*\n")) {
+                String trimmed = s.trim();
+                if (!trimmed.isEmpty()) {
+                    stmt.execute(trimmed);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.library.benchmarks;
+
+import com.library.exception.BorrowingRestrictionException;
+import com.library.exception.InsufficientStockException;
+import com.library.model.BorrowingRecord;
+import com.library.model.Fine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The root application's {@code BorrowingService} and {@code ReportService}
+ * against the seeded SQLite database.
+ *
+ * The root repositories share one connection, so these benchmarks are meant
+ * to run on a single thread. Borrowing is measured together with the return
+ * of the same record, which keeps stock and each user's unreturned count
+ * steady.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RootServiceBenchmark {
+
+    /** Per-thread random source. */
+    @State(Scope.Thread)
+    public static class Cursor {
+        final SplittableRandom random = new SplittableRandom(42);
+    }
+
+    @Benchmark
+    public Fine borrowAndReturnBook(SqliteLibraryState state, Cursor cursor)
+            throws BorrowingRestrictionException, InsufficientStockException {
+        int userId = SyntheticCatalog.eligibleUserId(cursor.random, state.userCount);
+        state.borrowingService.borrowBook(userId, 1 + cursor.random.nextInt(state.bookCount));
+        return state.returnService.returnItem(state.lastInsertedRecordId(), LocalDate.now());
+    }
+
+    @Benchmark
+    public Fine borrowAndReturnCD(SqliteLibraryState state, Cursor cursor)
+            throws BorrowingRestrictionException, InsufficientStockException {
+        int userId = SyntheticCatalog.eligibleUserId(cursor.random, state.userCount);
+        state.borrowingService.borrowCD(userId, 1 + cursor.random.nextInt(state.cdCount));
+        return state.returnService.returnItem(state.lastInsertedRecordId(), LocalDate.now());
+    }
+
+    @Benchmark
+    public List<BorrowingRecord> getUserBorrowingHistory(SqliteLibraryState state, Cursor cursor) {
+        return state.borrowingService.getUserBorrowingHistory(1 + cursor.random.nextInt(state.userCount));
+    }
+
+    @Benchmark
+    public List<BorrowingRecord> getActiveBorrowings(SqliteLibraryState state) {
+        return state.borrowingService.getActiveBorrowings();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String generateMixedMediaOverdueReport(SqliteLibraryState state) {
+        return state.reportService.generateMixedMediaOverdueReport();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public String generateActiveBorrowingsReport(SqliteLibraryState state) {
+        return state.reportService.generateActiveBorrowingsReport();
+    }
+}
@@ -0,0 +1,188 @@
+package com.library.benchmarks;
+
+import com.library.repository.Database;
+import com.library.service.BorrowingService;
+import com.library.service.ReportService;
+import com.library.service.ReturnService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * The root library application on a seeded in-memory SQLite database, with
+ * its services built by their default constructors as the Swing UI builds
+ * them.
+ *
+ * {@code Database} is a singleton that reads its URL once, so the first
+ * trial of a fork points it at {@code jdbc:sqlite::memory:} and every trial
+ * resets the schema before seeding. Three quarters of {@link #items} are
+ * books and the rest CDs, with one user per ten items and a borrowing record
+ * for every other book or CD, laid out like {@link H2LibraryState}: every
+ * tenth record is overdue, belongs to a user whose ID is a multiple of ten
+ * and carries an unpaid fine; every third is active; the rest were returned.
+ *
+ * The root repositories compare due dates with the real current date, so
+ * the seeded dates are relative to today rather than a fixed day.
+ */
+@State(Scope.Benchmark)
+public class SqliteLibraryState {
+
+    private static final int BATCH_SIZE = 1_000;
+    private static final int COPIES_PER_ITEM = 5;
+
+    /** Number of books and CDs seeded. */
+    @Param({"1000", "10000", "100000"})
+    public int items;
+
+    int userCount;
+    int bookCount;
+    int cdCount;
+    BorrowingService borrowingService;
+    ReturnService returnService;
+    ReportService reportService;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        System.setProperty("library.db.url", "jdbc:sqlite::memory:");
+        Database database = Database.getInstance();
+        database.resetDatabase();
+
+        userCount = SyntheticCatalog.userCountFor(items);
+        cdCount = items / 4;
+        bookCount = items - cdCount;
+        Connection conn = database.getConnection();
+        conn.setAutoCommit(false);
+        try {
+            seedUsers(conn);
+            seedItems(conn, "INSERT INTO books (title, author, isbn, quantity_total, quantity_available, " +
+                    "daily_fine_rate) VALUES (?, ?, ?, ?, ?, 0.50)", bookCount);
+            seedItems(conn, "INSERT INTO cds (title, artist, catalog_number, quantity_total, quantity_available, " +
+                    "daily_fine_rate) VALUES (?, ?, ?, ?, ?, 1.00)", cdCount);
+            int recordId = seedRecords(conn, "BOOK", bookCount, 0);
+            seedRecords(conn, "CD", cdCount, recordId);
+            conn.commit();
+        } finally {
+            conn.setAutoCommit(true);
+        }
+
+        borrowingService = new BorrowingService();
+        returnService = new ReturnService();
+        reportService = new ReportService();
+    }
+
+    /**
+     * Gets the ID of the borrowing record inserted last on the shared connection.
+     *
+     * @return the record ID
+     */
+    int lastInsertedRecordId() {
+        try (Statement stmt = Database.getInstance().getConnection().createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT last_insert_rowid()")) {
+            rs.next();
+            return rs.getInt(1);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not read the last record ID", e);
+        }
+    }
+
+    private void seedUsers(Connection conn) throws SQLException {
+        String sql = "INSERT INTO users (name, email, phone, member_id, registration_date, is_active) " +
+                "VALUES (?, ?, ?, ?, ?, 1)";
+        String registered = LocalDateTime.now().minusYears(1).toString();
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int row = 1; row <= userCount; row++) {
+                ps.setString(1, "Member " + row);
+                ps.setString(2, SyntheticCatalog.email(row));
+                ps.setString(3, String.format("05%08d", row));
+                ps.setString(4, SyntheticCatalog.username(row));
+                ps.setString(5, registered);
+                addToBatch(ps, row);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private static void seedItems(Connection conn, String sql, int count) throws SQLException {
+        try (PreparedStatement ps = conn.prepareStatement(sql)) {
+            for (int row = 1; row <= count; row++) {
+                ps.setString(1, SyntheticCatalog.title(row));
+                ps.setString(2, SyntheticCatalog.author(row));
+                ps.setString(3, SyntheticCatalog.isbn(row));
+                ps.setInt(4, COPIES_PER_ITEM);
+                ps.setInt(5, isActive(row) ? COPIES_PER_ITEM - 1 : COPIES_PER_ITEM);
+                addToBatch(ps, row);
+            }
+            ps.executeBatch();
+        }
+    }
+
+    private int seedRecords(Connection conn, String itemType, int count, int lastRecordId) throws SQLException {
+        String recordSql = "INSERT INTO borrowing_records (user_id, item_id, item_type, borrow_date, due_date, " +
+                "return_date, is_returned) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        String fineSql = "INSERT INTO fines (user_id, record_id, fine_amount, days_overdue, is_paid, " +
+                "calculation_date) VALUES (?, ?, 6.00, 12, 0, ?)";
+        LocalDate today = LocalDate.now();
+        String calculated = LocalDateTime.now().toString();
+        int recordId = lastRecordId;
+        try (PreparedStatement recordStmt = conn.prepareStatement(recordSql);
+             PreparedStatement fineStmt = conn.prepareStatement(fineSql)) {
+            for (int row = 2; row <= count; row += 2) {
+                boolean overdue = row % 20 == 0;
+                int userId = overdue ? 10 * (1 + (row / 20) % (userCount / 10)) : eligibleUserFor(row);
+                recordId++;
+                recordStmt.setInt(1, userId);
+                recordStmt.setInt(2, row);
+                recordStmt.setString(3, itemType);
+                if (overdue) {
+                    setDates(recordStmt, today.minusDays(40), today.minusDays(12), null);
+                    fineStmt.setInt(1, userId);
+                    fineStmt.setInt(2, recordId);
+                    fineStmt.setString(3, calculated);
+                    fineStmt.addBatch();
+                } else if (isActive(row)) {
+                    setDates(recordStmt, today.minusDays(5), today.plusDays(2), null);
+                } else {
+                    setDates(recordStmt, today.minusDays(60), today.minusDays(32), today.minusDays(35));
+                }
+                addToBatch(recordStmt, row / 2);
+            }
+            recordStmt.executeBatch();
+            fineStmt.executeBatch();
+        }
+        return recordId;
+    }
+
+    private static boolean isActive(int row) {
+        return row % 20 == 0 || row % 6 == 0;
+    }
+
+    private int eligibleUserFor(int row) {
+        int userId = row % userCount + 1;
+        return userId % 10 == 0 ? userId - 1 : userId;
+    }
+
+    private static void setDates(PreparedStatement ps, LocalDate borrowDate, LocalDate dueDate,
+                                 LocalDate returnDate) throws SQLException {
+        ps.setString(4, borrowDate.toString());
+        ps.setString(5, dueDate.toString());
+        ps.setString(6, returnDate == null ? null : returnDate.toString());
+        ps.setInt(7, returnDate == null ? 0 : 1);
+    }
+
+    private static void addToBatch(PreparedStatement ps, int row) throws SQLException {
+        ps.addBatch();
+        if (row % BATCH_SIZE == 0) {
+            ps.executeBatch();
+        }
+    }
+}
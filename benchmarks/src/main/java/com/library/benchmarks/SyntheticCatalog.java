@@ -0,0 +1,119 @@
+package com.library.benchmarks;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic names for the seeded databases, so two runs of the same size
+ * benchmark the same rows.
+ *
+ * Titles are three words from {@link #WORDS} plus the row number, which keeps
+ * them unique while giving keyword searches a realistic hit rate of about one
+ * row in {@code WORDS.length / 3}.
+ */
+public final class SyntheticCatalog {
+
+    /** Fixed "today" used by every benchmark; seeded due dates are relative to it. */
+    public static final LocalDate TODAY = LocalDate.of(2025, 11, 27);
+
+    /** A word that occurs in titles, for searches expected to match. */
+    public static final String KNOWN_WORD = "river";
+
+    /** A misspelling of {@link #KNOWN_WORD} that only the fuzzy search matches. */
+    public static final String MISSPELLED_WORD = "rivr";
+
+    private static final String[] WORDS = {
+            "silent", "river", "empire", "garden", "winter", "shadow", "crystal", "ocean",
+            "forgotten", "machine", "golden", "island", "broken", "mirror", "distant", "thunder",
+            "hidden", "kingdom", "paper", "stars", "velvet", "harbor", "iron", "orchard"
+    };
+
+    private static final String[] SURNAMES = {
+            "Haddad", "Khalil", "Novak", "Okafor", "Lindqvist", "Moreau", "Tanaka", "Reyes",
+            "Kowalski", "Abbas", "Fischer", "Silva", "Nakamura", "Osei", "Petrov", "Walsh"
+    };
+
+    private static final String[] PUBLISHERS = {
+            "Penguin", "Harper", "Vintage", "Orbit", "Faber", "Dar Al Shorouk", "Tor", "Hachette"
+    };
+
+    private SyntheticCatalog() {
+    }
+
+    public static String title(int row) {
+        // Mixing the row number in spreads each word evenly over the table
+        int hash = row * 0x9E3779B1;
+        return capitalize(WORDS[(hash >>> 8) % WORDS.length]) + " "
+                + WORDS[(hash >>> 16) % WORDS.length] + " "
+                + WORDS[(hash >>> 24) % WORDS.length] + " " + row;
+    }
+
+    public static String author(int row) {
+        return "A. " + SURNAMES[row % SURNAMES.length];
+    }
+
+    public static String publisher(int row) {
+        return PUBLISHERS[(row / 3) % PUBLISHERS.length];
+    }
+
+    public static String isbn(int row) {
+        return String.format("978%010d", row);
+    }
+
+    public static String username(int row) {
+        return "member" + row;
+    }
+
+    public static String email(int row) {
+        return "member" + row + "@example.com";
+    }
+
+    /**
+     * Gets one of the words titles are made of.
+     *
+     * @param random the caller's random source
+     * @return a lower-case title word
+     */
+    public static String titleWord(SplittableRandom random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    /**
+     * Picks a user who has no overdue loans. Every tenth user is seeded as a
+     * delinquent borrower and is skipped, so borrowing always succeeds.
+     *
+     * @param random the caller's random source
+     * @param userCount the number of seeded users, a multiple of ten
+     * @return a user ID between 1 and {@code userCount}
+     */
+    public static int eligibleUserId(SplittableRandom random, int userCount) {
+        int userId = 1 + random.nextInt(userCount);
+        return userId % 10 == 0 ? userId - 1 : userId;
+    }
+
+    /**
+     * Picks a user seeded with overdue loans.
+     *
+     * @param random the caller's random source
+     * @param userCount the number of seeded users, a multiple of ten
+     * @return the ID of a delinquent user
+     */
+    public static int delinquentUserId(SplittableRandom random, int userCount) {
+        return 10 * (1 + random.nextInt(userCount / 10));
+    }
+
+    /**
+     * Gets the number of users seeded for a catalog of the given size: one per
+     * ten items, rounded to a multiple of ten and at least a hundred.
+     *
+     * @param itemCount the number of seeded items
+     * @return the number of users to seed
+     */
+    public static int userCountFor(int itemCount) {
+        return Math.max(100, itemCount / 100 * 10);
+    }
+
+    private static String capitalize(String word) {
+        return Character.toUpperCase(word.charAt(0)) + word.substring(1);
+    }
+}
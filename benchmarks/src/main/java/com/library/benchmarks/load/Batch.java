@@ -0,0 +1,64 @@
+package com.library.benchmarks.load;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * A prepared statement that sends its rows in batches of a thousand. A batch
+ * of rows that refer to another table's rows is given that table's batch as
+ * its parent, which is always sent first.
+ */
+final class Batch implements AutoCloseable {
+
+    private static final int SIZE = 1_000;
+
+    private final PreparedStatement statement;
+    private final Batch parent;
+    private int pending;
+
+    Batch(Connection conn, String sql) throws SQLException {
+        this(conn, sql, null);
+    }
+
+    Batch(Connection conn, String sql, Batch parent) throws SQLException {
+        this.statement = conn.prepareStatement(sql);
+        this.parent = parent;
+    }
+
+    /**
+     * Gets the statement, to set the parameters of the next row.
+     *
+     * @return the underlying statement
+     */
+    PreparedStatement row() {
+        return statement;
+    }
+
+    /**
+     * Adds the row whose parameters were just set.
+     *
+     * @throws SQLException if sending a full batch fails
+     */
+    void add() throws SQLException {
+        statement.addBatch();
+        if (++pending == SIZE) {
+            flush();
+        }
+    }
+
+    void flush() throws SQLException {
+        if (parent != null) {
+            parent.flush();
+        }
+        if (pending > 0) {
+            statement.executeBatch();
+            pending = 0;
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        statement.close();
+    }
+}
@@ -0,0 +1,33 @@
+package com.library.benchmarks.load;
+
+import java.util.SplittableRandom;
+
+/**
+ * One application's service layer, as seen by the load driver. Must be
+ * safe to call from the driver's threads at once.
+ */
+interface CirculationTarget extends AutoCloseable {
+
+    /** How an operation ended, other than by an unexpected exception. */
+    enum Outcome {
+        /** The operation did its work. */
+        COMPLETED,
+        /** The service refused it by a business rule, e.g. no copy left or unpaid fines. */
+        REJECTED,
+        /** There was nothing to do, e.g. no open loan to return; not timed. */
+        SKIPPED
+    }
+
+    /**
+     * Runs one operation on random members and items of the dataset.
+     *
+     * @param operation the operation to run
+     * @param random the calling thread's random source
+     * @return how it ended
+     * @throws Exception if the service failed unexpectedly
+     */
+    Outcome run(Operation operation, SplittableRandom random) throws Exception;
+
+    @Override
+    void close();
+}
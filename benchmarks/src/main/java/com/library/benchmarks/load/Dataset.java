@@ -0,0 +1,69 @@
+package com.library.benchmarks.load;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * What the load driver needs to know about a generated dataset: its size,
+ * the popularity of items and users, and the loans and fines still open.
+ *
+ * Item IDs run from 1 to {@link #items} in a single numbering; every fourth
+ * item is a CD and the rest are books. The root application keeps books and
+ * CDs in separate tables, and {@link #bookNumber}/{@link #cdNumber} translate
+ * an item ID to the row in the matching table.
+ */
+final class Dataset {
+
+    final int users;
+    final int items;
+    final ZipfSampler itemPopularity;
+    final ZipfSampler userActivity;
+
+    /** IDs of loans not yet returned; borrows add to it and returns take from it. */
+    final Queue<Integer> openLoans = new ConcurrentLinkedQueue<>();
+
+    /** IDs of fines not yet paid; payments take from it. */
+    final Queue<Integer> unpaidFines = new ConcurrentLinkedQueue<>();
+
+    Dataset(int users, int items, double skew) {
+        this.users = users;
+        this.items = items;
+        this.itemPopularity = new ZipfSampler(items, skew);
+        // Borrowing activity is spread more evenly over members than over titles
+        this.userActivity = new ZipfSampler(users, skew / 2);
+    }
+
+    static boolean isBook(int itemId) {
+        return itemId % 4 != 0;
+    }
+
+    /**
+     * Gets the position of a book among the books, counting from 1.
+     *
+     * @param itemId the ID of an item for which {@link #isBook} holds
+     * @return the book's ID in the root application
+     */
+    static int bookNumber(int itemId) {
+        return itemId - itemId / 4;
+    }
+
+    /**
+     * Gets the position of a CD among the CDs, counting from 1.
+     *
+     * @param itemId the ID of an item for which {@link #isBook} does not hold
+     * @return the CD's ID in the root application
+     */
+    static int cdNumber(int itemId) {
+        return itemId / 4;
+    }
+
+    /**
+     * Gets the loan period both applications use for the item's type.
+     *
+     * @param itemId the item ID
+     * @return 28 days for a book, 7 for a CD
+     */
+    static int loanPeriodDays(int itemId) {
+        return isBook(itemId) ? 28 : 7;
+    }
+}
@@ -0,0 +1,163 @@
+package com.library.benchmarks.load;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Generates a library's history from a seed: members, a catalog, loans
+ * with popular titles borrowed far more often than the rest, late returns
+ * with fines, and reservations queued on titles with no copy left.
+ *
+ * Loans are drawn one by one; each is one of:
+ * <ul>
+ *   <li>returned late, with a fine: exactly {@code fines} loans, of which
+ *       {@value #UNPAID_SHARE_PERCENT}% are unpaid;</li>
+ *   <li>open, if the item still has a copy and the member has fewer than
+ *       {@value #MAX_OPEN_LOANS_PER_USER} open loans: about
+ *       {@value #OPEN_SHARE_PERCENT}% of loans, a third of them overdue;</li>
+ *   <li>returned on time otherwise.</li>
+ * </ul>
+ * The same seed and sizes always give the same rows.
+ */
+final class DatasetGenerator {
+
+    static final int OPEN_SHARE_PERCENT = 10;
+    static final int UNPAID_SHARE_PERCENT = 30;
+
+    /** The root application's borrowing limit, kept for both so the data means the same. */
+    static final int MAX_OPEN_LOANS_PER_USER = 10;
+
+    private static final int MAX_COPIES = 5;
+    private static final int RESERVATION_ATTEMPTS = 1_000;
+    private static final int PROGRESS_EVERY = 1_000_000;
+
+    private final LoadConfig config;
+    private final SplittableRandom random;
+    private final LocalDate today = LocalDate.now();
+
+    DatasetGenerator(LoadConfig config) {
+        this.config = config;
+        this.random = new SplittableRandom(config.seed);
+    }
+
+    /**
+     * Writes a complete dataset.
+     *
+     * @param writer the schema to write into
+     * @return the dataset's open loans, unpaid fines and popularity
+     * @throws SQLException if writing fails
+     */
+    Dataset generate(DatasetWriter writer) throws SQLException {
+        Dataset dataset = new Dataset(config.users, config.items, config.skew);
+
+        long start = System.nanoTime();
+        for (int userId = 1; userId <= config.users; userId++) {
+            writer.user(userId);
+        }
+        int[] totalCopies = new int[config.items + 1];
+        for (int itemId = 1; itemId <= config.items; itemId++) {
+            totalCopies[itemId] = 1 + random.nextInt(MAX_COPIES);
+            writer.item(itemId, totalCopies[itemId]);
+        }
+        writer.flush();
+        report("users and items", config.users + config.items, start);
+
+        start = System.nanoTime();
+        int[] availableCopies = totalCopies.clone();
+        writeLoans(writer, dataset, availableCopies);
+        for (int itemId = 1; itemId <= config.items; itemId++) {
+            if (availableCopies[itemId] != totalCopies[itemId]) {
+                writer.availableCopies(itemId, availableCopies[itemId]);
+            }
+        }
+        writer.flush();
+        report("loans and fines", config.loans + config.fines, start);
+
+        if (config.reservations > 0 && writer.supportsReservations()) {
+            start = System.nanoTime();
+            int written = writeReservations(writer, dataset, availableCopies);
+            writer.flush();
+            report("reservations", written, start);
+        }
+        return dataset;
+    }
+
+    private void writeLoans(DatasetWriter writer, Dataset dataset, int[] availableCopies) throws SQLException {
+        int[] openLoans = new int[config.users + 1];
+        int finesLeft = config.fines;
+        int fineId = 0;
+        for (int loanId = 1; loanId <= config.loans; loanId++) {
+            int itemId = dataset.itemPopularity.next(random);
+            int userId = dataset.userActivity.next(random);
+            int period = Dataset.loanPeriodDays(itemId);
+            // Selection sampling: gives exactly config.fines late returns spread over the history
+            boolean fined = random.nextInt(config.loans - loanId + 1) < finesLeft;
+            boolean open = !fined
+                    && random.nextInt(100) < OPEN_SHARE_PERCENT
+                    && availableCopies[itemId] > 0
+                    && openLoans[userId] < MAX_OPEN_LOANS_PER_USER;
+
+            if (open) {
+                LocalDate loanDate = random.nextInt(3) == 0
+                        ? today.minusDays(period + 1 + random.nextInt(30))
+                        : today.minusDays(random.nextInt(period));
+                writer.loan(loanId, userId, itemId, loanDate, loanDate.plusDays(period), null);
+                availableCopies[itemId]--;
+                openLoans[userId]++;
+                dataset.openLoans.add(loanId);
+            } else {
+                // Old enough that even a late return is in the past
+                LocalDate loanDate = today.minusDays(period + 40 + random.nextInt(700));
+                LocalDate dueDate = loanDate.plusDays(period);
+                int daysLate = fined ? 1 + random.nextInt(20) : 0;
+                LocalDate returnDate = fined ? dueDate.plusDays(daysLate) : loanDate.plusDays(random.nextInt(period + 1));
+                writer.loan(loanId, userId, itemId, loanDate, dueDate, returnDate);
+                if (fined) {
+                    finesLeft--;
+                    fineId++;
+                    boolean paid = random.nextInt(100) >= UNPAID_SHARE_PERCENT;
+                    writer.fine(fineId, loanId, userId, itemId, daysLate, paid, returnDate);
+                    if (!paid) {
+                        dataset.unpaidFines.add(fineId);
+                    }
+                }
+            }
+            if (loanId % PROGRESS_EVERY == 0) {
+                System.out.printf("  %,d loans written%n", loanId);
+            }
+        }
+    }
+
+    private int writeReservations(DatasetWriter writer, Dataset dataset, int[] availableCopies) throws SQLException {
+        Set<Long> reserved = new HashSet<>();
+        LocalDateTime now = LocalDateTime.now();
+        int written = 0;
+        int misses = 0;
+        while (written < config.reservations && misses < RESERVATION_ATTEMPTS) {
+            int itemId = dataset.itemPopularity.next(random);
+            int userId = 1 + random.nextInt(config.users);
+            // Only items with no copy left can be reserved; popular ones run out first
+            if (availableCopies[itemId] > 0 || !reserved.add(((long) userId << 32) | itemId)) {
+                misses++;
+                continue;
+            }
+            misses = 0;
+            LocalDateTime reservedAt = now.minusMinutes(random.nextInt(5 * 24 * 60));
+            writer.reservation(userId, itemId, reservedAt, reservedAt.plusDays(7));
+            written++;
+        }
+        if (written < config.reservations) {
+            System.out.printf("  stopped after %,d reservations: too few items have every copy on loan%n", written);
+        }
+        return written;
+    }
+
+    private static void report(String what, long rows, long start) {
+        long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        System.out.printf("Generated %s: %,d rows in %,d ms (%,d rows/s)%n", what, rows, millis, rows * 1000 / millis);
+    }
+}
@@ -0,0 +1,57 @@
+package com.library.benchmarks.load;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Writes the rows {@link DatasetGenerator} decides on into one application's
+ * schema. Rows may be batched; {@link #flush} writes and commits everything
+ * pending, and the generator calls it before rows that refer to earlier ones.
+ */
+interface DatasetWriter extends AutoCloseable {
+
+    void user(int userId) throws SQLException;
+
+    void item(int itemId, int copies) throws SQLException;
+
+    /**
+     * Writes a loan.
+     *
+     * @param loanId the loan ID, numbered from 1 in insertion order
+     * @param userId the borrower
+     * @param itemId the item
+     * @param loanDate the day it was borrowed
+     * @param dueDate the day it is due
+     * @param returnDate the day it was returned, or null if still open
+     * @throws SQLException if the row cannot be written
+     */
+    void loan(int loanId, int userId, int itemId, LocalDate loanDate, LocalDate dueDate, LocalDate returnDate)
+            throws SQLException;
+
+    void fine(int fineId, int loanId, int userId, int itemId, int daysLate, boolean paid, LocalDate issuedDate)
+            throws SQLException;
+
+    /**
+     * Tells whether the application has reservations at all.
+     *
+     * @return false if {@link #reservation} must not be called
+     */
+    boolean supportsReservations();
+
+    void reservation(int userId, int itemId, LocalDateTime reservedAt, LocalDateTime expiresAt) throws SQLException;
+
+    /**
+     * Corrects an item's available copies after its open loans were written.
+     *
+     * @param itemId the item
+     * @param availableCopies copies not on loan
+     * @throws SQLException if the row cannot be updated
+     */
+    void availableCopies(int itemId, int availableCopies) throws SQLException;
+
+    void flush() throws SQLException;
+
+    @Override
+    void close() throws SQLException;
+}
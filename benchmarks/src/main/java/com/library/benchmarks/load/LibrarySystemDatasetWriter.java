@@ -0,0 +1,151 @@
+package com.library.benchmarks.load;
+
+import com.library.benchmarks.LibrarySystemSchema;
+import com.library.benchmarks.SyntheticCatalog;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Writes a dataset into the software-project-main schema on H2, replacing
+ * whatever the database held. Late fees follow the application's fine
+ * strategies: 10 per day for books and 20 for CDs.
+ */
+final class LibrarySystemDatasetWriter implements DatasetWriter {
+
+    private static final BigDecimal BOOK_LATE_FEE = new BigDecimal("10.00");
+    private static final BigDecimal CD_LATE_FEE = new BigDecimal("20.00");
+
+    private final Connection conn;
+    private final Batch users;
+    private final Batch items;
+    private final Batch loans;
+    private final Batch fines;
+    private final Batch reservations;
+    private final Batch availability;
+
+    LibrarySystemDatasetWriter(String url) throws SQLException {
+        conn = DriverManager.getConnection(url, "sa", "");
+        LibrarySystemSchema.create(conn);
+        conn.setAutoCommit(false);
+        users = new Batch(conn, "INSERT INTO app_user (username, password, email, role) VALUES (?, ?, ?, ?)");
+        items = new Batch(conn, "INSERT INTO media_item (title, author, type, isbn, publication_date, publisher, " +
+                "total_copies, available_copies, late_fees_per_day) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)");
+        loans = new Batch(conn, "INSERT INTO loan (user_id, item_id, loan_date, due_date, return_date, status) " +
+                "VALUES (?, ?, ?, ?, ?, ?)", items);
+        fines = new Batch(conn, "INSERT INTO fine (loan_id, amount, issued_date, status, paid_date) " +
+                "VALUES (?, ?, ?, ?, ?)", loans);
+        reservations = new Batch(conn, "INSERT INTO reservation (user_id, item_id, reservation_date, expiry_date, " +
+                "status) VALUES (?, ?, ?, ?, 'ACTIVE')", items);
+        availability = new Batch(conn, "UPDATE media_item SET available_copies = ? WHERE item_id = ?", items);
+    }
+
+    @Override
+    public void user(int userId) throws SQLException {
+        PreparedStatement pstmt = users.row();
+        pstmt.setString(1, SyntheticCatalog.username(userId));
+        pstmt.setString(2, "password");
+        pstmt.setString(3, SyntheticCatalog.email(userId));
+        pstmt.setString(4, userId % 200 == 0 ? "LIBRARIAN" : "STUDENT");
+        users.add();
+    }
+
+    @Override
+    public void item(int itemId, int copies) throws SQLException {
+        boolean book = Dataset.isBook(itemId);
+        PreparedStatement pstmt = items.row();
+        pstmt.setString(1, SyntheticCatalog.title(itemId));
+        pstmt.setString(2, SyntheticCatalog.author(itemId));
+        pstmt.setString(3, book ? "BOOK" : "CD");
+        pstmt.setString(4, SyntheticCatalog.isbn(itemId));
+        pstmt.setDate(5, Date.valueOf(LocalDate.of(1950 + itemId % 75, 1 + itemId % 12, 1)));
+        pstmt.setString(6, SyntheticCatalog.publisher(itemId));
+        pstmt.setInt(7, copies);
+        pstmt.setInt(8, copies);
+        pstmt.setBigDecimal(9, book ? BOOK_LATE_FEE : CD_LATE_FEE);
+        items.add();
+    }
+
+    @Override
+    public void loan(int loanId, int userId, int itemId, LocalDate loanDate, LocalDate dueDate, LocalDate returnDate)
+            throws SQLException {
+        PreparedStatement pstmt = loans.row();
+        pstmt.setInt(1, userId);
+        pstmt.setInt(2, itemId);
+        pstmt.setDate(3, Date.valueOf(loanDate));
+        pstmt.setDate(4, Date.valueOf(dueDate));
+        pstmt.setDate(5, returnDate == null ? null : Date.valueOf(returnDate));
+        pstmt.setString(6, returnDate == null ? "ACTIVE" : "RETURNED");
+        loans.add();
+    }
+
+    @Override
+    public void fine(int fineId, int loanId, int userId, int itemId, int daysLate, boolean paid, LocalDate issuedDate)
+            throws SQLException {
+        BigDecimal perDay = Dataset.isBook(itemId) ? BOOK_LATE_FEE : CD_LATE_FEE;
+        PreparedStatement pstmt = fines.row();
+        pstmt.setInt(1, loanId);
+        pstmt.setBigDecimal(2, perDay.multiply(BigDecimal.valueOf(daysLate)));
+        pstmt.setDate(3, Date.valueOf(issuedDate));
+        pstmt.setString(4, paid ? "PAID" : "UNPAID");
+        pstmt.setDate(5, paid ? Date.valueOf(issuedDate.plusDays(3)) : null);
+        fines.add();
+    }
+
+    @Override
+    public boolean supportsReservations() {
+        return true;
+    }
+
+    @Override
+    public void reservation(int userId, int itemId, LocalDateTime reservedAt, LocalDateTime expiresAt)
+            throws SQLException {
+        PreparedStatement pstmt = reservations.row();
+        pstmt.setInt(1, userId);
+        pstmt.setInt(2, itemId);
+        pstmt.setTimestamp(3, Timestamp.valueOf(reservedAt));
+        pstmt.setTimestamp(4, Timestamp.valueOf(expiresAt));
+        reservations.add();
+    }
+
+    @Override
+    public void availableCopies(int itemId, int availableCopies) throws SQLException {
+        PreparedStatement pstmt = availability.row();
+        pstmt.setInt(1, availableCopies);
+        pstmt.setInt(2, itemId);
+        availability.add();
+    }
+
+    @Override
+    public void flush() throws SQLException {
+        users.flush();
+        items.flush();
+        loans.flush();
+        fines.flush();
+        reservations.flush();
+        availability.flush();
+        conn.commit();
+    }
+
+    @Override
+    public void close() throws SQLException {
+        try {
+            flush();
+        } finally {
+            users.close();
+            items.close();
+            loans.close();
+            fines.close();
+            reservations.close();
+            availability.close();
+            conn.close();
+        }
+    }
+}
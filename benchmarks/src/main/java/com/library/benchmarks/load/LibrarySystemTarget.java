@@ -0,0 +1,122 @@
+package com.library.benchmarks.load;
+
+import com.example.library.ConnectionPool;
+import com.example.library.domain.Loan;
+import com.example.library.repository.FacetIndexedMediaItemRepository;
+import com.example.library.repository.FineRepository;
+import com.example.library.repository.JdbcFineRepository;
+import com.example.library.repository.JdbcLoanRepository;
+import com.example.library.repository.JdbcMediaItemRepository;
+import com.example.library.repository.JdbcReservationRepository;
+import com.example.library.repository.JdbcTransactionManager;
+import com.example.library.repository.JdbcUserRepository;
+import com.example.library.repository.MediaItemRepository;
+import com.example.library.repository.UserRepository;
+import com.example.library.service.BusinessException;
+import com.example.library.service.EligibilityCache;
+import com.example.library.service.LibraryService;
+import com.example.library.service.LibraryServiceImpl;
+import com.example.library.service.PaymentService;
+import com.example.library.service.PaymentServiceImpl;
+import com.example.library.service.ReservationService;
+import com.example.library.service.ReservationServiceImpl;
+import com.example.library.service.fine.FineCalculator;
+import com.library.benchmarks.SyntheticCatalog;
+
+import javax.sql.DataSource;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * software-project-main on H2, wired the way {@code LibraryApplication}
+ * wires it, with a connection pool big enough for every driver thread.
+ */
+final class LibrarySystemTarget implements CirculationTarget {
+
+    private final Dataset dataset;
+    private final ConnectionPool pool;
+    private final LibraryService libraryService;
+    private final PaymentService paymentService;
+    private final ReservationService reservationService;
+
+    LibrarySystemTarget(LoadConfig config, Dataset dataset) {
+        this.dataset = dataset;
+        String url = config.url;
+        this.pool = new ConnectionPool(() -> DriverManager.getConnection(url, "sa", ""),
+                2, config.threads + 2, 5_000, 300_000, 0);
+        JdbcTransactionManager transactionManager = new JdbcTransactionManager(pool);
+        DataSource dataSource = transactionManager.getDataSource();
+        UserRepository userRepository = new JdbcUserRepository(dataSource);
+        MediaItemRepository mediaItemRepository = new FacetIndexedMediaItemRepository(new JdbcMediaItemRepository(dataSource));
+        FineRepository fineRepository = new JdbcFineRepository(dataSource);
+        EligibilityCache eligibilityCache = new EligibilityCache(Duration.ofSeconds(30));
+        this.libraryService = new LibraryServiceImpl(userRepository, mediaItemRepository,
+                new JdbcLoanRepository(dataSource), fineRepository, new FineCalculator(),
+                transactionManager, eligibilityCache);
+        this.paymentService = new PaymentServiceImpl(fineRepository, eligibilityCache);
+        this.reservationService = new ReservationServiceImpl(new JdbcReservationRepository(dataSource),
+                userRepository, mediaItemRepository, transactionManager);
+    }
+
+    @Override
+    public Outcome run(Operation operation, SplittableRandom random) {
+        LocalDate today = LocalDate.now();
+        try {
+            switch (operation) {
+                case BORROW: {
+                    Loan loan = libraryService.borrowItem(dataset.userActivity.next(random),
+                            dataset.itemPopularity.next(random), today);
+                    dataset.openLoans.add(loan.getLoanId());
+                    return Outcome.COMPLETED;
+                }
+                case RETURN: {
+                    Integer loanId = dataset.openLoans.poll();
+                    if (loanId == null) {
+                        return Outcome.SKIPPED;
+                    }
+                    libraryService.returnItem(loanId, today);
+                    return Outcome.COMPLETED;
+                }
+                case SEARCH:
+                    libraryService.searchItems(searchTerm(random));
+                    return Outcome.COMPLETED;
+                case PAY: {
+                    Integer fineId = dataset.unpaidFines.poll();
+                    if (fineId == null) {
+                        return Outcome.SKIPPED;
+                    }
+                    paymentService.payFine(fineId);
+                    return Outcome.COMPLETED;
+                }
+                case RESERVE:
+                    reservationService.createReservation(dataset.userActivity.next(random),
+                            dataset.itemPopularity.next(random));
+                    return Outcome.COMPLETED;
+                default:
+                    throw new IllegalArgumentException("Unknown operation: " + operation);
+            }
+        } catch (BusinessException e) {
+            return Outcome.REJECTED;
+        }
+    }
+
+    @Override
+    public void close() {
+        pool.close();
+    }
+
+    /**
+     * Gets a title word; one search in ten drops a letter, so it misses the
+     * SQL search and goes to the fuzzy index.
+     */
+    static String searchTerm(SplittableRandom random) {
+        String word = SyntheticCatalog.titleWord(random);
+        if (random.nextInt(10) != 0) {
+            return word;
+        }
+        int dropped = random.nextInt(word.length());
+        return word.substring(0, dropped) + word.substring(dropped + 1);
+    }
+}
@@ -0,0 +1,140 @@
+package com.library.benchmarks.load;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Settings of one load run, parsed from {@code --name=value} arguments.
+ * Every setting has a default, so {@code LoadDriver} runs with no arguments.
+ */
+final class LoadConfig {
+
+    /** Where the dataset goes and which application the operations run through. */
+    enum Target {
+        /** software-project-main on H2, through its JDBC repositories and services. */
+        H2,
+        /** The root application on SQLite, through its services. */
+        SQLITE
+    }
+
+    private static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("target", "h2");
+        DEFAULTS.put("url", "");
+        DEFAULTS.put("users", "100000");
+        DEFAULTS.put("items", "200000");
+        DEFAULTS.put("loans", "1000000");
+        DEFAULTS.put("fines", "50000");
+        DEFAULTS.put("reservations", "20000");
+        DEFAULTS.put("skew", "1.0");
+        DEFAULTS.put("threads", "8");
+        DEFAULTS.put("warmup", "10");
+        DEFAULTS.put("duration", "60");
+        DEFAULTS.put("mix", "borrow=30,return=25,search=30,pay=10,reserve=5");
+        DEFAULTS.put("seed", "42");
+    }
+
+    final Target target;
+    final String url;
+    final int users;
+    final int items;
+    final int loans;
+    final int fines;
+    final int reservations;
+    final double skew;
+    final int threads;
+    final int warmupSeconds;
+    final int durationSeconds;
+    final OperationMix mix;
+    final long seed;
+
+    private LoadConfig(Map<String, String> values) {
+        target = Target.valueOf(values.get("target").toUpperCase(Locale.ROOT));
+        url = values.get("url").isEmpty() ? defaultUrl(target) : values.get("url");
+        users = positive(values, "users");
+        items = positive(values, "items");
+        loans = notNegative(values, "loans");
+        fines = notNegative(values, "fines");
+        reservations = notNegative(values, "reservations");
+        skew = Double.parseDouble(values.get("skew"));
+        threads = positive(values, "threads");
+        warmupSeconds = notNegative(values, "warmup");
+        durationSeconds = positive(values, "duration");
+        mix = OperationMix.parse(values.get("mix"));
+        seed = Long.parseLong(values.get("seed"));
+        if (skew < 0) {
+            throw new IllegalArgumentException("skew must not be negative");
+        }
+        if (fines > loans) {
+            throw new IllegalArgumentException("There cannot be more fines than loans");
+        }
+    }
+
+    /**
+     * Parses the command line.
+     *
+     * @param args {@code --name=value} arguments
+     * @return the settings, with defaults for anything not given
+     * @throws IllegalArgumentException if an argument is unknown or invalid
+     */
+    static LoadConfig parse(String[] args) {
+        Map<String, String> values = new LinkedHashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int equals = arg.indexOf('=');
+            if (!arg.startsWith("--") || equals < 0) {
+                throw new IllegalArgumentException("Expected --name=value but got: " + arg);
+            }
+            String name = arg.substring(2, equals);
+            if (!DEFAULTS.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown setting: " + name + "; known settings are " + DEFAULTS.keySet());
+            }
+            values.put(name, arg.substring(equals + 1));
+        }
+        return new LoadConfig(values);
+    }
+
+    /**
+     * Describes the settings and their defaults, for the usage message.
+     *
+     * @return one {@code --name=default} per line
+     */
+    static String usage() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<String, String> entry : DEFAULTS.entrySet()) {
+            sb.append("  --").append(entry.getKey()).append('=').append(entry.getValue()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "target=" + target + " url=" + url + " users=" + users + " items=" + items + " loans=" + loans
+                + " fines=" + fines + " reservations=" + reservations + " skew=" + skew + " threads=" + threads
+                + " warmup=" + warmupSeconds + "s duration=" + durationSeconds + "s mix=" + mix + " seed=" + seed;
+    }
+
+    private static String defaultUrl(Target target) {
+        // File databases, since millions of rows do not fit comfortably in memory
+        return target == Target.H2
+                ? "jdbc:h2:file:./data/load;MODE=PostgreSQL"
+                : "jdbc:sqlite:load.db";
+    }
+
+    private static int positive(Map<String, String> values, String name) {
+        int value = Integer.parseInt(values.get(name));
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+        return value;
+    }
+
+    private static int notNegative(Map<String, String> values, String name) {
+        int value = Integer.parseInt(values.get(name));
+        if (value < 0) {
+            throw new IllegalArgumentException(name + " must not be negative");
+        }
+        return value;
+    }
+}
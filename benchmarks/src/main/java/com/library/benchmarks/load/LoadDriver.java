@@ -0,0 +1,172 @@
+package com.library.benchmarks.load;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Generates a production-sized dataset and then drives a mix of circulation
+ * operations through the service layer from several threads, reporting the
+ * throughput and latency percentiles of each operation.
+ *
+ * Every thread picks operations by the configured weights, back to back,
+ * for the warmup and then the measured duration; only the measured part is
+ * reported. Run it with
+ * {@code java -cp target/benchmarks.jar com.library.benchmarks.load.LoadDriver --target=h2 --threads=16};
+ * {@link LoadConfig#usage()} lists every setting.
+ */
+public final class LoadDriver {
+
+    private LoadDriver() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadConfig config;
+        try {
+            config = LoadConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Settings and their defaults:");
+            System.err.print(LoadConfig.usage());
+            System.exit(2);
+            return;
+        }
+        System.out.println("Load run: " + config);
+
+        Dataset dataset = generate(config);
+        System.out.printf("Open loans: %,d, unpaid fines: %,d%n", dataset.openLoans.size(), dataset.unpaidFines.size());
+
+        try (CirculationTarget target = config.target == LoadConfig.Target.H2
+                ? new LibrarySystemTarget(config, dataset)
+                : new RootLibraryTarget(dataset)) {
+            Map<Operation, OperationStats> stats = run(config, target);
+            print(stats, config.durationSeconds);
+        }
+    }
+
+    private static Dataset generate(LoadConfig config) throws SQLException {
+        DatasetGenerator generator = new DatasetGenerator(config);
+        try (DatasetWriter writer = config.target == LoadConfig.Target.H2
+                ? new LibrarySystemDatasetWriter(config.url)
+                : new RootDatasetWriter(config.url)) {
+            return generator.generate(writer);
+        }
+    }
+
+    static Map<Operation, OperationStats> run(LoadConfig config, CirculationTarget target) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(config.threads);
+        CountDownLatch go = new CountDownLatch(1);
+        List<Worker> workers = new ArrayList<>();
+        SplittableRandom seeds = new SplittableRandom(config.seed);
+        for (int i = 0; i < config.threads; i++) {
+            Worker worker = new Worker(i, config, target, seeds.split(), ready, go);
+            workers.add(worker);
+            worker.thread.start();
+        }
+        ready.await();
+        System.out.printf("Running %d threads: %d s warmup, %d s measured%n",
+                config.threads, config.warmupSeconds, config.durationSeconds);
+        long start = System.nanoTime();
+        for (Worker worker : workers) {
+            worker.setSchedule(start + config.warmupSeconds * 1_000_000_000L,
+                    start + (config.warmupSeconds + config.durationSeconds) * 1_000_000_000L);
+        }
+        go.countDown();
+
+        Map<Operation, OperationStats> merged = new EnumMap<>(Operation.class);
+        for (Worker worker : workers) {
+            worker.thread.join();
+            for (Map.Entry<Operation, OperationStats> entry : worker.stats.entrySet()) {
+                merged.computeIfAbsent(entry.getKey(), operation -> new OperationStats()).add(entry.getValue());
+            }
+        }
+        return merged;
+    }
+
+    private static void print(Map<Operation, OperationStats> stats, int durationSeconds) {
+        System.out.println();
+        System.out.printf("%-8s %10s %9s %9s %9s %7s %9s %9s %9s %9s %9s %9s%n", "op", "ops", "ops/s",
+                "rejected", "skipped", "failed", "mean ms", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        long total = 0;
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            OperationStats s = entry.getValue();
+            LatencyHistogram h = s.latencies;
+            long timed = h.getCount();
+            total += timed;
+            System.out.printf("%-8s %,10d %,9.1f %,9d %,9d %,7d %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                    entry.getKey().name().toLowerCase(), timed, (double) timed / durationSeconds,
+                    s.rejected, s.skipped, s.failed, h.getMean() / 1e6, h.percentile(50) / 1e6,
+                    h.percentile(90) / 1e6, h.percentile(99) / 1e6, h.percentile(99.9) / 1e6, h.getMax() / 1e6);
+        }
+        System.out.printf("%-8s %,10d %,9.1f%n", "total", total, (double) total / durationSeconds);
+        for (Map.Entry<Operation, OperationStats> entry : stats.entrySet()) {
+            if (entry.getValue().firstFailure != null) {
+                System.out.println("First " + entry.getKey().name().toLowerCase() + " failure: "
+                        + entry.getValue().firstFailure);
+            }
+        }
+    }
+
+    /** One driver thread with its own random source and statistics. */
+    private static final class Worker implements Runnable {
+        private final LoadConfig config;
+        private final CirculationTarget target;
+        private final SplittableRandom random;
+        private final CountDownLatch ready;
+        private final CountDownLatch go;
+        private final Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        private final Thread thread;
+        private volatile long measureFrom;
+        private volatile long stopAt;
+
+        Worker(int index, LoadConfig config, CirculationTarget target, SplittableRandom random,
+               CountDownLatch ready, CountDownLatch go) {
+            this.config = config;
+            this.target = target;
+            this.random = random;
+            this.ready = ready;
+            this.go = go;
+            for (Operation operation : Operation.values()) {
+                stats.put(operation, new OperationStats());
+            }
+            this.thread = new Thread(this, "load-driver-" + index);
+        }
+
+        void setSchedule(long measureFrom, long stopAt) {
+            this.measureFrom = measureFrom;
+            this.stopAt = stopAt;
+        }
+
+        @Override
+        public void run() {
+            ready.countDown();
+            try {
+                go.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            // Warmup results go to a throwaway map so the JIT and caches settle first
+            Map<Operation, OperationStats> warmup = new EnumMap<>(Operation.class);
+            long now = System.nanoTime();
+            while (now < stopAt) {
+                Operation operation = config.mix.next(random);
+                Map<Operation, OperationStats> into = now < measureFrom ? warmup : stats;
+                OperationStats operationStats = into.computeIfAbsent(operation, op -> new OperationStats());
+                long start = System.nanoTime();
+                try {
+                    CirculationTarget.Outcome outcome = target.run(operation, random);
+                    now = System.nanoTime();
+                    operationStats.record(outcome, now - start);
+                } catch (Exception e) {
+                    now = System.nanoTime();
+                    operationStats.recordFailure(e, now - start);
+                }
+            }
+        }
+    }
+}
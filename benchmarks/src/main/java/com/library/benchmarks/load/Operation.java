@@ -0,0 +1,17 @@
+package com.library.benchmarks.load;
+
+/**
+ * The circulation operations the load driver mixes.
+ */
+enum Operation {
+    /** Borrow a popular item for a random member. */
+    BORROW,
+    /** Return one of the open loans. */
+    RETURN,
+    /** Search the catalog for a title word, occasionally misspelled. */
+    SEARCH,
+    /** Pay one of the unpaid fines. */
+    PAY,
+    /** Reserve a popular item, which is refused while copies are available. */
+    RESERVE
+}
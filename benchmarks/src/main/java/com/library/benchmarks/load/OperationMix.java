@@ -0,0 +1,88 @@
+package com.library.benchmarks.load;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Relative weights of the operations, written as
+ * {@code borrow=30,return=25,search=30,pay=10,reserve=5}. Operations left out
+ * get weight 0 and are never run.
+ */
+final class OperationMix {
+
+    private final Map<Operation, Integer> weights;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final int totalWeight;
+
+    private OperationMix(Map<Operation, Integer> weights) {
+        this.weights = weights;
+        this.operations = weights.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += weights.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("The operation mix needs at least one positive weight");
+        }
+        this.totalWeight = total;
+    }
+
+    /**
+     * Parses a mix such as {@code borrow=30,search=70}.
+     *
+     * @param spec comma-separated {@code operation=weight} pairs
+     * @return the mix
+     * @throws IllegalArgumentException if an operation or weight is invalid
+     */
+    static OperationMix parse(String spec) {
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split("=");
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("Expected operation=weight but got: " + part);
+            }
+            Operation operation = Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT));
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weight of " + operation + " must not be negative");
+            }
+            if (weight > 0) {
+                weights.put(operation, weight);
+            }
+        }
+        return new OperationMix(weights);
+    }
+
+    /**
+     * Draws the next operation according to the weights.
+     *
+     * @param random the caller's random source
+     * @return the operation to run
+     */
+    Operation next(SplittableRandom random) {
+        int draw = random.nextInt(totalWeight);
+        for (int i = 0; i < operations.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            if (sb.length() > 0) {
+                sb.append(',');
+            }
+            sb.append(entry.getKey().name().toLowerCase(Locale.ROOT)).append('=').append(entry.getValue());
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,51 @@
+package com.library.benchmarks.load;
+
+/**
+ * What one thread measured for one operation. Not thread-safe; threads
+ * keep their own and the driver merges them.
+ */
+final class OperationStats {
+
+    final LatencyHistogram latencies = new LatencyHistogram();
+    long completed;
+    long rejected;
+    long skipped;
+    long failed;
+    String firstFailure;
+
+    void record(CirculationTarget.Outcome outcome, long nanos) {
+        switch (outcome) {
+            case COMPLETED:
+                completed++;
+                latencies.record(nanos);
+                break;
+            case REJECTED:
+                // A refusal still ran the service's checks, so its time counts
+                rejected++;
+                latencies.record(nanos);
+                break;
+            default:
+                skipped++;
+                break;
+        }
+    }
+
+    void recordFailure(Exception e, long nanos) {
+        failed++;
+        latencies.record(nanos);
+        if (firstFailure == null) {
+            firstFailure = e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+
+    void add(OperationStats other) {
+        latencies.add(other.latencies);
+        completed += other.completed;
+        rejected += other.rejected;
+        skipped += other.skipped;
+        failed += other.failed;
+        if (firstFailure == null) {
+            firstFailure = other.firstFailure;
+        }
+    }
+}
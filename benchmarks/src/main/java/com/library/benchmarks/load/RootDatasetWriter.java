@@ -0,0 +1,170 @@
+package com.library.benchmarks.load;
+
+import com.library.benchmarks.SyntheticCatalog;
+import com.library.repository.Database;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Writes a dataset into the root application's SQLite schema through its
+ * {@code Database} singleton, which is pointed at the URL first and reset.
+ * Books and CDs go to their own tables, and paid fines get a payment row
+ * as {@code FineService} would write. Late fees use the default daily rates
+ * of 0.50 per book and 1.00 per CD. The root application has no
+ * reservations.
+ */
+final class RootDatasetWriter implements DatasetWriter {
+
+    private static final double BOOK_RATE = 0.50;
+    private static final double CD_RATE = 1.00;
+
+    private final Connection conn;
+    private final Batch users;
+    private final Batch books;
+    private final Batch cds;
+    private final Batch records;
+    private final Batch fines;
+    private final Batch payments;
+    private final Batch bookAvailability;
+    private final Batch cdAvailability;
+    private final String registered = LocalDateTime.now().minusYears(2).toString();
+
+    RootDatasetWriter(String url) throws SQLException {
+        System.setProperty("library.db.url", url);
+        Database database = Database.getInstance();
+        database.resetDatabase();
+        conn = database.getConnection();
+        conn.setAutoCommit(false);
+        users = new Batch(conn, "INSERT INTO users (name, email, phone, member_id, registration_date, is_active) " +
+                "VALUES (?, ?, ?, ?, ?, 1)");
+        books = new Batch(conn, "INSERT INTO books (title, author, isbn, quantity_total, quantity_available, " +
+                "daily_fine_rate) VALUES (?, ?, ?, ?, ?, " + BOOK_RATE + ")");
+        cds = new Batch(conn, "INSERT INTO cds (title, artist, catalog_number, quantity_total, quantity_available, " +
+                "daily_fine_rate) VALUES (?, ?, ?, ?, ?, " + CD_RATE + ")");
+        records = new Batch(conn, "INSERT INTO borrowing_records (user_id, item_id, item_type, borrow_date, " +
+                "due_date, return_date, is_returned) VALUES (?, ?, ?, ?, ?, ?, ?)");
+        fines = new Batch(conn, "INSERT INTO fines (user_id, record_id, fine_amount, days_overdue, is_paid, " +
+                "calculation_date) VALUES (?, ?, ?, ?, ?, ?)", records);
+        payments = new Batch(conn, "INSERT INTO payments (fine_id, amount, payment_date, payment_method) " +
+                "VALUES (?, ?, ?, 'CARD')", fines);
+        bookAvailability = new Batch(conn, "UPDATE books SET quantity_available = ? WHERE book_id = ?", books);
+        cdAvailability = new Batch(conn, "UPDATE cds SET quantity_available = ? WHERE cd_id = ?", cds);
+    }
+
+    @Override
+    public void user(int userId) throws SQLException {
+        PreparedStatement ps = users.row();
+        ps.setString(1, "Member " + userId);
+        ps.setString(2, SyntheticCatalog.email(userId));
+        ps.setString(3, String.format("05%08d", userId));
+        ps.setString(4, SyntheticCatalog.username(userId));
+        ps.setString(5, registered);
+        users.add();
+    }
+
+    @Override
+    public void item(int itemId, int copies) throws SQLException {
+        Batch batch = Dataset.isBook(itemId) ? books : cds;
+        PreparedStatement ps = batch.row();
+        ps.setString(1, SyntheticCatalog.title(itemId));
+        ps.setString(2, SyntheticCatalog.author(itemId));
+        ps.setString(3, SyntheticCatalog.isbn(itemId));
+        ps.setInt(4, copies);
+        ps.setInt(5, copies);
+        batch.add();
+    }
+
+    @Override
+    public void loan(int loanId, int userId, int itemId, LocalDate loanDate, LocalDate dueDate, LocalDate returnDate)
+            throws SQLException {
+        boolean book = Dataset.isBook(itemId);
+        PreparedStatement ps = records.row();
+        ps.setInt(1, userId);
+        ps.setInt(2, book ? Dataset.bookNumber(itemId) : Dataset.cdNumber(itemId));
+        ps.setString(3, book ? "BOOK" : "CD");
+        ps.setString(4, loanDate.toString());
+        ps.setString(5, dueDate.toString());
+        ps.setString(6, returnDate == null ? null : returnDate.toString());
+        ps.setInt(7, returnDate == null ? 0 : 1);
+        records.add();
+    }
+
+    @Override
+    public void fine(int fineId, int loanId, int userId, int itemId, int daysLate, boolean paid, LocalDate issuedDate)
+            throws SQLException {
+        double amount = (Dataset.isBook(itemId) ? BOOK_RATE : CD_RATE) * daysLate;
+        PreparedStatement ps = fines.row();
+        ps.setInt(1, userId);
+        ps.setInt(2, loanId);
+        ps.setDouble(3, amount);
+        ps.setInt(4, daysLate);
+        ps.setInt(5, paid ? 1 : 0);
+        ps.setString(6, issuedDate.atStartOfDay().toString());
+        fines.add();
+        if (paid) {
+            PreparedStatement payment = payments.row();
+            payment.setInt(1, fineId);
+            payment.setDouble(2, amount);
+            payment.setString(3, issuedDate.plusDays(3).atTime(12, 0).toString());
+            payments.add();
+        }
+    }
+
+    @Override
+    public boolean supportsReservations() {
+        return false;
+    }
+
+    @Override
+    public void reservation(int userId, int itemId, LocalDateTime reservedAt, LocalDateTime expiresAt) {
+        throw new UnsupportedOperationException("The root application has no reservations");
+    }
+
+    @Override
+    public void availableCopies(int itemId, int availableCopies) throws SQLException {
+        boolean book = Dataset.isBook(itemId);
+        Batch batch = book ? bookAvailability : cdAvailability;
+        PreparedStatement ps = batch.row();
+        ps.setInt(1, availableCopies);
+        ps.setInt(2, book ? Dataset.bookNumber(itemId) : Dataset.cdNumber(itemId));
+        batch.add();
+    }
+
+    @Override
+    public void flush() throws SQLException {
+        users.flush();
+        books.flush();
+        cds.flush();
+        records.flush();
+        fines.flush();
+        payments.flush();
+        bookAvailability.flush();
+        cdAvailability.flush();
+        conn.commit();
+    }
+
+    /**
+     * Writes what is pending and closes the statements. The connection stays
+     * open, since the root services share it through {@code Database}.
+     */
+    @Override
+    public void close() throws SQLException {
+        try {
+            flush();
+        } finally {
+            users.close();
+            books.close();
+            cds.close();
+            records.close();
+            fines.close();
+            payments.close();
+            bookAvailability.close();
+            cdAvailability.close();
+            conn.setAutoCommit(true);
+        }
+    }
+}
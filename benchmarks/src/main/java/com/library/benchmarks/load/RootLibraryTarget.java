@@ -0,0 +1,96 @@
+package com.library.benchmarks.load;
+
+import com.library.exception.BorrowingRestrictionException;
+import com.library.exception.InsufficientStockException;
+import com.library.model.Fine;
+import com.library.repository.Database;
+import com.library.service.BookService;
+import com.library.service.BorrowingService;
+import com.library.service.FineService;
+import com.library.service.ReturnService;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * The root application on SQLite, through the services the Swing UI uses.
+ *
+ * Its repositories share the single connection of {@code Database}, so
+ * operations are serialized here: with several driver threads the latencies
+ * include the wait for that connection, which is what concurrent users of
+ * the root application would see. It has no reservations, so
+ * {@link Operation#RESERVE} is always skipped.
+ */
+final class RootLibraryTarget implements CirculationTarget {
+
+    private final Dataset dataset;
+    private final BorrowingService borrowingService = new BorrowingService();
+    private final ReturnService returnService = new ReturnService();
+    private final FineService fineService = new FineService();
+    private final BookService bookService = new BookService();
+
+    RootLibraryTarget(Dataset dataset) {
+        this.dataset = dataset;
+    }
+
+    @Override
+    public synchronized Outcome run(Operation operation, SplittableRandom random) throws SQLException {
+        try {
+            switch (operation) {
+                case BORROW: {
+                    int userId = dataset.userActivity.next(random);
+                    int itemId = dataset.itemPopularity.next(random);
+                    if (Dataset.isBook(itemId)) {
+                        borrowingService.borrowBook(userId, Dataset.bookNumber(itemId));
+                    } else {
+                        borrowingService.borrowCD(userId, Dataset.cdNumber(itemId));
+                    }
+                    dataset.openLoans.add(lastInsertedRowId());
+                    return Outcome.COMPLETED;
+                }
+                case RETURN: {
+                    Integer recordId = dataset.openLoans.poll();
+                    if (recordId == null) {
+                        return Outcome.SKIPPED;
+                    }
+                    returnService.returnItem(recordId, LocalDate.now());
+                    return Outcome.COMPLETED;
+                }
+                case SEARCH:
+                    bookService.searchByTitle(LibrarySystemTarget.searchTerm(random));
+                    return Outcome.COMPLETED;
+                case PAY: {
+                    Integer fineId = dataset.unpaidFines.poll();
+                    if (fineId == null) {
+                        return Outcome.SKIPPED;
+                    }
+                    Fine fine = fineService.getFine(fineId);
+                    fineService.payFine(fineId, fine.getFineAmount(), "CARD");
+                    return Outcome.COMPLETED;
+                }
+                case RESERVE:
+                    return Outcome.SKIPPED;
+                default:
+                    throw new IllegalArgumentException("Unknown operation: " + operation);
+            }
+        } catch (BorrowingRestrictionException | InsufficientStockException e) {
+            return Outcome.REJECTED;
+        }
+    }
+
+    @Override
+    public void close() {
+        Database.getInstance().close();
+    }
+
+    private static int lastInsertedRowId() throws SQLException {
+        try (Statement statement = Database.getInstance().getConnection().createStatement();
+             ResultSet rs = statement.executeQuery("SELECT last_insert_rowid()")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+}
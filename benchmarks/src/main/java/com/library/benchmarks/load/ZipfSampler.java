@@ -0,0 +1,49 @@
+package com.library.benchmarks.load;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Draws ranks from a Zipf distribution, so a few items are borrowed far more
+ * often than the rest, as in a real catalog. Rank 1 is the most popular.
+ *
+ * The cumulative distribution is computed once, in {@code O(n)}, and every
+ * draw is a binary search over it. An exponent of 0 gives uniform draws;
+ * around 1 matches typical library circulation.
+ */
+final class ZipfSampler {
+
+    private final double[] cumulative;
+
+    ZipfSampler(int size, double exponent) {
+        if (size <= 0 || exponent < 0) {
+            throw new IllegalArgumentException("size must be positive and exponent not negative");
+        }
+        cumulative = new double[size];
+        double total = 0;
+        for (int rank = 1; rank <= size; rank++) {
+            total += 1 / Math.pow(rank, exponent);
+            cumulative[rank - 1] = total;
+        }
+        for (int i = 0; i < size; i++) {
+            cumulative[i] /= total;
+        }
+    }
+
+    /**
+     * Draws a rank.
+     *
+     * @param random the caller's random source
+     * @return a rank between 1 and the sampler's size
+     */
+    int next(SplittableRandom random) {
+        int index = Arrays.binarySearch(cumulative, random.nextDouble());
+        // A miss returns -(insertion point) - 1; the insertion point is the rank's index
+        int rankIndex = index >= 0 ? index : -index - 1;
+        return Math.min(rankIndex, cumulative.length - 1) + 1;
+    }
+
+    int size() {
+        return cumulative.length;
+    }
+}
@@ -0,0 +1,134 @@
+package com.library.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Wraps repositories and services in proxies that count and time every call.
+ *
+ * All instances of one interface share its metrics, which are registered
+ * once with the platform MBean server as
+ * {@code <domain>:type=Repository,name=<interface>} (or
+ * {@code type=Service}), so JConsole or any JMX client shows the call
+ * counts, error counts and latency percentiles of each method. The domain
+ * is the application package the interface's package belongs to, e.g.
+ * {@code com.library} for {@code com.library.repository.BookRepository}.
+ */
+public final class Instrumentation {
+
+    private static final ConcurrentMap<Class<?>, InterfaceMetrics> METRICS = new ConcurrentHashMap<>();
+
+    private Instrumentation() {
+    }
+
+    /**
+     * Wraps an object so that calls through the given interface are measured.
+     *
+     * @param type the interface to measure
+     * @param target the object that does the work
+     * @param <T> the interface type
+     * @return a proxy implementing {@code type} that delegates to {@code target}
+     * @throws IllegalArgumentException if {@code type} is not an interface
+     */
+    public static <T> T instrument(Class<T> type, T target) {
+        if (!type.isInterface()) {
+            throw new IllegalArgumentException(type.getName() + " is not an interface");
+        }
+        InterfaceMetrics metrics = METRICS.computeIfAbsent(type, Instrumentation::register);
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                new MeasuringHandler(target, metrics)));
+    }
+
+    /**
+     * Gets the metrics recorded so far for an interface.
+     *
+     * @param type an interface passed to {@link #instrument}
+     * @return its method metrics by name, or an empty map if it was never instrumented
+     */
+    public static Map<String, MethodMetrics> metricsOf(Class<?> type) {
+        InterfaceMetrics metrics = METRICS.get(type);
+        return metrics == null ? Collections.emptyMap() : metrics.byName();
+    }
+
+    static ObjectName objectNameOf(Class<?> type) throws JMException {
+        String kind = type.getSimpleName().endsWith("Repository") ? "Repository" : "Service";
+        return new ObjectName(domainOf(type) + ":type=" + kind + ",name=" + type.getSimpleName());
+    }
+
+    private static String domainOf(Class<?> type) {
+        String packageName = type.getPackage().getName();
+        int lastDot = packageName.lastIndexOf('.');
+        return lastDot < 0 ? packageName : packageName.substring(0, lastDot);
+    }
+
+    private static InterfaceMetrics register(Class<?> type) {
+        InterfaceMetrics metrics = new InterfaceMetrics(type);
+        try {
+            ObjectName name = objectNameOf(type);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            // Another class loader, e.g. a redeployed copy of the application, may hold the name
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(metrics, name);
+        } catch (JMException e) {
+            // Measuring still works without JMX; only the remote view is lost
+            System.err.println("Could not register metrics for " + type.getSimpleName() + ": " + e.getMessage());
+        }
+        return metrics;
+    }
+
+    /**
+     * Times each interface call and passes it on; methods of {@code Object}
+     * are answered for the proxy itself and not measured.
+     */
+    private static final class MeasuringHandler implements InvocationHandler {
+        private final Object target;
+        private final InterfaceMetrics metrics;
+
+        MeasuringHandler(Object target, InterfaceMetrics metrics) {
+            this.target = target;
+            this.metrics = metrics;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            MethodMetrics methodMetrics = metrics.of(method);
+            if (methodMetrics == null) {
+                switch (method.getName()) {
+                    case "equals":
+                        return proxy == args[0];
+                    case "hashCode":
+                        return System.identityHashCode(proxy);
+                    case "toString":
+                        return "Instrumented[" + target + "]";
+                    default:
+                        break;
+                }
+            }
+            long start = System.nanoTime();
+            boolean failed = true;
+            try {
+                Object result = method.invoke(target, args);
+                failed = false;
+                return result;
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            } finally {
+                if (methodMetrics != null) {
+                    methodMetrics.record(System.nanoTime() - start, failed);
+                }
+            }
+        }
+    }
+}
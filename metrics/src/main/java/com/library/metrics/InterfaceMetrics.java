@@ -0,0 +1,154 @@
+package com.library.metrics;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.ReflectionException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * The {@link MethodMetrics} of every method of one instrumented interface,
+ * shared by all its instrumented instances and published as one MBean.
+ *
+ * Each method shows up as read-only attributes named after it, e.g.
+ * {@code findById.Calls} or {@code findById.P99Millis}; overloaded methods
+ * carry their parameter types, e.g. {@code search(String,int)}. The
+ * {@code reset} operation clears them all.
+ */
+final class InterfaceMetrics implements DynamicMBean {
+
+    private static final String[] STATISTICS = {
+            "Calls", "Errors", "MeanMillis", "P50Millis", "P90Millis", "P99Millis", "MaxMillis"
+    };
+
+    private final Class<?> type;
+    private final Map<Method, MethodMetrics> byMethod = new HashMap<>();
+    private final Map<String, MethodMetrics> byName = new TreeMap<>();
+    private final MBeanInfo info;
+
+    InterfaceMetrics(Class<?> type) {
+        this.type = type;
+        Map<String, Long> overloads = Arrays.stream(type.getMethods())
+                .collect(Collectors.groupingBy(Method::getName, Collectors.counting()));
+        for (Method method : type.getMethods()) {
+            MethodMetrics metrics = new MethodMetrics();
+            byMethod.put(method, metrics);
+            byName.put(overloads.get(method.getName()) > 1 ? signatureOf(method) : method.getName(), metrics);
+        }
+        this.info = buildInfo();
+    }
+
+    /**
+     * @param method a method of the interface
+     * @return its metrics, or null for methods of {@code Object}
+     */
+    MethodMetrics of(Method method) {
+        return byMethod.get(method);
+    }
+
+    /** @return the metrics of every method, by attribute name prefix */
+    Map<String, MethodMetrics> byName() {
+        return Collections.unmodifiableMap(byName);
+    }
+
+    void reset() {
+        byName.values().forEach(MethodMetrics::reset);
+    }
+
+    @Override
+    public Object getAttribute(String attribute) throws AttributeNotFoundException {
+        int dot = attribute.lastIndexOf('.');
+        MethodMetrics metrics = dot < 0 ? null : byName.get(attribute.substring(0, dot));
+        if (metrics == null) {
+            throw new AttributeNotFoundException(attribute);
+        }
+        switch (attribute.substring(dot + 1)) {
+            case "Calls":
+                return metrics.getCalls();
+            case "Errors":
+                return metrics.getErrors();
+            case "MeanMillis":
+                return metrics.getMeanMillis();
+            case "P50Millis":
+                return metrics.getPercentileMillis(50);
+            case "P90Millis":
+                return metrics.getPercentileMillis(90);
+            case "P99Millis":
+                return metrics.getPercentileMillis(99);
+            case "MaxMillis":
+                return metrics.getMaxMillis();
+            default:
+                throw new AttributeNotFoundException(attribute);
+        }
+    }
+
+    @Override
+    public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+        throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+    }
+
+    @Override
+    public AttributeList getAttributes(String[] attributes) {
+        AttributeList list = new AttributeList();
+        for (String attribute : attributes) {
+            try {
+                list.add(new Attribute(attribute, getAttribute(attribute)));
+            } catch (AttributeNotFoundException e) {
+                // Unknown names are left out, as the DynamicMBean contract allows
+            }
+        }
+        return list;
+    }
+
+    @Override
+    public AttributeList setAttributes(AttributeList attributes) {
+        return new AttributeList();
+    }
+
+    @Override
+    public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+        if ("reset".equals(actionName) && (params == null || params.length == 0)) {
+            reset();
+            return null;
+        }
+        throw new ReflectionException(new NoSuchMethodException(actionName));
+    }
+
+    @Override
+    public MBeanInfo getMBeanInfo() {
+        return info;
+    }
+
+    private MBeanInfo buildInfo() {
+        List<MBeanAttributeInfo> attributes = new ArrayList<>();
+        for (String name : byName.keySet()) {
+            for (String statistic : STATISTICS) {
+                String type = statistic.equals("Calls") || statistic.equals("Errors") ? "long" : "double";
+                attributes.add(new MBeanAttributeInfo(name + "." + statistic, type,
+                        statistic + " of " + name, true, false, false));
+            }
+        }
+        MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Clears the metrics of every method",
+                null, "void", MBeanOperationInfo.ACTION);
+        return new MBeanInfo(getClass().getName(), "Call metrics of " + type.getSimpleName(),
+                attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[]{reset}, null);
+    }
+
+    private static String signatureOf(Method method) {
+        return Arrays.stream(method.getParameterTypes())
+                .map(Class::getSimpleName)
+                .collect(Collectors.joining(",", method.getName() + "(", ")"));
+    }
+}
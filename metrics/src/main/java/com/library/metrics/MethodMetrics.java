@@ -0,0 +1,142 @@
+package com.library.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call count, error count and latency histogram of one interface method,
+ * updated by every thread that calls it without taking a lock.
+ *
+ * Latencies fall into log-linear buckets: eight per power of two from one
+ * microsecond up to about eighteen minutes, so a reported percentile is the
+ * upper edge of its bucket and at most 12.5% above the true value. Calls
+ * faster than a microsecond all land in the first bucket.
+ */
+public final class MethodMetrics {
+
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MIN_EXPONENT = 10;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = 1 + (MAX_EXPONENT - MIN_EXPONENT) * SUB_BUCKETS;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+    MethodMetrics() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one call.
+     *
+     * @param nanos how long the call took
+     * @param failed whether it ended by throwing
+     */
+    void record(long nanos, boolean failed) {
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        buckets[bucketOf(nanos)].increment();
+    }
+
+    /** Clears every counter; calls in flight may still land in the old totals. */
+    void reset() {
+        calls.reset();
+        errors.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+    }
+
+    /** @return the number of calls, including those that threw */
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    /** @return the number of calls that threw */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /** @return the mean call time in milliseconds, or 0 before the first call */
+    public double getMeanMillis() {
+        long count = calls.sum();
+        return count == 0 ? 0 : toMillis(totalNanos.sum()) / count;
+    }
+
+    /** @return the longest call time in milliseconds */
+    public double getMaxMillis() {
+        return toMillis(maxNanos.get());
+    }
+
+    /**
+     * Estimates a latency percentile from the histogram.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the estimated call time in milliseconds, or 0 before the first call
+     */
+    public double getPercentileMillis(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return toMillis(Math.min(upperBoundOf(i), maxNanos.get()));
+            }
+        }
+        return getMaxMillis();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("calls=%d, errors=%d, mean=%.3fms, p50=%.3fms, p99=%.3fms, max=%.3fms",
+                getCalls(), getErrors(), getMeanMillis(), getPercentileMillis(50), getPercentileMillis(99),
+                getMaxMillis());
+    }
+
+    static int bucketOf(long nanos) {
+        if (nanos < 1L << MIN_EXPONENT) {
+            return 0;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return 1 + (exponent - MIN_EXPONENT) * SUB_BUCKETS + subBucket;
+    }
+
+    static long upperBoundOf(int bucket) {
+        if (bucket == 0) {
+            return 1L << MIN_EXPONENT;
+        }
+        int exponent = MIN_EXPONENT + (bucket - 1) / SUB_BUCKETS;
+        int subBucket = (bucket - 1) % SUB_BUCKETS;
+        return (1L << exponent) + ((subBucket + 1L) << (exponent - SUB_BUCKET_BITS));
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+}
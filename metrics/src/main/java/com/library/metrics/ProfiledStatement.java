@@ -0,0 +1,235 @@
+package com.library.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Handler of a statement created through a {@link SlowQueryLog} connection.
+ * It collects the bind parameters, times each execution and reports it to
+ * the log. A query is reported when its result set or the statement is
+ * closed, or the statement runs again, so that the time spent fetching
+ * rows and the number of rows read are included. Each execution is also
+ * counted by {@link StatementCounter}.
+ *
+ * Like the statement itself, it is meant for one thread at a time.
+ */
+final class ProfiledStatement implements InvocationHandler {
+
+    private final SlowQueryLog log;
+    private final Statement statement;
+    private final String preparedSql;
+    private final Map<Integer, Object> binds = new TreeMap<>();
+    private int batchSize;
+    private String batchSql;
+    private OpenQuery openQuery;
+
+    private ProfiledStatement(SlowQueryLog log, Statement statement, String preparedSql) {
+        this.log = log;
+        this.statement = statement;
+        this.preparedSql = preparedSql;
+    }
+
+    static Object wrap(SlowQueryLog log, Class<?> type, Object statement, String preparedSql) {
+        return Proxy.newProxyInstance(ProfiledStatement.class.getClassLoader(), new Class<?>[]{type},
+                new ProfiledStatement(log, (Statement) statement, preparedSql));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "close":
+                finishQuery();
+                return call(method, args);
+            case "clearParameters":
+                binds.clear();
+                return call(method, args);
+            case "addBatch":
+                batchSize++;
+                if (args != null && batchSql == null) {
+                    batchSql = (String) args[0];
+                }
+                return call(method, args);
+            case "clearBatch":
+                batchSize = 0;
+                batchSql = null;
+                return call(method, args);
+            case "executeQuery":
+                return executeQuery(proxy, method, args);
+            case "execute":
+            case "executeUpdate":
+            case "executeLargeUpdate":
+            case "executeBatch":
+            case "executeLargeBatch":
+                return execute(method, args);
+            default:
+                // setInt(1, 42), setString(2, "Dune"), setNull(3, Types.DATE) and so on
+                if (method.getName().startsWith("set") && args != null && args.length >= 2
+                        && args[0] instanceof Integer) {
+                    binds.put((Integer) args[0], method.getName().equals("setNull") ? null : args[1]);
+                }
+                return call(method, args);
+        }
+    }
+
+    private Object executeQuery(Object proxy, Method method, Object[] args) throws Throwable {
+        finishQuery();
+        String sql = sqlOf(args);
+        Map<Integer, Object> executedBinds = snapshotBinds();
+        StatementCounter.count(sql);
+        long start = System.nanoTime();
+        ResultSet resultSet;
+        try {
+            resultSet = (ResultSet) call(method, args);
+        } catch (Throwable t) {
+            log.record(sql, executedBinds, 0, -1, System.nanoTime() - start, true);
+            throw t;
+        }
+        openQuery = new OpenQuery(sql, executedBinds, System.nanoTime() - start, resultSet, proxy);
+        return Proxy.newProxyInstance(ProfiledStatement.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                openQuery);
+    }
+
+    private Object execute(Method method, Object[] args) throws Throwable {
+        finishQuery();
+        boolean batch = method.getName().endsWith("Batch");
+        String sql = batch && batchSql != null ? batchSql : sqlOf(args);
+        int executedBatchSize = batch ? batchSize : 0;
+        Map<Integer, Object> executedBinds = snapshotBinds();
+        StatementCounter.count(sql);
+        long start = System.nanoTime();
+        Object result;
+        try {
+            result = call(method, args);
+        } catch (Throwable t) {
+            log.record(sql, executedBinds, executedBatchSize, -1, System.nanoTime() - start, true);
+            throw t;
+        } finally {
+            if (batch) {
+                batchSize = 0;
+                batchSql = null;
+            }
+        }
+        long nanos = System.nanoTime() - start;
+        log.record(sql, executedBinds, executedBatchSize, rowsOf(result), nanos, false);
+        return result;
+    }
+
+    private long rowsOf(Object result) throws Exception {
+        if (result instanceof Number) {
+            return ((Number) result).longValue();
+        }
+        if (result instanceof Boolean) {
+            // execute() returning true left a result set whose rows are not counted
+            return (Boolean) result ? -1 : statement.getUpdateCount();
+        }
+        long rows = 0;
+        if (result instanceof int[]) {
+            for (int count : (int[]) result) {
+                rows += Math.max(count, 0);
+            }
+        } else if (result instanceof long[]) {
+            for (long count : (long[]) result) {
+                rows += Math.max(count, 0);
+            }
+        }
+        return rows;
+    }
+
+    private String sqlOf(Object[] args) {
+        if (args != null && args.length > 0 && args[0] instanceof String) {
+            return (String) args[0];
+        }
+        return preparedSql != null ? preparedSql : "";
+    }
+
+    private Map<Integer, Object> snapshotBinds() {
+        return binds.isEmpty() ? Collections.emptyMap() : new TreeMap<>(binds);
+    }
+
+    private void finishQuery() {
+        if (openQuery != null) {
+            OpenQuery query = openQuery;
+            openQuery = null;
+            log.record(query.sql, query.binds, 0, query.rows, query.nanos, false);
+        }
+    }
+
+    private Object call(Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(statement, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * A query whose rows are still being read; also the handler of the
+     * result set given to the caller.
+     */
+    private final class OpenQuery implements InvocationHandler {
+        private final String sql;
+        private final Map<Integer, Object> binds;
+        private final ResultSet resultSet;
+        private final Object statementProxy;
+        private long nanos;
+        private long rows;
+
+        OpenQuery(String sql, Map<Integer, Object> binds, long nanos, ResultSet resultSet, Object statementProxy) {
+            this.sql = sql;
+            this.binds = binds;
+            this.nanos = nanos;
+            this.resultSet = resultSet;
+            this.statementProxy = statementProxy;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getStatement":
+                    return statementProxy;
+                case "next": {
+                    long start = System.nanoTime();
+                    Object more = invokeResultSet(method, args);
+                    nanos += System.nanoTime() - start;
+                    if ((Boolean) more) {
+                        rows++;
+                    }
+                    return more;
+                }
+                case "close":
+                    try {
+                        return invokeResultSet(method, args);
+                    } finally {
+                        if (openQuery == this) {
+                            finishQuery();
+                        }
+                    }
+                default:
+                    return invokeResultSet(method, args);
+            }
+        }
+
+        private Object invokeResultSet(Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(resultSet, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+}
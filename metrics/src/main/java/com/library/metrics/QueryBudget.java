@@ -0,0 +1,29 @@
+package com.library.metrics;
+
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Fails a test whose body runs more SQL statements than the budget, so that
+ * an N+1 query pattern creeping into the code under test breaks the build.
+ *
+ * Statements are counted by {@link StatementCounter} from the end of the
+ * {@code @BeforeEach} methods to the end of the test method, on the test's
+ * thread only. Arrange the data in {@code @BeforeEach} and keep the test
+ * body to the call being measured and its assertions. On a class, the
+ * budget applies to every test method that does not declare its own.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(QueryBudgetExtension.class)
+public @interface QueryBudget {
+
+    /**
+     * @return the maximum number of statements the test body may run
+     */
+    int value();
+}
@@ -0,0 +1,50 @@
+package com.library.metrics;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Enforces {@link QueryBudget}: records the statements of each test body and
+ * fails the test, listing them, when there are more than the budget.
+ */
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+    @Override
+    public void beforeTestExecution(ExtensionContext context) {
+        if (budgetOf(context).isPresent()) {
+            StatementCounter.startRecording();
+        }
+    }
+
+    @Override
+    public void afterTestExecution(ExtensionContext context) {
+        Optional<QueryBudget> budget = budgetOf(context);
+        if (!budget.isPresent()) {
+            return;
+        }
+        List<String> statements = StatementCounter.stopRecording();
+        // A test that already failed reports its own error rather than the budget
+        if (context.getExecutionException().isEmpty() && statements.size() > budget.get().value()) {
+            StringBuilder message = new StringBuilder()
+                    .append(context.getDisplayName()).append(" ran ").append(statements.size())
+                    .append(" statements, over its budget of ").append(budget.get().value()).append(':');
+            for (int i = 0; i < statements.size(); i++) {
+                message.append(System.lineSeparator()).append("  ").append(i + 1).append(". ")
+                        .append(SlowQueryLog.normalize(statements.get(i)));
+            }
+            fail(message.toString());
+        }
+    }
+
+    private static Optional<QueryBudget> budgetOf(ExtensionContext context) {
+        Optional<QueryBudget> budget = AnnotationSupport.findAnnotation(context.getTestMethod(), QueryBudget.class);
+        return budget.isPresent() ? budget : AnnotationSupport.findAnnotation(context.getTestClass(), QueryBudget.class);
+    }
+}
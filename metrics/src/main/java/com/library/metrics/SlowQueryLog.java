@@ -0,0 +1,383 @@
+package com.library.metrics;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.FileHandler;
+import java.util.logging.Formatter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Times every statement run on the connections it wraps.
+ *
+ * A statement taking at least the threshold is appended to the log file
+ * with its bind parameters and row count. Bind values and the literals of
+ * unparameterized SQL are masked as {@code ?} unless bind values are turned
+ * on for debugging, and even then a statement naming a password column is
+ * always masked. The file rotates by size: the
+ * current one is {@code <logFile>.0}, older ones {@code .1}, {@code .2} and
+ * so on. Every execution, slow or not, also adds to the totals of its
+ * statement shape, from which {@link #getSlowestShapes()} reports the
+ * slowest. A query's time covers its execution and reading its rows, but
+ * not what the caller does between rows.
+ */
+public final class SlowQueryLog implements SlowQueryLogMBean {
+
+    /** Shapes beyond this many are not tracked, so unparameterized SQL cannot fill the heap. */
+    static final int MAX_SHAPES = 10_000;
+    private static final int MAX_BIND_LENGTH = 64;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(?:\\s*,\\s*\\?)+");
+    /** Matches password, password_hash and the like, whose values are never logged. */
+    private static final Pattern SENSITIVE_COLUMN = Pattern.compile("password", Pattern.CASE_INSENSITIVE);
+
+    private final Path logFile;
+    private final int maxFileBytes;
+    private final int fileCount;
+    private final int topN;
+    private volatile long thresholdNanos;
+    private volatile boolean logBindValues;
+
+    private final ConcurrentMap<String, String> shapeBySql = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder slowStatements = new LongAdder();
+
+    private FileHandler fileHandler;
+    private boolean fileFailed;
+
+    /**
+     * Creates a slow query log; the log file is only created once a statement is slow.
+     *
+     * @param thresholdMillis the time from which a statement is logged; negative logs nothing
+     * @param logFile the log file, without the rotation suffix
+     * @param maxFileBytes the size at which the log file rotates
+     * @param fileCount how many log files are kept
+     * @param topN how many shapes {@link #getSlowestShapes()} reports
+     */
+    public SlowQueryLog(long thresholdMillis, Path logFile, int maxFileBytes, int fileCount, int topN) {
+        this(thresholdMillis, logFile, maxFileBytes, fileCount, topN, false);
+    }
+
+    /**
+     * Creates a slow query log; the log file is only created once a statement is slow.
+     *
+     * @param thresholdMillis the time from which a statement is logged; negative logs nothing
+     * @param logFile the log file, without the rotation suffix
+     * @param maxFileBytes the size at which the log file rotates
+     * @param fileCount how many log files are kept
+     * @param topN how many shapes {@link #getSlowestShapes()} reports
+     * @param logBindValues whether bind values are logged instead of masked; for debugging only
+     */
+    public SlowQueryLog(long thresholdMillis, Path logFile, int maxFileBytes, int fileCount, int topN,
+                        boolean logBindValues) {
+        if (maxFileBytes <= 0 || fileCount <= 0 || topN <= 0) {
+            throw new IllegalArgumentException("maxFileBytes, fileCount and topN must be positive");
+        }
+        this.logFile = logFile;
+        this.maxFileBytes = maxFileBytes;
+        this.fileCount = fileCount;
+        this.topN = topN;
+        this.logBindValues = logBindValues;
+        setThresholdMillis(thresholdMillis);
+    }
+
+    /**
+     * Wraps a connection so that the statements it creates are timed.
+     *
+     * @param connection the physical connection
+     * @return a connection that delegates to it
+     */
+    public Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(SlowQueryLog.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            break;
+                    }
+                    Object result;
+                    try {
+                        result = method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                    switch (method.getName()) {
+                        case "createStatement":
+                            return ProfiledStatement.wrap(this, method.getReturnType(), result, null);
+                        case "prepareStatement":
+                        case "prepareCall":
+                            return ProfiledStatement.wrap(this, method.getReturnType(), result, (String) args[0]);
+                        default:
+                            return result;
+                    }
+                });
+    }
+
+    /**
+     * Registers this log with the platform MBean server as
+     * {@code <domain>:type=SlowQueryLog}.
+     *
+     * @param domain the application's JMX domain, e.g. {@code com.library}
+     */
+    public void registerMBean(String domain) {
+        try {
+            ObjectName name = new ObjectName(domain + ":type=SlowQueryLog");
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) {
+                server.unregisterMBean(name);
+            }
+            server.registerMBean(this, name);
+        } catch (JMException e) {
+            System.err.println("Could not register the slow query log: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Records one execution.
+     *
+     * @param sql the SQL as executed
+     * @param binds the bind parameters by index; may be empty
+     * @param batchSize the number of batched parameter sets, or 0 when not a batch
+     * @param rows the rows read or changed, or -1 when unknown
+     * @param nanos how long it took
+     * @param failed whether it threw
+     */
+    void record(String sql, Map<Integer, Object> binds, int batchSize, long rows, long nanos, boolean failed) {
+        statements.increment();
+        String shape = shapeOf(sql);
+        long threshold = thresholdNanos;
+        boolean slow = threshold >= 0 && nanos >= threshold;
+        boolean showValues = slow && logBindValues && !SENSITIVE_COLUMN.matcher(sql).find();
+        ShapeStats stats = shapes.get(shape);
+        if (stats == null && shapes.size() < MAX_SHAPES) {
+            stats = shapes.computeIfAbsent(shape, s -> new ShapeStats());
+        }
+        if (stats != null) {
+            // Only a slow execution keeps its binds, so a shape that was never slow shows none
+            stats.record(nanos, slow ? binds : Collections.emptyMap(), showValues);
+        }
+        if (slow) {
+            slowStatements.increment();
+            String bindText = binds.isEmpty() ? "" : " " + describe(binds, showValues);
+            write(String.format("%s %.3f ms rows=%s%s%s %s%s", TIMESTAMP.format(LocalDateTime.now()),
+                    nanos / 1_000_000.0, rows < 0 ? "?" : Long.toString(rows),
+                    batchSize > 0 ? " batch=" + batchSize : "", failed ? " FAILED" : "",
+                    showValues ? WHITESPACE.matcher(sql.trim()).replaceAll(" ") : maskLiterals(sql), bindText));
+        }
+    }
+
+    /**
+     * Gets the slowest statement shapes seen since the start or the last reset.
+     *
+     * @return up to {@code topN} shapes, by slowest execution first
+     */
+    public List<StatementShape> getSlowestShapes() {
+        return shapes.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingDouble(StatementShape::getMaxMillis).reversed()
+                        .thenComparing(Comparator.comparingDouble(StatementShape::getMeanMillis).reversed()))
+                .limit(topN)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public String[] getSlowestStatements() {
+        return getSlowestShapes().stream().map(StatementShape::toString).toArray(String[]::new);
+    }
+
+    @Override
+    public long getThresholdMillis() {
+        long threshold = thresholdNanos;
+        return threshold < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(threshold);
+    }
+
+    @Override
+    public void setThresholdMillis(long thresholdMillis) {
+        this.thresholdNanos = thresholdMillis < 0 ? -1 : TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    @Override
+    public boolean isLogBindValues() {
+        return logBindValues;
+    }
+
+    @Override
+    public void setLogBindValues(boolean logBindValues) {
+        this.logBindValues = logBindValues;
+    }
+
+    @Override
+    public long getStatementCount() {
+        return statements.sum();
+    }
+
+    @Override
+    public long getSlowStatementCount() {
+        return slowStatements.sum();
+    }
+
+    @Override
+    public void reset() {
+        statements.reset();
+        slowStatements.reset();
+        shapes.clear();
+    }
+
+    /**
+     * Closes the log file; a later slow statement opens it again.
+     */
+    public synchronized void close() {
+        if (fileHandler != null) {
+            fileHandler.close();
+            fileHandler = null;
+        }
+    }
+
+    private synchronized void write(String line) {
+        if (fileHandler == null) {
+            if (fileFailed) {
+                return;
+            }
+            try {
+                Path parent = logFile.toAbsolutePath().getParent();
+                if (parent != null) {
+                    Files.createDirectories(parent);
+                }
+                fileHandler = new FileHandler(logFile.toString().replace("%", "%%") + ".%g",
+                        maxFileBytes, fileCount, true);
+                fileHandler.setEncoding("UTF-8");
+                fileHandler.setFormatter(new Formatter() {
+                    @Override
+                    public String format(LogRecord record) {
+                        return record.getMessage() + System.lineSeparator();
+                    }
+                });
+            } catch (IOException e) {
+                // Report once; the statistics keep working without the file
+                fileFailed = true;
+                System.err.println("Could not open the slow query log " + logFile + ": " + e.getMessage());
+                return;
+            }
+        }
+        fileHandler.publish(new LogRecord(Level.INFO, line));
+    }
+
+    private String shapeOf(String sql) {
+        String shape = shapeBySql.get(sql);
+        if (shape == null) {
+            shape = normalize(sql);
+            if (shapeBySql.size() < MAX_SHAPES) {
+                shapeBySql.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    /**
+     * Reduces SQL to its shape: whitespace collapsed, string and number
+     * literals replaced by {@code ?} and placeholder lists, as in
+     * {@code IN (?, ?, ?)}, shortened to {@code ?, ...}.
+     */
+    static String normalize(String sql) {
+        return PLACEHOLDER_LIST.matcher(maskLiterals(sql)).replaceAll("?, ...");
+    }
+
+    /**
+     * Collapses whitespace and replaces string and number literals by {@code ?}.
+     */
+    private static String maskLiterals(String sql) {
+        String masked = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        masked = STRING_LITERAL.matcher(masked).replaceAll("?");
+        return NUMBER_LITERAL.matcher(masked).replaceAll("?");
+    }
+
+    /**
+     * Describes bind parameters, e.g. {@code [42, 'Dune']}, or {@code [?, ?]}
+     * when their values are masked. NULL is shown either way.
+     */
+    static String describe(Map<Integer, Object> binds, boolean showValues) {
+        if (binds.isEmpty()) {
+            return "";
+        }
+        return binds.values().stream().map(value -> describeValue(value, showValues))
+                .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private static String describeValue(Object value, boolean showValues) {
+        if (value == null) {
+            return "NULL";
+        }
+        if (!showValues) {
+            return "?";
+        }
+        if (value instanceof byte[]) {
+            return "<" + ((byte[]) value).length + " bytes>";
+        }
+        if (value instanceof CharSequence || value instanceof Character) {
+            String text = value.toString();
+            if (text.length() > MAX_BIND_LENGTH) {
+                text = text.substring(0, MAX_BIND_LENGTH) + "...";
+            }
+            return "'" + text.replace("'", "''") + "'";
+        }
+        if (value.getClass().isArray()) {
+            return "<array>";
+        }
+        return value.toString();
+    }
+
+    /** Running totals of one shape. */
+    private static final class ShapeStats {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private volatile String slowestBinds = "";
+
+        void record(long nanos, Map<Integer, Object> binds, boolean showValues) {
+            executions.increment();
+            totalNanos.add(nanos);
+            if (nanos > maxNanos.get()) {
+                // Only a new maximum pays for describing its binds
+                synchronized (this) {
+                    if (nanos > maxNanos.get()) {
+                        maxNanos.accumulate(nanos);
+                        slowestBinds = describe(binds, showValues);
+                    }
+                }
+            }
+        }
+
+        StatementShape snapshot(String sql) {
+            return new StatementShape(sql, executions.sum(), totalNanos.sum(), maxNanos.get(), slowestBinds);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.library.metrics;
+
+/**
+ * JMX view of a {@link SlowQueryLog}.
+ */
+public interface SlowQueryLogMBean {
+
+    /** @return the time from which a statement is logged, in milliseconds; negative when logging is off */
+    long getThresholdMillis();
+
+    /** @param thresholdMillis the new threshold in milliseconds; negative turns logging off */
+    void setThresholdMillis(long thresholdMillis);
+
+    /** @return whether bind values are logged instead of masked */
+    boolean isLogBindValues();
+
+    /**
+     * @param logBindValues true to log bind values, for debugging only; statements
+     *                      naming a password column stay masked
+     */
+    void setLogBindValues(boolean logBindValues);
+
+    /** @return the number of statements executed through wrapped connections */
+    long getStatementCount();
+
+    /** @return the number of statements that reached the threshold */
+    long getSlowStatementCount();
+
+    /** @return the slowest statement shapes, slowest first, one line each */
+    String[] getSlowestStatements();
+
+    /** Clears the counts and statement shapes; the log file is kept. */
+    void reset();
+}
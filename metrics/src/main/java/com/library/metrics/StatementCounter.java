@@ -0,0 +1,72 @@
+package com.library.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Counts the statements run by the current thread on connections wrapped by
+ * a {@link SlowQueryLog}, so that a test can assert how many round trips to
+ * the database an operation takes.
+ *
+ * Each execution counts once whether it succeeds or not; a batch counts once
+ * however many parameter sets it carries. Statements run by other threads,
+ * such as a background sweep or an executor the operation hands work to, are
+ * not counted.
+ */
+public final class StatementCounter {
+
+    private static final ThreadLocal<Counter> COUNTER = ThreadLocal.withInitial(Counter::new);
+
+    private StatementCounter() {
+    }
+
+    /**
+     * @return the statements run by this thread since the last reset or recording started
+     */
+    public static long getCount() {
+        return COUNTER.get().count;
+    }
+
+    /**
+     * Sets this thread's count back to zero.
+     */
+    public static void reset() {
+        COUNTER.get().count = 0;
+    }
+
+    /**
+     * Resets this thread's count and starts keeping the SQL of each statement
+     * until {@link #stopRecording()}.
+     */
+    public static void startRecording() {
+        Counter counter = COUNTER.get();
+        counter.count = 0;
+        counter.recorded = new ArrayList<>();
+    }
+
+    /**
+     * Stops keeping the SQL of this thread's statements.
+     *
+     * @return the SQL of the statements run since recording started, in order
+     */
+    public static List<String> stopRecording() {
+        Counter counter = COUNTER.get();
+        List<String> recorded = counter.recorded;
+        counter.recorded = null;
+        return recorded == null ? Collections.emptyList() : recorded;
+    }
+
+    static void count(String sql) {
+        Counter counter = COUNTER.get();
+        counter.count++;
+        if (counter.recorded != null) {
+            counter.recorded.add(sql);
+        }
+    }
+
+    private static final class Counter {
+        private long count;
+        private List<String> recorded;
+    }
+}
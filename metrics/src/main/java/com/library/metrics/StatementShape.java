@@ -0,0 +1,62 @@
+package com.library.metrics;
+
+/**
+ * A snapshot of the executions of one statement shape: its SQL with the
+ * literals replaced by {@code ?}, so that the same query with different
+ * values counts as one.
+ */
+public final class StatementShape {
+    private final String sql;
+    private final long executions;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final String slowestBinds;
+
+    StatementShape(String sql, long executions, long totalNanos, long maxNanos, String slowestBinds) {
+        this.sql = sql;
+        this.executions = executions;
+        this.totalNanos = totalNanos;
+        this.maxNanos = maxNanos;
+        this.slowestBinds = slowestBinds;
+    }
+
+    /** @return the normalized SQL */
+    public String getSql() {
+        return sql;
+    }
+
+    /** @return how many times a statement of this shape ran */
+    public long getExecutions() {
+        return executions;
+    }
+
+    /** @return the time spent in all of them, in milliseconds */
+    public double getTotalMillis() {
+        return totalNanos / 1_000_000.0;
+    }
+
+    /** @return the mean time of one execution, in milliseconds */
+    public double getMeanMillis() {
+        return executions == 0 ? 0 : getTotalMillis() / executions;
+    }
+
+    /** @return the time of the slowest execution, in milliseconds */
+    public double getMaxMillis() {
+        return maxNanos / 1_000_000.0;
+    }
+
+    /**
+     * @return the bind parameters of the slowest execution if it reached the
+     *         threshold, masked unless bind values are logged, e.g. {@code [?, ?]}
+     *         or {@code [42, 'Dune']}; otherwise empty
+     */
+    public String getSlowestBinds() {
+        return slowestBinds;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("max=%.3fms, mean=%.3fms, executions=%d: %s%s", getMaxMillis(), getMeanMillis(),
+                executions, sql, slowestBinds.isEmpty() ? "" : " " + slowestBinds);
+    }
+}
@@ -0,0 +1,164 @@
+package com.library.metrics;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InstrumentationTest {
+
+    interface GreetingService {
+        String greet(String name);
+
+        String greet(String name, int times);
+
+        void fail();
+    }
+
+    static class EnglishGreetingService implements GreetingService {
+        @Override
+        public String greet(String name) {
+            return "Hello " + name;
+        }
+
+        @Override
+        public String greet(String name, int times) {
+            return greet(name).repeat(times);
+        }
+
+        @Override
+        public void fail() {
+            throw new IllegalStateException("No greeting today");
+        }
+    }
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private GreetingService service;
+    private ObjectName name;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        service = Instrumentation.instrument(GreetingService.class, new EnglishGreetingService());
+        name = Instrumentation.objectNameOf(GreetingService.class);
+        server.invoke(name, "reset", null, null);
+    }
+
+    @Test
+    void testInstrument_DelegatesAndCountsEachMethod() {
+        // Act
+        String greeting = service.greet("Ada");
+        service.greet("Ada");
+        service.greet("Ada", 2);
+
+        // Assert
+        assertEquals("Hello Ada", greeting);
+        Map<String, MethodMetrics> metrics = Instrumentation.metricsOf(GreetingService.class);
+        assertEquals(2, metrics.get("greet(String)").getCalls());
+        assertEquals(1, metrics.get("greet(String,int)").getCalls());
+        assertEquals(0, metrics.get("fail").getCalls());
+        assertTrue(metrics.get("greet(String)").getMaxMillis() > 0);
+    }
+
+    @Test
+    void testInstrument_RethrowsTheTargetExceptionAndCountsIt() {
+        // Act
+        IllegalStateException thrown = assertThrows(IllegalStateException.class, service::fail);
+
+        // Assert
+        assertEquals("No greeting today", thrown.getMessage());
+        MethodMetrics fail = Instrumentation.metricsOf(GreetingService.class).get("fail");
+        assertEquals(1, fail.getCalls());
+        assertEquals(1, fail.getErrors());
+    }
+
+    @Test
+    void testInstrument_InstancesShareTheInterfaceMetrics() {
+        // Arrange
+        GreetingService other = Instrumentation.instrument(GreetingService.class, new EnglishGreetingService());
+
+        // Act
+        service.greet("Ada");
+        other.greet("Grace");
+
+        // Assert
+        assertEquals(2, Instrumentation.metricsOf(GreetingService.class).get("greet(String)").getCalls());
+    }
+
+    @Test
+    void testInstrument_ObjectMethodsAnswerForTheProxy() {
+        // Assert
+        assertEquals(service, service);
+        assertNotEquals(service, Instrumentation.instrument(GreetingService.class, new EnglishGreetingService()));
+        assertEquals(System.identityHashCode(service), service.hashCode());
+        assertTrue(service.toString().startsWith("Instrumented["));
+    }
+
+    @Test
+    void testInstrument_RejectsClasses() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> Instrumentation.instrument(EnglishGreetingService.class, new EnglishGreetingService()));
+    }
+
+    @Test
+    void testMBean_PublishesMethodAttributesAndReset() throws Exception {
+        // Arrange
+        service.greet("Ada");
+        assertThrows(IllegalStateException.class, service::fail);
+
+        // Act
+        Object calls = server.getAttribute(name, "greet(String).Calls");
+        Object errors = server.getAttribute(name, "fail.Errors");
+        Object p99 = server.getAttribute(name, "greet(String).P99Millis");
+        server.invoke(name, "reset", null, null);
+
+        // Assert
+        assertEquals("com.library", name.getDomain());
+        assertEquals("Service", name.getKeyProperty("type"));
+        assertEquals(1L, calls);
+        assertEquals(1L, errors);
+        assertTrue((Double) p99 > 0);
+        assertEquals(0L, server.getAttribute(name, "greet(String).Calls"));
+    }
+
+    @Test
+    void testMetricsOf_UnknownInterfaceIsEmpty() {
+        // Act & Assert
+        assertTrue(Instrumentation.metricsOf(Runnable.class).isEmpty());
+    }
+
+    @Test
+    void testPercentile_StaysWithinOneBucketOfTheTrueValue() {
+        // Arrange
+        MethodMetrics metrics = new MethodMetrics();
+        for (long micros = 1; micros <= 1000; micros++) {
+            metrics.record(micros * 1000, false);
+        }
+
+        // Act
+        double p50 = metrics.getPercentileMillis(50);
+        double p99 = metrics.getPercentileMillis(99);
+
+        // Assert
+        assertTrue(p50 >= 0.5 && p50 <= 0.5 * 1.125, "p50 was " + p50);
+        assertTrue(p99 >= 0.99 && p99 <= 0.99 * 1.125, "p99 was " + p99);
+        assertEquals(1.0, metrics.getMaxMillis(), 1e-9);
+        assertEquals(0.5005, metrics.getMeanMillis(), 1e-9);
+    }
+
+    @Test
+    void testBuckets_UpperBoundCoversEveryValueInTheBucket() {
+        // Act & Assert
+        for (long nanos : new long[]{0, 1023, 1024, 1500, 2047, 2048, 1_000_000, 123_456_789L, 1L << 45}) {
+            int bucket = MethodMetrics.bucketOf(nanos);
+            assertTrue(nanos < MethodMetrics.upperBoundOf(bucket) || bucket == MethodMetrics.bucketOf(Long.MAX_VALUE),
+                    "bucket of " + nanos);
+            assertTrue(bucket == 0 || nanos >= MethodMetrics.upperBoundOf(bucket - 1), "bucket of " + nanos);
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.library.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlowQueryLogTest {
+
+    @TempDir
+    Path tempDir;
+
+    private Path logFile;
+    private Connection raw;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        logFile = tempDir.resolve("logs").resolve("slow-query.log");
+        raw = DriverManager.getConnection("jdbc:h2:mem:slowquerylog", "sa", "");
+        try (Statement statement = raw.createStatement()) {
+            statement.execute("CREATE TABLE book (id INT PRIMARY KEY, title VARCHAR(100), isbn VARCHAR(20))");
+            statement.execute("INSERT INTO book VALUES (1, 'Dune', NULL), (2, 'Emma', NULL), (3, 'Ulysses', NULL)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        raw.close();
+    }
+
+    @Test
+    void testWrap_LogsSlowStatementsWithBindsAndRows() throws Exception {
+        // Arrange
+        SlowQueryLog log = new SlowQueryLog(0, logFile, 1024 * 1024, 2, 10);
+        Connection connection = log.wrap(raw);
+
+        // Act
+        try (PreparedStatement statement = connection.prepareStatement("UPDATE book SET isbn = ? WHERE id > ?")) {
+            statement.setNull(1, Types.VARCHAR);
+            statement.setInt(2, 1);
+            statement.executeUpdate();
+        }
+        log.close();
+
+        // Assert
+        List<String> lines = Files.readAllLines(Path.of(logFile + ".0"));
+        assertEquals(1, lines.size());
+        assertTrue(lines.get(0).contains(" ms rows=2 UPDATE book SET isbn = ? WHERE id > ? [NULL, ?]"), lines.get(0));
+        assertEquals(1, log.getSlowStatementCount());
+        assertEquals("[NULL, ?]", log.getSlowestShapes().get(0).getSlowestBinds());
+    }
+
+    @Test
+    void testWrap_LogsBindValuesWhenEnabledForDebugging() throws Exception {
+        // Arrange
+        SlowQueryLog log = new SlowQueryLog(0, logFile, 1024 * 1024, 2, 10, true);
+        Connection connection = log.wrap(raw);
+
+        // Act
+        try (PreparedStatement statement = connection.prepareStatement("UPDATE book SET isbn = ? WHERE title = ?")) {
+            statement.setString(1, "0-441-17271-7");
+            statement.setString(2, "Dune");
+            statement.executeUpdate();
+        }
+        log.close();
+
+        // Assert
+        String line = Files.readAllLines(Path.of(logFile + ".0")).get(0);
+        assertTrue(line.contains(" ms rows=1 UPDATE book SET isbn = ? WHERE title = ? ['0-441-17271-7', 'Dune']"), line);
+        assertEquals("['0-441-17271-7', 'Dune']", log.getSlowestShapes().get(0).getSlowestBinds());
+    }
+
+    @Test
+    void testWrap_NeverLogsPasswordValues() throws Exception {
+        // Arrange
+        SlowQueryLog log = new SlowQueryLog(0, logFile, 1024 * 1024, 2, 10, true);
+        Connection connection = log.wrap(raw);
+        try (Statement statement = raw.createStatement()) {
+            statement.execute("CREATE TABLE app_user (id INT PRIMARY KEY, username VARCHAR(50), password VARCHAR(50))");
+        }
+
+        // Act
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO app_user (id, username, password) VALUES (?, ?, ?)")) {
+            statement.setInt(1, 1);
+            statement.setString(2, "ada");
+            statement.setString(3, "s3cret-pass");
+            statement.executeUpdate();
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE app_user SET password = 'n3w-pass' WHERE id = 1");
+        }
+        log.close();
+
+        // Assert
+        List<String> lines = Files.readAllLines(Path.of(logFile + ".0"));
+        assertTrue(lines.get(0).contains("INSERT INTO app_user (id, username, password) VALUES (?, ?, ?) [?, ?, ?]"),
+                lines.get(0));
+        assertTrue(lines.get(1).contains("UPDATE app_user SET password = ? WHERE id = ?"), lines.get(1));
+        String everything = String.join("\n", lines) + String.join("\n", log.getSlowestStatements());
+        assertFalse(everything.contains("s3cret-pass"));
+        assertFalse(everything.contains("n3w-pass"));
+    }
+
+    @Test
+    void testWrap_MasksLiteralsOfUnparameterizedStatements() throws Exception {
+        // Arrange
+        SlowQueryLog log = new SlowQueryLog(0, logFile, 1024 * 1024, 2, 10);
+        Connection connection = log.wrap(raw);
+
+        // Act
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE book SET isbn = '0-441-17271-7' WHERE id = 1");
+        }
+        log.close();
+
+        // Assert
+        String line = Files.readAllLines(Path.of(logFile + ".0")).get(0);
+        assertTrue(line.contains(" ms rows=1 UPDATE book SET isbn = ? WHERE id = ?"), line);
+        assertFalse(line.contains("0-441-17271-7"));
+    }
+
+    @Test
+    void testWrap_CountsQueryRowsWhenTheResultSetCloses() throws Exception {
+        // Arrange
+        SlowQueryLog log = new SlowQueryLog(0, logFile, 1024 * 1024, 2, 10);
+        Connection connection = log.wrap(raw);
+
+        // Act
+        try (PreparedStatement statement = connection.prepareStatement("SELECT title FROM book WHERE title <> ?")) {
+            statement.setString(1, "Emma");
+            try (ResultSet rs = statement.executeQuery()) {
+                assertSame(statement, rs.getStatement());
+                while (rs.next()) {
+                    assertNotNull(rs.getString(1));
+                }
+                assertEquals(0, log.getStatementCount());
+            }
+        }
+        log.close();
+
+        // Assert
+        String line = Files.readAllLines(Path.of(logFile + ".0")).get(0);
+        assertTrue(line.contains(" ms rows=2 SELECT title FROM book WHERE title <> ? [?]"), line);
+        assertEquals(1, log.getStatementCount());
+    }
+
+    @Test
+    void testWrap_FastStatementsAreOnlyCounted() throws Exception {
+        // Arrange
+        SlowQueryLog log = new SlowQueryLog(60_000, logFile, 1024 * 1024, 2, 10);
+        Connection connection = log.wrap(raw);
+
+        // Act
+        try (Statement statement = connection.createStatement()) {
+            statement.executeQuery("SELECT title FROM book WHERE id = 1").close();
+            statement.executeQuery("SELECT title FROM book WHERE id = 2").close();
+        }
+
+        // Assert
+        assertFalse(Files.exists(logFile.getParent()));
+        assertEquals(2, log.getStatementCount());
+        assertEquals(0, log.getSlowStatementCount());
+        List<StatementShape> shapes = log.getSlowestShapes();
+        assertEquals(1, shapes.size());
+        assertEquals("SELECT title FROM book WHERE id = ?", shapes.get(0).getSql());
+        assertEquals(2, shapes.get(0).getExecutions());
+    }
+
+    @Test
+    void testWrap_LogsFailedStatementsAndRethrows() throws Exception {
+        // Arrange
+        SlowQueryLog log = new SlowQueryLog(0, logFile, 1024 * 1024, 2, 10);
+        Connection connection = log.wrap(raw);
+
+        // Act
+        try (Statement statement = connection.createStatement()) {
+            assertThrows(SQLException.class, () -> statement.executeUpdate("INSERT INTO book VALUES (1, 'Dune', NULL)"));
+        }
+        log.close();
+
+        // Assert
+        String line = Files.readAllLines(Path.of(logFile + ".0")).get(0);
+        assertTrue(line.contains(" ms rows=? FAILED INSERT INTO book"), line);
+    }
+
+    @Test
+    void testWrap_BatchesAreLoggedOnceWithTheirSize() throws Exception {
+        // Arrange
+        SlowQueryLog log = new SlowQueryLog(0, logFile, 1024 * 1024, 2, 10);
+        Connection connection = log.wrap(raw);
+
+        // Act
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO book (id, title) VALUES (?, ?)")) {
+            for (int id = 10; id < 13; id++) {
+                statement.setInt(1, id);
+                statement.setString(2, "Title " + id);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+        log.close();
+
+        // Assert
+        String line = Files.readAllLines(Path.of(logFile + ".0")).get(0);
+        assertTrue(line.contains(" ms rows=3 batch=3 INSERT INTO book"), line);
+    }
+
+    @Test
+    void testGetSlowestShapes_OrdersBySlowestExecutionAndKeepsTopN() {
+        // Arrange
+        SlowQueryLog log = new SlowQueryLog(-1, logFile, 1024 * 1024, 2, 2);
+
+        // Act
+        log.record("SELECT * FROM book WHERE id = ?", Collections.singletonMap(1, 1), 0, 1, 5_000_000, false);
+        log.record("SELECT * FROM loan", Collections.emptyMap(), 0, 9, 9_000_000, false);
+        log.record("SELECT * FROM fine", Collections.emptyMap(), 0, 0, 1_000_000, false);
+
+        // Assert
+        List<StatementShape> shapes = log.getSlowestShapes();
+        assertEquals(2, shapes.size());
+        assertEquals("SELECT * FROM loan", shapes.get(0).getSql());
+        assertEquals("SELECT * FROM book WHERE id = ?", shapes.get(1).getSql());
+        assertEquals(9.0, shapes.get(0).getMaxMillis(), 1e-9);
+        assertEquals("", shapes.get(1).getSlowestBinds());
+        assertFalse(Files.exists(logFile.getParent()));
+    }
+
+    @Test
+    void testNormalize_ReplacesLiteralsAndCollapsesPlaceholderLists() {
+        // Act & Assert
+        assertEquals("SELECT * FROM loan WHERE user_id IN (?, ...) AND status = ? AND fee > ?",
+                SlowQueryLog.normalize("SELECT *\n  FROM loan WHERE user_id IN (?, ?,?) AND status = 'it''s' AND fee > 2.50"));
+        assertEquals("SELECT * FROM app_user2 WHERE id = ?", SlowQueryLog.normalize("SELECT * FROM app_user2 WHERE id = 7"));
+    }
+}
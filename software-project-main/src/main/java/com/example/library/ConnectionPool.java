@@ -0,0 +1,548 @@
+package com.example.library;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * A bounded pool of JDBC connections exposed as a {@link DataSource}.
+ *
+ * Connections handed out by {@link #getConnection()} are wrappers whose
+ * {@code close()} returns the physical connection to the pool instead of
+ * closing it, so repositories keep their try-with-resources blocks while the
+ * cost of opening a connection is paid once per physical connection.
+ *
+ * <ul>
+ *   <li>At most {@code maxSize} connections are open; a borrower waits up to
+ *       {@code borrowTimeoutMillis} for one to come back and then fails with an
+ *       {@link SQLTimeoutException}.</li>
+ *   <li>An idle connection is validated with {@link Connection#isValid} before
+ *       it is handed out, unless it was returned less than
+ *       {@link #VALIDATION_BYPASS_MILLIS} ago. Broken connections are dropped
+ *       and the next idle one is tried.</li>
+ *   <li>A background housekeeper closes connections idle for longer than
+ *       {@code idleTimeoutMillis} while more than {@code minSize} are open, and
+ *       opens new ones while fewer than {@code minSize} are open.</li>
+ *   <li>A connection held for longer than {@code leakThresholdMillis} is
+ *       reported once on standard error, with the stack trace of the code
+ *       that borrowed it. Capturing that trace makes every borrow allocate a
+ *       Throwable, so this is a debugging aid and is off when the threshold
+ *       is 0.</li>
+ *   <li>{@link #getStats()} returns counters for monitoring.</li>
+ * </ul>
+ *
+ * A connection returned with an open transaction is rolled back and put back
+ * in auto-commit mode, so one caller's work never leaks into the next.
+ */
+public class ConnectionPool implements DataSource, AutoCloseable {
+
+    /** Idle connections returned more recently than this are handed out without validation. */
+    static final long VALIDATION_BYPASS_MILLIS = 500;
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+    private static final long HOUSEKEEPING_INTERVAL_MILLIS = 5_000;
+
+    /**
+     * Opens a new physical connection.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection open() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final int minSize;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long leakThresholdMillis;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final Set<Lease> leases = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private final ScheduledExecutorService housekeeper;
+    private volatile boolean closed;
+
+    private final LongAdder borrowCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder createdCount = new LongAdder();
+    private final LongAdder destroyedCount = new LongAdder();
+    private final LongAdder validationFailureCount = new LongAdder();
+    private final LongAdder leakCount = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    private volatile PrintWriter logWriter;
+    private volatile int loginTimeout;
+
+    /**
+     * Creates a pool and starts its housekeeper, which opens the first
+     * {@code minSize} connections in the background.
+     *
+     * @param factory opens physical connections
+     * @param minSize the number of connections kept open while idle
+     * @param maxSize the maximum number of open connections
+     * @param borrowTimeoutMillis how long a borrower waits for a free connection
+     * @param idleTimeoutMillis how long a connection above {@code minSize} may stay idle
+     * @param leakThresholdMillis how long a connection may be held before it is
+     *                            reported as leaked; 0 disables leak detection
+     */
+    public ConnectionPool(ConnectionFactory factory, int minSize, int maxSize, long borrowTimeoutMillis,
+                          long idleTimeoutMillis, long leakThresholdMillis) {
+        if (minSize < 0 || maxSize <= 0 || minSize > maxSize) {
+            throw new IllegalArgumentException("Pool sizes must satisfy 0 <= minSize <= maxSize and maxSize > 0");
+        }
+        this.factory = factory;
+        this.minSize = minSize;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.leakThresholdMillis = leakThresholdMillis;
+        this.permits = new Semaphore(maxSize, true);
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "connection-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        housekeeper.scheduleWithFixedDelay(this::housekeep, 0, HOUSEKEEPING_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, waiting for one to be returned if all
+     * {@code maxSize} are in use. Close the connection to return it.
+     *
+     * @return a pooled connection
+     * @throws SQLTimeoutException if no connection became free in time
+     * @throws SQLException if the pool is closed or a connection cannot be opened
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        totalWaitNanos.add(System.nanoTime() - start);
+        if (!acquired) {
+            timeoutCount.increment();
+            throw new SQLTimeoutException("Timed out after " + borrowTimeoutMillis
+                    + " ms waiting for a database connection; all " + maxSize + " are in use");
+        }
+
+        try {
+            PooledConnection pooled = takeValidIdle();
+            if (pooled == null) {
+                pooled = open();
+            }
+            borrowCount.increment();
+            return lease(pooled);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections use the configured credentials");
+    }
+
+    /**
+     * Gets a snapshot of the pool's counters.
+     *
+     * @return the current statistics
+     */
+    public Stats getStats() {
+        int active = leases.size();
+        int idleNow;
+        synchronized (idle) {
+            idleNow = idle.size();
+        }
+        return new Stats(active, idleNow, openConnections.get(), borrowCount.sum(), timeoutCount.sum(),
+                createdCount.sum(), destroyedCount.sum(), validationFailureCount.sum(), leakCount.sum(),
+                totalWaitNanos.sum());
+    }
+
+    /**
+     * Tells whether {@link #close()} has been called.
+     *
+     * @return true once the pool is closed
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Closes all idle connections and stops the housekeeper. Connections still
+     * borrowed are closed when they are returned.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        housekeeper.shutdownNow();
+        List<PooledConnection> toClose;
+        synchronized (idle) {
+            toClose = new ArrayList<>(idle);
+            idle.clear();
+        }
+        for (PooledConnection pooled : toClose) {
+            destroy(pooled);
+        }
+    }
+
+    /**
+     * Evicts connections idle for too long, tops the pool up to its minimum
+     * size and reports leaked connections. Runs on the housekeeper thread.
+     */
+    synchronized void housekeep() {
+        if (closed) {
+            return;
+        }
+        evictIdle();
+        fillToMinimum();
+        detectLeaks();
+    }
+
+    private void evictIdle() {
+        long now = System.nanoTime();
+        List<PooledConnection> expired = new ArrayList<>();
+        synchronized (idle) {
+            // The oldest idle connections sit at the tail, since returns go to the head
+            Iterator<PooledConnection> it = idle.descendingIterator();
+            while (it.hasNext() && openConnections.get() - expired.size() > minSize) {
+                PooledConnection pooled = it.next();
+                if (now - pooled.lastReturnedNanos < TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis)) {
+                    break;
+                }
+                it.remove();
+                expired.add(pooled);
+            }
+        }
+        for (PooledConnection pooled : expired) {
+            destroy(pooled);
+        }
+    }
+
+    private void fillToMinimum() {
+        // Holding a permit while opening keeps the number of open connections within maxSize
+        while (openConnections.get() < minSize && permits.tryAcquire()) {
+            try {
+                PooledConnection pooled = open();
+                synchronized (idle) {
+                    idle.addFirst(pooled);
+                }
+            } catch (SQLException e) {
+                System.err.println("Connection pool could not open a connection: " + e.getMessage());
+                return;
+            } finally {
+                permits.release();
+            }
+        }
+    }
+
+    private void detectLeaks() {
+        if (leakThresholdMillis <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        for (Lease lease : leases) {
+            long heldMillis = TimeUnit.NANOSECONDS.toMillis(now - lease.borrowedNanos);
+            if (heldMillis >= leakThresholdMillis && !lease.leakReported) {
+                lease.leakReported = true;
+                leakCount.increment();
+                System.err.println("Possible connection leak: a connection has been held for "
+                        + heldMillis + " ms without being closed. It was borrowed here:");
+                lease.borrowedAt.printStackTrace();
+            }
+        }
+    }
+
+    private PooledConnection takeValidIdle() {
+        while (true) {
+            PooledConnection pooled;
+            synchronized (idle) {
+                pooled = idle.pollFirst();
+            }
+            if (pooled == null) {
+                return null;
+            }
+            long idleMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - pooled.lastReturnedNanos);
+            if (idleMillis < VALIDATION_BYPASS_MILLIS || isValid(pooled)) {
+                return pooled;
+            }
+            validationFailureCount.increment();
+            destroy(pooled);
+        }
+    }
+
+    private static boolean isValid(PooledConnection pooled) {
+        try {
+            return pooled.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private PooledConnection open() throws SQLException {
+        Connection connection = factory.open();
+        if (connection == null) {
+            throw new SQLException("Connection factory returned no connection");
+        }
+        openConnections.incrementAndGet();
+        createdCount.increment();
+        return new PooledConnection(connection);
+    }
+
+    private void destroy(PooledConnection pooled) {
+        openConnections.decrementAndGet();
+        destroyedCount.increment();
+        try {
+            pooled.connection.close();
+        } catch (SQLException e) {
+            // The connection is being discarded anyway
+        }
+    }
+
+    private Connection lease(PooledConnection pooled) {
+        Lease lease = new Lease(pooled, leakThresholdMillis > 0 ? new Throwable("Connection borrowed") : null);
+        leases.add(lease);
+        return (Connection) Proxy.newProxyInstance(ConnectionPool.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, lease);
+    }
+
+    private void giveBack(Lease lease) {
+        leases.remove(lease);
+        PooledConnection pooled = lease.pooled;
+        try {
+            if (closed || pooled.connection.isClosed()) {
+                destroy(pooled);
+                return;
+            }
+            if (!pooled.connection.getAutoCommit()) {
+                pooled.connection.rollback();
+                pooled.connection.setAutoCommit(true);
+            }
+            pooled.lastReturnedNanos = System.nanoTime();
+            synchronized (idle) {
+                idle.addFirst(pooled);
+            }
+        } catch (SQLException e) {
+            destroy(pooled);
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        this.logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        this.loginTimeout = seconds;
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return loginTimeout;
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException("ConnectionPool does not use java.util.logging");
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("ConnectionPool is not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+
+    /**
+     * A physical connection owned by the pool.
+     */
+    private static final class PooledConnection {
+        private final Connection connection;
+        private volatile long lastReturnedNanos = System.nanoTime();
+
+        PooledConnection(Connection connection) {
+            this.connection = connection;
+        }
+    }
+
+    /**
+     * One borrowing of a pooled connection; also the handler of the connection
+     * wrapper given to the borrower.
+     */
+    private final class Lease implements InvocationHandler {
+        private final PooledConnection pooled;
+        private final Throwable borrowedAt;
+        private final long borrowedNanos = System.nanoTime();
+        private final AtomicBoolean returned = new AtomicBoolean();
+        private volatile boolean leakReported;
+
+        Lease(PooledConnection pooled, Throwable borrowedAt) {
+            this.pooled = pooled;
+            this.borrowedAt = borrowedAt;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (returned.compareAndSet(false, true)) {
+                        giveBack(this);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned.get() || pooled.connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled[" + pooled.connection + "]";
+                default:
+                    break;
+            }
+            if (returned.get()) {
+                throw new SQLException("Connection has already been returned to the pool");
+            }
+            try {
+                return method.invoke(pooled.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    /**
+     * A snapshot of the pool's counters. Counts are cumulative since the pool was created.
+     */
+    public static final class Stats {
+        private final int active;
+        private final int idle;
+        private final int total;
+        private final long borrows;
+        private final long timeouts;
+        private final long created;
+        private final long destroyed;
+        private final long validationFailures;
+        private final long leaks;
+        private final long totalWaitNanos;
+
+        Stats(int active, int idle, int total, long borrows, long timeouts, long created, long destroyed,
+              long validationFailures, long leaks, long totalWaitNanos) {
+            this.active = active;
+            this.idle = idle;
+            this.total = total;
+            this.borrows = borrows;
+            this.timeouts = timeouts;
+            this.created = created;
+            this.destroyed = destroyed;
+            this.validationFailures = validationFailures;
+            this.leaks = leaks;
+            this.totalWaitNanos = totalWaitNanos;
+        }
+
+        /** @return the number of connections currently borrowed */
+        public int getActive() {
+            return active;
+        }
+
+        /** @return the number of connections waiting in the pool */
+        public int getIdle() {
+            return idle;
+        }
+
+        /** @return the number of open physical connections */
+        public int getTotal() {
+            return total;
+        }
+
+        /** @return the number of successful borrows */
+        public long getBorrows() {
+            return borrows;
+        }
+
+        /** @return the number of borrows that timed out */
+        public long getTimeouts() {
+            return timeouts;
+        }
+
+        /** @return the number of physical connections opened */
+        public long getCreated() {
+            return created;
+        }
+
+        /** @return the number of physical connections closed */
+        public long getDestroyed() {
+            return destroyed;
+        }
+
+        /** @return the number of idle connections that failed validation */
+        public long getValidationFailures() {
+            return validationFailures;
+        }
+
+        /** @return the number of connections reported as leaked */
+        public long getLeaks() {
+            return leaks;
+        }
+
+        /** @return the average time a borrower waited for a free connection, in milliseconds */
+        public double getAverageWaitMillis() {
+            long attempts = borrows + timeouts;
+            return attempts == 0 ? 0 : totalWaitNanos / 1_000_000.0 / attempts;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("active=%d, idle=%d, total=%d, borrows=%d, timeouts=%d, created=%d, destroyed=%d, "
+                            + "validationFailures=%d, leaks=%d, averageWait=%.2fms",
+                    active, idle, total, borrows, timeouts, created, destroyed, validationFailures, leaks,
+                    getAverageWaitMillis());
+        }
+    }
+}
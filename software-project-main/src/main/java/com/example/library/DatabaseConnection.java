@@ -1,38 +1,108 @@
 package com.example.library;
 
 import com.example.library.util.DatabaseConfig;
+import com.library.metrics.SlowQueryLog;
 
 import java.io.BufferedReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.stream.Collectors;
 
+/**
+ * Entry point to the configured database.
+ *
+ * Repositories borrow their connections from the shared pool returned by
+ * {@link #getDataSource()}. {@link #getConnection()} still hands out a single
+ * static connection outside the pool for callers that manage it themselves.
+ * Every physical connection is wrapped by the {@link #getSlowQueryLog() slow query log}.
+ */
 public class DatabaseConnection {
     private static Connection connection = null;
     private static boolean schemaInitialized = false;
+    private static ConnectionPool dataSource = null;
+    private static SlowQueryLog slowQueryLog = null;
     
     public static Connection getConnection() {
         try {
             if (connection == null || connection.isClosed()) {
-                Class.forName(DatabaseConfig.getDriver());
-                connection = DriverManager.getConnection(
-                    DatabaseConfig.getUrl(),
-                    DatabaseConfig.getUsername(),
-                    DatabaseConfig.getPassword()
-                );
-                initializeSchemaIfNeeded(connection);
+                connection = openConnection();
                 System.out.println("Connected to PostgreSQL-compatible database successfully!");
             }
-        } catch (SQLException | ClassNotFoundException e) {
+        } catch (SQLException e) {
             System.err.println("Connection failed!");
             e.printStackTrace();
         }
         return connection;
     }
+    
+    /**
+     * Gets the shared connection pool, creating it on first use with the
+     * pool settings from db.properties. The schema is checked once, when the
+     * first physical connection is opened.
+     *
+     * @return the shared data source
+     */
+    public static synchronized ConnectionPool getDataSource() {
+        if (dataSource == null || dataSource.isClosed()) {
+            dataSource = new ConnectionPool(DatabaseConnection::openConnection,
+                    DatabaseConfig.getPoolMinSize(),
+                    DatabaseConfig.getPoolMaxSize(),
+                    DatabaseConfig.getPoolBorrowTimeoutMillis(),
+                    DatabaseConfig.getPoolIdleTimeoutMillis(),
+                    DatabaseConfig.getPoolLeakThresholdMillis());
+        }
+        return dataSource;
+    }
+    
+    /**
+     * Closes the shared connection pool, if it was created.
+     */
+    public static synchronized void closeDataSource() {
+        if (dataSource != null) {
+            dataSource.close();
+            dataSource = null;
+        }
+    }
+    
+    /**
+     * Gets the log that times the statements of every connection opened here,
+     * creating it on first use with the slow query settings from db.properties.
+     *
+     * @return the shared slow query log
+     */
+    public static synchronized SlowQueryLog getSlowQueryLog() {
+        if (slowQueryLog == null) {
+            slowQueryLog = new SlowQueryLog(DatabaseConfig.getSlowQueryThresholdMillis(),
+                    Paths.get(DatabaseConfig.getSlowQueryLogFile()),
+                    DatabaseConfig.getSlowQueryLogMaxFileSizeKb() * 1024,
+                    DatabaseConfig.getSlowQueryLogFileCount(),
+                    DatabaseConfig.getSlowQueryTopN(),
+                    DatabaseConfig.isSlowQueryLogBindValues());
+            slowQueryLog.registerMBean("com.example.library");
+        }
+        return slowQueryLog;
+    }
+    
+    private static Connection openConnection() throws SQLException {
+        try {
+            Class.forName(DatabaseConfig.getDriver());
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("JDBC driver not found: " + DatabaseConfig.getDriver(), e);
+        }
+        Connection conn = getSlowQueryLog().wrap(DriverManager.getConnection(
+            DatabaseConfig.getUrl(),
+            DatabaseConfig.getUsername(),
+            DatabaseConfig.getPassword()
+        ));
+        initializeSchemaIfNeeded(conn);
+        return conn;
+    }
 
     private static synchronized void initializeSchemaIfNeeded(Connection conn) {
         if (schemaInitialized) {
@@ -44,34 +114,49 @@ public class DatabaseConnection {
             try (java.sql.ResultSet rs = conn.getMetaData().getTables(null, null, "APP_USER", null)) {
                 userTableExists = rs.next();
             }
-            if (userTableExists) {
-                schemaInitialized = true;
+            if (!userTableExists) {
+                // Table does not exist, run the full schema (including drops)
+                runScript(conn, "schema.sql");
+            }
+            migrateSchema(conn);
+            schemaInitialized = true;
+        } catch (Exception e) {
+            System.err.println("Failed to initialize the database schema");
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Adds the tables and indexes introduced since a database was created,
+     * which schema.sql does not do for a database that already exists.
+     * Every statement may run any number of times.
+     *
+     * @param conn the connection to the database to bring up to date
+     * @throws SQLException if a statement fails
+     * @throws IOException if the migrations cannot be read
+     */
+    static void migrateSchema(Connection conn) throws SQLException, IOException {
+        runScript(conn, "schema_migrations.sql");
+    }
+    
+    private static void runScript(Connection conn, String resource) throws SQLException, IOException {
+        try (InputStream in = DatabaseConnection.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
                 return;
             }
-            // Table does not exist, run the full schema (including drops)
-            try (InputStream in = DatabaseConnection.class.getClassLoader().getResourceAsStream("schema.sql")) {
-                if (in == null) {
-                    schemaInitialized = true;
-                    return;
-                }
-                String sql = new BufferedReader(new InputStreamReader(in))
-                        .lines()
-                        .collect(Collectors.joining("\n"));
-                // Split on semicolons to execute individual statements
-                String[] statements = sql.split(";\\s*\n");
-                try (Statement stmt = conn.createStatement()) {
-                    for (String s : statements) {
-                        String trimmed = s.trim();
-                        if (!trimmed.isEmpty()) {
-                            stmt.execute(trimmed);
-                        }
+            String sql = new BufferedReader(new InputStreamReader(in))
+                    .lines()
+                    .collect(Collectors.joining("\n"));
+            // Split on semicolons to execute individual statements
+            String[] statements = sql.split(";\\s*\n");
+            try (Statement stmt = conn.createStatement()) {
+                for (String s : statements) {
+                    String trimmed = s.trim();
+                    if (!trimmed.isEmpty()) {
+                        stmt.execute(trimmed);
                     }
                 }
             }
-            schemaInitialized = true;
-        } catch (Exception e) {
-            System.err.println("Failed to initialize schema from schema.sql");
-            e.printStackTrace();
         }
     }
     
@@ -0,0 +1,33 @@
+package com.example.library.domain;
+
+import java.math.BigDecimal;
+
+/**
+ * What decides whether a user may borrow: overdue loans and unpaid fines.
+ */
+public class BorrowingEligibility {
+    private final boolean hasOverdueLoans;
+    private final BigDecimal unpaidFines;
+
+    public BorrowingEligibility(boolean hasOverdueLoans, BigDecimal unpaidFines) {
+        this.hasOverdueLoans = hasOverdueLoans;
+        this.unpaidFines = unpaidFines;
+    }
+
+    public boolean hasOverdueLoans() {
+        return hasOverdueLoans;
+    }
+
+    public BigDecimal getUnpaidFines() {
+        return unpaidFines;
+    }
+
+    /**
+     * Tells whether the user may borrow: no overdue loans and nothing left to pay.
+     *
+     * @return true if the user is eligible
+     */
+    public boolean isEligible() {
+        return !hasOverdueLoans && unpaidFines.compareTo(BigDecimal.ZERO) <= 0;
+    }
+}
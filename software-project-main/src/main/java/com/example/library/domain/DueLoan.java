@@ -0,0 +1,28 @@
+package com.example.library.domain;
+
+/**
+ * An open loan together with its borrower, as needed to send a reminder
+ * about it.
+ */
+public class DueLoan {
+    private final Loan loan;
+    private final User borrower;
+
+    public DueLoan(Loan loan, User borrower) {
+        this.loan = loan;
+        this.borrower = borrower;
+    }
+
+    public Loan getLoan() {
+        return loan;
+    }
+
+    /**
+     * Gets the borrower. Only the ID, username, email and role are loaded.
+     *
+     * @return the borrower
+     */
+    public User getBorrower() {
+        return borrower;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.library.domain;
+
+/**
+ * A fine with the user who owes it, as listed in the admin fines overview.
+ */
+public class FineWithUserView {
+    private final Fine fine;
+    private final Integer userId;
+    private final String username;
+
+    public FineWithUserView(Fine fine, Integer userId, String username) {
+        this.fine = fine;
+        this.userId = userId;
+        this.username = username;
+    }
+
+    public Fine getFine() {
+        return fine;
+    }
+
+    public Integer getUserId() {
+        return userId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+}
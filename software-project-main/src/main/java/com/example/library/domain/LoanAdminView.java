@@ -0,0 +1,29 @@
+package com.example.library.domain;
+
+/**
+ * A loan with the name of its borrower and the title of its item, as listed
+ * in the admin loans overview.
+ */
+public class LoanAdminView {
+    private final Loan loan;
+    private final String username;
+    private final String itemTitle;
+
+    public LoanAdminView(Loan loan, String username, String itemTitle) {
+        this.loan = loan;
+        this.username = username;
+        this.itemTitle = itemTitle;
+    }
+
+    public Loan getLoan() {
+        return loan;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public String getItemTitle() {
+        return itemTitle;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.library.domain;
+
+/**
+ * A loan together with the media item it lends out, for screens that show
+ * item details next to each loan.
+ */
+public class LoanWithItem {
+    private final Loan loan;
+    private final MediaItem item;
+
+    public LoanWithItem(Loan loan, MediaItem item) {
+        this.loan = loan;
+        this.item = item;
+    }
+
+    public Loan getLoan() {
+        return loan;
+    }
+
+    /**
+     * Gets the borrowed item.
+     *
+     * @return the item, or null if it no longer exists in the catalog
+     */
+    public MediaItem getItem() {
+        return item;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.library.domain;
+
+/**
+ * A borrower together with the number of their overdue loans, as needed to
+ * send one overdue reminder per user.
+ */
+public class OverdueSummary {
+    private final User user;
+    private final int overdueCount;
+
+    public OverdueSummary(User user, int overdueCount) {
+        this.user = user;
+        this.overdueCount = overdueCount;
+    }
+
+    /**
+     * Gets the borrower. Only the ID, username, email and role are loaded.
+     *
+     * @return the borrower
+     */
+    public User getUser() {
+        return user;
+    }
+
+    public int getOverdueCount() {
+        return overdueCount;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.library.domain;
+
+import java.time.LocalDate;
+
+/**
+ * How far a day's reminder pass of one kind has got, so that a run
+ * interrupted by a crash can carry on where it stopped.
+ */
+public class ReminderCheckpoint {
+    private final LocalDate runDate;
+    private final String kind;
+    private final int lastLoanId;
+    private final boolean completed;
+
+    public ReminderCheckpoint(LocalDate runDate, String kind, int lastLoanId, boolean completed) {
+        this.runDate = runDate;
+        this.kind = kind;
+        this.lastLoanId = lastLoanId;
+        this.completed = completed;
+    }
+
+    public LocalDate getRunDate() {
+        return runDate;
+    }
+
+    /**
+     * Gets the kind of reminder the pass sends.
+     *
+     * @return DUE_SOON or OVERDUE
+     */
+    public String getKind() {
+        return kind;
+    }
+
+    /**
+     * Gets the highest loan ID the pass has finished with.
+     *
+     * @return the last loan ID processed, or 0 if none yet
+     */
+    public int getLastLoanId() {
+        return lastLoanId;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+}
@@ -4,47 +4,107 @@ import com.example.library.domain.User;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Properties;
-
-import jakarta.mail.Authenticator;
-import jakarta.mail.Message;
-import jakarta.mail.MessagingException;
-import jakarta.mail.PasswordAuthentication;
-import jakarta.mail.Session;
-import jakarta.mail.Transport;
-import jakarta.mail.internet.InternetAddress;
-import jakarta.mail.internet.MimeMessage;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Email notification implementation of the Notifier interface.
- * Currently stores messages in memory for testing purposes.
- * In production, this would integrate with an actual email service.
+ * Records every message in a bounded {@link SentMessageJournal}, and when
+ * SMTP is configured in email.properties first hands it to an
+ * {@link SmtpMailSender}, which delivers it in the background over pooled
+ * connections. A message the sender cannot queue is not recorded.
  */
 public class EmailNotifier implements Notifier {
     
-    private final List<String> sentMessages;
-    private final Properties mailProperties;
+    private static final String SUBJECT = "Library Notification";
+    
+    /** Number of sent messages kept in memory by default. */
+    static final int DEFAULT_JOURNAL_CAPACITY = 1_000;
+    
+    private static SmtpMailSender defaultMailSender;
+    private static boolean defaultMailSenderLoaded;
+    
+    private final SentMessageJournal journal;
+    private final SmtpMailSender mailSender;
     
     /**
-     * Constructs a new email notifier.
+     * Constructs a new email notifier that delivers through the shared
+     * sender configured in email.properties, if any.
      */
     public EmailNotifier() {
-        this.sentMessages = new ArrayList<>();
-        this.mailProperties = loadMailProperties();
+        this(getDefaultMailSender());
+    }
+    
+    /**
+     * Constructs a new email notifier that keeps the last
+     * {@value #DEFAULT_JOURNAL_CAPACITY} messages in memory.
+     * 
+     * @param mailSender the sender to deliver through, or null to only record messages
+     */
+    public EmailNotifier(SmtpMailSender mailSender) {
+        this(mailSender, new SentMessageJournal(DEFAULT_JOURNAL_CAPACITY));
+    }
+    
+    /**
+     * Constructs a new email notifier.
+     * 
+     * @param mailSender the sender to deliver through, or null to only record messages
+     * @param journal the record of sent messages, for instance one that spills to disk
+     */
+    public EmailNotifier(SmtpMailSender mailSender, SentMessageJournal journal) {
+        this.journal = journal;
+        this.mailSender = mailSender;
     }
     
     /**
      * Sends an email notification to a user.
-     * Currently simulates email sending by storing the message in memory.
+     * The message is queued for delivery and recorded in the journal once queued;
+     * this method does not wait for the SMTP server. Like every notifier it is
+     * best-effort: a message the delivery queue cannot take is logged and
+     * dropped. Use {@link #deliver} to learn whether the server accepted it.
      * 
      * @param user the user to notify
      * @param message the notification message
      */
     @Override
     public void notify(User user, String message) {
+        validate(user, message);
+        if (mailSender == null || mailSender.submit(user.getEmail(), SUBJECT, message)) {
+            record(user, message);
+        } else {
+            System.err.println("Email queue unavailable, message to " + user.getEmail() + " was dropped");
+        }
+    }
+    
+    /**
+     * Queues an email notification for delivery and records it in the journal
+     * once queued. Without a mail sender the message is only recorded and counts
+     * as delivered.
+     * 
+     * @param user the user to notify
+     * @param message the notification message
+     * @return a future completed when the SMTP server accepts the message, or
+     *         completed exceptionally if it is dropped or the sender gives up on it
+     */
+    @Override
+    public CompletableFuture<Void> deliver(User user, String message) {
+        validate(user, message);
+        if (mailSender == null) {
+            record(user, message);
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> delivery = mailSender.queue(user.getEmail(), SUBJECT, message);
+        if (delivery == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException(
+                    "Email queue unavailable, message to " + user.getEmail() + " was not sent"));
+        }
+        record(user, message);
+        return delivery;
+    }
+    
+    private static void validate(User user, String message) {
         if (user == null) {
             throw new IllegalArgumentException("User cannot be null");
         }
@@ -56,30 +116,32 @@ public class EmailNotifier implements Notifier {
         if (message == null || message.trim().isEmpty()) {
             throw new IllegalArgumentException("Message cannot be null or empty");
         }
-        
+    }
+    
+    private void record(User user, String message) {
         String emailMessage = user.getEmail() + ": " + message;
-        sentMessages.add(emailMessage);
-        
-        // Attempt to send a real email if mail configuration is available.
-        // Any failure here should NOT break application flow; it will only be logged.
-        if (!mailProperties.isEmpty()) {
-            try {
-                sendRealEmail(user, message);
-            } catch (Exception e) {
-                // Log to stderr to avoid affecting normal program behavior or tests
-                System.err.println("Failed to send real email: " + e.getMessage());
-            }
-        }
+        journal.append(emailMessage);
     }
     
     /**
-     * Retrieves all sent messages.
-     * Returns an unmodifiable list for testing purposes.
+     * Retrieves the most recent sent messages, those still held in memory.
+     * Returns an unmodifiable snapshot, oldest first.
      * 
-     * @return list of all sent email messages
+     * @return list of recent sent email messages
      */
     public List<String> getSentMessages() {
-        return Collections.unmodifiableList(sentMessages);
+        return Collections.unmodifiableList(journal.recent());
+    }
+    
+    /**
+     * Pages through every sent message still recorded, in memory or on disk.
+     * 
+     * @param fromSequence the sequence to start at; 0 for the oldest message kept
+     * @param limit the maximum number of messages to return
+     * @return the messages with their sequence numbers, in the order they were sent
+     */
+    public List<SentMessageJournal.Entry> getSentMessages(long fromSequence, int limit) {
+        return journal.read(fromSequence, limit);
     }
     
     /**
@@ -87,10 +149,43 @@ public class EmailNotifier implements Notifier {
      * Useful for resetting state between tests.
      */
     public void clearMessages() {
-        sentMessages.clear();
+        journal.clear();
+    }
+    
+    /**
+     * Gets the sender shared by notifiers created with the no-argument
+     * constructor, creating it from email.properties on first use.
+     * 
+     * @return the shared sender, or null if SMTP is not configured
+     */
+    public static synchronized SmtpMailSender getDefaultMailSender() {
+        if (!defaultMailSenderLoaded) {
+            Properties mailProperties = loadMailProperties();
+            if (SmtpMailSender.isConfigured(mailProperties)) {
+                try {
+                    defaultMailSender = new SmtpMailSender(mailProperties);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Invalid email configuration: " + e.getMessage());
+                }
+            }
+            defaultMailSenderLoaded = true;
+        }
+        return defaultMailSender;
+    }
+    
+    /**
+     * Closes the shared sender, if it was created, after it has sent what is
+     * already queued.
+     */
+    public static synchronized void closeDefaultMailSender() {
+        if (defaultMailSender != null) {
+            defaultMailSender.close();
+            defaultMailSender = null;
+        }
+        defaultMailSenderLoaded = false;
     }
 
-    private Properties loadMailProperties() {
+    private static Properties loadMailProperties() {
         Properties props = new Properties();
         try (InputStream in = EmailNotifier.class.getClassLoader().getResourceAsStream("email.properties")) {
             if (in == null) {
@@ -102,43 +197,4 @@ public class EmailNotifier implements Notifier {
         }
         return props;
     }
-
-    private void sendRealEmail(User user, String messageBody) throws MessagingException {
-        String host = mailProperties.getProperty("mail.smtp.host");
-        String port = mailProperties.getProperty("mail.smtp.port", "587");
-        String username = mailProperties.getProperty("mail.smtp.username");
-        String password = mailProperties.getProperty("mail.smtp.password");
-        String fromAddress = mailProperties.getProperty("mail.from.address", username);
-        String fromName = mailProperties.getProperty("mail.from.name", "Library System");
-
-        if (host == null || username == null || password == null) {
-            // Missing essential configuration - skip real sending
-            return;
-        }
-
-        Properties sessionProps = new Properties();
-        sessionProps.put("mail.smtp.host", host);
-        sessionProps.put("mail.smtp.port", port);
-        sessionProps.put("mail.smtp.auth", mailProperties.getProperty("mail.smtp.auth", "true"));
-        sessionProps.put("mail.smtp.starttls.enable", mailProperties.getProperty("mail.smtp.starttls.enable", "true"));
-
-        Session session = Session.getInstance(sessionProps, new Authenticator() {
-            @Override
-            protected PasswordAuthentication getPasswordAuthentication() {
-                return new PasswordAuthentication(username, password);
-            }
-        });
-
-        Message mimeMessage = new MimeMessage(session);
-        try {
-            mimeMessage.setFrom(new InternetAddress(fromAddress, fromName));
-        } catch (java.io.UnsupportedEncodingException e) {
-            mimeMessage.setFrom(new InternetAddress(fromAddress));
-        }
-        mimeMessage.setRecipients(Message.RecipientType.TO, InternetAddress.parse(user.getEmail()));
-        mimeMessage.setSubject("Library Notification");
-        mimeMessage.setText(messageBody);
-
-        Transport.send(mimeMessage);
-    }
 }
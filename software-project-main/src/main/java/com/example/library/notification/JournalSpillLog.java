@@ -0,0 +1,248 @@
+package com.example.library.notification;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+/**
+ * Rotating on-disk log of journal entries that no longer fit in memory.
+ *
+ * Entries are appended as one line each, {@code sequence TAB message}, to a
+ * file named after the first sequence it holds. A new file is started when
+ * the current one would grow past {@code maxFileBytes}, and the oldest files
+ * are deleted once there are more than {@code maxFiles}.
+ *
+ * Concurrent spills can land a few entries out of sequence order, so reads
+ * start one file early and sort what they find.
+ */
+class JournalSpillLog implements AutoCloseable {
+
+    private static final String PREFIX = "sent-";
+    private static final String SUFFIX = ".log";
+
+    private final Path directory;
+    private final long maxFileBytes;
+    private final int maxFiles;
+
+    private BufferedWriter writer;
+    private long currentFileBytes;
+
+    /**
+     * Opens the log, creating the directory if needed. Files left by an
+     * earlier run are kept and can still be read.
+     *
+     * @param directory the directory holding the log files
+     * @param maxFileBytes the size at which a new file is started
+     * @param maxFiles the number of files kept
+     */
+    JournalSpillLog(Path directory, long maxFileBytes, int maxFiles) {
+        if (maxFileBytes <= 0 || maxFiles <= 0) {
+            throw new IllegalArgumentException("maxFileBytes and maxFiles must be positive");
+        }
+        this.directory = directory;
+        this.maxFileBytes = maxFileBytes;
+        this.maxFiles = maxFiles;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal directory " + directory, e);
+        }
+    }
+
+    /**
+     * Appends an entry. Called by the journal's spill writer thread, and by
+     * senders only when that writer has fallen far behind.
+     *
+     * @param entry the entry to write
+     */
+    synchronized void append(SentMessageJournal.Entry entry) {
+        String line = entry.getSequence() + "\t" + escape(entry.getMessage()) + "\n";
+        long lineBytes = line.getBytes(StandardCharsets.UTF_8).length;
+        try {
+            if (writer == null || currentFileBytes + lineBytes > maxFileBytes) {
+                rotate(entry.getSequence());
+            }
+            writer.write(line);
+            currentFileBytes += lineBytes;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write journal entry " + entry.getSequence(), e);
+        }
+    }
+
+    /**
+     * Reads entries in sequence order.
+     *
+     * @param fromSequence the smallest sequence to return
+     * @param limit the maximum number of entries
+     * @return up to {@code limit} entries with a sequence of at least {@code fromSequence}
+     */
+    synchronized List<SentMessageJournal.Entry> read(long fromSequence, int limit) {
+        try {
+            if (writer != null) {
+                writer.flush();
+            }
+            List<Path> files = files();
+            int start = 0;
+            for (int i = 0; i < files.size(); i++) {
+                if (firstSequence(files.get(i)) <= fromSequence) {
+                    start = i;
+                }
+            }
+            // One file of slack for entries that were spilled slightly out of order
+            start = Math.max(0, start - 1);
+
+            TreeMap<Long, SentMessageJournal.Entry> found = new TreeMap<>();
+            boolean enough = false;
+            for (int i = start; i < files.size(); i++) {
+                readFile(files.get(i), fromSequence, found);
+                if (enough) {
+                    break;
+                }
+                enough = found.size() >= limit;
+            }
+            List<SentMessageJournal.Entry> page = new ArrayList<>(Math.min(limit, found.size()));
+            for (SentMessageJournal.Entry entry : found.values()) {
+                if (page.size() == limit) {
+                    break;
+                }
+                page.add(entry);
+            }
+            return page;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Finds the highest sequence written, including by an earlier run.
+     *
+     * @return the last sequence on disk, or -1 if the log is empty
+     */
+    synchronized long lastSequence() {
+        try {
+            List<Path> files = files();
+            long last = -1;
+            // The newest file may be empty if it was created just before a crash
+            for (int i = files.size() - 1; i >= 0 && last < 0; i--) {
+                TreeMap<Long, SentMessageJournal.Entry> entries = new TreeMap<>();
+                readFile(files.get(i), Long.MIN_VALUE, entries);
+                if (!entries.isEmpty()) {
+                    last = entries.lastKey();
+                }
+            }
+            return last;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read journal in " + directory, e);
+        }
+    }
+
+    /**
+     * Deletes every log file.
+     */
+    synchronized void deleteAll() {
+        try {
+            closeWriter();
+            for (Path file : files()) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot clear journal in " + directory, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            closeWriter();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close journal in " + directory, e);
+        }
+    }
+
+    private void rotate(long firstSequence) throws IOException {
+        closeWriter();
+        Path file = directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        currentFileBytes = Files.size(file);
+
+        List<Path> files = files();
+        for (int i = 0; i < files.size() - maxFiles; i++) {
+            Files.deleteIfExists(files.get(i));
+        }
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer != null) {
+            writer.close();
+            writer = null;
+        }
+    }
+
+    private List<Path> files() throws IOException {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        // Zero-padded names sort by first sequence
+        files.sort(null);
+        return files;
+    }
+
+    private static void readFile(Path file, long fromSequence, TreeMap<Long, SentMessageJournal.Entry> into)
+            throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab <= 0) {
+                    continue;
+                }
+                long sequence;
+                try {
+                    sequence = Long.parseLong(line.substring(0, tab));
+                } catch (NumberFormatException e) {
+                    // Torn line from a crash mid-write
+                    continue;
+                }
+                if (sequence >= fromSequence) {
+                    into.put(sequence, new SentMessageJournal.Entry(sequence, unescape(line.substring(tab + 1))));
+                }
+            }
+        }
+    }
+
+    private static long firstSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static String escape(String message) {
+        return message.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String text) {
+        StringBuilder message = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '\\' && i + 1 < text.length()) {
+                char next = text.charAt(++i);
+                message.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                message.append(c);
+            }
+        }
+        return message.toString();
+    }
+}
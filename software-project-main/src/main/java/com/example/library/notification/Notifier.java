@@ -2,6 +2,8 @@ package com.example.library.notification;
 
 import com.example.library.domain.User;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * Observer-like interface for notification mechanisms.
  * Implementations can send notifications through various channels (email, SMS, etc.).
@@ -15,4 +17,19 @@ public interface Notifier {
      * @param message the notification message
      */
     void notify(User user, String message);
+
+    /**
+     * Sends a notification to a user and reports whether it reached them.
+     * Implementations that deliver in the background override this; by default
+     * the notification counts as delivered once {@link #notify} returns.
+     *
+     * @param user the user to notify
+     * @param message the notification message
+     * @return a future completed once the notification is delivered, or
+     *         completed exceptionally if it could not be
+     */
+    default CompletableFuture<Void> deliver(User user, String message) {
+        notify(user, message);
+        return CompletableFuture.completedFuture(null);
+    }
 }
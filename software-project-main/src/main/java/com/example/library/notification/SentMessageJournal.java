@@ -0,0 +1,310 @@
+package com.example.library.notification;
+
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded record of sent messages.
+ *
+ * The most recent {@code capacity} messages live in a ring buffer. Appending
+ * takes a sequence number from a counter and compare-and-sets the message
+ * into its slot, so concurrent senders never block each other. The message a
+ * new one displaces is dropped, or, when a spill directory is configured, put
+ * on a lock-free queue that one background thread writes to a rotating
+ * {@link JournalSpillLog}, so senders do no file I/O. Only if that writer
+ * falls {@value #MAX_PENDING_SPILLS} messages behind does a sender write to
+ * disk itself, which slows it down instead of losing history.
+ *
+ * {@link #read} pages through everything still on disk or in memory by
+ * sequence number.
+ */
+public class SentMessageJournal implements AutoCloseable {
+
+    /** Number of displaced messages that may wait for the spill writer. */
+    static final int MAX_PENDING_SPILLS = 10_000;
+
+    private static final long WRITER_IDLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final AtomicLong nextSequence;
+    private final JournalSpillLog spillLog;
+
+    private final ConcurrentLinkedQueue<Entry> pendingSpills = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingSpillCount = new AtomicInteger();
+    private final Object spillLock = new Object();
+    private final Thread spillWriter;
+    private volatile boolean writerIdle;
+    private volatile boolean closed;
+
+    /**
+     * Creates a journal that keeps only the most recent messages.
+     *
+     * @param capacity the number of messages kept in memory
+     */
+    public SentMessageJournal(int capacity) {
+        this(capacity, null);
+    }
+
+    /**
+     * Creates a journal that moves older messages to disk. Numbering
+     * continues after the last message an earlier run left in the directory.
+     *
+     * @param capacity the number of messages kept in memory
+     * @param spillDirectory the directory for the on-disk log
+     * @param maxFileBytes the size at which a new log file is started
+     * @param maxFiles the number of log files kept; older ones are deleted
+     */
+    public SentMessageJournal(int capacity, Path spillDirectory, long maxFileBytes, int maxFiles) {
+        this(capacity, new JournalSpillLog(spillDirectory, maxFileBytes, maxFiles));
+    }
+
+    private SentMessageJournal(int capacity, JournalSpillLog spillLog) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.spillLog = spillLog;
+        this.nextSequence = new AtomicLong(spillLog == null ? 0 : spillLog.lastSequence() + 1);
+        if (spillLog == null) {
+            this.spillWriter = null;
+        } else {
+            this.spillWriter = new Thread(this::writeSpills, "journal-spill");
+            this.spillWriter.setDaemon(true);
+            this.spillWriter.start();
+        }
+    }
+
+    /**
+     * Records a message.
+     *
+     * @param message the message text
+     * @return the message's sequence number
+     */
+    public long append(String message) {
+        long sequence = nextSequence.getAndIncrement();
+        Entry entry = new Entry(sequence, message);
+        int slot = (int) (sequence % slots.length());
+        while (true) {
+            Entry current = slots.get(slot);
+            if (current != null && current.sequence > sequence) {
+                // A writer a full lap ahead already took the slot; this entry is already the older one
+                spill(entry);
+                return sequence;
+            }
+            if (slots.compareAndSet(slot, current, entry)) {
+                if (current != null) {
+                    spill(current);
+                }
+                return sequence;
+            }
+        }
+    }
+
+    /**
+     * Gets the messages held in memory.
+     *
+     * @return up to {@code capacity} of the most recent messages, oldest first
+     */
+    public List<String> recent() {
+        List<Entry> entries = inMemory(Long.MIN_VALUE);
+        List<String> messages = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            messages.add(entry.message);
+        }
+        return messages;
+    }
+
+    /**
+     * Reads a page of messages in sequence order, from memory, the spill queue and disk.
+     * Pass one more than the last sequence of a page to get the next one.
+     *
+     * @param fromSequence the smallest sequence to return; 0 for the oldest message kept
+     * @param limit the maximum number of messages
+     * @return up to {@code limit} entries with a sequence of at least {@code fromSequence}
+     */
+    public List<Entry> read(long fromSequence, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        // Memory, then the queue, then disk: an entry moving on in between is found in the next place,
+        // as the writer only takes an entry off the queue once it is on disk
+        TreeMap<Long, Entry> found = new TreeMap<>();
+        for (Entry entry : inMemory(fromSequence)) {
+            found.put(entry.sequence, entry);
+        }
+        for (Entry entry : pendingSpills) {
+            if (entry.sequence >= fromSequence) {
+                found.put(entry.sequence, entry);
+            }
+        }
+        if (spillLog != null) {
+            for (Entry entry : spillLog.read(fromSequence, limit)) {
+                found.put(entry.sequence, entry);
+            }
+        }
+        List<Entry> page = new ArrayList<>(Math.min(limit, found.size()));
+        for (Entry entry : found.values()) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(entry);
+        }
+        return page;
+    }
+
+    /**
+     * Gets the sequence number the next message will get.
+     *
+     * @return the next sequence number
+     */
+    public long nextSequence() {
+        return nextSequence.get();
+    }
+
+    /**
+     * Discards every message in memory and on disk. Messages appended while
+     * this runs may survive.
+     */
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+        if (spillLog != null) {
+            synchronized (spillLock) {
+                while (pendingSpills.poll() != null) {
+                    pendingSpillCount.decrementAndGet();
+                }
+                spillLog.deleteAll();
+            }
+        }
+    }
+
+    /**
+     * Stops the spill writer once it has written what is queued, and writes
+     * the messages still in memory to disk, if a spill directory is
+     * configured, so a later run can read them.
+     */
+    @Override
+    public void close() {
+        if (spillLog == null) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(spillWriter);
+        try {
+            spillWriter.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Whatever the writer left is written here; the lock keeps the two from writing an entry twice
+        writePendingSpills();
+        for (int i = 0; i < slots.length(); i++) {
+            Entry entry = slots.getAndSet(i, null);
+            if (entry != null) {
+                writeToDisk(entry);
+            }
+        }
+        spillLog.close();
+    }
+
+    private List<Entry> inMemory(long fromSequence) {
+        List<Entry> entries = new ArrayList<>();
+        for (int i = 0; i < slots.length(); i++) {
+            Entry entry = slots.get(i);
+            if (entry != null && entry.sequence >= fromSequence) {
+                entries.add(entry);
+            }
+        }
+        entries.sort(Comparator.comparingLong(Entry::getSequence));
+        return entries;
+    }
+
+    private void spill(Entry entry) {
+        if (spillLog == null) {
+            return;
+        }
+        if (!closed) {
+            if (pendingSpillCount.incrementAndGet() <= MAX_PENDING_SPILLS) {
+                pendingSpills.offer(entry);
+                if (writerIdle) {
+                    LockSupport.unpark(spillWriter);
+                }
+                return;
+            }
+            pendingSpillCount.decrementAndGet();
+        }
+        // The writer has stopped or is too far behind; write here rather than lose the entry
+        writeToDisk(entry);
+    }
+
+    /**
+     * Runs on the spill writer thread until the journal is closed.
+     */
+    private void writeSpills() {
+        while (true) {
+            writePendingSpills();
+            if (closed) {
+                return;
+            }
+            writerIdle = true;
+            // Checked after going idle, so a sender that queued meanwhile either is seen here or wakes us
+            if (pendingSpills.isEmpty() && !closed) {
+                LockSupport.parkNanos(this, WRITER_IDLE_NANOS);
+            }
+            writerIdle = false;
+        }
+    }
+
+    private void writePendingSpills() {
+        synchronized (spillLock) {
+            Entry entry;
+            while ((entry = pendingSpills.peek()) != null) {
+                writeToDisk(entry);
+                // Removed only once written, so a concurrent read finds it in one place or the other
+                if (pendingSpills.remove(entry)) {
+                    pendingSpillCount.decrementAndGet();
+                }
+            }
+        }
+    }
+
+    private void writeToDisk(Entry entry) {
+        try {
+            spillLog.append(entry);
+        } catch (UncheckedIOException e) {
+            // Losing history must not stop notifications from going out
+            System.err.println("Failed to write sent message " + entry.sequence + " to disk: " + e.getMessage());
+        }
+    }
+
+    /**
+     * A recorded message and its sequence number.
+     */
+    public static final class Entry {
+        private final long sequence;
+        private final String message;
+
+        Entry(long sequence, String message) {
+            this.sequence = sequence;
+            this.message = message;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -0,0 +1,572 @@
+package com.example.library.notification;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Properties;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import jakarta.mail.Address;
+import jakarta.mail.Authenticator;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.PasswordAuthentication;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * Delivers emails over SMTP in the background.
+ *
+ * {@link #submit} only puts a message on a bounded queue. A fixed number of
+ * worker threads take messages off it, and each worker keeps its own
+ * connected {@link Transport}, so one SMTP connection and login carries many
+ * messages instead of one.
+ *
+ * <ul>
+ *   <li>A connection is closed after {@code mail.sender.messagesPerConnection}
+ *       messages, or when it has been idle for
+ *       {@code mail.sender.idleTimeoutMillis}, since servers cap and drop
+ *       long-lived sessions.</li>
+ *   <li>When a send fails the worker drops its connection, waits
+ *       {@code mail.sender.retryBackoffMillis} times the attempt number,
+ *       reconnects and tries again, up to {@code mail.sender.maxAttempts}
+ *       attempts. Messages the server rejected recipients of are not retried.</li>
+ *   <li>All workers together send at most {@code mail.sender.ratePerSecond}
+ *       messages per second; 0 disables the limit.</li>
+ *   <li>{@link #send} returns a future that tells the caller whether the
+ *       server finally accepted the message.</li>
+ *   <li>{@link #getStats()} returns delivery counters for monitoring.</li>
+ * </ul>
+ *
+ * Connection settings use the {@code mail.smtp.*} and {@code mail.from.*}
+ * keys of email.properties.
+ */
+public class SmtpMailSender implements AutoCloseable {
+
+    private static final long POLL_MILLIS = 250;
+    private static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+    private static final String DEFAULT_TIMEOUT_MILLIS = "10000";
+
+    private final Session session;
+    private final String host;
+    private final int port;
+    private final String username;
+    private final String password;
+    private final InternetAddress fromAddress;
+
+    private final int maxAttempts;
+    private final long retryBackoffMillis;
+    private final int messagesPerConnection;
+    private final long idleTimeoutMillis;
+    private final RateLimiter rateLimiter;
+
+    private final BlockingQueue<OutgoingMail> queue;
+    private final ExecutorService workers;
+    private volatile boolean closed;
+
+    private final Object idleLock = new Object();
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder connectionsOpened = new LongAdder();
+    private final LongAdder totalSendNanos = new LongAdder();
+    private final AtomicLong maxSendNanos = new AtomicLong();
+
+    /**
+     * Creates the sender and starts its workers.
+     *
+     * @param mailProperties the SMTP settings; see {@link #isConfigured}
+     * @throws IllegalArgumentException if the settings are incomplete
+     */
+    public SmtpMailSender(Properties mailProperties) {
+        if (!isConfigured(mailProperties)) {
+            throw new IllegalArgumentException("SMTP host, credentials and sender address are required");
+        }
+        this.host = mailProperties.getProperty("mail.smtp.host");
+        this.port = Integer.parseInt(mailProperties.getProperty("mail.smtp.port", "587"));
+        this.username = mailProperties.getProperty("mail.smtp.username");
+        this.password = mailProperties.getProperty("mail.smtp.password");
+        this.fromAddress = fromAddress(mailProperties);
+        this.session = createSession(mailProperties);
+
+        int threads = intProperty(mailProperties, "mail.sender.threads", 2);
+        this.maxAttempts = intProperty(mailProperties, "mail.sender.maxAttempts", 3);
+        this.retryBackoffMillis = intProperty(mailProperties, "mail.sender.retryBackoffMillis", 1_000);
+        this.messagesPerConnection = intProperty(mailProperties, "mail.sender.messagesPerConnection", 100);
+        this.idleTimeoutMillis = intProperty(mailProperties, "mail.sender.idleTimeoutMillis", 30_000);
+        double ratePerSecond = Double.parseDouble(mailProperties.getProperty("mail.sender.ratePerSecond", "10"));
+        this.rateLimiter = ratePerSecond > 0 ? new RateLimiter(ratePerSecond) : null;
+        this.queue = new LinkedBlockingQueue<>(intProperty(mailProperties, "mail.sender.queueCapacity", 10_000));
+
+        if (threads <= 0 || maxAttempts <= 0 || messagesPerConnection <= 0) {
+            throw new IllegalArgumentException("threads, maxAttempts and messagesPerConnection must be positive");
+        }
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "mail-sender-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < threads; i++) {
+            workers.execute(new Worker());
+        }
+    }
+
+    /**
+     * Checks whether the settings are complete enough to send mail: a host,
+     * a username and password unless {@code mail.smtp.auth} is false, and a
+     * sender address ({@code mail.from.address}, defaulting to the username).
+     *
+     * @param mailProperties the SMTP settings
+     * @return true if a sender can be created from the settings
+     */
+    public static boolean isConfigured(Properties mailProperties) {
+        if (mailProperties.getProperty("mail.smtp.host") == null) {
+            return false;
+        }
+        boolean auth = Boolean.parseBoolean(mailProperties.getProperty("mail.smtp.auth", "true"));
+        if (auth && (mailProperties.getProperty("mail.smtp.username") == null
+                || mailProperties.getProperty("mail.smtp.password") == null)) {
+            return false;
+        }
+        return mailProperties.getProperty("mail.from.address", mailProperties.getProperty("mail.smtp.username")) != null;
+    }
+
+    /**
+     * Queues an email for delivery. Returns immediately; the message is sent
+     * by a worker thread.
+     *
+     * @param to the recipient address
+     * @param subject the subject line
+     * @param body the plain-text body
+     * @return false if the sender is closed or its queue is full, in which case the message is dropped
+     */
+    public boolean submit(String to, String subject, String body) {
+        return enqueue(new OutgoingMail(to, subject, body));
+    }
+
+    /**
+     * Queues an email for delivery and lets the caller find out how it went.
+     * Returns immediately, like {@link #submit}.
+     *
+     * @param to the recipient address
+     * @param subject the subject line
+     * @param body the plain-text body
+     * @return a future completed when the server accepts the message, or
+     *         completed exceptionally with the last error once the sender gives
+     *         up on it, or with an {@link IllegalStateException} if the sender
+     *         is closed or its queue is full
+     */
+    public CompletableFuture<Void> send(String to, String subject, String body) {
+        CompletableFuture<Void> delivery = queue(to, subject, body);
+        if (delivery == null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Email queue unavailable, message to " + to + " was not sent"));
+        }
+        return delivery;
+    }
+
+    /**
+     * Queues an email for delivery, like {@link #send}, but tells a message
+     * that was never queued apart from one that failed later.
+     *
+     * @param to the recipient address
+     * @param subject the subject line
+     * @param body the plain-text body
+     * @return the message's delivery future, or null if the sender is closed or
+     *         its queue is full
+     */
+    CompletableFuture<Void> queue(String to, String subject, String body) {
+        OutgoingMail mail = new OutgoingMail(to, subject, body);
+        return enqueue(mail) ? mail.delivery : null;
+    }
+
+    /**
+     * Waits until every queued message has been sent or has failed.
+     *
+     * @param timeoutMillis the maximum time to wait
+     * @return true if the queue drained in time
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean flush(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (idleLock) {
+            while (pending.get() > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                idleLock.wait(remaining);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Takes a snapshot of the delivery counters.
+     *
+     * @return the current statistics
+     */
+    public Stats getStats() {
+        return new Stats(submitted.sum(), sent.sum(), failed.sum(), dropped.sum(), retries.sum(),
+                connectionsOpened.sum(), queue.size(), totalSendNanos.sum(), maxSendNanos.get());
+    }
+
+    /**
+     * Stops accepting messages, lets the workers send what is already
+     * queued for up to ten seconds, and closes their connections.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        workers.shutdown();
+        try {
+            if (!workers.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                workers.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        // Whatever the workers did not get to is never sent; tell anyone waiting for it
+        OutgoingMail abandoned;
+        while ((abandoned = queue.poll()) != null) {
+            abandoned.delivery.completeExceptionally(new IllegalStateException("Email sender closed"));
+            finished();
+        }
+    }
+
+    private boolean enqueue(OutgoingMail mail) {
+        if (closed) {
+            dropped.increment();
+            return false;
+        }
+        pending.incrementAndGet();
+        if (!queue.offer(mail)) {
+            finished();
+            dropped.increment();
+            return false;
+        }
+        submitted.increment();
+        return true;
+    }
+
+    private MimeMessage buildMessage(OutgoingMail mail) throws MessagingException {
+        MimeMessage message = new MimeMessage(session);
+        message.setFrom(fromAddress);
+        message.setRecipients(Message.RecipientType.TO, InternetAddress.parse(mail.to));
+        message.setSubject(mail.subject);
+        message.setText(mail.body);
+        // Transport.send does this implicitly; sendMessage does not
+        message.saveChanges();
+        return message;
+    }
+
+    private void finished() {
+        if (pending.decrementAndGet() == 0) {
+            synchronized (idleLock) {
+                idleLock.notifyAll();
+            }
+        }
+    }
+
+    private static Session createSession(Properties mailProperties) {
+        Properties sessionProps = new Properties();
+        sessionProps.put("mail.smtp.host", mailProperties.getProperty("mail.smtp.host"));
+        sessionProps.put("mail.smtp.port", mailProperties.getProperty("mail.smtp.port", "587"));
+        sessionProps.put("mail.smtp.auth", mailProperties.getProperty("mail.smtp.auth", "true"));
+        sessionProps.put("mail.smtp.starttls.enable", mailProperties.getProperty("mail.smtp.starttls.enable", "true"));
+        // Without timeouts a stalled server would hang a worker forever
+        for (String key : new String[]{"mail.smtp.connectiontimeout", "mail.smtp.timeout", "mail.smtp.writetimeout"}) {
+            sessionProps.put(key, mailProperties.getProperty(key, DEFAULT_TIMEOUT_MILLIS));
+        }
+
+        String username = mailProperties.getProperty("mail.smtp.username");
+        String password = mailProperties.getProperty("mail.smtp.password");
+        if (username == null || password == null) {
+            return Session.getInstance(sessionProps);
+        }
+        return Session.getInstance(sessionProps, new Authenticator() {
+            @Override
+            protected PasswordAuthentication getPasswordAuthentication() {
+                return new PasswordAuthentication(username, password);
+            }
+        });
+    }
+
+    private static InternetAddress fromAddress(Properties mailProperties) {
+        String address = mailProperties.getProperty("mail.from.address", mailProperties.getProperty("mail.smtp.username"));
+        String name = mailProperties.getProperty("mail.from.name", "Library System");
+        try {
+            return new InternetAddress(address, name);
+        } catch (UnsupportedEncodingException e) {
+            try {
+                return new InternetAddress(address);
+            } catch (MessagingException invalid) {
+                throw new IllegalArgumentException("Invalid sender address: " + address, invalid);
+            }
+        }
+    }
+
+    private static int intProperty(Properties properties, String key, int defaultValue) {
+        String value = properties.getProperty(key);
+        return value == null ? defaultValue : Integer.parseInt(value.trim());
+    }
+
+    /**
+     * Takes messages off the queue and sends them over its own connection.
+     */
+    private final class Worker implements Runnable {
+        private Transport transport;
+        private int messagesOnConnection;
+        private long lastUsedMillis;
+
+        @Override
+        public void run() {
+            try {
+                while (true) {
+                    OutgoingMail mail = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                    if (mail == null) {
+                        if (closed) {
+                            return;
+                        }
+                        if (transport != null && System.currentTimeMillis() - lastUsedMillis > idleTimeoutMillis) {
+                            disconnect();
+                        }
+                        continue;
+                    }
+                    try {
+                        deliver(mail);
+                    } catch (InterruptedException e) {
+                        mail.delivery.completeExceptionally(e);
+                        throw e;
+                    } finally {
+                        finished();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                disconnect();
+            }
+        }
+
+        private void deliver(OutgoingMail mail) throws InterruptedException {
+            MimeMessage message;
+            try {
+                message = buildMessage(mail);
+            } catch (MessagingException e) {
+                fail(mail, e);
+                return;
+            }
+
+            for (int attempt = 1; ; attempt++) {
+                if (rateLimiter != null) {
+                    rateLimiter.acquire();
+                }
+                long start = System.nanoTime();
+                try {
+                    connectedTransport().sendMessage(message, message.getAllRecipients());
+                    long elapsed = System.nanoTime() - start;
+                    sent.increment();
+                    totalSendNanos.add(elapsed);
+                    maxSendNanos.accumulateAndGet(elapsed, Math::max);
+                    lastUsedMillis = System.currentTimeMillis();
+                    if (++messagesOnConnection >= messagesPerConnection) {
+                        disconnect();
+                    }
+                    mail.delivery.complete(null);
+                    return;
+                } catch (MessagingException e) {
+                    if (isRejected(e)) {
+                        fail(mail, e);
+                        return;
+                    }
+                    // The connection may be half-dead; start the next attempt on a fresh one
+                    disconnect();
+                    if (attempt >= maxAttempts) {
+                        fail(mail, e);
+                        return;
+                    }
+                    retries.increment();
+                    Thread.sleep(retryBackoffMillis * attempt);
+                }
+            }
+        }
+
+        private Transport connectedTransport() throws MessagingException {
+            if (transport == null) {
+                Transport opened = session.getTransport("smtp");
+                opened.connect(host, port, username, password);
+                connectionsOpened.increment();
+                transport = opened;
+                messagesOnConnection = 0;
+            }
+            return transport;
+        }
+
+        private void disconnect() {
+            if (transport == null) {
+                return;
+            }
+            try {
+                transport.close();
+            } catch (MessagingException e) {
+                // The connection is being dropped anyway
+            }
+            transport = null;
+        }
+
+        private void fail(OutgoingMail mail, MessagingException e) {
+            failed.increment();
+            System.err.println("Failed to send email to " + mail.to + ": " + e.getMessage());
+            mail.delivery.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * The server refused some recipients; resending the same message would
+     * be refused again.
+     */
+    private static boolean isRejected(MessagingException e) {
+        if (!(e instanceof SendFailedException)) {
+            return false;
+        }
+        Address[] invalid = ((SendFailedException) e).getInvalidAddresses();
+        return invalid != null && invalid.length > 0;
+    }
+
+    private static final class OutgoingMail {
+        private final String to;
+        private final String subject;
+        private final String body;
+        private final CompletableFuture<Void> delivery = new CompletableFuture<>();
+
+        private OutgoingMail(String to, String subject, String body) {
+            this.to = to;
+            this.subject = subject;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Spaces sends evenly at a fixed rate. Each caller reserves the next free
+     * slot and sleeps until it comes round, so concurrent workers share the
+     * rate instead of each getting it.
+     */
+    private static final class RateLimiter {
+        private final long intervalNanos;
+        private long nextFreeNanos = System.nanoTime();
+
+        private RateLimiter(double permitsPerSecond) {
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        }
+
+        private void acquire() throws InterruptedException {
+            long waitNanos;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long slot = Math.max(now, nextFreeNanos);
+                nextFreeNanos = slot + intervalNanos;
+                waitNanos = slot - now;
+            }
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+        }
+    }
+
+    /**
+     * Point-in-time copy of the sender's counters.
+     */
+    public static final class Stats {
+        private final long submitted;
+        private final long sent;
+        private final long failed;
+        private final long dropped;
+        private final long retries;
+        private final long connectionsOpened;
+        private final int queued;
+        private final long totalSendNanos;
+        private final long maxSendNanos;
+
+        Stats(long submitted, long sent, long failed, long dropped, long retries, long connectionsOpened,
+              int queued, long totalSendNanos, long maxSendNanos) {
+            this.submitted = submitted;
+            this.sent = sent;
+            this.failed = failed;
+            this.dropped = dropped;
+            this.retries = retries;
+            this.connectionsOpened = connectionsOpened;
+            this.queued = queued;
+            this.totalSendNanos = totalSendNanos;
+            this.maxSendNanos = maxSendNanos;
+        }
+
+        /** @return the number of messages accepted onto the queue */
+        public long getSubmitted() {
+            return submitted;
+        }
+
+        /** @return the number of messages the server accepted */
+        public long getSent() {
+            return sent;
+        }
+
+        /** @return the number of messages given up on */
+        public long getFailed() {
+            return failed;
+        }
+
+        /** @return the number of messages refused because the sender was closed or its queue full */
+        public long getDropped() {
+            return dropped;
+        }
+
+        /** @return the number of send attempts repeated after a failure */
+        public long getRetries() {
+            return retries;
+        }
+
+        /** @return the number of SMTP connections opened */
+        public long getConnectionsOpened() {
+            return connectionsOpened;
+        }
+
+        /** @return the number of messages waiting for a worker */
+        public int getQueued() {
+            return queued;
+        }
+
+        /** @return the average time the server took to accept a message, in milliseconds */
+        public double getAverageSendMillis() {
+            return sent == 0 ? 0 : totalSendNanos / 1_000_000.0 / sent;
+        }
+
+        /** @return the longest time the server took to accept a message, in milliseconds */
+        public double getMaxSendMillis() {
+            return maxSendNanos / 1_000_000.0;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("submitted=%d, sent=%d, failed=%d, dropped=%d, retries=%d, connections=%d, "
+                            + "queued=%d, averageSend=%.2fms, maxSend=%.2fms",
+                    submitted, sent, failed, dropped, retries, connectionsOpened, queued,
+                    getAverageSendMillis(), getMaxSendMillis());
+        }
+    }
+}
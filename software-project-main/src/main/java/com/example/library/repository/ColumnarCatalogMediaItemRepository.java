@@ -0,0 +1,210 @@
+package com.example.library.repository;
+
+import com.example.library.domain.MediaItem;
+import com.example.library.service.catalog.CatalogColumns;
+import com.example.library.service.catalog.CopyTotals;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * MediaItemRepository decorator that keeps a {@link CatalogColumns} snapshot in
+ * sync with every write going through it, for catalog statistics. The columns
+ * are loaded from the wrapped repository on the first statistics query; after
+ * that saves, updates and deletes are applied to them row by row, and the
+ * relative copy updates re-read the item's count first.
+ *
+ * Writes made to the database behind this repository's back are not seen until
+ * {@link #reloadCatalog()} is called.
+ */
+public class ColumnarCatalogMediaItemRepository implements MediaItemRepository {
+
+    private final MediaItemRepository delegate;
+    private CatalogColumns columns;
+
+    /**
+     * Creates a column-keeping wrapper around another repository.
+     *
+     * @param delegate the repository that stores the items
+     */
+    public ColumnarCatalogMediaItemRepository(MediaItemRepository delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Totals items and copies per media type.
+     *
+     * @return totals by upper-case type
+     * @see CatalogColumns#availabilityByType()
+     */
+    public Map<String, CopyTotals> availabilityByType() {
+        return catalog().availabilityByType();
+    }
+
+    /**
+     * Totals items and copies per publisher.
+     *
+     * @return totals by publisher
+     * @see CatalogColumns#copiesByPublisher()
+     */
+    public Map<String, CopyTotals> copiesByPublisher() {
+        return catalog().copiesByPublisher();
+    }
+
+    /**
+     * Counts the items published in a date range.
+     *
+     * @param from the first publication date counted
+     * @param to the last publication date counted
+     * @return the number of items published between the two dates, inclusive
+     */
+    public int countPublishedBetween(LocalDate from, LocalDate to) {
+        return catalog().countPublishedBetween(from, to);
+    }
+
+    /**
+     * Discards the columns; they are reloaded from the wrapped repository on the next statistics query.
+     */
+    public synchronized void reloadCatalog() {
+        columns = null;
+    }
+
+    @Override
+    public MediaItem save(MediaItem mediaItem) {
+        MediaItem saved = delegate.save(mediaItem);
+        putIfLoaded(saved);
+        return saved;
+    }
+
+    @Override
+    public MediaItem update(MediaItem mediaItem) {
+        MediaItem updated = delegate.update(mediaItem);
+        putIfLoaded(updated);
+        return updated;
+    }
+
+    @Override
+    public Optional<MediaItem> findById(Integer itemId) {
+        return delegate.findById(itemId);
+    }
+
+    @Override
+    public List<MediaItem> findByIds(Collection<Integer> itemIds) {
+        return delegate.findByIds(itemIds);
+    }
+
+    @Override
+    public Optional<MediaItem> findByIsbn(String isbn) {
+        return delegate.findByIsbn(isbn);
+    }
+
+    @Override
+    public List<MediaItem> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<MediaItem> findByType(String type) {
+        return delegate.findByType(type);
+    }
+
+    @Override
+    public List<MediaItem> findByTitleContaining(String title) {
+        return delegate.findByTitleContaining(title);
+    }
+
+    @Override
+    public List<MediaItem> findByAuthorContaining(String author) {
+        return delegate.findByAuthorContaining(author);
+    }
+
+    @Override
+    public List<MediaItem> findAvailableItems() {
+        return delegate.findAvailableItems();
+    }
+
+    @Override
+    public boolean deleteById(Integer itemId) {
+        boolean deleted = delegate.deleteById(itemId);
+        if (deleted) {
+            synchronized (this) {
+                if (columns != null) {
+                    columns.remove(itemId);
+                }
+            }
+        }
+        return deleted;
+    }
+
+    @Override
+    public void updateAvailableCopies(Integer itemId, Integer availableCopies) {
+        delegate.updateAvailableCopies(itemId, availableCopies);
+        synchronized (this) {
+            if (columns != null) {
+                columns.updateAvailableCopies(itemId, availableCopies);
+            }
+        }
+    }
+
+    @Override
+    public boolean decrementAvailableCopies(Integer itemId) {
+        boolean taken = delegate.decrementAvailableCopies(itemId);
+        if (taken) {
+            refreshAvailableCopies(itemId);
+        }
+        return taken;
+    }
+
+    @Override
+    public void incrementAvailableCopies(Integer itemId) {
+        delegate.incrementAvailableCopies(itemId);
+        refreshAvailableCopies(itemId);
+    }
+
+    @Override
+    public List<MediaItem> search(String keyword) {
+        return delegate.search(keyword);
+    }
+
+    @Override
+    public List<MediaItem> search(String keyword, SearchCancellation cancellation) {
+        return delegate.search(keyword, cancellation);
+    }
+
+    @Override
+    public boolean existsByIsbn(String isbn) {
+        return delegate.existsByIsbn(isbn);
+    }
+
+    /**
+     * Re-reads an item's copy count after a relative update, since only the
+     * database knows the count that update produced. The read and the column
+     * update happen under one lock, so overlapping borrows and returns of the
+     * same item cannot leave an older count behind.
+     */
+    private synchronized void refreshAvailableCopies(Integer itemId) {
+        if (columns == null) {
+            return;
+        }
+        delegate.findById(itemId)
+                .ifPresent(item -> columns.updateAvailableCopies(itemId, item.getAvailableCopies()));
+    }
+
+    private synchronized CatalogColumns catalog() {
+        if (columns == null) {
+            CatalogColumns loaded = new CatalogColumns();
+            loaded.putAll(delegate.findAll());
+            columns = loaded;
+        }
+        return columns;
+    }
+
+    private synchronized void putIfLoaded(MediaItem item) {
+        if (columns != null && item != null && item.getItemId() != null) {
+            columns.put(item);
+        }
+    }
+}
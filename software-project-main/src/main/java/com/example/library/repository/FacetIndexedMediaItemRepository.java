@@ -0,0 +1,228 @@
+package com.example.library.repository;
+
+import com.example.library.domain.MediaItem;
+import com.example.library.service.search.Facet;
+import com.example.library.service.search.FacetFilter;
+import com.example.library.service.search.MediaItemFacetIndex;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * MediaItemRepository decorator that keeps a {@link MediaItemFacetIndex} in sync
+ * with every write going through it. The index is loaded from the wrapped
+ * repository on the first facet query; after that saves, updates and deletes are
+ * applied to it directly, and {@link #updateAvailableCopies} only flips the item's
+ * availability bit. The relative copy updates re-read the item's committed count
+ * while holding the index lock.
+ *
+ * Index changes wait for the transaction the write runs in to commit, so a
+ * borrow or return that rolls back leaves the index as it was.
+ *
+ * Writes made to the database behind this repository's back are not seen until
+ * {@link #reloadIndex()} is called.
+ */
+public class FacetIndexedMediaItemRepository implements MediaItemRepository, MediaItemFacetRepository {
+
+    private final MediaItemRepository delegate;
+    private final TransactionManager transactionManager;
+    private MediaItemFacetIndex index;
+
+    /**
+     * Creates a facet-indexing wrapper around a repository without transactions.
+     *
+     * @param delegate the repository that stores the items
+     */
+    public FacetIndexedMediaItemRepository(MediaItemRepository delegate) {
+        this(delegate, TransactionManager.none());
+    }
+
+    /**
+     * Creates a facet-indexing wrapper around a repository whose writes may run
+     * in transactions.
+     *
+     * @param delegate the repository that stores the items
+     * @param transactionManager the manager of the delegate's transactions
+     */
+    public FacetIndexedMediaItemRepository(MediaItemRepository delegate, TransactionManager transactionManager) {
+        this.delegate = delegate;
+        this.transactionManager = transactionManager;
+    }
+
+    @Override
+    public List<MediaItem> findByFacets(FacetFilter filter) {
+        return delegate.findByIds(facetIndex().findIds(filter));
+    }
+
+    @Override
+    public int countByFacets(FacetFilter filter) {
+        return facetIndex().count(filter);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @see MediaItemFacetIndex#facetCounts(Facet, FacetFilter)
+     */
+    @Override
+    public Map<String, Integer> facetCounts(Facet facet, FacetFilter filter) {
+        return facetIndex().facetCounts(facet, filter);
+    }
+
+    /**
+     * Discards the index; it is reloaded from the wrapped repository on the next facet query.
+     */
+    public synchronized void reloadIndex() {
+        index = null;
+    }
+
+    @Override
+    public MediaItem save(MediaItem mediaItem) {
+        MediaItem saved = delegate.save(mediaItem);
+        indexIfLoaded(saved);
+        return saved;
+    }
+
+    @Override
+    public MediaItem update(MediaItem mediaItem) {
+        MediaItem updated = delegate.update(mediaItem);
+        indexIfLoaded(updated);
+        return updated;
+    }
+
+    @Override
+    public Optional<MediaItem> findById(Integer itemId) {
+        return delegate.findById(itemId);
+    }
+
+    @Override
+    public List<MediaItem> findByIds(Collection<Integer> itemIds) {
+        return delegate.findByIds(itemIds);
+    }
+
+    @Override
+    public Optional<MediaItem> findByIsbn(String isbn) {
+        return delegate.findByIsbn(isbn);
+    }
+
+    @Override
+    public List<MediaItem> findAll() {
+        return delegate.findAll();
+    }
+
+    @Override
+    public List<MediaItem> findByType(String type) {
+        return delegate.findByType(type);
+    }
+
+    @Override
+    public List<MediaItem> findByTitleContaining(String title) {
+        return delegate.findByTitleContaining(title);
+    }
+
+    @Override
+    public List<MediaItem> findByAuthorContaining(String author) {
+        return delegate.findByAuthorContaining(author);
+    }
+
+    @Override
+    public List<MediaItem> findAvailableItems() {
+        return delegate.findAvailableItems();
+    }
+
+    @Override
+    public boolean deleteById(Integer itemId) {
+        boolean deleted = delegate.deleteById(itemId);
+        if (deleted) {
+            transactionManager.afterCommit(() -> {
+                synchronized (this) {
+                    if (index != null) {
+                        index.remove(itemId);
+                    }
+                }
+            });
+        }
+        return deleted;
+    }
+
+    @Override
+    public void updateAvailableCopies(Integer itemId, Integer availableCopies) {
+        delegate.updateAvailableCopies(itemId, availableCopies);
+        transactionManager.afterCommit(() -> {
+            synchronized (this) {
+                if (index != null) {
+                    index.updateAvailableCopies(itemId, availableCopies);
+                }
+            }
+        });
+    }
+
+    @Override
+    public boolean decrementAvailableCopies(Integer itemId) {
+        boolean taken = delegate.decrementAvailableCopies(itemId);
+        if (taken) {
+            transactionManager.afterCommit(() -> refreshAvailability(itemId));
+        }
+        return taken;
+    }
+    
+    @Override
+    public void incrementAvailableCopies(Integer itemId) {
+        delegate.incrementAvailableCopies(itemId);
+        transactionManager.afterCommit(() -> refreshAvailability(itemId));
+    }
+    
+    @Override
+    public List<MediaItem> search(String keyword) {
+        return delegate.search(keyword);
+    }
+
+    @Override
+    public List<MediaItem> search(String keyword, SearchCancellation cancellation) {
+        return delegate.search(keyword, cancellation);
+    }
+
+    @Override
+    public boolean existsByIsbn(String isbn) {
+        return delegate.existsByIsbn(isbn);
+    }
+
+    /**
+     * Re-reads an item's copy count after a relative update has committed, since
+     * only the database knows the count that update produced. The read and the
+     * index update happen under one lock, so when a borrow and a return of the
+     * same item commit close together, whichever refresh runs last applies the
+     * latest committed count instead of an older one.
+     */
+    private synchronized void refreshAvailability(Integer itemId) {
+        if (index == null) {
+            return;
+        }
+        delegate.findById(itemId)
+                .ifPresent(item -> index.updateAvailableCopies(itemId, item.getAvailableCopies()));
+    }
+    
+    private synchronized MediaItemFacetIndex facetIndex() {
+        if (index == null) {
+            MediaItemFacetIndex loaded = new MediaItemFacetIndex();
+            loaded.putAll(delegate.findAll());
+            index = loaded;
+        }
+        return index;
+    }
+
+    private void indexIfLoaded(MediaItem item) {
+        if (item == null || item.getItemId() == null) {
+            return;
+        }
+        transactionManager.afterCommit(() -> {
+            synchronized (this) {
+                if (index != null) {
+                    index.put(item);
+                }
+            }
+        });
+    }
+}
@@ -1,20 +1,74 @@
 package com.example.library.repository;
 
 import com.example.library.domain.MediaItem;
+import com.example.library.util.XmlDataManager;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
-public class FileMediaItemRepository implements MediaItemRepository {
+/**
+ * Media item repository kept in memory and persisted to a
+ * {@link FileRecordStore} in the data directory, for the {@code use.file.db} mode.
+ *
+ * Items are held in a {@link ConcurrentHashMap} with a unique hash index on
+ * ISBN and a multi-valued one on type. Reads take no lock; writes, including
+ * the copy count changes, are serialized so the store, the map and the
+ * indexes move together.
+ *
+ * Stored items are read-only {@link FrozenMediaItem}s, replaced by a new
+ * version on every change. List queries return them as they are, with no
+ * copying; the single-item lookups return a copy the caller may edit.
+ */
+public class FileMediaItemRepository implements MediaItemRepository, AutoCloseable {
 
-    private final Map<Integer, MediaItem> storage = new HashMap<>();
-    private int nextId = 1;
+    private static final String STORE_NAME = "media_items";
+    private static final long COMPACT_AFTER_BYTES = 4 * 1024 * 1024;
+    private static final long SNAPSHOT_INTERVAL_MILLIS = 5 * 60 * 1000;
+
+    private final ConcurrentMap<Integer, FrozenMediaItem> storage = new ConcurrentHashMap<>();
+    private final UniqueIndex isbnIndex = new UniqueIndex("ISBN");
+    private final MultiValuedIndex typeIndex = new MultiValuedIndex();
+    /** Serializes writers so the store, the map and the indexes change together. */
+    private final Object writeLock = new Object();
+    private final FileRecordStore store;
+
+    /**
+     * Opens the repository in the directory given by {@link XmlDataManager#getDataDirectory()}.
+     */
+    public FileMediaItemRepository() {
+        this(XmlDataManager.getDataDirectory());
+    }
+
+    /**
+     * Opens the repository, loading the items saved by earlier runs.
+     *
+     * @param directory the directory holding the store's files
+     * @throws DataAccessException if the files cannot be read
+     */
+    public FileMediaItemRepository(Path directory) {
+        this.store = new FileRecordStore(directory, STORE_NAME, COMPACT_AFTER_BYTES, SNAPSHOT_INTERVAL_MILLIS);
+        for (Map.Entry<Integer, byte[]> record : store.records().entrySet()) {
+            FrozenMediaItem item = new FrozenMediaItem(decode(record.getKey(), record.getValue()));
+            storage.put(item.getItemId(), item);
+            reindex(null, item, item.getItemId());
+        }
+    }
 
     @Override
     public MediaItem save(MediaItem mediaItem) {
         if (mediaItem.getItemId() == null) {
-            mediaItem.setItemId(nextId++);
+            mediaItem.setItemId(store.nextId());
         }
-        storage.put(mediaItem.getItemId(), cloneItem(mediaItem));
+        write(new FrozenMediaItem(mediaItem));
         return mediaItem;
     }
 
@@ -23,29 +77,45 @@ public class FileMediaItemRepository implements MediaItemRepository {
         if (mediaItem.getItemId() == null || !storage.containsKey(mediaItem.getItemId())) {
             return save(mediaItem);
         }
-        storage.put(mediaItem.getItemId(), cloneItem(mediaItem));
+        write(new FrozenMediaItem(mediaItem));
         return mediaItem;
     }
 
     @Override
     public Optional<MediaItem> findById(Integer itemId) {
-        MediaItem item = storage.get(itemId);
+        MediaItem item = itemId == null ? null : storage.get(itemId);
         return Optional.ofNullable(item == null ? null : cloneItem(item));
     }
 
+    @Override
+    public List<MediaItem> findByIds(Collection<Integer> itemIds) {
+        Set<Integer> ids = new TreeSet<>();
+        for (Integer itemId : itemIds) {
+            if (itemId != null) {
+                ids.add(itemId);
+            }
+        }
+        List<MediaItem> result = new ArrayList<>();
+        for (Integer itemId : ids) {
+            MediaItem item = storage.get(itemId);
+            if (item != null) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
     @Override
     public Optional<MediaItem> findByIsbn(String isbn) {
-        return storage.values().stream()
-                .filter(i -> Objects.equals(i.getIsbn(), isbn))
-                .findFirst()
-                .map(this::cloneItem);
+        MediaItem item = lookupByIsbn(isbn);
+        return Optional.ofNullable(item == null ? null : cloneItem(item));
     }
 
     @Override
     public List<MediaItem> findAll() {
         List<MediaItem> result = new ArrayList<>();
         for (MediaItem item : storage.values()) {
-            result.add(cloneItem(item));
+            result.add(item);
         }
         return result;
     }
@@ -53,9 +123,10 @@ public class FileMediaItemRepository implements MediaItemRepository {
     @Override
     public List<MediaItem> findByType(String type) {
         List<MediaItem> result = new ArrayList<>();
-        for (MediaItem item : storage.values()) {
-            if (Objects.equals(item.getType(), type)) {
-                result.add(cloneItem(item));
+        for (Integer itemId : typeIndex.get(type)) {
+            MediaItem item = storage.get(itemId);
+            if (item != null && Objects.equals(item.getType(), type)) {
+                result.add(item);
             }
         }
         return result;
@@ -66,7 +137,7 @@ public class FileMediaItemRepository implements MediaItemRepository {
         List<MediaItem> result = new ArrayList<>();
         for (MediaItem item : storage.values()) {
             if (item.getTitle() != null && item.getTitle().contains(title)) {
-                result.add(cloneItem(item));
+                result.add(item);
             }
         }
         return result;
@@ -77,7 +148,7 @@ public class FileMediaItemRepository implements MediaItemRepository {
         List<MediaItem> result = new ArrayList<>();
         for (MediaItem item : storage.values()) {
             if (item.getAuthor() != null && item.getAuthor().contains(author)) {
-                result.add(cloneItem(item));
+                result.add(item);
             }
         }
         return result;
@@ -88,7 +159,7 @@ public class FileMediaItemRepository implements MediaItemRepository {
         List<MediaItem> result = new ArrayList<>();
         for (MediaItem item : storage.values()) {
             if (item.getAvailableCopies() != null && item.getAvailableCopies() > 0) {
-                result.add(cloneItem(item));
+                result.add(item);
             }
         }
         return result;
@@ -96,14 +167,60 @@ public class FileMediaItemRepository implements MediaItemRepository {
 
     @Override
     public boolean deleteById(Integer itemId) {
-        return storage.remove(itemId) != null;
+        if (itemId == null) {
+            return false;
+        }
+        synchronized (writeLock) {
+            if (!store.delete(itemId)) {
+                return false;
+            }
+            MediaItem removed = storage.remove(itemId);
+            if (removed != null) {
+                reindex(removed, null, itemId);
+            }
+            return removed != null;
+        }
     }
 
     @Override
     public void updateAvailableCopies(Integer itemId, Integer availableCopies) {
-        MediaItem item = storage.get(itemId);
-        if (item != null) {
-            item.setAvailableCopies(availableCopies);
+        if (itemId == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            FrozenMediaItem item = storage.get(itemId);
+            if (item != null) {
+                // A new version is swapped in, so readers holding the old one never see it change
+                write(item.withAvailableCopies(availableCopies));
+            }
+        }
+    }
+
+    @Override
+    public boolean decrementAvailableCopies(Integer itemId) {
+        if (itemId == null) {
+            return false;
+        }
+        synchronized (writeLock) {
+            FrozenMediaItem item = storage.get(itemId);
+            if (item == null || item.getAvailableCopies() == null || item.getAvailableCopies() <= 0) {
+                return false;
+            }
+            write(item.withAvailableCopies(item.getAvailableCopies() - 1));
+            return true;
+        }
+    }
+
+    @Override
+    public void incrementAvailableCopies(Integer itemId) {
+        if (itemId == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            FrozenMediaItem item = storage.get(itemId);
+            if (item != null) {
+                write(item.withAvailableCopies(item.getAvailableCopies() + 1));
+            }
         }
     }
 
@@ -112,19 +229,19 @@ public class FileMediaItemRepository implements MediaItemRepository {
         List<MediaItem> result = new ArrayList<>();
         for (MediaItem item : storage.values()) {
             if (item.getTitle() != null && item.getTitle().contains(keyword)) {
-                result.add(cloneItem(item));
+                result.add(item);
                 continue;
             }
             if (item.getAuthor() != null && item.getAuthor().contains(keyword)) {
-                result.add(cloneItem(item));
+                result.add(item);
                 continue;
             }
             if (item.getIsbn() != null && item.getIsbn().contains(keyword)) {
-                result.add(cloneItem(item));
+                result.add(item);
                 continue;
             }
             if (item.getType() != null && item.getType().contains(keyword)) {
-                result.add(cloneItem(item));
+                result.add(item);
             }
         }
         return result;
@@ -132,9 +249,87 @@ public class FileMediaItemRepository implements MediaItemRepository {
 
     @Override
     public boolean existsByIsbn(String isbn) {
-        return findByIsbn(isbn).isPresent();
+        return lookupByIsbn(isbn) != null;
+    }
+
+    /**
+     * Closes the underlying store, forcing everything written to disk.
+     */
+    @Override
+    public void close() {
+        store.close();
+    }
+
+    private FrozenMediaItem lookupByIsbn(String isbn) {
+        Integer itemId = isbnIndex.get(isbn);
+        FrozenMediaItem item = itemId == null ? null : storage.get(itemId);
+        // The index can run slightly ahead of or behind a concurrent write
+        return item != null && Objects.equals(item.getIsbn(), isbn) ? item : null;
+    }
+
+    private void write(FrozenMediaItem item) {
+        Integer itemId = item.getItemId();
+        synchronized (writeLock) {
+            isbnIndex.checkAvailable(item.getIsbn(), itemId);
+            // Logged before it is visible, so nothing is read that a restart would lose
+            store.put(itemId, encode(item));
+            MediaItem previous = storage.put(itemId, item);
+            reindex(previous, item, itemId);
+        }
+    }
+
+    private void reindex(MediaItem previous, MediaItem current, Integer itemId) {
+        isbnIndex.replace(previous == null ? null : previous.getIsbn(),
+                current == null ? null : current.getIsbn(), itemId);
+        typeIndex.replace(previous == null ? null : previous.getType(),
+                current == null ? null : current.getType(), itemId);
+    }
+
+    private static byte[] encode(MediaItem item) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            FileRecordStore.writeString(out, item.getTitle());
+            FileRecordStore.writeString(out, item.getAuthor());
+            FileRecordStore.writeString(out, item.getType());
+            FileRecordStore.writeString(out, item.getIsbn());
+            FileRecordStore.writeString(out, item.getPublicationDate() == null ? null : item.getPublicationDate().toString());
+            FileRecordStore.writeString(out, item.getPublisher());
+            FileRecordStore.writeString(out, item.getTotalCopies() == null ? null : item.getTotalCopies().toString());
+            FileRecordStore.writeString(out, item.getAvailableCopies() == null ? null : item.getAvailableCopies().toString());
+            FileRecordStore.writeString(out, item.getLateFeesPerDay() == null ? null : item.getLateFeesPerDay().toPlainString());
+        } catch (IOException e) {
+            throw new DataAccessException("Error encoding media item " + item.getItemId(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static MediaItem decode(int itemId, byte[] payload) {
+        MediaItem item = new MediaItem();
+        item.setItemId(itemId);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            item.setTitle(FileRecordStore.readString(in));
+            item.setAuthor(FileRecordStore.readString(in));
+            item.setType(FileRecordStore.readString(in));
+            item.setIsbn(FileRecordStore.readString(in));
+            String publicationDate = FileRecordStore.readString(in);
+            item.setPublicationDate(publicationDate == null ? null : LocalDate.parse(publicationDate));
+            item.setPublisher(FileRecordStore.readString(in));
+            String totalCopies = FileRecordStore.readString(in);
+            item.setTotalCopies(totalCopies == null ? null : Integer.valueOf(totalCopies));
+            String availableCopies = FileRecordStore.readString(in);
+            item.setAvailableCopies(availableCopies == null ? null : Integer.valueOf(availableCopies));
+            String lateFeesPerDay = FileRecordStore.readString(in);
+            item.setLateFeesPerDay(lateFeesPerDay == null ? null : new BigDecimal(lateFeesPerDay));
+        } catch (IOException e) {
+            throw new DataAccessException("Error reading media item " + itemId, e);
+        }
+        return item;
     }
 
+    /**
+     * Makes a private, changeable copy for the single-item lookups, whose
+     * results callers edit and pass back to {@link #update}.
+     */
     private MediaItem cloneItem(MediaItem original) {
         MediaItem copy = new MediaItem();
         copy.setItemId(original.getItemId());
@@ -0,0 +1,467 @@
+package com.example.library.repository;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * Embedded append-only store of records keyed by an integer ID, used by the
+ * file-based repositories.
+ *
+ * Every change is appended to a log file through a {@link FileChannel} as one
+ * record: {@code length, CRC32, type, id, payload}. A snapshot holds the
+ * state up to the start of one log generation, so the store is rebuilt on
+ * open from the newest snapshot plus the logs written after it.
+ *
+ * Files for a store named {@code users} are {@code users-<gen>.log} and
+ * {@code users-<gen>.snapshot}, where a snapshot of generation {@code g}
+ * covers every log before {@code g}:
+ * <ul>
+ *   <li>Compaction starts a new log generation, writes the live records to
+ *       a temporary snapshot, forces it to disk and renames it into place.
+ *       Only then are the older snapshot and logs deleted, so a crash at any
+ *       point leaves a snapshot and logs that replay to the same state.</li>
+ *   <li>On open, a record that is cut short or fails its checksum ends the
+ *       log: it is the tail of a write interrupted by a crash, and the file
+ *       is truncated to the last good record.</li>
+ *   <li>A background thread compacts once the logs pass
+ *       {@code compactAfterBytes}, and takes a snapshot every
+ *       {@code snapshotIntervalMillis} if anything changed.</li>
+ * </ul>
+ *
+ * Appends reach the operating system before {@link #put} returns, so they
+ * survive the process dying; they are forced to the disk itself at every
+ * snapshot and on {@link #close()}.
+ */
+class FileRecordStore implements AutoCloseable {
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    /** Snapshot record holding the next ID to hand out, so deleted IDs are not reused. */
+    private static final byte NEXT_ID = 3;
+
+    /** length + CRC32 + type + id */
+    private static final int HEADER_BYTES = 4 + 4 + 1 + 4;
+    private static final int MAX_PAYLOAD_BYTES = 16 * 1024 * 1024;
+
+    private static final long CLOSE_TIMEOUT_SECONDS = 30;
+
+    private static final String LOG_SUFFIX = ".log";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+
+    private final Path directory;
+    private final String name;
+    private final long compactAfterBytes;
+    private final Map<Integer, byte[]> records = new HashMap<>();
+    private final ScheduledExecutorService compactor;
+    private final AtomicInteger nextId = new AtomicInteger(1);
+
+    private FileChannel log;
+    private long generation;
+    /** Bytes in all logs not yet folded into a snapshot. */
+    private long logBytes;
+    private boolean compacting;
+    private boolean closed;
+
+    /**
+     * Opens the store, recovering its records from the files in
+     * {@code directory}, and starts the background compaction thread.
+     *
+     * @param directory the directory holding the store's files
+     * @param name the file name prefix of this store
+     * @param compactAfterBytes the log size at which the store is compacted
+     * @param snapshotIntervalMillis how often a snapshot is taken, or 0 for only by size
+     * @throws DataAccessException if the files cannot be read or a snapshot is corrupt
+     */
+    FileRecordStore(Path directory, String name, long compactAfterBytes, long snapshotIntervalMillis) {
+        if (compactAfterBytes <= 0 || snapshotIntervalMillis < 0) {
+            throw new IllegalArgumentException("compactAfterBytes must be positive and snapshotIntervalMillis not negative");
+        }
+        this.directory = directory;
+        this.name = name;
+        this.compactAfterBytes = compactAfterBytes;
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new DataAccessException("Error opening file store " + name + " in " + directory, e);
+        }
+        this.compactor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "file-store-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (logBytes >= compactAfterBytes) {
+            compactor.execute(this::compactQuietly);
+        }
+        if (snapshotIntervalMillis > 0) {
+            compactor.scheduleWithFixedDelay(this::compactQuietly,
+                    snapshotIntervalMillis, snapshotIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Gets a copy of every live record.
+     *
+     * @return the payloads by ID
+     */
+    synchronized Map<Integer, byte[]> records() {
+        return new HashMap<>(records);
+    }
+
+    /**
+     * Hands out the next unused ID without taking the store's lock. IDs are
+     * never reused, including after a restart.
+     *
+     * @return the new ID
+     */
+    int nextId() {
+        return nextId.getAndIncrement();
+    }
+
+    /**
+     * Writes a record, replacing any record with the same ID.
+     *
+     * @param id the record ID
+     * @param payload the record contents; not copied, so must not be changed afterwards
+     * @throws DataAccessException if the record cannot be written
+     */
+    synchronized void put(int id, byte[] payload) {
+        append(PUT, id, payload);
+        records.put(id, payload);
+        nextId.accumulateAndGet(id + 1, Math::max);
+    }
+
+    /**
+     * Deletes a record.
+     *
+     * @param id the record ID
+     * @return true if the record existed
+     * @throws DataAccessException if the deletion cannot be written
+     */
+    synchronized boolean delete(int id) {
+        if (!records.containsKey(id)) {
+            return false;
+        }
+        append(DELETE, id, new byte[0]);
+        records.remove(id);
+        return true;
+    }
+
+    /**
+     * Writes a snapshot of the live records and deletes the logs it replaces.
+     * Writers are only held up while the records are copied, not while the
+     * snapshot is written.
+     *
+     * @throws DataAccessException if the snapshot cannot be written
+     */
+    void compact() {
+        Map<Integer, byte[]> live;
+        int snapshotNextId;
+        long snapshotGeneration;
+        synchronized (this) {
+            if (closed || compacting || logBytes == 0) {
+                return;
+            }
+            compacting = true;
+            try {
+                live = new HashMap<>(records);
+                snapshotNextId = nextId.get();
+                snapshotGeneration = generation + 1;
+                openLog(snapshotGeneration);
+                logBytes = 0;
+            } catch (IOException e) {
+                compacting = false;
+                throw new DataAccessException("Error starting log generation " + (generation + 1) + " of " + name, e);
+            }
+        }
+
+        try {
+            writeSnapshot(snapshotGeneration, live, snapshotNextId);
+            deleteFilesBefore(snapshotGeneration);
+        } catch (IOException e) {
+            throw new DataAccessException("Error writing snapshot of " + name, e);
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    /**
+     * Stops the compaction thread, waiting for a compaction in progress so
+     * its files are settled, and closes the log. Records already written
+     * are forced to disk first.
+     */
+    @Override
+    public void close() {
+        compactor.shutdown();
+        try {
+            compactor.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                log.force(true);
+                log.close();
+            } catch (IOException e) {
+                throw new DataAccessException("Error closing file store " + name, e);
+            }
+        }
+    }
+
+    /**
+     * Writes a string that may be null, for use in record payloads.
+     */
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * Reads a string written by {@link #writeString}.
+     */
+    static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private void append(byte type, int id, byte[] payload) {
+        if (closed) {
+            throw new DataAccessException("File store " + name + " is closed");
+        }
+        ByteBuffer buffer = encode(type, id, payload);
+        int size = buffer.remaining();
+        try {
+            while (buffer.hasRemaining()) {
+                log.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new DataAccessException("Error writing record " + id + " to " + name, e);
+        }
+        logBytes += size;
+        if (logBytes >= compactAfterBytes && !compacting) {
+            compactor.execute(this::compactQuietly);
+        }
+    }
+
+    private void compactQuietly() {
+        try {
+            compact();
+        } catch (RuntimeException e) {
+            // The logs are still complete, so the next attempt can catch up
+            System.err.println("Error compacting file store " + name + ": " + e.getMessage());
+        }
+    }
+
+    private void recover() throws IOException {
+        List<Long> snapshots = generations(SNAPSHOT_SUFFIX);
+        long snapshotGeneration = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+        if (!snapshots.isEmpty()) {
+            Path snapshot = file(snapshotGeneration, SNAPSHOT_SUFFIX);
+            // Snapshots are renamed into place only once complete, so damage here is not a torn write
+            if (replay(snapshot) != Files.size(snapshot)) {
+                throw new DataAccessException("Snapshot " + snapshot + " is corrupt");
+            }
+        }
+
+        long lastGeneration = snapshotGeneration;
+        for (long logGeneration : generations(LOG_SUFFIX)) {
+            if (logGeneration < snapshotGeneration) {
+                // Left behind by a compaction that finished its snapshot but not its clean-up
+                Files.deleteIfExists(file(logGeneration, LOG_SUFFIX));
+                continue;
+            }
+            Path logFile = file(logGeneration, LOG_SUFFIX);
+            long valid = replay(logFile);
+            long size = Files.size(logFile);
+            if (valid < size) {
+                System.err.println("Truncating " + (size - valid) + " damaged bytes at the end of " + logFile);
+                try (FileChannel channel = FileChannel.open(logFile, StandardOpenOption.WRITE)) {
+                    channel.truncate(valid);
+                    channel.force(true);
+                }
+            }
+            logBytes += valid;
+            lastGeneration = logGeneration;
+        }
+        for (long older : snapshots) {
+            if (older < snapshotGeneration) {
+                Files.deleteIfExists(file(older, SNAPSHOT_SUFFIX));
+            }
+        }
+        Files.deleteIfExists(directory.resolve(name + SNAPSHOT_SUFFIX + ".tmp"));
+        openLog(lastGeneration);
+    }
+
+    /**
+     * Applies the records in a file to the in-memory state.
+     *
+     * @return the number of bytes of whole, valid records read
+     */
+    private long replay(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (position + HEADER_BYTES <= size) {
+                header.clear();
+                readFully(channel, header, position);
+                header.flip();
+                int length = header.getInt();
+                int checksum = header.getInt();
+                byte type = header.get();
+                int id = header.getInt();
+                if (length < 0 || length > MAX_PAYLOAD_BYTES || position + HEADER_BYTES + length > size) {
+                    break;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                readFully(channel, payload, position + HEADER_BYTES);
+                if (checksum(type, id, payload.array()) != checksum) {
+                    break;
+                }
+                apply(type, id, payload.array());
+                position += HEADER_BYTES + length;
+            }
+            return position;
+        }
+    }
+
+    private void apply(byte type, int id, byte[] payload) {
+        switch (type) {
+            case PUT:
+                records.put(id, payload);
+                nextId.accumulateAndGet(id + 1, Math::max);
+                break;
+            case DELETE:
+                records.remove(id);
+                nextId.accumulateAndGet(id + 1, Math::max);
+                break;
+            case NEXT_ID:
+                nextId.accumulateAndGet(id, Math::max);
+                break;
+            default:
+                throw new DataAccessException("Unknown record type " + type + " in file store " + name);
+        }
+    }
+
+    private void writeSnapshot(long snapshotGeneration, Map<Integer, byte[]> live, int snapshotNextId)
+            throws IOException {
+        Path temp = directory.resolve(name + SNAPSHOT_SUFFIX + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, encode(NEXT_ID, snapshotNextId, new byte[0]));
+            for (Map.Entry<Integer, byte[]> record : live.entrySet()) {
+                writeFully(channel, encode(PUT, record.getKey(), record.getValue()));
+            }
+            channel.force(true);
+        }
+        Path snapshot = file(snapshotGeneration, SNAPSHOT_SUFFIX);
+        try {
+            Files.move(temp, snapshot, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, snapshot, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void deleteFilesBefore(long snapshotGeneration) throws IOException {
+        for (long older : generations(LOG_SUFFIX)) {
+            if (older < snapshotGeneration) {
+                Files.deleteIfExists(file(older, LOG_SUFFIX));
+            }
+        }
+        for (long older : generations(SNAPSHOT_SUFFIX)) {
+            if (older < snapshotGeneration) {
+                Files.deleteIfExists(file(older, SNAPSHOT_SUFFIX));
+            }
+        }
+    }
+
+    private void openLog(long logGeneration) throws IOException {
+        if (log != null) {
+            // Everything in the old generation must be on disk before a snapshot replaces it
+            log.force(true);
+            log.close();
+        }
+        log = FileChannel.open(file(logGeneration, LOG_SUFFIX),
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        generation = logGeneration;
+    }
+
+    private List<Long> generations(String suffix) throws IOException {
+        List<Long> found = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, name + "-*" + suffix)) {
+            for (Path file : stream) {
+                String fileName = file.getFileName().toString();
+                try {
+                    found.add(Long.parseLong(fileName.substring(name.length() + 1,
+                            fileName.length() - suffix.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours, e.g. another store whose name starts with this one
+                }
+            }
+        }
+        found.sort(null);
+        return found;
+    }
+
+    private Path file(long fileGeneration, String suffix) {
+        return directory.resolve(String.format("%s-%020d%s", name, fileGeneration, suffix));
+    }
+
+    private static ByteBuffer encode(byte type, int id, byte[] payload) {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+        buffer.putInt(payload.length);
+        buffer.putInt(checksum(type, id, payload));
+        buffer.put(type);
+        buffer.putInt(id);
+        buffer.put(payload);
+        buffer.flip();
+        return buffer;
+    }
+
+    private static int checksum(byte type, int id, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(ByteBuffer.allocate(4).putInt(id).array());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of file");
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
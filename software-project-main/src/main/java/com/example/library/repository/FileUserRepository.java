@@ -1,20 +1,76 @@
 package com.example.library.repository;
 
 import com.example.library.domain.User;
+import com.example.library.util.XmlDataManager;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
 
-public class FileUserRepository implements UserRepository {
+/**
+ * User repository kept in memory and persisted to a {@link FileRecordStore}
+ * in the data directory, for the {@code use.file.db} mode.
+ *
+ * Users are held in a {@link ConcurrentHashMap} with hash indexes on
+ * username and email (unique, as in the database) and on role, so lookups
+ * by any of them do not scan. Reads take no lock; writes are serialized so
+ * the store, the map and the indexes move together, and a read that races
+ * a write checks the user it found still matches.
+ *
+ * Stored users are read-only {@link FrozenUser}s, replaced by a new version
+ * on every change. List queries return them as they are, with no copying;
+ * the single-user lookups return a copy the caller may edit.
+ */
+public class FileUserRepository implements UserRepository, AutoCloseable {
 
-    private final Map<Integer, User> storage = new HashMap<>();
-    private int nextId = 1;
+    private static final String STORE_NAME = "users";
+    private static final long COMPACT_AFTER_BYTES = 4 * 1024 * 1024;
+    private static final long SNAPSHOT_INTERVAL_MILLIS = 5 * 60 * 1000;
+
+    private final ConcurrentMap<Integer, FrozenUser> storage = new ConcurrentHashMap<>();
+    private final UniqueIndex usernameIndex = new UniqueIndex("username");
+    private final UniqueIndex emailIndex = new UniqueIndex("email");
+    private final MultiValuedIndex roleIndex = new MultiValuedIndex();
+    /** Serializes writers so the store, the map and the indexes change together. */
+    private final Object writeLock = new Object();
+    private final FileRecordStore store;
+
+    /**
+     * Opens the repository in the directory given by {@link XmlDataManager#getDataDirectory()}.
+     */
+    public FileUserRepository() {
+        this(XmlDataManager.getDataDirectory());
+    }
+
+    /**
+     * Opens the repository, loading the users saved by earlier runs.
+     *
+     * @param directory the directory holding the store's files
+     * @throws DataAccessException if the files cannot be read
+     */
+    public FileUserRepository(Path directory) {
+        this.store = new FileRecordStore(directory, STORE_NAME, COMPACT_AFTER_BYTES, SNAPSHOT_INTERVAL_MILLIS);
+        for (Map.Entry<Integer, byte[]> record : store.records().entrySet()) {
+            FrozenUser user = new FrozenUser(decode(record.getKey(), record.getValue()));
+            storage.put(user.getUserId(), user);
+            reindex(null, user, user.getUserId());
+        }
+    }
 
     @Override
     public User save(User user) {
         if (user.getUserId() == null) {
-            user.setUserId(nextId++);
+            user.setUserId(store.nextId());
         }
-        storage.put(user.getUserId(), cloneUser(user));
+        write(new FrozenUser(user));
         return user;
     }
 
@@ -23,37 +79,33 @@ public class FileUserRepository implements UserRepository {
         if (user.getUserId() == null || !storage.containsKey(user.getUserId())) {
             return save(user);
         }
-        storage.put(user.getUserId(), cloneUser(user));
+        write(new FrozenUser(user));
         return user;
     }
 
     @Override
     public Optional<User> findById(Integer userId) {
-        User user = storage.get(userId);
+        User user = userId == null ? null : storage.get(userId);
         return Optional.ofNullable(user == null ? null : cloneUser(user));
     }
 
     @Override
     public Optional<User> findByUsername(String username) {
-        return storage.values().stream()
-                .filter(u -> Objects.equals(u.getUsername(), username))
-                .findFirst()
-                .map(this::cloneUser);
+        User user = lookup(usernameIndex, username, User::getUsername);
+        return Optional.ofNullable(user == null ? null : cloneUser(user));
     }
 
     @Override
     public Optional<User> findByEmail(String email) {
-        return storage.values().stream()
-                .filter(u -> Objects.equals(u.getEmail(), email))
-                .findFirst()
-                .map(this::cloneUser);
+        User user = lookup(emailIndex, email, User::getEmail);
+        return Optional.ofNullable(user == null ? null : cloneUser(user));
     }
 
     @Override
     public List<User> findAll() {
         List<User> result = new ArrayList<>();
         for (User user : storage.values()) {
-            result.add(cloneUser(user));
+            result.add(user);
         }
         return result;
     }
@@ -61,9 +113,11 @@ public class FileUserRepository implements UserRepository {
     @Override
     public List<User> findByRole(String role) {
         List<User> result = new ArrayList<>();
-        for (User user : storage.values()) {
-            if (Objects.equals(user.getRole(), role)) {
-                result.add(cloneUser(user));
+        for (Integer userId : roleIndex.get(role)) {
+            User user = storage.get(userId);
+            // The index can run slightly ahead of or behind a concurrent write
+            if (user != null && Objects.equals(user.getRole(), role)) {
+                result.add(user);
             }
         }
         return result;
@@ -71,19 +125,99 @@ public class FileUserRepository implements UserRepository {
 
     @Override
     public void deleteById(Integer userId) {
-        storage.remove(userId);
+        if (userId == null) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (store.delete(userId)) {
+                User removed = storage.remove(userId);
+                if (removed != null) {
+                    reindex(removed, null, userId);
+                }
+            }
+        }
     }
 
     @Override
     public boolean existsByUsername(String username) {
-        return findByUsername(username).isPresent();
+        return lookup(usernameIndex, username, User::getUsername) != null;
     }
 
     @Override
     public boolean existsByEmail(String email) {
-        return findByEmail(email).isPresent();
+        return lookup(emailIndex, email, User::getEmail) != null;
+    }
+
+    /**
+     * Closes the underlying store, forcing everything written to disk.
+     */
+    @Override
+    public void close() {
+        store.close();
+    }
+
+    private FrozenUser lookup(UniqueIndex index, String key, Function<User, String> field) {
+        Integer userId = index.get(key);
+        FrozenUser user = userId == null ? null : storage.get(userId);
+        // The index can run slightly ahead of or behind a concurrent write
+        return user != null && Objects.equals(field.apply(user), key) ? user : null;
+    }
+
+    private void write(FrozenUser user) {
+        Integer userId = user.getUserId();
+        synchronized (writeLock) {
+            usernameIndex.checkAvailable(user.getUsername(), userId);
+            emailIndex.checkAvailable(user.getEmail(), userId);
+            // Logged before it is visible, so nothing is read that a restart would lose
+            store.put(userId, encode(user));
+            User previous = storage.put(userId, user);
+            reindex(previous, user, userId);
+        }
+    }
+
+    private void reindex(User previous, User current, Integer userId) {
+        usernameIndex.replace(previous == null ? null : previous.getUsername(),
+                current == null ? null : current.getUsername(), userId);
+        emailIndex.replace(previous == null ? null : previous.getEmail(),
+                current == null ? null : current.getEmail(), userId);
+        roleIndex.replace(previous == null ? null : previous.getRole(),
+                current == null ? null : current.getRole(), userId);
+    }
+
+    private static byte[] encode(User user) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            FileRecordStore.writeString(out, user.getUsername());
+            FileRecordStore.writeString(out, user.getPassword());
+            FileRecordStore.writeString(out, user.getEmail());
+            FileRecordStore.writeString(out, user.getRole());
+            FileRecordStore.writeString(out, user.getCreatedAt() == null ? null : user.getCreatedAt().toString());
+        } catch (IOException e) {
+            throw new DataAccessException("Error encoding user " + user.getUserId(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static User decode(int userId, byte[] payload) {
+        User user = new User();
+        user.setUserId(userId);
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            user.setUsername(FileRecordStore.readString(in));
+            user.setPassword(FileRecordStore.readString(in));
+            user.setEmail(FileRecordStore.readString(in));
+            user.setRole(FileRecordStore.readString(in));
+            String createdAt = FileRecordStore.readString(in);
+            user.setCreatedAt(createdAt == null ? null : LocalDateTime.parse(createdAt));
+        } catch (IOException e) {
+            throw new DataAccessException("Error reading user " + userId, e);
+        }
+        return user;
     }
 
+    /**
+     * Makes a private, changeable copy for the single-user lookups, whose
+     * results callers edit and pass back to {@link #update}.
+     */
     private User cloneUser(User original) {
         User copy = new User();
         copy.setUserId(original.getUserId());
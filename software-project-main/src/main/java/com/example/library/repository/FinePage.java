@@ -0,0 +1,27 @@
+package com.example.library.repository;
+
+import com.example.library.domain.FineWithUserView;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A page of the fines overview together with the unpaid total of the whole result.
+ */
+public class FinePage extends Page<FineWithUserView> {
+    private final BigDecimal totalUnpaid;
+
+    public FinePage(List<FineWithUserView> rows, int totalCount, BigDecimal totalUnpaid) {
+        super(rows, totalCount);
+        this.totalUnpaid = totalUnpaid;
+    }
+
+    /**
+     * Gets the sum of the UNPAID fines across all pages.
+     *
+     * @return the unpaid total; 0 when the page starts past the last row
+     */
+    public BigDecimal getTotalUnpaid() {
+        return totalUnpaid;
+    }
+}
@@ -42,6 +42,16 @@ public interface FineRepository {
      */
     List<Fine> findAll();
     
+    /**
+     * Find a page of fines ordered by ID, joined with the user who owes each
+     * one, counting the whole result and summing its unpaid amounts in the same query
+     * @param userId the user to filter by, or null for all fines
+     * @param offset the number of fines to skip
+     * @param limit the maximum number of fines to return
+     * @return the fines in the requested range with the total count and unpaid total
+     */
+    FinePage findWithUsers(Integer userId, int offset, int limit);
+    
     /**
      * Find fines by status
      * @param status the fine status (e.g., UNPAID, PAID)
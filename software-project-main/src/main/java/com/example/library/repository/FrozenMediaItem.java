@@ -0,0 +1,93 @@
+package com.example.library.repository;
+
+import com.example.library.domain.MediaItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Read-only version of a {@link MediaItem}, stored by
+ * {@link FileMediaItemRepository} and handed out by its list queries
+ * without copying. Every setter throws, so one caller cannot change what
+ * another sees; a change is made by storing a new version.
+ */
+final class FrozenMediaItem extends MediaItem {
+
+    /**
+     * Takes a read-only copy of an item.
+     *
+     * @param item the item to copy
+     */
+    FrozenMediaItem(MediaItem item) {
+        super(item.getItemId(), item.getTitle(), item.getAuthor(), item.getType(), item.getIsbn(),
+                item.getPublicationDate(), item.getPublisher(), item.getTotalCopies(),
+                item.getAvailableCopies(), item.getLateFeesPerDay());
+    }
+
+    /**
+     * Creates the next version of this item with a different copy count.
+     *
+     * @param availableCopies the new number of available copies
+     * @return the new version
+     */
+    FrozenMediaItem withAvailableCopies(Integer availableCopies) {
+        MediaItem next = new MediaItem(getItemId(), getTitle(), getAuthor(), getType(), getIsbn(),
+                getPublicationDate(), getPublisher(), getTotalCopies(), availableCopies, getLateFeesPerDay());
+        return new FrozenMediaItem(next);
+    }
+
+    @Override
+    public void setItemId(Integer itemId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setTitle(String title) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setAuthor(String author) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setType(String type) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setIsbn(String isbn) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setPublicationDate(LocalDate publicationDate) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setPublisher(String publisher) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setTotalCopies(Integer totalCopies) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setAvailableCopies(Integer availableCopies) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setLateFeesPerDay(BigDecimal lateFeesPerDay) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException(
+                "Items returned by list queries are shared; load the item with findById to change it");
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.library.repository;
+
+import com.example.library.domain.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read-only version of a {@link User}, stored by {@link FileUserRepository}
+ * and handed out by its list queries without copying. Every setter throws,
+ * so one caller cannot change what another sees; a change is made by
+ * storing a new version.
+ */
+final class FrozenUser extends User {
+
+    /**
+     * Takes a read-only copy of a user.
+     *
+     * @param user the user to copy
+     */
+    FrozenUser(User user) {
+        super(user.getUserId(), user.getUsername(), user.getPassword(), user.getEmail(), user.getRole(),
+                user.getCreatedAt());
+    }
+
+    @Override
+    public void setUserId(Integer userId) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setUsername(String username) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setPassword(String password) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setEmail(String email) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setRole(String role) {
+        throw readOnly();
+    }
+
+    @Override
+    public void setCreatedAt(LocalDateTime createdAt) {
+        throw readOnly();
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException(
+                "Users returned by list queries are shared; load the user with findById to change it");
+    }
+}
@@ -3,8 +3,10 @@ package com.example.library.repository;
 import com.example.library.DatabaseConnection;
 import com.example.library.util.DatabaseConfig;
 import com.example.library.domain.Fine;
+import com.example.library.domain.FineWithUserView;
 
 import java.math.BigDecimal;
+import javax.sql.DataSource;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -12,13 +14,31 @@ import java.util.List;
 import java.util.Optional;
 
 public class JdbcFineRepository implements FineRepository {
-
+    
+    private final DataSource dataSource;
+    
+    /**
+     * Creates a repository that uses the shared connection pool.
+     */
+    public JdbcFineRepository() {
+        this(DatabaseConnection.getDataSource());
+    }
+    
+    /**
+     * Creates a repository that borrows its connections from a data source.
+     *
+     * @param dataSource the data source to borrow connections from
+     */
+    public JdbcFineRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
     @Override
     public Fine save(Fine fine) {
         String sql = "INSERT INTO fine (loan_id, amount, issued_date, status, paid_date) " +
                      "VALUES (?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setInt(1, fine.getLoanId());
@@ -57,7 +77,7 @@ public class JdbcFineRepository implements FineRepository {
         String sql = "UPDATE fine SET loan_id = ?, amount = ?, issued_date = ?, status = ?, paid_date = ? " +
                      "WHERE fine_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, fine.getLoanId());
@@ -90,7 +110,7 @@ public class JdbcFineRepository implements FineRepository {
         String sql = "SELECT fine_id, loan_id, amount, issued_date, status, paid_date " +
                      "FROM fine WHERE fine_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, fineId);
@@ -112,7 +132,7 @@ public class JdbcFineRepository implements FineRepository {
         String sql = "SELECT fine_id, loan_id, amount, issued_date, status, paid_date " +
                      "FROM fine WHERE loan_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, loanId);
@@ -136,7 +156,7 @@ public class JdbcFineRepository implements FineRepository {
         
         List<Fine> fines = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
@@ -150,6 +170,45 @@ public class JdbcFineRepository implements FineRepository {
         }
     }
 
+    @Override
+    public FinePage findWithUsers(Integer userId, int offset, int limit) {
+        String sql = "SELECT f.fine_id, f.loan_id, f.amount, f.issued_date, f.status, f.paid_date, " +
+                     "l.user_id, u.username, COUNT(*) OVER () AS total_count, " +
+                     "COALESCE(SUM(CASE WHEN f.status = 'UNPAID' THEN f.amount END) OVER (), 0) AS total_unpaid " +
+                     "FROM fine f " +
+                     "JOIN loan l ON l.loan_id = f.loan_id " +
+                     "JOIN app_user u ON u.user_id = l.user_id " +
+                     (userId != null ? "WHERE l.user_id = ? " : "") +
+                     "ORDER BY f.fine_id LIMIT ? OFFSET ?";
+        List<FineWithUserView> fines = new ArrayList<>();
+        int totalCount = 0;
+        BigDecimal totalUnpaid = BigDecimal.ZERO;
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (userId != null) {
+                pstmt.setInt(index++, userId);
+            }
+            pstmt.setInt(index++, limit);
+            pstmt.setInt(index, offset);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    fines.add(new FineWithUserView(mapRow(rs), rs.getInt("user_id"), rs.getString("username")));
+                    totalCount = rs.getInt("total_count");
+                    totalUnpaid = rs.getBigDecimal("total_unpaid");
+                }
+            }
+            
+            return new FinePage(fines, totalCount, totalUnpaid);
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding fines with users from offset " + offset, e);
+        }
+    }
+    
     @Override
     public List<Fine> findByStatus(String status) {
         String sql = "SELECT fine_id, loan_id, amount, issued_date, status, paid_date " +
@@ -157,7 +216,7 @@ public class JdbcFineRepository implements FineRepository {
         
         List<Fine> fines = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, status);
@@ -184,7 +243,7 @@ public class JdbcFineRepository implements FineRepository {
         
         List<Fine> fines = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -211,7 +270,7 @@ public class JdbcFineRepository implements FineRepository {
         
         List<Fine> fines = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -235,7 +294,7 @@ public class JdbcFineRepository implements FineRepository {
                      "JOIN loan l ON f.loan_id = l.loan_id " +
                      "WHERE l.user_id = ? AND f.status = 'UNPAID'";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -256,7 +315,7 @@ public class JdbcFineRepository implements FineRepository {
     public boolean deleteById(Integer fineId) {
         String sql = "DELETE FROM fine WHERE fine_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, fineId);
@@ -272,7 +331,7 @@ public class JdbcFineRepository implements FineRepository {
     public boolean existsByLoanId(Integer loanId) {
         String sql = "SELECT COUNT(*) FROM fine WHERE loan_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, loanId);
@@ -293,7 +352,7 @@ public class JdbcFineRepository implements FineRepository {
     public void markAsPaid(Integer fineId, LocalDate paidDate) {
         String sql = "UPDATE fine SET status = 'PAID', paid_date = ? WHERE fine_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setDate(1, Date.valueOf(paidDate));
@@ -2,8 +2,14 @@ package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
 import com.example.library.util.DatabaseConfig;
+import com.example.library.domain.BorrowingEligibility;
+import com.example.library.domain.DueLoan;
 import com.example.library.domain.Loan;
+import com.example.library.domain.LoanAdminView;
+import com.example.library.domain.OverdueSummary;
+import com.example.library.domain.User;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -12,12 +18,30 @@ import java.util.Optional;
 
 public class JdbcLoanRepository implements LoanRepository {
     
+    private final DataSource dataSource;
+    
+    /**
+     * Creates a repository that uses the shared connection pool.
+     */
+    public JdbcLoanRepository() {
+        this(DatabaseConnection.getDataSource());
+    }
+    
+    /**
+     * Creates a repository that borrows its connections from a data source.
+     *
+     * @param dataSource the data source to borrow connections from
+     */
+    public JdbcLoanRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
     @Override
     public Loan save(Loan loan) {
         String sql = "INSERT INTO loan (user_id, item_id, loan_date, due_date, return_date, status) " +
                      "VALUES (?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setInt(1, loan.getUserId());
@@ -53,7 +77,7 @@ public class JdbcLoanRepository implements LoanRepository {
         String sql = "UPDATE loan SET user_id = ?, item_id = ?, loan_date = ?, due_date = ?, " +
                      "return_date = ?, status = ? WHERE loan_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, loan.getUserId());
@@ -82,7 +106,7 @@ public class JdbcLoanRepository implements LoanRepository {
         String sql = "SELECT loan_id, user_id, item_id, loan_date, due_date, return_date, status " +
                      "FROM loan WHERE loan_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, loanId);
@@ -106,7 +130,7 @@ public class JdbcLoanRepository implements LoanRepository {
                      "FROM loan ORDER BY loan_id";
         List<Loan> loans = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
@@ -121,13 +145,49 @@ public class JdbcLoanRepository implements LoanRepository {
         }
     }
     
+    @Override
+    public Page<LoanAdminView> findAdminView(Integer userId, int offset, int limit) {
+        String sql = "SELECT l.loan_id, l.user_id, l.item_id, l.loan_date, l.due_date, l.return_date, l.status, " +
+                     "u.username, m.title, COUNT(*) OVER () AS total_count " +
+                     "FROM loan l " +
+                     "JOIN app_user u ON u.user_id = l.user_id " +
+                     "JOIN media_item m ON m.item_id = l.item_id " +
+                     (userId != null ? "WHERE l.user_id = ? " : "") +
+                     "ORDER BY l.loan_id LIMIT ? OFFSET ?";
+        List<LoanAdminView> loans = new ArrayList<>();
+        int totalCount = 0;
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            if (userId != null) {
+                pstmt.setInt(index++, userId);
+            }
+            pstmt.setInt(index++, limit);
+            pstmt.setInt(index, offset);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    loans.add(new LoanAdminView(mapRow(rs), rs.getString("username"), rs.getString("title")));
+                    totalCount = rs.getInt("total_count");
+                }
+            }
+            
+            return new Page<>(loans, totalCount);
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding loans for the admin view from offset " + offset, e);
+        }
+    }
+    
     @Override
     public List<Loan> findByUserId(Integer userId) {
         String sql = "SELECT loan_id, user_id, item_id, loan_date, due_date, return_date, status " +
                      "FROM loan WHERE user_id = ? ORDER BY loan_id";
         List<Loan> loans = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -151,7 +211,7 @@ public class JdbcLoanRepository implements LoanRepository {
                      "FROM loan WHERE item_id = ? ORDER BY loan_id";
         List<Loan> loans = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, itemId);
@@ -175,7 +235,7 @@ public class JdbcLoanRepository implements LoanRepository {
                      "FROM loan WHERE status = ? ORDER BY loan_id";
         List<Loan> loans = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, status);
@@ -199,7 +259,7 @@ public class JdbcLoanRepository implements LoanRepository {
                      "FROM loan WHERE user_id = ? AND return_date IS NULL AND status = 'ACTIVE' ORDER BY loan_id";
         List<Loan> loans = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -223,7 +283,7 @@ public class JdbcLoanRepository implements LoanRepository {
                      "FROM loan WHERE due_date < ? AND return_date IS NULL ORDER BY loan_id";
         List<Loan> loans = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setDate(1, Date.valueOf(currentDate));
@@ -241,13 +301,74 @@ public class JdbcLoanRepository implements LoanRepository {
         }
     }
     
+    @Override
+    public List<OverdueSummary> findOverdueSummaries(LocalDate currentDate, int afterUserId, int limit) {
+        // Keyset paging on user_id keeps every page as cheap as the first
+        String sql = "SELECT u.user_id, u.username, u.email, u.role, COUNT(*) AS overdue_count " +
+                     "FROM loan l JOIN app_user u ON u.user_id = l.user_id " +
+                     "WHERE l.due_date < ? AND l.return_date IS NULL AND l.user_id > ? " +
+                     "GROUP BY u.user_id, u.username, u.email, u.role " +
+                     "ORDER BY u.user_id LIMIT ?";
+        List<OverdueSummary> summaries = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setDate(1, Date.valueOf(currentDate));
+            pstmt.setInt(2, afterUserId);
+            pstmt.setInt(3, limit);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    User user = new User();
+                    user.setUserId(rs.getInt("user_id"));
+                    user.setUsername(rs.getString("username"));
+                    user.setEmail(rs.getString("email"));
+                    user.setRole(rs.getString("role"));
+                    summaries.add(new OverdueSummary(user, rs.getInt("overdue_count")));
+                }
+            }
+            
+            return summaries;
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding overdue summaries", e);
+        }
+    }
+    
+    @Override
+    public BorrowingEligibility findBorrowingEligibility(Integer userId, LocalDate currentDate) {
+        // Both parts use the user_id indexes, so the cost does not grow with other users' loans
+        String sql = "SELECT " +
+                     "EXISTS (SELECT 1 FROM loan WHERE user_id = ? AND due_date < ? AND return_date IS NULL) " +
+                     "AS has_overdue, " +
+                     "(SELECT COALESCE(SUM(f.amount), 0) FROM fine f JOIN loan l ON f.loan_id = l.loan_id " +
+                     "WHERE l.user_id = ? AND f.status = 'UNPAID') AS unpaid_fines";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, userId);
+            pstmt.setDate(2, Date.valueOf(currentDate));
+            pstmt.setInt(3, userId);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                rs.next();
+                return new BorrowingEligibility(rs.getBoolean("has_overdue"), rs.getBigDecimal("unpaid_fines"));
+            }
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error checking borrowing eligibility for user id: " + userId, e);
+        }
+    }
+    
     @Override
     public List<Loan> findLoansDueSoon(LocalDate currentDate, int daysAhead) {
         String sql = "SELECT loan_id, user_id, item_id, loan_date, due_date, return_date, status " +
                      "FROM loan WHERE due_date BETWEEN ? AND ? AND return_date IS NULL ORDER BY loan_id";
         List<Loan> loans = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setDate(1, Date.valueOf(currentDate));
@@ -266,11 +387,60 @@ public class JdbcLoanRepository implements LoanRepository {
         }
     }
     
+    @Override
+    public List<DueLoan> findLoansDueSoon(LocalDate currentDate, int daysAhead, int afterLoanId, int limit) {
+        return findDueLoans("l.due_date BETWEEN ? AND ?", afterLoanId, limit,
+                currentDate, currentDate.plusDays(daysAhead));
+    }
+    
+    @Override
+    public List<DueLoan> findOverdueLoans(LocalDate currentDate, int afterLoanId, int limit) {
+        return findDueLoans("l.due_date < ?", afterLoanId, limit, currentDate);
+    }
+    
+    private List<DueLoan> findDueLoans(String dueCondition, int afterLoanId, int limit, LocalDate... dates) {
+        // Keyset paging on loan_id keeps every page as cheap as the first
+        String sql = "SELECT l.loan_id, l.user_id, l.item_id, l.loan_date, l.due_date, l.return_date, l.status, " +
+                     "u.username, u.email, u.role " +
+                     "FROM loan l JOIN app_user u ON u.user_id = l.user_id " +
+                     "WHERE " + dueCondition + " AND l.return_date IS NULL AND l.loan_id > ? " +
+                     "ORDER BY l.loan_id LIMIT ?";
+        List<DueLoan> dueLoans = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int index = 1;
+            for (LocalDate date : dates) {
+                pstmt.setDate(index++, Date.valueOf(date));
+            }
+            pstmt.setInt(index++, afterLoanId);
+            pstmt.setInt(index, limit);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    Loan loan = mapRow(rs);
+                    User borrower = new User();
+                    borrower.setUserId(loan.getUserId());
+                    borrower.setUsername(rs.getString("username"));
+                    borrower.setEmail(rs.getString("email"));
+                    borrower.setRole(rs.getString("role"));
+                    dueLoans.add(new DueLoan(loan, borrower));
+                }
+            }
+            
+            return dueLoans;
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding due loans", e);
+        }
+    }
+    
     @Override
     public boolean deleteById(Integer loanId) {
         String sql = "DELETE FROM loan WHERE loan_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, loanId);
@@ -286,7 +456,7 @@ public class JdbcLoanRepository implements LoanRepository {
     public int countActiveByUserId(Integer userId) {
         String sql = "SELECT COUNT(*) FROM loan WHERE user_id = ? AND return_date IS NULL AND status = 'ACTIVE'";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -308,7 +478,7 @@ public class JdbcLoanRepository implements LoanRepository {
     public void updateStatus(Integer loanId, String status, LocalDate returnDate) {
         String sql = "UPDATE loan SET status = ?, return_date = ? WHERE loan_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, status);
@@ -326,6 +496,23 @@ public class JdbcLoanRepository implements LoanRepository {
         }
     }
     
+    @Override
+    public boolean markReturned(Integer loanId, LocalDate returnDate) {
+        // Conditional update, so two concurrent returns of one loan cannot both succeed
+        String sql = "UPDATE loan SET status = 'RETURNED', return_date = ? WHERE loan_id = ? AND status = 'ACTIVE'";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setDate(1, Date.valueOf(returnDate));
+            pstmt.setInt(2, loanId);
+            return pstmt.executeUpdate() > 0;
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error returning loan with id: " + loanId, e);
+        }
+    }
+    
     /**
      * Helper method to map a ResultSet row to a Loan object
      */
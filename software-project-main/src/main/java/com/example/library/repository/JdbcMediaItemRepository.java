@@ -4,19 +4,44 @@ import com.example.library.DatabaseConnection;
 import com.example.library.util.DatabaseConfig;
 import com.example.library.domain.MediaItem;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.TreeSet;
 
 public class JdbcMediaItemRepository implements MediaItemRepository {
     
+    /** Maximum number of IDs bound into one IN list by {@link #findByIds}. */
+    static final int FIND_BY_IDS_CHUNK_SIZE = 500;
+    
+    private final DataSource dataSource;
+    
+    /**
+     * Creates a repository that uses the shared connection pool.
+     */
+    public JdbcMediaItemRepository() {
+        this(DatabaseConnection.getDataSource());
+    }
+    
+    /**
+     * Creates a repository that borrows its connections from a data source.
+     *
+     * @param dataSource the data source to borrow connections from
+     */
+    public JdbcMediaItemRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
     @Override
     public MediaItem save(MediaItem item) {
         String sql = "INSERT INTO media_item (title, author, type, isbn, publication_date, publisher, " +
                      "total_copies, available_copies, late_fees_per_day) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setString(1, item.getTitle());
@@ -56,7 +81,7 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
                      "publication_date = ?, publisher = ?, total_copies = ?, available_copies = ?, " +
                      "late_fees_per_day = ? WHERE item_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, item.getTitle());
@@ -88,7 +113,7 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
         String sql = "SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
                      "total_copies, available_copies, late_fees_per_day FROM media_item WHERE item_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, itemId);
@@ -106,12 +131,55 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
         }
     }
     
+    @Override
+    public List<MediaItem> findByIds(Collection<Integer> itemIds) {
+        TreeSet<Integer> uniqueIds = new TreeSet<>();
+        for (Integer itemId : itemIds) {
+            if (itemId != null) {
+                uniqueIds.add(itemId);
+            }
+        }
+        List<MediaItem> items = new ArrayList<>();
+        if (uniqueIds.isEmpty()) {
+            return items;
+        }
+        List<Integer> ids = new ArrayList<>(uniqueIds);
+        
+        try (Connection conn = dataSource.getConnection()) {
+            // Sorted IDs in consecutive chunks keep the combined result ordered by item_id
+            for (int from = 0; from < ids.size(); from += FIND_BY_IDS_CHUNK_SIZE) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + FIND_BY_IDS_CHUNK_SIZE, ids.size()));
+                String sql = "SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
+                             "total_copies, available_copies, late_fees_per_day FROM media_item " +
+                             "WHERE item_id IN (" + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ") " +
+                             "ORDER BY item_id";
+                
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pstmt.setInt(i + 1, chunk.get(i));
+                    }
+                    
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            items.add(mapResultSetToMediaItem(rs));
+                        }
+                    }
+                }
+            }
+            
+            return items;
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding media items by ids", e);
+        }
+    }
+    
     @Override
     public Optional<MediaItem> findByIsbn(String isbn) {
         String sql = "SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
                      "total_copies, available_copies, late_fees_per_day FROM media_item WHERE isbn = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, isbn);
@@ -135,7 +203,7 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
                      "total_copies, available_copies, late_fees_per_day FROM media_item ORDER BY item_id";
         List<MediaItem> items = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
@@ -156,7 +224,7 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
                      "total_copies, available_copies, late_fees_per_day FROM media_item WHERE type = ? ORDER BY item_id";
         List<MediaItem> items = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, type);
@@ -180,7 +248,7 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
                      "total_copies, available_copies, late_fees_per_day FROM media_item WHERE title ILIKE ? ORDER BY item_id";
         List<MediaItem> items = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, "%" + title + "%");
@@ -204,7 +272,7 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
                      "total_copies, available_copies, late_fees_per_day FROM media_item WHERE author ILIKE ? ORDER BY item_id";
         List<MediaItem> items = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, "%" + author + "%");
@@ -228,7 +296,7 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
                      "total_copies, available_copies, late_fees_per_day FROM media_item WHERE available_copies > 0 ORDER BY item_id";
         List<MediaItem> items = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
@@ -243,14 +311,55 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
         }
     }
     
+    @Override
+    public boolean decrementAvailableCopies(Integer itemId) {
+        // Conditional update, so two borrowers of the last copy cannot both take it
+        String sql = "UPDATE media_item SET available_copies = available_copies - 1 " +
+                     "WHERE item_id = ? AND available_copies > 0";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, itemId);
+            return pstmt.executeUpdate() > 0;
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error taking a copy of item id: " + itemId, e);
+        }
+    }
+    
+    @Override
+    public void incrementAvailableCopies(Integer itemId) {
+        String sql = "UPDATE media_item SET available_copies = available_copies + 1 WHERE item_id = ?";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, itemId);
+            int affectedRows = pstmt.executeUpdate();
+            
+            if (affectedRows == 0) {
+                throw new DataAccessException("Returning a copy failed, no rows affected for itemId: " + itemId);
+            }
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error returning a copy of item id: " + itemId, e);
+        }
+    }
+    
     @Override
     public List<MediaItem> search(String keyword) {
+        return search(keyword, new SearchCancellation());
+    }
+    
+    @Override
+    public List<MediaItem> search(String keyword, SearchCancellation cancellation) {
         String sql = "SELECT item_id, title, author, type, isbn, publication_date, publisher, " +
                      "total_copies, available_copies, late_fees_per_day FROM media_item " +
                      "WHERE title ILIKE ? OR author ILIKE ? OR isbn ILIKE ? OR type ILIKE ? ORDER BY item_id";
         List<MediaItem> items = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             String searchPattern = "%" + keyword + "%";
@@ -259,10 +368,13 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
             pstmt.setString(3, searchPattern);
             pstmt.setString(4, searchPattern);
             
+            cancellation.attach(pstmt);
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
                     items.add(mapResultSetToMediaItem(rs));
                 }
+            } finally {
+                cancellation.detach(pstmt);
             }
             
             return items;
@@ -276,7 +388,7 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
     public boolean deleteById(Integer itemId) {
         String sql = "DELETE FROM media_item WHERE item_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, itemId);
@@ -292,7 +404,7 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
     public void updateAvailableCopies(Integer itemId, Integer availableCopies) {
         String sql = "UPDATE media_item SET available_copies = ? WHERE item_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, availableCopies);
@@ -313,7 +425,7 @@ public class JdbcMediaItemRepository implements MediaItemRepository {
     public boolean existsByIsbn(String isbn) {
         String sql = "SELECT COUNT(*) FROM media_item WHERE isbn = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, isbn);
@@ -0,0 +1,180 @@
+package com.example.library.repository;
+
+import com.example.library.DatabaseConnection;
+import com.example.library.domain.Loan;
+import com.example.library.domain.ReminderCheckpoint;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * JDBC implementation of ReminderRepository, backed by the reminder_sent and
+ * reminder_checkpoint tables.
+ */
+public class JdbcReminderRepository implements ReminderRepository {
+    
+    /** SQLState of a unique or primary key violation. */
+    private static final String UNIQUE_VIOLATION = "23505";
+    
+    private final DataSource dataSource;
+    
+    /**
+     * Creates a repository that uses the shared connection pool.
+     */
+    public JdbcReminderRepository() {
+        this(DatabaseConnection.getDataSource());
+    }
+    
+    /**
+     * Creates a repository that borrows its connections from a data source.
+     *
+     * @param dataSource the data source to borrow connections from
+     */
+    public JdbcReminderRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
+    @Override
+    public Set<Integer> findRemindedLoanIds(String kind, Collection<Loan> loans) {
+        if (loans.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Map<Integer, LocalDate> dueDates = new HashMap<>();
+        for (Loan loan : loans) {
+            dueDates.put(loan.getLoanId(), loan.getDueDate());
+        }
+        String sql = "SELECT loan_id, due_date FROM reminder_sent WHERE kind = ? AND loan_id IN (" +
+                     String.join(", ", Collections.nCopies(dueDates.size(), "?")) + ")";
+        Set<Integer> reminded = new HashSet<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, kind);
+            int index = 2;
+            for (Integer loanId : dueDates.keySet()) {
+                pstmt.setInt(index++, loanId);
+            }
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    int loanId = rs.getInt("loan_id");
+                    // A reminder about an earlier due date does not cover a renewed loan
+                    if (rs.getDate("due_date").toLocalDate().equals(dueDates.get(loanId))) {
+                        reminded.add(loanId);
+                    }
+                }
+            }
+            
+            return reminded;
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding sent reminders", e);
+        }
+    }
+    
+    @Override
+    public boolean recordReminder(Integer loanId, String kind, LocalDate dueDate) {
+        String sql = "INSERT INTO reminder_sent (loan_id, kind, due_date, sent_at) VALUES (?, ?, ?, ?)";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, loanId);
+            pstmt.setString(2, kind);
+            pstmt.setDate(3, Date.valueOf(dueDate));
+            pstmt.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
+            pstmt.executeUpdate();
+            return true;
+            
+        } catch (SQLException e) {
+            if (UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                return false;
+            }
+            throw new DataAccessException("Error recording reminder for loan " + loanId, e);
+        }
+    }
+    
+    @Override
+    public void deleteReminder(Integer loanId, String kind, LocalDate dueDate) {
+        String sql = "DELETE FROM reminder_sent WHERE loan_id = ? AND kind = ? AND due_date = ?";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, loanId);
+            pstmt.setString(2, kind);
+            pstmt.setDate(3, Date.valueOf(dueDate));
+            pstmt.executeUpdate();
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error deleting reminder for loan " + loanId, e);
+        }
+    }
+    
+    @Override
+    public Optional<ReminderCheckpoint> findCheckpoint(LocalDate runDate, String kind) {
+        String sql = "SELECT last_loan_id, completed FROM reminder_checkpoint WHERE run_date = ? AND kind = ?";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setDate(1, Date.valueOf(runDate));
+            pstmt.setString(2, kind);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return Optional.of(new ReminderCheckpoint(runDate, kind,
+                            rs.getInt("last_loan_id"), rs.getBoolean("completed")));
+                }
+            }
+            
+            return Optional.empty();
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding reminder checkpoint", e);
+        }
+    }
+    
+    @Override
+    public void saveCheckpoint(ReminderCheckpoint checkpoint) {
+        String update = "UPDATE reminder_checkpoint SET last_loan_id = ?, completed = ?, updated_at = ? " +
+                        "WHERE run_date = ? AND kind = ?";
+        String insert = "INSERT INTO reminder_checkpoint (run_date, kind, last_loan_id, completed, updated_at) " +
+                        "VALUES (?, ?, ?, ?, ?)";
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        
+        try (Connection conn = dataSource.getConnection()) {
+            int updated;
+            try (PreparedStatement pstmt = conn.prepareStatement(update)) {
+                pstmt.setInt(1, checkpoint.getLastLoanId());
+                pstmt.setBoolean(2, checkpoint.isCompleted());
+                pstmt.setTimestamp(3, now);
+                pstmt.setDate(4, Date.valueOf(checkpoint.getRunDate()));
+                pstmt.setString(5, checkpoint.getKind());
+                updated = pstmt.executeUpdate();
+            }
+            if (updated == 0) {
+                try (PreparedStatement pstmt = conn.prepareStatement(insert)) {
+                    pstmt.setDate(1, Date.valueOf(checkpoint.getRunDate()));
+                    pstmt.setString(2, checkpoint.getKind());
+                    pstmt.setInt(3, checkpoint.getLastLoanId());
+                    pstmt.setBoolean(4, checkpoint.isCompleted());
+                    pstmt.setTimestamp(5, now);
+                    pstmt.executeUpdate();
+                }
+            }
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error saving reminder checkpoint", e);
+        }
+    }
+}
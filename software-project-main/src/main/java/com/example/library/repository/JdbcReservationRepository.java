@@ -4,23 +4,45 @@ import com.example.library.DatabaseConnection;
 import com.example.library.util.DatabaseConfig;
 import com.example.library.domain.Reservation;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.TreeSet;
 
 /**
  * JDBC implementation of ReservationRepository.
  */
 public class JdbcReservationRepository implements ReservationRepository {
     
+    private final DataSource dataSource;
+    
+    /**
+     * Creates a repository that uses the shared connection pool.
+     */
+    public JdbcReservationRepository() {
+        this(DatabaseConnection.getDataSource());
+    }
+    
+    /**
+     * Creates a repository that borrows its connections from a data source.
+     *
+     * @param dataSource the data source to borrow connections from
+     */
+    public JdbcReservationRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
     @Override
     public Reservation save(Reservation reservation) {
         String sql = "INSERT INTO reservation (user_id, item_id, reservation_date, expiry_date, status) " +
                      "VALUES (?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setInt(1, reservation.getUserId());
@@ -51,7 +73,7 @@ public class JdbcReservationRepository implements ReservationRepository {
         String sql = "UPDATE reservation SET user_id = ?, item_id = ?, reservation_date = ?, " +
                      "expiry_date = ?, status = ? WHERE reservation_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, reservation.getUserId());
@@ -77,7 +99,7 @@ public class JdbcReservationRepository implements ReservationRepository {
     public Optional<Reservation> findById(Integer reservationId) {
         String sql = "SELECT * FROM reservation WHERE reservation_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, reservationId);
@@ -100,7 +122,7 @@ public class JdbcReservationRepository implements ReservationRepository {
         String sql = "SELECT * FROM reservation ORDER BY reservation_date DESC";
         List<Reservation> reservations = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
@@ -120,7 +142,7 @@ public class JdbcReservationRepository implements ReservationRepository {
         String sql = "SELECT * FROM reservation WHERE user_id = ? ORDER BY reservation_date DESC";
         List<Reservation> reservations = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -143,7 +165,7 @@ public class JdbcReservationRepository implements ReservationRepository {
         String sql = "SELECT * FROM reservation WHERE item_id = ? ORDER BY reservation_date";
         List<Reservation> reservations = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, itemId);
@@ -167,7 +189,7 @@ public class JdbcReservationRepository implements ReservationRepository {
                      "ORDER BY reservation_date";
         List<Reservation> reservations = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, itemId);
@@ -185,12 +207,32 @@ public class JdbcReservationRepository implements ReservationRepository {
         }
     }
     
+    @Override
+    public List<Reservation> findAllActive() {
+        String sql = "SELECT * FROM reservation WHERE status = 'ACTIVE' ORDER BY reservation_date, reservation_id";
+        List<Reservation> reservations = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            
+            while (rs.next()) {
+                reservations.add(mapResultSetToReservation(rs));
+            }
+            
+            return reservations;
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error finding all active reservations", e);
+        }
+    }
+    
     @Override
     public List<Reservation> findExpiredReservations(LocalDateTime currentDateTime) {
         String sql = "SELECT * FROM reservation WHERE status = 'ACTIVE' AND expiry_date < ?";
         List<Reservation> reservations = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setTimestamp(1, Timestamp.valueOf(currentDateTime));
@@ -208,13 +250,113 @@ public class JdbcReservationRepository implements ReservationRepository {
         }
     }
     
+    @Override
+    public List<Reservation> expireActiveBefore(LocalDateTime currentDateTime, int limit) {
+        // Lock the chunk first so the reported rows are exactly the ones updated
+        String selectSql = "SELECT * FROM reservation WHERE status = 'ACTIVE' AND expiry_date < ? " +
+                           "ORDER BY reservation_id LIMIT ? FOR UPDATE";
+        List<Reservation> expired = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
+                pstmt.setTimestamp(1, Timestamp.valueOf(currentDateTime));
+                pstmt.setInt(2, limit);
+                
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        expired.add(mapResultSetToReservation(rs));
+                    }
+                }
+            }
+            
+            if (expired.isEmpty()) {
+                return expired;
+            }
+            
+            String updateSql = "UPDATE reservation SET status = 'EXPIRED' WHERE status = 'ACTIVE' " +
+                               "AND reservation_id IN (" + placeholders(expired.size()) + ")";
+            try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
+                for (int i = 0; i < expired.size(); i++) {
+                    pstmt.setInt(i + 1, expired.get(i).getReservationId());
+                }
+                pstmt.executeUpdate();
+            }
+            
+            for (Reservation reservation : expired) {
+                reservation.setStatus("EXPIRED");
+            }
+            return expired;
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error expiring reservations", e);
+        }
+    }
+    
+    @Override
+    public List<Reservation> promoteNextReservations(Collection<Integer> itemIds, LocalDateTime currentDateTime,
+                                                     LocalDateTime holdUntil) {
+        List<Integer> ids = new ArrayList<>(new TreeSet<>(itemIds));
+        List<Reservation> promoted = new ArrayList<>();
+        if (ids.isEmpty()) {
+            return promoted;
+        }
+        
+        // The head of each waitlist, for items with more copies than unexpired holds
+        String selectSql = "SELECT r.* FROM reservation r " +
+                           "JOIN media_item m ON m.item_id = r.item_id " +
+                           "WHERE r.item_id IN (" + placeholders(ids.size()) + ") " +
+                           "AND r.reservation_id = (SELECT q.reservation_id FROM reservation q " +
+                           "WHERE q.item_id = r.item_id AND q.status = 'ACTIVE' " +
+                           "ORDER BY q.reservation_date, q.reservation_id LIMIT 1) " +
+                           "AND m.available_copies > (SELECT COUNT(*) FROM reservation h " +
+                           "WHERE h.item_id = r.item_id AND h.status = 'FULFILLED' AND h.expiry_date >= ?)";
+        
+        try (Connection conn = dataSource.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(selectSql)) {
+                for (int i = 0; i < ids.size(); i++) {
+                    pstmt.setInt(i + 1, ids.get(i));
+                }
+                pstmt.setTimestamp(ids.size() + 1, Timestamp.valueOf(currentDateTime));
+                
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        promoted.add(mapResultSetToReservation(rs));
+                    }
+                }
+            }
+            
+            if (promoted.isEmpty()) {
+                return promoted;
+            }
+            
+            String updateSql = "UPDATE reservation SET status = 'FULFILLED', expiry_date = ? " +
+                               "WHERE status = 'ACTIVE' AND reservation_id IN (" + placeholders(promoted.size()) + ")";
+            try (PreparedStatement pstmt = conn.prepareStatement(updateSql)) {
+                pstmt.setTimestamp(1, Timestamp.valueOf(holdUntil));
+                for (int i = 0; i < promoted.size(); i++) {
+                    pstmt.setInt(i + 2, promoted.get(i).getReservationId());
+                }
+                pstmt.executeUpdate();
+            }
+            
+            for (Reservation reservation : promoted) {
+                reservation.setStatus("FULFILLED");
+                reservation.setExpiryDate(holdUntil);
+            }
+            return promoted;
+            
+        } catch (SQLException e) {
+            throw new DataAccessException("Error promoting reservations", e);
+        }
+    }
+    
     @Override
     public List<Reservation> findActiveByUserId(Integer userId) {
         String sql = "SELECT * FROM reservation WHERE user_id = ? AND status = 'ACTIVE' " +
                      "ORDER BY reservation_date DESC";
         List<Reservation> reservations = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -236,7 +378,7 @@ public class JdbcReservationRepository implements ReservationRepository {
     public void deleteById(Integer reservationId) {
         String sql = "DELETE FROM reservation WHERE reservation_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, reservationId);
@@ -251,7 +393,7 @@ public class JdbcReservationRepository implements ReservationRepository {
     public int countActiveByItemId(Integer itemId) {
         String sql = "SELECT COUNT(*) FROM reservation WHERE item_id = ? AND status = 'ACTIVE'";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, itemId);
@@ -272,6 +414,10 @@ public class JdbcReservationRepository implements ReservationRepository {
     /**
      * Maps a ResultSet row to a Reservation object
      */
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+    
     private Reservation mapResultSetToReservation(ResultSet rs) throws SQLException {
         Reservation reservation = new Reservation();
         reservation.setReservationId(rs.getInt("reservation_id"));
@@ -0,0 +1,211 @@
+package com.example.library.repository;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * JDBC implementation of TransactionManager.
+ *
+ * A transaction borrows one connection from the underlying data source, turns
+ * off auto-commit and binds the connection to the current thread. Repositories
+ * built on {@link #getDataSource()} receive that bound connection while a
+ * transaction is running on their thread, and a fresh connection from the
+ * underlying data source otherwise.
+ *
+ * Actions registered with {@link #afterCommit(Runnable)} during a transaction
+ * run on the same thread after the commit, once the connection is released.
+ */
+public class JdbcTransactionManager implements TransactionManager {
+
+    private final DataSource dataSource;
+    private final ThreadLocal<Connection> currentConnection = new ThreadLocal<>();
+    private final ThreadLocal<List<Runnable>> commitActions = new ThreadLocal<>();
+    private final DataSource transactionAwareDataSource = new TransactionAwareDataSource();
+
+    /**
+     * Creates a transaction manager.
+     *
+     * @param dataSource the data source transactions borrow their connection from
+     */
+    public JdbcTransactionManager(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Gets the data source to build repositories on, so that their calls take
+     * part in the transaction running on the calling thread.
+     *
+     * @return the transaction-aware data source
+     */
+    public DataSource getDataSource() {
+        return transactionAwareDataSource;
+    }
+
+    @Override
+    public <T> T inTransaction(Supplier<T> work) {
+        if (currentConnection.get() != null) {
+            return work.get();
+        }
+
+        Connection conn;
+        try {
+            conn = dataSource.getConnection();
+        } catch (SQLException e) {
+            throw new DataAccessException("Error starting transaction", e);
+        }
+        List<Runnable> actions = new ArrayList<>();
+        T result;
+        try {
+            conn.setAutoCommit(false);
+            currentConnection.set(conn);
+            commitActions.set(actions);
+            try {
+                result = work.get();
+            } catch (RuntimeException | Error e) {
+                rollback(conn, e);
+                throw e;
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            rollback(conn, e);
+            throw new DataAccessException("Error committing transaction", e);
+        } finally {
+            currentConnection.remove();
+            commitActions.remove();
+            release(conn);
+        }
+        runAll(actions);
+        return result;
+    }
+
+    @Override
+    public void afterCommit(Runnable action) {
+        List<Runnable> actions = commitActions.get();
+        if (actions != null) {
+            actions.add(action);
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Runs the actions of a committed transaction. A failing action does not
+     * undo the commit or stop the others, so it is only reported.
+     */
+    private static void runAll(List<Runnable> actions) {
+        for (Runnable action : actions) {
+            try {
+                action.run();
+            } catch (RuntimeException e) {
+                System.err.println("Error running after-commit action: " + e.getMessage());
+            }
+        }
+    }
+
+    private static void rollback(Connection conn, Throwable cause) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    private static void release(Connection conn) {
+        try {
+            conn.setAutoCommit(true);
+        } catch (SQLException e) {
+            // The connection is closed below; a pool discards it if it is broken
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            System.err.println("Error closing transaction connection: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Wraps the thread's transaction connection so that repositories closing it
+     * at the end of each call leave it open for the rest of the transaction.
+     */
+    private static Connection nonClosing(Connection conn) {
+        return (Connection) Proxy.newProxyInstance(JdbcTransactionManager.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            return null;
+                        case "equals":
+                            return proxy == args[0];
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        default:
+                            try {
+                                return method.invoke(conn, args);
+                            } catch (InvocationTargetException e) {
+                                throw e.getCause();
+                            }
+                    }
+                });
+    }
+
+    /**
+     * Data source that hands out the current thread's transaction connection when there is one.
+     */
+    private final class TransactionAwareDataSource implements DataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection conn = currentConnection.get();
+            return conn != null ? nonClosing(conn) : dataSource.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            Connection conn = currentConnection.get();
+            return conn != null ? nonClosing(conn) : dataSource.getConnection(username, password);
+        }
+
+        @Override
+        public PrintWriter getLogWriter() throws SQLException {
+            return dataSource.getLogWriter();
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) throws SQLException {
+            dataSource.setLogWriter(out);
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) throws SQLException {
+            dataSource.setLoginTimeout(seconds);
+        }
+
+        @Override
+        public int getLoginTimeout() throws SQLException {
+            return dataSource.getLoginTimeout();
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            return dataSource.getParentLogger();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return iface.isInstance(this) ? iface.cast(this) : dataSource.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(this) || dataSource.isWrapperFor(iface);
+        }
+    }
+}
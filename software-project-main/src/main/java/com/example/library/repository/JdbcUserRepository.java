@@ -4,6 +4,7 @@ import com.example.library.domain.User;
 import com.example.library.DatabaseConnection;
 import com.example.library.util.DatabaseConfig;
 
+import javax.sql.DataSource;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -12,11 +13,29 @@ import java.util.Optional;
 
 public class JdbcUserRepository implements UserRepository {
     
+    private final DataSource dataSource;
+    
+    /**
+     * Creates a repository that uses the shared connection pool.
+     */
+    public JdbcUserRepository() {
+        this(DatabaseConnection.getDataSource());
+    }
+    
+    /**
+     * Creates a repository that borrows its connections from a data source.
+     *
+     * @param dataSource the data source to borrow connections from
+     */
+    public JdbcUserRepository(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
     @Override
     public User save(User user) {
         String sql = "INSERT INTO app_user (username, password, email, role, created_at) VALUES (?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setString(1, user.getUsername());
@@ -50,7 +69,7 @@ public class JdbcUserRepository implements UserRepository {
     public User update(User user) {
         String sql = "UPDATE app_user SET username = ?, password = ?, email = ?, role = ? WHERE user_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, user.getUsername());
@@ -76,7 +95,7 @@ public class JdbcUserRepository implements UserRepository {
     public Optional<User> findById(Integer userId) {
         String sql = "SELECT user_id, username, password, email, role, created_at FROM app_user WHERE user_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -98,7 +117,7 @@ public class JdbcUserRepository implements UserRepository {
     public Optional<User> findByUsername(String username) {
         String sql = "SELECT user_id, username, password, email, role, created_at FROM app_user WHERE username = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, username);
@@ -120,7 +139,7 @@ public class JdbcUserRepository implements UserRepository {
     public Optional<User> findByEmail(String email) {
         String sql = "SELECT user_id, username, password, email, role, created_at FROM app_user WHERE email = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, email);
@@ -143,7 +162,7 @@ public class JdbcUserRepository implements UserRepository {
         String sql = "SELECT user_id, username, password, email, role, created_at FROM app_user ORDER BY user_id";
         List<User> users = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql);
              ResultSet rs = pstmt.executeQuery()) {
             
@@ -163,7 +182,7 @@ public class JdbcUserRepository implements UserRepository {
         String sql = "SELECT user_id, username, password, email, role, created_at FROM app_user WHERE role = ? ORDER BY user_id";
         List<User> users = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, role);
@@ -185,7 +204,7 @@ public class JdbcUserRepository implements UserRepository {
     public void deleteById(Integer userId) {
         String sql = "DELETE FROM app_user WHERE user_id = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, userId);
@@ -200,7 +219,7 @@ public class JdbcUserRepository implements UserRepository {
     public boolean existsByUsername(String username) {
         String sql = "SELECT COUNT(*) FROM app_user WHERE username = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, username);
@@ -222,7 +241,7 @@ public class JdbcUserRepository implements UserRepository {
     public boolean existsByEmail(String email) {
         String sql = "SELECT COUNT(*) FROM app_user WHERE email = ?";
 
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
 
             pstmt.setString(1, email);
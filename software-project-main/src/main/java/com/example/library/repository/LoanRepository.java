@@ -1,6 +1,10 @@
 package com.example.library.repository;
 
+import com.example.library.domain.BorrowingEligibility;
+import com.example.library.domain.DueLoan;
 import com.example.library.domain.Loan;
+import com.example.library.domain.LoanAdminView;
+import com.example.library.domain.OverdueSummary;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -34,6 +38,16 @@ public interface LoanRepository {
      */
     List<Loan> findAll();
     
+    /**
+     * Find a page of loans ordered by ID, joined with the borrower's username
+     * and the item title, counting the whole result in the same query
+     * @param userId the borrower to filter by, or null for all loans
+     * @param offset the number of loans to skip
+     * @param limit the maximum number of loans to return
+     * @return the loans in the requested range and the total number of matching loans
+     */
+    Page<LoanAdminView> findAdminView(Integer userId, int offset, int limit);
+    
     /**
      * Find loans by user ID
      * @param userId the user ID
@@ -69,6 +83,26 @@ public interface LoanRepository {
      */
     List<Loan> findOverdueLoans(LocalDate currentDate);
     
+    /**
+     * Find users with overdue loans and how many each has, one page at a time.
+     * Rows are ordered by user ID; pass the last user ID of a page as
+     * {@code afterUserId} to get the next one
+     * @param currentDate the date to check due dates against
+     * @param afterUserId only users with a greater ID are returned; 0 for the first page
+     * @param limit the maximum number of users to return
+     * @return the users with their overdue loan counts, ordered by user ID
+     */
+    List<OverdueSummary> findOverdueSummaries(LocalDate currentDate, int afterUserId, int limit);
+    
+    /**
+     * Check a single user's borrowing eligibility in one query: whether they
+     * have an overdue loan, and the sum of their unpaid fines
+     * @param userId the user ID
+     * @param currentDate the date to check due dates against
+     * @return the user's overdue flag and unpaid fine total
+     */
+    BorrowingEligibility findBorrowingEligibility(Integer userId, LocalDate currentDate);
+    
     /**
      * Find loans due soon (within specified days)
      * @param currentDate the current date
@@ -77,6 +111,27 @@ public interface LoanRepository {
      */
     List<Loan> findLoansDueSoon(LocalDate currentDate, int daysAhead);
     
+    /**
+     * Find open loans due within the given days, with their borrowers, one
+     * page at a time. Rows are ordered by loan ID; pass the last loan ID of a
+     * page as {@code afterLoanId} to get the next one
+     * @param currentDate the current date
+     * @param daysAhead number of days ahead to check
+     * @param afterLoanId only loans with a greater ID are returned; 0 for the first page
+     * @param limit the maximum number of loans to return
+     * @return the loans due soon with their borrowers, ordered by loan ID
+     */
+    List<DueLoan> findLoansDueSoon(LocalDate currentDate, int daysAhead, int afterLoanId, int limit);
+    
+    /**
+     * Find overdue loans with their borrowers, one page at a time, ordered by loan ID
+     * @param currentDate the date to check due dates against
+     * @param afterLoanId only loans with a greater ID are returned; 0 for the first page
+     * @param limit the maximum number of loans to return
+     * @return the overdue loans with their borrowers, ordered by loan ID
+     */
+    List<DueLoan> findOverdueLoans(LocalDate currentDate, int afterLoanId, int limit);
+    
     /**
      * Delete a loan by ID
      * @param loanId the loan ID
@@ -98,4 +153,12 @@ public interface LoanRepository {
      * @param returnDate the return date (can be null)
      */
     void updateStatus(Integer loanId, String status, LocalDate returnDate);
+    
+    /**
+     * Mark an active loan returned in a single atomic update
+     * @param loanId the loan ID
+     * @param returnDate the return date
+     * @return true if the loan was returned, false if it was not active or does not exist
+     */
+    boolean markReturned(Integer loanId, LocalDate returnDate);
 }
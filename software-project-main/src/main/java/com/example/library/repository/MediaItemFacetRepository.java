@@ -0,0 +1,40 @@
+package com.example.library.repository;
+
+import com.example.library.domain.MediaItem;
+import com.example.library.service.search.Facet;
+import com.example.library.service.search.FacetFilter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Repository interface for filtering the catalog by facets such as type,
+ * publisher, year and availability.
+ */
+public interface MediaItemFacetRepository {
+
+    /**
+     * Finds the items matching all the facets of a filter.
+     *
+     * @param filter the facet values to match
+     * @return matching media items ordered by id
+     */
+    List<MediaItem> findByFacets(FacetFilter filter);
+
+    /**
+     * Counts the items matching a filter without loading them.
+     *
+     * @param filter the facet values to match
+     * @return the number of matching items
+     */
+    int countByFacets(FacetFilter filter);
+
+    /**
+     * Counts matching items per value of a facet.
+     *
+     * @param facet the facet to count
+     * @param filter the current selection
+     * @return item count per facet value
+     */
+    Map<String, Integer> facetCounts(Facet facet, FacetFilter filter);
+}
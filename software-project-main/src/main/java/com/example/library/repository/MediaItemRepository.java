@@ -1,6 +1,7 @@
 package com.example.library.repository;
 
 import com.example.library.domain.MediaItem;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -35,6 +36,13 @@ public interface MediaItemRepository {
      */
     Optional<MediaItem> findById(Integer itemId);
     
+    /**
+     * Find several media items by ID in as few queries as possible
+     * @param itemIds the item IDs; duplicates and nulls are ignored
+     * @return the items that exist, ordered by item ID
+     */
+    List<MediaItem> findByIds(Collection<Integer> itemIds);
+    
     /**
      * Find a media item by ISBN
      * @param isbn the ISBN
@@ -89,6 +97,19 @@ public interface MediaItemRepository {
      */
     void updateAvailableCopies(Integer itemId, Integer availableCopies);
     
+    /**
+     * Take one copy of an item, if one is available, in a single atomic update
+     * @param itemId the item ID
+     * @return true if a copy was taken, false if none was available or the item does not exist
+     */
+    boolean decrementAvailableCopies(Integer itemId);
+    
+    /**
+     * Put one copy of an item back in a single atomic update
+     * @param itemId the item ID
+     */
+    void incrementAvailableCopies(Integer itemId);
+    
     /**
      * Search for media items by keyword (title, author, isbn, or type)
      * @param keyword the search keyword
@@ -96,6 +117,18 @@ public interface MediaItemRepository {
      */
     List<MediaItem> search(String keyword);
     
+    /**
+     * Search for media items by keyword, letting the caller cancel the search
+     * from another thread through its own handle.
+     * Implementations that search in memory ignore the handle.
+     * @param keyword the search keyword
+     * @param cancellation the handle that cancels this search only
+     * @return list of matching media items
+     */
+    default List<MediaItem> search(String keyword, SearchCancellation cancellation) {
+        return search(keyword);
+    }
+    
     /**
      * Check if a media item exists by ISBN
      * @param isbn the ISBN to check
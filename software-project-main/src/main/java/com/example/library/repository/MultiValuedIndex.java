@@ -0,0 +1,49 @@
+package com.example.library.repository;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hash index from a key shared by many entities to their IDs, for the
+ * in-memory repositories. Lookups are lock-free; changes are expected to be
+ * made by one writer at a time, under the repository's write lock.
+ */
+final class MultiValuedIndex {
+
+    private final ConcurrentMap<String, Set<Integer>> ids = new ConcurrentHashMap<>();
+
+    /**
+     * Gets the IDs of the entities with a key. The set is live, so callers
+     * must check each entity still has the key.
+     *
+     * @param key the key; null is never indexed
+     * @return the IDs, or an empty set
+     */
+    Set<Integer> get(String key) {
+        if (key == null) {
+            return Collections.emptySet();
+        }
+        return ids.getOrDefault(key, Collections.emptySet());
+    }
+
+    /**
+     * Moves an entity from its old key to its new one.
+     *
+     * @param oldKey the key before the change, or null
+     * @param newKey the key after the change, or null
+     * @param id the entity ID
+     */
+    void replace(String oldKey, String newKey, Integer id) {
+        if (newKey != null) {
+            ids.computeIfAbsent(newKey, key -> ConcurrentHashMap.newKeySet()).add(id);
+        }
+        if (oldKey != null && !oldKey.equals(newKey)) {
+            ids.computeIfPresent(oldKey, (key, set) -> {
+                set.remove(id);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+}
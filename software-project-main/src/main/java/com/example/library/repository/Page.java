@@ -0,0 +1,32 @@
+package com.example.library.repository;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of a query result together with the size of the whole result.
+ *
+ * @param <T> the row type
+ */
+public class Page<T> {
+    private final List<T> rows;
+    private final int totalCount;
+
+    public Page(List<T> rows, int totalCount) {
+        this.rows = Collections.unmodifiableList(rows);
+        this.totalCount = totalCount;
+    }
+
+    public List<T> getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of rows matching the query across all pages.
+     *
+     * @return the total row count; 0 when the page starts past the last row
+     */
+    public int getTotalCount() {
+        return totalCount;
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.library.repository;
+
+import com.example.library.domain.Loan;
+import com.example.library.domain.ReminderCheckpoint;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Repository interface for the record of reminders sent and the progress of
+ * reminder runs.
+ *
+ * A reminder is identified by its loan, its kind and the loan's due date, so
+ * a renewed loan can be reminded again about its new due date.
+ */
+public interface ReminderRepository {
+    
+    /**
+     * Find which of the given loans already have a reminder of a kind for their current due date
+     * @param kind the reminder kind, DUE_SOON or OVERDUE
+     * @param loans the loans to check
+     * @return the IDs of the loans that were already reminded
+     */
+    Set<Integer> findRemindedLoanIds(String kind, Collection<Loan> loans);
+    
+    /**
+     * Record that a reminder is being sent. Claiming before sending means two
+     * runs racing over the same loan cannot both notify its borrower
+     * @param loanId the loan ID
+     * @param kind the reminder kind
+     * @param dueDate the due date the reminder is about
+     * @return false if the reminder was already recorded
+     */
+    boolean recordReminder(Integer loanId, String kind, LocalDate dueDate);
+    
+    /**
+     * Remove a recorded reminder, for instance because sending it failed and it should be retried
+     * @param loanId the loan ID
+     * @param kind the reminder kind
+     * @param dueDate the due date the reminder is about
+     */
+    void deleteReminder(Integer loanId, String kind, LocalDate dueDate);
+    
+    /**
+     * Find the progress of a day's run
+     * @param runDate the day of the run
+     * @param kind the reminder kind
+     * @return Optional containing the checkpoint if the run has started
+     */
+    Optional<ReminderCheckpoint> findCheckpoint(LocalDate runDate, String kind);
+    
+    /**
+     * Save the progress of a day's run, replacing any earlier checkpoint for it
+     * @param checkpoint the checkpoint to save
+     */
+    void saveCheckpoint(ReminderCheckpoint checkpoint);
+}
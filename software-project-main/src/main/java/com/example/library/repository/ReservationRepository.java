@@ -2,6 +2,7 @@ package com.example.library.repository;
 
 import com.example.library.domain.Reservation;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -58,6 +59,12 @@ public interface ReservationRepository {
      */
     List<Reservation> findActiveByItemId(Integer itemId);
     
+    /**
+     * Find all active reservations (ordered by reservation date)
+     * @return list of every active reservation, oldest first
+     */
+    List<Reservation> findAllActive();
+    
     /**
      * Find expired reservations
      * @param currentDateTime the current date and time
@@ -65,6 +72,27 @@ public interface ReservationRepository {
      */
     List<Reservation> findExpiredReservations(LocalDateTime currentDateTime);
     
+    /**
+     * Expire active reservations past their expiry date with one bulk update.
+     * At most {@code limit} rows are changed per call, oldest ID first, so a
+     * large backlog can be worked off in short transactions.
+     * @param currentDateTime the current date and time
+     * @param limit the maximum number of reservations to expire
+     * @return the expired reservations, with their status set to EXPIRED
+     */
+    List<Reservation> expireActiveBefore(LocalDateTime currentDateTime, int limit);
+    
+    /**
+     * Promote the oldest active reservation of each given item to FULFILLED,
+     * for items that have a copy not already held by an unexpired fulfilled reservation
+     * @param itemIds the items whose waitlists changed
+     * @param currentDateTime the current date and time
+     * @param holdUntil the expiry date of the promoted reservations
+     * @return the promoted reservations
+     */
+    List<Reservation> promoteNextReservations(Collection<Integer> itemIds, LocalDateTime currentDateTime,
+                                              LocalDateTime holdUntil);
+    
     /**
      * Find active reservations for a user
      * @param userId the user ID
@@ -0,0 +1,71 @@
+package com.example.library.repository;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Lets the caller of one search cancel it from another thread.
+ *
+ * Each search gets its own handle, so cancelling it never touches a search
+ * started by someone else. A search cancelled while its query runs fails with
+ * a {@link DataAccessException}, and one cancelled before its query starts
+ * fails without running it. Cancelling a finished search does nothing.
+ */
+public final class SearchCancellation {
+
+    private final AtomicReference<Statement> running = new AtomicReference<>();
+    private volatile boolean cancelled;
+
+    /**
+     * Cancels the search, stopping its query in the database if it is running.
+     */
+    public void cancel() {
+        cancelled = true;
+        cancelStatement(running.getAndSet(null));
+    }
+
+    /**
+     * Checks whether {@link #cancel} has been called.
+     *
+     * @return true if the search was cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Registers the statement a search is about to execute.
+     *
+     * @param statement the search statement
+     * @throws SQLException if the search has already been cancelled
+     */
+    void attach(Statement statement) throws SQLException {
+        running.set(statement);
+        // Checked after publishing, so a cancel racing with this call sees one or the other
+        if (cancelled) {
+            detach(statement);
+            throw new SQLException("Search cancelled");
+        }
+    }
+
+    /**
+     * Unregisters a statement once its search has finished.
+     *
+     * @param statement the search statement
+     */
+    void detach(Statement statement) {
+        running.compareAndSet(statement, null);
+    }
+
+    private static void cancelStatement(Statement statement) {
+        if (statement == null) {
+            return;
+        }
+        try {
+            statement.cancel();
+        } catch (SQLException e) {
+            // The search finished and closed its statement first; nothing left to cancel
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.library.repository;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs a unit of work as one database transaction: every repository call made
+ * by the work on the calling thread shares one connection, and the work's
+ * changes are committed together or not at all.
+ *
+ * A transaction started while another one is running on the same thread joins
+ * the outer transaction.
+ */
+public interface TransactionManager {
+
+    /**
+     * Runs work in a transaction, committing when it returns and rolling back
+     * when it throws.
+     *
+     * @param work the unit of work
+     * @param <T> the result type
+     * @return the work's result
+     */
+    <T> T inTransaction(Supplier<T> work);
+
+    /**
+     * Runs work without a result in a transaction.
+     *
+     * @param work the unit of work
+     */
+    default void runInTransaction(Runnable work) {
+        inTransaction(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs an action once the transaction running on the calling thread has
+     * committed, or right away when there is none. The action is dropped if the
+     * transaction rolls back, so it suits in-memory state that must only follow
+     * committed changes.
+     *
+     * @param action the action to run after commit
+     */
+    default void afterCommit(Runnable action) {
+        action.run();
+    }
+
+    /**
+     * Gets a transaction manager that runs work directly, for repositories
+     * without transactions such as the file-based ones.
+     *
+     * @return a pass-through transaction manager
+     */
+    static TransactionManager none() {
+        return new TransactionManager() {
+            @Override
+            public <T> T inTransaction(Supplier<T> work) {
+                return work.get();
+            }
+        };
+    }
+}
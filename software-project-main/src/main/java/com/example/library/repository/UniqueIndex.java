@@ -0,0 +1,62 @@
+package com.example.library.repository;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Hash index from a unique key to the ID of the entity holding it, for the
+ * in-memory repositories. Lookups are lock-free; changes are expected to be
+ * made by one writer at a time, under the repository's write lock.
+ */
+final class UniqueIndex {
+
+    private final String keyName;
+    private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * @param keyName the name of the indexed field, used in error messages
+     */
+    UniqueIndex(String keyName) {
+        this.keyName = keyName;
+    }
+
+    /**
+     * Gets the ID of the entity with a key.
+     *
+     * @param key the key; null is never indexed
+     * @return the ID, or null if no entity has the key
+     */
+    Integer get(String key) {
+        return key == null ? null : ids.get(key);
+    }
+
+    /**
+     * Checks that a key is free or already held by the given entity.
+     *
+     * @param key the key, or null
+     * @param id the entity that wants the key
+     * @throws DataAccessException if another entity holds the key
+     */
+    void checkAvailable(String key, Integer id) {
+        Integer owner = get(key);
+        if (owner != null && !owner.equals(id)) {
+            throw new DataAccessException("Duplicate " + keyName + ": " + key);
+        }
+    }
+
+    /**
+     * Moves an entity from its old key to its new one.
+     *
+     * @param oldKey the key before the change, or null
+     * @param newKey the key after the change, or null
+     * @param id the entity ID
+     */
+    void replace(String oldKey, String newKey, Integer id) {
+        if (newKey != null) {
+            ids.put(newKey, id);
+        }
+        if (oldKey != null && !oldKey.equals(newKey)) {
+            ids.remove(oldKey, id);
+        }
+    }
+}
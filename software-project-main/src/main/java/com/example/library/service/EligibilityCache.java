@@ -0,0 +1,113 @@
+package com.example.library.service;
+
+import com.example.library.domain.BorrowingEligibility;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Short-lived cache of each user's borrowing eligibility, so repeated
+ * checkouts by the same user do not query it again.
+ * Returns and fine payments must invalidate the affected user; entries
+ * also expire after the time-to-live and when the date changes.
+ */
+public class EligibilityCache {
+    
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final Map<Integer, Entry> entries = new ConcurrentHashMap<>();
+    
+    /**
+     * Creates a cache whose entries live for the given time.
+     * 
+     * @param ttl how long an entry stays valid; zero disables caching
+     */
+    public EligibilityCache(Duration ttl) {
+        this(ttl, System::nanoTime);
+    }
+    
+    EligibilityCache(Duration ttl, LongSupplier nanoClock) {
+        if (ttl.isNegative()) {
+            throw new IllegalArgumentException("ttl must not be negative");
+        }
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+    
+    /**
+     * Creates a cache that never holds anything.
+     * 
+     * @return a disabled cache
+     */
+    public static EligibilityCache disabled() {
+        return new EligibilityCache(Duration.ZERO);
+    }
+    
+    /**
+     * Gets a user's cached eligibility.
+     * 
+     * @param userId the user ID
+     * @param today the date the eligibility is checked for
+     * @return the eligibility, or null if nothing valid is cached
+     */
+    public BorrowingEligibility get(int userId, LocalDate today) {
+        Entry entry = entries.get(userId);
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.date.equals(today) || nanoClock.getAsLong() - entry.expiresAt >= 0) {
+            entries.remove(userId, entry);
+            return null;
+        }
+        return entry.eligibility;
+    }
+    
+    /**
+     * Caches a user's eligibility for the given date.
+     * 
+     * @param userId the user ID
+     * @param today the date the eligibility was checked for
+     * @param eligibility the eligibility to cache
+     */
+    public void put(int userId, LocalDate today, BorrowingEligibility eligibility) {
+        if (ttlNanos == 0) {
+            return;
+        }
+        entries.put(userId, new Entry(eligibility, today, nanoClock.getAsLong() + ttlNanos));
+    }
+    
+    /**
+     * Forgets a user's cached eligibility, after a return or payment changed it.
+     * 
+     * @param userId the user ID
+     */
+    public void invalidate(int userId) {
+        entries.remove(userId);
+    }
+    
+    /**
+     * Forgets every cached eligibility.
+     */
+    public void invalidateAll() {
+        entries.clear();
+    }
+    
+    int size() {
+        return entries.size();
+    }
+    
+    private static final class Entry {
+        private final BorrowingEligibility eligibility;
+        private final LocalDate date;
+        private final long expiresAt;
+        
+        private Entry(BorrowingEligibility eligibility, LocalDate date, long expiresAt) {
+            this.eligibility = eligibility;
+            this.date = date;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.example.library.service;
 
 import com.example.library.domain.Loan;
+import com.example.library.domain.LoanWithItem;
 import com.example.library.domain.MediaItem;
+import com.example.library.repository.SearchCancellation;
+import com.example.library.service.search.Facet;
+import com.example.library.service.search.FacetFilter;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service interface for core library operations in the Library Management System.
@@ -25,15 +30,66 @@ public interface LibraryService {
      */
     MediaItem addMediaItem(MediaItem item);
     
+    /**
+     * Updates a media item. The typo-tolerant search sees the new title and author.
+     * 
+     * @param item the media item with its changes; must have an ID
+     * @return the updated media item
+     */
+    MediaItem updateMediaItem(MediaItem item);
+    
+    /**
+     * Deletes a media item. It no longer turns up in typo-tolerant searches.
+     * 
+     * @param itemId the ID of the media item to delete
+     * @return true if the item existed and was deleted
+     */
+    boolean deleteMediaItem(int itemId);
+    
     /**
      * Searches for media items by keyword.
      * Searches across title, author, ISBN, and publisher fields.
+     * When nothing matches exactly, titles and authors are searched again
+     * allowing one or two typos per word.
      * 
      * @param keyword the search keyword
      * @return list of matching media items
      */
     List<MediaItem> searchItems(String keyword);
     
+    /**
+     * Searches for media items by keyword like {@link #searchItems(String)},
+     * letting the caller cancel this search from another thread, so that a
+     * newer search does not have to wait for it. Cancelling the handle fails
+     * this search with an exception and leaves other callers' searches alone.
+     * 
+     * @param keyword the search keyword
+     * @param cancellation the handle that cancels this search
+     * @return list of matching media items
+     */
+    List<MediaItem> searchItems(String keyword, SearchCancellation cancellation);
+    
+    /**
+     * Finds the media items matching all the facets of a filter, e.g. the
+     * available books of one publisher.
+     * 
+     * @param filter the facet values to match
+     * @return matching media items ordered by ID
+     * @throws BusinessException if facet filtering is not available
+     */
+    List<MediaItem> findItemsByFacets(FacetFilter filter);
+    
+    /**
+     * Counts the media items matching a filter per value of a facet, e.g. the
+     * number of books and CDs among the available items.
+     * 
+     * @param facet the facet to count
+     * @param filter the current selection
+     * @return item count per facet value
+     * @throws BusinessException if facet filtering is not available
+     */
+    Map<String, Integer> getFacetCounts(Facet facet, FacetFilter filter);
+    
     /**
      * Processes a borrowing request for a user.
      * Validates user eligibility, item availability, and creates a loan record.
@@ -72,6 +128,15 @@ public interface LibraryService {
      */
     List<Loan> getUserLoans(int userId);
     
+    /**
+     * Retrieves all loans for a specific user together with the borrowed items.
+     * The items of all loans are looked up in one batch rather than per loan.
+     * 
+     * @param userId the ID of the user
+     * @return the user's loans with their items
+     */
+    List<LoanWithItem> getUserLoansWithItems(int userId);
+    
     /**
      * Checks if a user is eligible to borrow items.
      * User must have no overdue loans and no unpaid fines.
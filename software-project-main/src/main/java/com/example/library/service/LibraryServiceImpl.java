@@ -1,19 +1,30 @@
 package com.example.library.service;
 
+import com.example.library.domain.BorrowingEligibility;
 import com.example.library.domain.Fine;
 import com.example.library.domain.Loan;
+import com.example.library.domain.LoanWithItem;
 import com.example.library.domain.MediaItem;
 import com.example.library.domain.User;
 import com.example.library.repository.FineRepository;
 import com.example.library.repository.LoanRepository;
+import com.example.library.repository.MediaItemFacetRepository;
 import com.example.library.repository.MediaItemRepository;
+import com.example.library.repository.SearchCancellation;
+import com.example.library.repository.TransactionManager;
 import com.example.library.repository.UserRepository;
 import com.example.library.service.fine.FineCalculator;
+import com.example.library.service.search.Facet;
+import com.example.library.service.search.FacetFilter;
+import com.example.library.service.search.FuzzySearchIndex;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -22,11 +33,18 @@ import java.util.Optional;
  */
 public class LibraryServiceImpl implements LibraryService {
     
+    /** Maximum number of items returned by a fuzzy (typo-tolerant) search. */
+    static final int FUZZY_RESULT_LIMIT = 50;
+    
     private final UserRepository userRepository;
     private final MediaItemRepository mediaItemRepository;
     private final LoanRepository loanRepository;
     private final FineRepository fineRepository;
     private final FineCalculator fineCalculator;
+    private final TransactionManager transactionManager;
+    private final EligibilityCache eligibilityCache;
+    private final MediaItemFacetRepository facetRepository;
+    private FuzzySearchIndex fuzzyIndex;
     
     /**
      * Constructs a new library service with the specified repositories and fine calculator.
@@ -42,11 +60,68 @@ public class LibraryServiceImpl implements LibraryService {
                               LoanRepository loanRepository,
                               FineRepository fineRepository,
                               FineCalculator fineCalculator) {
+        this(userRepository, mediaItemRepository, loanRepository, fineRepository, fineCalculator,
+                TransactionManager.none(), EligibilityCache.disabled());
+    }
+    
+    /**
+     * Constructs a new library service whose borrow and return operations each
+     * run in one transaction.
+     * 
+     * @param userRepository the repository for user data
+     * @param mediaItemRepository the repository for media item data
+     * @param loanRepository the repository for loan data
+     * @param fineRepository the repository for fine data
+     * @param fineCalculator the calculator for fine amounts using Strategy pattern
+     * @param transactionManager runs each borrow and return as one unit of work;
+     *                           the repositories must take part in its transactions
+     * @param eligibilityCache caches borrowing eligibility; it must be shared with
+     *                         the payment service so paying fines invalidates it
+     */
+    public LibraryServiceImpl(UserRepository userRepository,
+                              MediaItemRepository mediaItemRepository,
+                              LoanRepository loanRepository,
+                              FineRepository fineRepository,
+                              FineCalculator fineCalculator,
+                              TransactionManager transactionManager,
+                              EligibilityCache eligibilityCache) {
+        this(userRepository, mediaItemRepository, loanRepository, fineRepository, fineCalculator,
+                transactionManager, eligibilityCache,
+                mediaItemRepository instanceof MediaItemFacetRepository
+                        ? (MediaItemFacetRepository) mediaItemRepository : null);
+    }
+    
+    /**
+     * Constructs a new library service that also filters the catalog by facets.
+     * 
+     * @param userRepository the repository for user data
+     * @param mediaItemRepository the repository for media item data
+     * @param loanRepository the repository for loan data
+     * @param fineRepository the repository for fine data
+     * @param fineCalculator the calculator for fine amounts using Strategy pattern
+     * @param transactionManager runs each borrow and return as one unit of work;
+     *                           the repositories must take part in its transactions
+     * @param eligibilityCache caches borrowing eligibility; it must be shared with
+     *                         the payment service so paying fines invalidates it
+     * @param facetRepository answers facet queries, or null if the catalog cannot
+     *                        be filtered by facets
+     */
+    public LibraryServiceImpl(UserRepository userRepository,
+                              MediaItemRepository mediaItemRepository,
+                              LoanRepository loanRepository,
+                              FineRepository fineRepository,
+                              FineCalculator fineCalculator,
+                              TransactionManager transactionManager,
+                              EligibilityCache eligibilityCache,
+                              MediaItemFacetRepository facetRepository) {
         this.userRepository = userRepository;
         this.mediaItemRepository = mediaItemRepository;
         this.loanRepository = loanRepository;
         this.fineRepository = fineRepository;
         this.fineCalculator = fineCalculator;
+        this.transactionManager = transactionManager;
+        this.eligibilityCache = eligibilityCache;
+        this.facetRepository = facetRepository;
     }
     
     /**
@@ -60,27 +135,134 @@ public class LibraryServiceImpl implements LibraryService {
         if (item == null) {
             throw new BusinessException("Media item cannot be null");
         }
-        return mediaItemRepository.save(item);
+        MediaItem saved = mediaItemRepository.save(item);
+        synchronized (this) {
+            if (fuzzyIndex != null && saved != null && saved.getItemId() != null) {
+                fuzzyIndex.index(saved);
+            }
+        }
+        return saved;
+    }
+    
+    /**
+     * Updates a media item and re-indexes it for fuzzy search.
+     * 
+     * @param item the media item with its changes; must have an ID
+     * @return the updated media item
+     */
+    @Override
+    public MediaItem updateMediaItem(MediaItem item) {
+        if (item == null || item.getItemId() == null) {
+            throw new BusinessException("Media item and its ID cannot be null");
+        }
+        MediaItem updated = mediaItemRepository.update(item);
+        synchronized (this) {
+            if (fuzzyIndex != null) {
+                fuzzyIndex.index(updated != null ? updated : item);
+            }
+        }
+        return updated;
+    }
+    
+    /**
+     * Deletes a media item and drops it from the fuzzy search index.
+     * 
+     * @param itemId the ID of the media item to delete
+     * @return true if the item existed and was deleted
+     */
+    @Override
+    public boolean deleteMediaItem(int itemId) {
+        boolean deleted = mediaItemRepository.deleteById(itemId);
+        synchronized (this) {
+            if (fuzzyIndex != null) {
+                fuzzyIndex.remove(itemId);
+            }
+        }
+        return deleted;
     }
     
     /**
      * Searches for media items by keyword.
-     * Delegates to the repository search method.
+     * Delegates to the repository search method; if that finds nothing, falls back
+     * to a typo-tolerant search over titles and authors.
      * 
      * @param keyword the search keyword
      * @return list of matching media items
      */
     @Override
     public List<MediaItem> searchItems(String keyword) {
+        return searchItems(keyword, null);
+    }
+    
+    @Override
+    public List<MediaItem> searchItems(String keyword, SearchCancellation cancellation) {
         if (keyword == null || keyword.trim().isEmpty()) {
             return mediaItemRepository.findAll();
         }
-        return mediaItemRepository.search(keyword);
+        List<MediaItem> results = cancellation != null
+                ? mediaItemRepository.search(keyword, cancellation)
+                : mediaItemRepository.search(keyword);
+        if (!results.isEmpty()) {
+            return results;
+        }
+        return fuzzySearch(keyword);
+    }
+    
+    @Override
+    public List<MediaItem> findItemsByFacets(FacetFilter filter) {
+        return facetRepository().findByFacets(filter != null ? filter : new FacetFilter());
+    }
+    
+    @Override
+    public Map<String, Integer> getFacetCounts(Facet facet, FacetFilter filter) {
+        if (facet == null) {
+            throw new BusinessException("Facet cannot be null");
+        }
+        return facetRepository().facetCounts(facet, filter != null ? filter : new FacetFilter());
+    }
+    
+    private MediaItemFacetRepository facetRepository() {
+        if (facetRepository == null) {
+            throw new BusinessException("Filtering by facets is not available");
+        }
+        return facetRepository;
+    }
+    
+    /**
+     * Drops the fuzzy search index so that it is rebuilt from the repository on the
+     * next fuzzy lookup. Call after catalog changes made outside this service,
+     * e.g. by another process; {@link #updateMediaItem} and {@link #deleteMediaItem}
+     * keep the index current themselves.
+     */
+    public synchronized void invalidateSearchIndex() {
+        fuzzyIndex = null;
+    }
+    
+    private List<MediaItem> fuzzySearch(String keyword) {
+        List<Integer> itemIds;
+        synchronized (this) {
+            if (fuzzyIndex == null) {
+                FuzzySearchIndex index = new FuzzySearchIndex();
+                index.indexAll(mediaItemRepository.findAll());
+                fuzzyIndex = index;
+            }
+            itemIds = fuzzyIndex.search(keyword, FUZZY_RESULT_LIMIT);
+        }
+        // Load all hits at once, then restore the ranking order
+        Map<Integer, MediaItem> itemsById = itemsById(itemIds);
+        List<MediaItem> results = new ArrayList<>();
+        for (Integer itemId : itemIds) {
+            MediaItem item = itemsById.get(itemId);
+            if (item != null) {
+                results.add(item);
+            }
+        }
+        return results;
     }
     
     /**
      * Processes a borrowing request for a user.
-     * Validates eligibility, creates loan, and updates available copies.
+     * Validates eligibility, takes a copy, and creates the loan, all in one transaction.
      * 
      * @param userId the ID of the user borrowing the item
      * @param itemId the ID of the media item to borrow
@@ -90,6 +272,10 @@ public class LibraryServiceImpl implements LibraryService {
      */
     @Override
     public Loan borrowItem(int userId, int itemId, LocalDate today) {
+        return transactionManager.inTransaction(() -> borrow(userId, itemId, today));
+    }
+    
+    private Loan borrow(int userId, int itemId, LocalDate today) {
         // Validate user exists
         Optional<User> userOptional = userRepository.findById(userId);
         if (!userOptional.isPresent()) {
@@ -125,6 +311,11 @@ public class LibraryServiceImpl implements LibraryService {
             dueDate = today.plusDays(14);
         }
         
+        // Take a copy atomically; another borrower may have taken the last one since it was read
+        if (!mediaItemRepository.decrementAvailableCopies(itemId)) {
+            throw new BusinessException("No available copies of: " + item.getTitle());
+        }
+        
         // Create and save loan
         Loan loan = new Loan();
         loan.setUserId(userId);
@@ -134,18 +325,13 @@ public class LibraryServiceImpl implements LibraryService {
         loan.setReturnDate(null);
         loan.setStatus("ACTIVE");
         
-        Loan savedLoan = loanRepository.save(loan);
-        
-        // Decrement available copies
-        int newAvailableCopies = item.getAvailableCopies() - 1;
-        mediaItemRepository.updateAvailableCopies(itemId, newAvailableCopies);
-        
-        return savedLoan;
+        return loanRepository.save(loan);
     }
     
     /**
      * Processes the return of a borrowed item.
-     * Updates loan status, increments available copies, and calculates fines if overdue.
+     * Updates loan status, increments available copies, and calculates fines if overdue,
+     * all in one transaction.
      * Uses Strategy pattern for fine calculation based on media type.
      * 
      * @param loanId the ID of the loan to return
@@ -154,6 +340,11 @@ public class LibraryServiceImpl implements LibraryService {
      */
     @Override
     public void returnItem(int loanId, LocalDate returnDate) {
+        int userId = transactionManager.inTransaction(() -> returnLoan(loanId, returnDate));
+        eligibilityCache.invalidate(userId);
+    }
+    
+    private int returnLoan(int loanId, LocalDate returnDate) {
         // 1) Load the loan by id
         Optional<Loan> loanOptional = loanRepository.findById(loanId);
         if (!loanOptional.isPresent()) {
@@ -167,8 +358,11 @@ public class LibraryServiceImpl implements LibraryService {
             throw new BusinessException("Loan has already been returned");
         }
         
-        // 3) Set returnDate and status "RETURNED" and update the loan
-        loanRepository.updateStatus(loanId, "RETURNED", returnDate);
+        // 3) Set returnDate and status "RETURNED" only if the loan is still active;
+        //    a concurrent return of the same loan may have got there first
+        if (!loanRepository.markReturned(loanId, returnDate)) {
+            throw new BusinessException("Loan has already been returned");
+        }
         
         // 4) Load the related MediaItem by itemId
         Optional<MediaItem> itemOptional = mediaItemRepository.findById(loan.getItemId());
@@ -178,9 +372,8 @@ public class LibraryServiceImpl implements LibraryService {
         
         MediaItem item = itemOptional.get();
         
-        // 5) Increment availableCopies and update the media item
-        int newAvailableCopies = item.getAvailableCopies() + 1;
-        mediaItemRepository.updateAvailableCopies(loan.getItemId(), newAvailableCopies);
+        // 5) Increment availableCopies in place, so concurrent returns are all counted
+        mediaItemRepository.incrementAvailableCopies(loan.getItemId());
         
         // 6) Check if the item is overdue and calculate fine using Strategy pattern
         // STRATEGY PATTERN IMPLEMENTATION: Fine calculation based on media type
@@ -205,6 +398,8 @@ public class LibraryServiceImpl implements LibraryService {
                 fineRepository.save(fine);
             }
         }
+        
+        return loan.getUserId();
     }
     
     /**
@@ -231,9 +426,40 @@ public class LibraryServiceImpl implements LibraryService {
         return loanRepository.findByUserId(userId);
     }
     
+    /**
+     * Retrieves all loans for a specific user together with the borrowed items.
+     * Uses one query for the loans and one batched lookup for their items.
+     * 
+     * @param userId the ID of the user
+     * @return the user's loans with their items
+     */
+    @Override
+    public List<LoanWithItem> getUserLoansWithItems(int userId) {
+        List<Loan> loans = loanRepository.findByUserId(userId);
+        List<Integer> itemIds = new ArrayList<>();
+        for (Loan loan : loans) {
+            itemIds.add(loan.getItemId());
+        }
+        Map<Integer, MediaItem> itemsById = itemsById(itemIds);
+        List<LoanWithItem> result = new ArrayList<>();
+        for (Loan loan : loans) {
+            result.add(new LoanWithItem(loan, itemsById.get(loan.getItemId())));
+        }
+        return result;
+    }
+    
+    private Map<Integer, MediaItem> itemsById(List<Integer> itemIds) {
+        Map<Integer, MediaItem> itemsById = new HashMap<>();
+        for (MediaItem item : mediaItemRepository.findByIds(itemIds)) {
+            itemsById.put(item.getItemId(), item);
+        }
+        return itemsById;
+    }
+    
     /**
      * Checks if a user is eligible to borrow items.
      * User must have no overdue loans and no unpaid fines.
+     * The answer may come from the eligibility cache.
      * 
      * @param userId the ID of the user to check
      * @param today the current date
@@ -241,21 +467,12 @@ public class LibraryServiceImpl implements LibraryService {
      */
     @Override
     public boolean canUserBorrow(int userId, LocalDate today) {
-        // Check for overdue loans
-        List<Loan> overdueLoans = loanRepository.findOverdueLoans(today);
-        boolean hasOverdueLoans = overdueLoans.stream()
-                .anyMatch(loan -> loan.getUserId().equals(userId));
-        
-        if (hasOverdueLoans) {
-            return false;
+        BorrowingEligibility eligibility = eligibilityCache.get(userId, today);
+        if (eligibility == null) {
+            // One indexed query for this user rather than a scan of every overdue loan
+            eligibility = loanRepository.findBorrowingEligibility(userId, today);
+            eligibilityCache.put(userId, today, eligibility);
         }
-        
-        // Check for unpaid fines
-        BigDecimal totalUnpaidFines = fineRepository.calculateTotalUnpaidByUserId(userId);
-        if (totalUnpaidFines.compareTo(BigDecimal.ZERO) > 0) {
-            return false;
-        }
-        
-        return true;
+        return eligibility.isEligible();
     }
 }
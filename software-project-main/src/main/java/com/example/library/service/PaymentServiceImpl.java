@@ -15,6 +15,7 @@ import java.util.Optional;
 public class PaymentServiceImpl implements PaymentService {
     
     private final FineRepository fineRepository;
+    private final EligibilityCache eligibilityCache;
     
     /**
      * Constructs a new payment service with the specified fine repository.
@@ -22,7 +23,19 @@ public class PaymentServiceImpl implements PaymentService {
      * @param fineRepository the repository for accessing fine data
      */
     public PaymentServiceImpl(FineRepository fineRepository) {
+        this(fineRepository, EligibilityCache.disabled());
+    }
+    
+    /**
+     * Constructs a new payment service that invalidates cached borrowing
+     * eligibility whenever fines are paid.
+     * 
+     * @param fineRepository the repository for accessing fine data
+     * @param eligibilityCache the cache shared with the library service
+     */
+    public PaymentServiceImpl(FineRepository fineRepository, EligibilityCache eligibilityCache) {
         this.fineRepository = fineRepository;
+        this.eligibilityCache = eligibilityCache;
     }
     
     /**
@@ -68,6 +81,7 @@ public class PaymentServiceImpl implements PaymentService {
         for (Fine fine : unpaidFines) {
             fineRepository.markAsPaid(fine.getFineId(), paymentDate);
         }
+        eligibilityCache.invalidate(userId);
     }
     
     /**
@@ -95,5 +109,7 @@ public class PaymentServiceImpl implements PaymentService {
         
         LocalDate paymentDate = LocalDate.now();
         fineRepository.markAsPaid(fineId, paymentDate);
+        // A fine only knows its loan, so every cached user is dropped
+        eligibilityCache.invalidateAll();
     }
 }
@@ -1,79 +1,132 @@
 package com.example.library.service;
 
-import com.example.library.domain.Loan;
-import com.example.library.domain.User;
+import com.example.library.domain.OverdueSummary;
 import com.example.library.notification.Notifier;
 import com.example.library.repository.LoanRepository;
-import com.example.library.repository.UserRepository;
 
 import java.time.LocalDate;
 import java.util.List;
-import java.util.Map;
-import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
 
 /**
  * Service for sending reminder notifications to users.
  * Uses the Observer pattern through the Notifier interface.
+ *
+ * Users and their overdue counts come from one grouped query, read in chunks,
+ * and notifications are sent concurrently on virtual threads when the JDK has
+ * them, or on a fixed pool otherwise. At most {@code maxConcurrentSends}
+ * notifications are in flight at once, which also bounds how far reading runs
+ * ahead of sending.
  */
 public class ReminderService {
-    
+
+    /** Number of users read per query by default. */
+    static final int DEFAULT_CHUNK_SIZE = 1_000;
+
+    /** Number of notifications sent at once by default. */
+    static final int DEFAULT_MAX_CONCURRENT_SENDS = 16;
+
     private final LoanRepository loanRepository;
-    private final UserRepository userRepository;
     private final Notifier notifier;
-    
+    private final int maxConcurrentSends;
+    private final int chunkSize;
+    private final IntFunction<ExecutorService> executorFactory;
+
     /**
-     * Constructs a new reminder service.
-     * 
+     * Constructs a new reminder service with the default chunk size and concurrency.
+     *
      * @param loanRepository the repository for loan data
-     * @param userRepository the repository for user data
      * @param notifier the notification mechanism to use
      */
-    public ReminderService(LoanRepository loanRepository,
-                          UserRepository userRepository,
-                          Notifier notifier) {
+    public ReminderService(LoanRepository loanRepository, Notifier notifier) {
+        this(loanRepository, notifier, DEFAULT_MAX_CONCURRENT_SENDS, DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * Constructs a new reminder service.
+     *
+     * @param loanRepository the repository for loan data
+     * @param notifier the notification mechanism to use; must be safe to call from several threads
+     * @param maxConcurrentSends the maximum number of notifications sent at once
+     * @param chunkSize the number of users read per query
+     */
+    public ReminderService(LoanRepository loanRepository, Notifier notifier, int maxConcurrentSends, int chunkSize) {
+        this(loanRepository, notifier, maxConcurrentSends, chunkSize, ReminderService::newSendExecutor);
+    }
+
+    ReminderService(LoanRepository loanRepository, Notifier notifier, int maxConcurrentSends, int chunkSize,
+                    IntFunction<ExecutorService> executorFactory) {
+        if (maxConcurrentSends <= 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("maxConcurrentSends and chunkSize must be positive");
+        }
         this.loanRepository = loanRepository;
-        this.userRepository = userRepository;
         this.notifier = notifier;
+        this.maxConcurrentSends = maxConcurrentSends;
+        this.chunkSize = chunkSize;
+        this.executorFactory = executorFactory;
     }
-    
+
     /**
      * Sends overdue reminders to all users with overdue loans.
-     * Groups overdue loans by user and sends a single notification
-     * to each user with the count of their overdue items.
-     * 
+     * Each user gets a single notification with the count of their overdue
+     * items. Returns once every notification has been attempted; a failed
+     * notification is reported and does not stop the others.
+     *
      * @param today the current date to check against loan due dates
+     * @return the number of reminders sent successfully
      */
-    public void sendOverdueReminders(LocalDate today) {
-        // Load all overdue loans
-        List<Loan> overdueLoans = loanRepository.findOverdueLoans(today);
-        
-        if (overdueLoans.isEmpty()) {
-            return; // No overdue loans, nothing to do
+    public int sendOverdueReminders(LocalDate today) {
+        AtomicInteger sent = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(maxConcurrentSends);
+        ExecutorService executor = executorFactory.apply(maxConcurrentSends);
+        try {
+            int afterUserId = 0;
+            List<OverdueSummary> chunk;
+            do {
+                chunk = loanRepository.findOverdueSummaries(today, afterUserId, chunkSize);
+                for (OverdueSummary summary : chunk) {
+                    inFlight.acquire();
+                    try {
+                        executor.execute(() -> {
+                            try {
+                                notifier.notify(summary.getUser(), buildOverdueMessage(summary.getOverdueCount()));
+                                sent.incrementAndGet();
+                            } catch (RuntimeException e) {
+                                System.err.println("Failed to send overdue reminder to user "
+                                        + summary.getUser().getUserId() + ": " + e.getMessage());
+                            } finally {
+                                inFlight.release();
+                            }
+                        });
+                    } catch (RuntimeException e) {
+                        // The task never ran, so nothing else will give its permit back
+                        inFlight.release();
+                        throw e;
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    afterUserId = chunk.get(chunk.size() - 1).getUser().getUserId();
+                }
+            } while (chunk.size() == chunkSize);
+
+            // Every permit back means every send has finished
+            inFlight.acquire(maxConcurrentSends);
+            return sent.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Interrupted while sending overdue reminders");
+        } finally {
+            executor.shutdown();
         }
-        
-        // Group loans by userId and count them
-        Map<Integer, Long> overdueLoansByUser = overdueLoans.stream()
-                .collect(Collectors.groupingBy(
-                        Loan::getUserId,
-                        Collectors.counting()
-                ));
-        
-        // Send notification to each user with overdue loans
-        overdueLoansByUser.forEach((userId, count) -> {
-            Optional<User> userOptional = userRepository.findById(userId);
-            
-            if (userOptional.isPresent()) {
-                User user = userOptional.get();
-                String message = buildOverdueMessage(count);
-                notifier.notify(user, message);
-            }
-        });
     }
-    
+
     /**
      * Builds the overdue reminder message.
-     * 
+     *
      * @param count the number of overdue items
      * @return formatted reminder message
      */
@@ -84,4 +137,22 @@ public class ReminderService {
             return "You have " + count + " overdue book(s).";
         }
     }
+
+    /**
+     * Creates the executor notifications are sent on: a virtual thread per
+     * send on JDKs that have them (the send count is bounded by the caller),
+     * and a fixed pool of daemon threads otherwise.
+     */
+    static ExecutorService newSendExecutor(int threads) {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger count = new AtomicInteger();
+            return Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "reminder-sender-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
 }
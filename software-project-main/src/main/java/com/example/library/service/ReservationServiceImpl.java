@@ -5,15 +5,23 @@ import com.example.library.domain.Reservation;
 import com.example.library.domain.User;
 import com.example.library.repository.MediaItemRepository;
 import com.example.library.repository.ReservationRepository;
+import com.example.library.repository.TransactionManager;
 import com.example.library.repository.UserRepository;
+import com.example.library.service.reservation.ExpirySweep;
+import com.example.library.service.reservation.ReservationQueueIndex;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * Implementation of ReservationService for the Library Management System.
  * Manages item reservations with queue functionality and expiry handling.
+ * Queue positions and duplicate checks are answered from an in-memory
+ * {@link ReservationQueueIndex}, loaded from the repository on first use.
  * Provides business logic for reservation creation, status management, and notifications.
  * Ensures proper validation and maintains reservation integrity.
  * 
@@ -27,6 +35,12 @@ public class ReservationServiceImpl implements ReservationService {
     private final MediaItemRepository mediaItemRepository;
     private final int RESERVATION_EXPIRY_HOURS = 48; // Reservation valid for 48 hours
     
+    /** Maximum number of reservations expired per transaction by {@link #expireOldReservations}. */
+    static final int EXPIRY_CHUNK_SIZE = 500;
+    
+    private final TransactionManager transactionManager;
+    private ReservationQueueIndex queueIndex;
+    
     /**
      * Constructs a new reservation service with required repositories.
      * Initializes with 48-hour reservation expiry period.
@@ -38,9 +52,27 @@ public class ReservationServiceImpl implements ReservationService {
     public ReservationServiceImpl(ReservationRepository reservationRepository,
                                  UserRepository userRepository,
                                  MediaItemRepository mediaItemRepository) {
+        this(reservationRepository, userRepository, mediaItemRepository, TransactionManager.none());
+    }
+    
+    /**
+     * Constructs a new reservation service whose expiry sweeps run each chunk
+     * in one transaction.
+     * 
+     * @param reservationRepository the repository for reservation operations
+     * @param userRepository the repository for user operations
+     * @param mediaItemRepository the repository for media item operations
+     * @param transactionManager runs each expiry chunk as one unit of work;
+     *                           the repositories must take part in its transactions
+     */
+    public ReservationServiceImpl(ReservationRepository reservationRepository,
+                                 UserRepository userRepository,
+                                 MediaItemRepository mediaItemRepository,
+                                 TransactionManager transactionManager) {
         this.reservationRepository = reservationRepository;
         this.userRepository = userRepository;
         this.mediaItemRepository = mediaItemRepository;
+        this.transactionManager = transactionManager;
     }
     
     @Override
@@ -64,8 +96,10 @@ public class ReservationServiceImpl implements ReservationService {
             throw new BusinessException("Item is currently available. Please borrow it directly instead of reserving.");
         }
         
-        // Check if user already has an active reservation for this item
-        if (hasActiveReservation(userId, itemId)) {
+        // Check if user already has an active reservation for this item, holding
+        // the (user, item) pair so a concurrent request cannot pass the check too
+        ReservationQueueIndex index = queueIndex();
+        if (!index.claim(userId, itemId)) {
             throw new BusinessException("You already have an active reservation for this item.");
         }
         
@@ -77,7 +111,16 @@ public class ReservationServiceImpl implements ReservationService {
         reservation.setExpiryDate(LocalDateTime.now().plusHours(RESERVATION_EXPIRY_HOURS));
         reservation.setStatus("ACTIVE");
         
-        return reservationRepository.save(reservation);
+        Reservation saved;
+        try {
+            saved = reservationRepository.save(reservation);
+        } catch (RuntimeException e) {
+            index.release(userId, itemId);
+            throw e;
+        }
+        // Queueing the saved reservation also ends the claim
+        index.put(saved);
+        return saved;
     }
     
     @Override
@@ -102,7 +145,7 @@ public class ReservationServiceImpl implements ReservationService {
         
         // Update status to CANCELLED
         reservation.setStatus("CANCELLED");
-        reservationRepository.update(reservation);
+        indexIfLoaded(reservationRepository.update(reservation));
     }
     
     @Override
@@ -121,7 +164,9 @@ public class ReservationServiceImpl implements ReservationService {
         nextReservation.setStatus("FULFILLED");
         nextReservation.setExpiryDate(LocalDateTime.now().plusHours(RESERVATION_EXPIRY_HOURS));
         
-        return reservationRepository.update(nextReservation);
+        Reservation fulfilled = reservationRepository.update(nextReservation);
+        indexIfLoaded(fulfilled);
+        return fulfilled;
     }
     
     @Override
@@ -141,54 +186,96 @@ public class ReservationServiceImpl implements ReservationService {
     
     @Override
     public int expireOldReservations() {
-        LocalDateTime now = LocalDateTime.now();
-        List<Reservation> expiredReservations = reservationRepository.findExpiredReservations(now);
-        
-        int count = 0;
-        for (Reservation reservation : expiredReservations) {
-            reservation.setStatus("EXPIRED");
-            reservationRepository.update(reservation);
-            count++;
-        }
-        
-        return count;
+        return sweepExpiredReservations(LocalDateTime.now(), EXPIRY_CHUNK_SIZE).getExpiredIds().size();
     }
     
-    @Override
-    public int getQueuePosition(int reservationId) {
-        Optional<Reservation> reservationOptional = reservationRepository.findById(reservationId);
-        
-        if (!reservationOptional.isPresent()) {
-            return -1;
-        }
-        
-        Reservation reservation = reservationOptional.get();
-        
-        if (!"ACTIVE".equals(reservation.getStatus())) {
-            return -1;
+    /**
+     * Expires every active reservation past its expiry date and promotes the
+     * next waiting reservation of each affected item that has a free copy.
+     * Reservations are expired with bulk updates of at most {@code chunkSize}
+     * rows; each chunk and its promotions run in one transaction, so locks are
+     * held only briefly however large the backlog is.
+     * 
+     * @param now the current date and time
+     * @param chunkSize the maximum number of reservations expired per transaction
+     * @return the expired reservation IDs and the promoted reservations
+     */
+    public ExpirySweep sweepExpiredReservations(LocalDateTime now, int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
         }
-        
-        List<Reservation> queue = reservationRepository.findActiveByItemId(reservation.getItemId());
-        
-        for (int i = 0; i < queue.size(); i++) {
-            if (queue.get(i).getReservationId().equals(reservationId)) {
-                return i + 1; // 1-based position
+        List<Integer> expiredIds = new ArrayList<>();
+        List<Reservation> promoted = new ArrayList<>();
+        while (true) {
+            ExpirySweep chunk = transactionManager.inTransaction(() -> expireChunk(now, chunkSize));
+            // Only committed changes reach the queue index
+            ReservationQueueIndex index = loadedQueueIndex();
+            if (index != null) {
+                chunk.getExpiredIds().forEach(index::remove);
+                chunk.getPromoted().forEach(index::put);
+            }
+            expiredIds.addAll(chunk.getExpiredIds());
+            promoted.addAll(chunk.getPromoted());
+            if (chunk.getExpiredIds().size() < chunkSize) {
+                return new ExpirySweep(expiredIds, promoted);
             }
         }
+    }
+    
+    private ExpirySweep expireChunk(LocalDateTime now, int chunkSize) {
+        List<Reservation> expired = reservationRepository.expireActiveBefore(now, chunkSize);
+        List<Integer> expiredIds = new ArrayList<>();
+        Set<Integer> itemIds = new TreeSet<>();
+        for (Reservation reservation : expired) {
+            expiredIds.add(reservation.getReservationId());
+            itemIds.add(reservation.getItemId());
+        }
         
-        return -1;
+        List<Reservation> promoted = itemIds.isEmpty() ? new ArrayList<>()
+                : reservationRepository.promoteNextReservations(itemIds, now, now.plusHours(RESERVATION_EXPIRY_HOURS));
+        return new ExpirySweep(expiredIds, promoted);
+    }
+    
+    @Override
+    public int getQueuePosition(int reservationId) {
+        return queueIndex().position(reservationId);
     }
     
     @Override
     public boolean hasActiveReservation(int userId, int itemId) {
-        List<Reservation> activeReservations = reservationRepository.findActiveByUserId(userId);
-        
-        for (Reservation reservation : activeReservations) {
-            if (reservation.getItemId().equals(itemId)) {
-                return true;
-            }
+        return queueIndex().hasActive(userId, itemId);
+    }
+    
+    /**
+     * Loads the reservation queues from the repository now instead of on first use.
+     * Call at startup, and again after reservations were changed without going
+     * through this service.
+     */
+    public void rebuildQueueIndex() {
+        ReservationQueueIndex index = new ReservationQueueIndex();
+        index.putAll(reservationRepository.findAllActive());
+        synchronized (this) {
+            queueIndex = index;
+        }
+    }
+    
+    private synchronized ReservationQueueIndex queueIndex() {
+        if (queueIndex == null) {
+            ReservationQueueIndex index = new ReservationQueueIndex();
+            index.putAll(reservationRepository.findAllActive());
+            queueIndex = index;
+        }
+        return queueIndex;
+    }
+    
+    private synchronized ReservationQueueIndex loadedQueueIndex() {
+        return queueIndex;
+    }
+    
+    private void indexIfLoaded(Reservation reservation) {
+        ReservationQueueIndex index = loadedQueueIndex();
+        if (index != null && reservation != null && reservation.getReservationId() != null) {
+            index.put(reservation);
         }
-        
-        return false;
     }
 }
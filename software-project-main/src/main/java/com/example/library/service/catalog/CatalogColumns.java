@@ -0,0 +1,309 @@
+package com.example.library.service.catalog;
+
+import com.example.library.domain.MediaItem;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Column-oriented copy of the catalog's numeric and grouping attributes, for
+ * statistics that scan every item.
+ *
+ * Each attribute is one primitive array with a row per item: ids and copy
+ * counts as {@code int}s, late fees as whole cents and publication dates as
+ * epoch days in {@code long}s, and type and publisher as {@code int} codes
+ * into a dictionary of their distinct values. A scan reads a few contiguous
+ * arrays instead of following a pointer to every boxed field of every
+ * {@link MediaItem}.
+ *
+ * Rows are kept dense: a removed item's row is filled with the last row.
+ * Item ids are dense database serials, so the row of an id is found in an
+ * array indexed by id.
+ *
+ * Like {@link com.example.library.service.search.MediaItemFacetIndex}, the
+ * columns do not read the database; they are fed by
+ * {@link com.example.library.repository.ColumnarCatalogMediaItemRepository}.
+ */
+public class CatalogColumns {
+
+    private static final int NO_CODE = -1;
+    private static final int NO_ROW = -1;
+    private static final long NO_VALUE = Long.MIN_VALUE;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Dictionary types = new Dictionary();
+    private final Dictionary publishers = new Dictionary();
+
+    private int size;
+    private int[] itemIds = new int[INITIAL_CAPACITY];
+    private int[] totalCopies = new int[INITIAL_CAPACITY];
+    private int[] availableCopies = new int[INITIAL_CAPACITY];
+    private int[] typeCodes = new int[INITIAL_CAPACITY];
+    private int[] publisherCodes = new int[INITIAL_CAPACITY];
+    private long[] lateFeeCents = new long[INITIAL_CAPACITY];
+    private long[] publicationDays = new long[INITIAL_CAPACITY];
+    private int[] rowsById = filled(new int[INITIAL_CAPACITY], 0);
+
+    /**
+     * Adds all of the given items.
+     *
+     * @param items the items to add
+     */
+    public synchronized void putAll(Collection<MediaItem> items) {
+        for (MediaItem item : items) {
+            put(item);
+        }
+    }
+
+    /**
+     * Adds an item or replaces the row of an item already present.
+     *
+     * @param item the item; must have a non-negative id
+     */
+    public synchronized void put(MediaItem item) {
+        if (item == null || item.getItemId() == null || item.getItemId() < 0) {
+            throw new IllegalArgumentException("Item must have a non-negative ID");
+        }
+        int id = item.getItemId();
+        int row = rowOf(id);
+        if (row == NO_ROW) {
+            row = size++;
+            ensureRowCapacity(size);
+            ensureIdCapacity(id);
+            rowsById[id] = row;
+        }
+        itemIds[row] = id;
+        totalCopies[row] = orZero(item.getTotalCopies());
+        availableCopies[row] = orZero(item.getAvailableCopies());
+        typeCodes[row] = types.code(item.getType() == null ? null : item.getType().toUpperCase(Locale.ROOT));
+        publisherCodes[row] = publishers.code(item.getPublisher());
+        lateFeeCents[row] = toCents(item.getLateFeesPerDay());
+        publicationDays[row] = item.getPublicationDate() == null ? NO_VALUE : item.getPublicationDate().toEpochDay();
+    }
+
+    /**
+     * Removes an item. Items that are not present are ignored.
+     *
+     * @param itemId the id of the item to remove
+     */
+    public synchronized void remove(Integer itemId) {
+        int row = itemId == null ? NO_ROW : rowOf(itemId);
+        if (row == NO_ROW) {
+            return;
+        }
+        int last = --size;
+        if (row != last) {
+            // Fill the hole with the last row so the columns stay dense
+            itemIds[row] = itemIds[last];
+            totalCopies[row] = totalCopies[last];
+            availableCopies[row] = availableCopies[last];
+            typeCodes[row] = typeCodes[last];
+            publisherCodes[row] = publisherCodes[last];
+            lateFeeCents[row] = lateFeeCents[last];
+            publicationDays[row] = publicationDays[last];
+            rowsById[itemIds[row]] = row;
+        }
+        rowsById[itemId] = NO_ROW;
+    }
+
+    /**
+     * Applies a change in available copies. Items that are not present are ignored.
+     *
+     * @param itemId the item id
+     * @param copies the new number of available copies
+     */
+    public synchronized void updateAvailableCopies(Integer itemId, Integer copies) {
+        int row = itemId == null ? NO_ROW : rowOf(itemId);
+        if (row != NO_ROW) {
+            availableCopies[row] = orZero(copies);
+        }
+    }
+
+    /**
+     * Totals items and copies per media type, in one pass over the columns.
+     * Items without a type are left out.
+     *
+     * @return totals by upper-case type, in type order
+     */
+    public synchronized Map<String, CopyTotals> availabilityByType() {
+        return totalsBy(typeCodes, types);
+    }
+
+    /**
+     * Totals items and copies per publisher, in one pass over the columns.
+     * Items without a publisher are left out.
+     *
+     * @return totals by publisher, in name order
+     */
+    public synchronized Map<String, CopyTotals> copiesByPublisher() {
+        return totalsBy(publisherCodes, publishers);
+    }
+
+    /**
+     * Counts the items published in a date range.
+     *
+     * @param from the first publication date counted
+     * @param to the last publication date counted
+     * @return the number of items published between the two dates, inclusive
+     */
+    public synchronized int countPublishedBetween(LocalDate from, LocalDate to) {
+        long first = from.toEpochDay();
+        long last = to.toEpochDay();
+        int count = 0;
+        for (int row = 0; row < size; row++) {
+            long day = publicationDays[row];
+            // NO_VALUE is below every real date, so undated items never match
+            if (day >= first && day <= last) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Sums the late fee per day of every item.
+     *
+     * @return the total in cents
+     */
+    public synchronized long totalLateFeeCents() {
+        long total = 0;
+        for (int row = 0; row < size; row++) {
+            if (lateFeeCents[row] != NO_VALUE) {
+                total += lateFeeCents[row];
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Gets the ids of the items present.
+     *
+     * @return the ids, in no particular order
+     */
+    public synchronized List<Integer> itemIds() {
+        List<Integer> ids = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            ids.add(itemIds[row]);
+        }
+        return ids;
+    }
+
+    /**
+     * Gets the number of items.
+     *
+     * @return the item count
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private Map<String, CopyTotals> totalsBy(int[] codes, Dictionary dictionary) {
+        int groups = dictionary.size();
+        long[] items = new long[groups];
+        long[] availableItems = new long[groups];
+        long[] total = new long[groups];
+        long[] available = new long[groups];
+        for (int row = 0; row < size; row++) {
+            int code = codes[row];
+            if (code == NO_CODE) {
+                continue;
+            }
+            int copies = availableCopies[row];
+            items[code]++;
+            total[code] += totalCopies[row];
+            available[code] += copies;
+            if (copies > 0) {
+                availableItems[code]++;
+            }
+        }
+        Map<String, CopyTotals> totals = new TreeMap<>();
+        for (int code = 0; code < groups; code++) {
+            // Values whose items have all gone keep their code but are not reported
+            if (items[code] > 0) {
+                totals.put(dictionary.value(code),
+                        new CopyTotals(items[code], availableItems[code], total[code], available[code]));
+            }
+        }
+        return totals;
+    }
+
+    private int rowOf(int id) {
+        return id < rowsById.length ? rowsById[id] : NO_ROW;
+    }
+
+    private void ensureRowCapacity(int rows) {
+        if (rows <= itemIds.length) {
+            return;
+        }
+        int capacity = Math.max(rows, itemIds.length * 2);
+        itemIds = Arrays.copyOf(itemIds, capacity);
+        totalCopies = Arrays.copyOf(totalCopies, capacity);
+        availableCopies = Arrays.copyOf(availableCopies, capacity);
+        typeCodes = Arrays.copyOf(typeCodes, capacity);
+        publisherCodes = Arrays.copyOf(publisherCodes, capacity);
+        lateFeeCents = Arrays.copyOf(lateFeeCents, capacity);
+        publicationDays = Arrays.copyOf(publicationDays, capacity);
+    }
+
+    private void ensureIdCapacity(int id) {
+        if (id < rowsById.length) {
+            return;
+        }
+        int oldLength = rowsById.length;
+        rowsById = filled(Arrays.copyOf(rowsById, Math.max(id + 1, oldLength * 2)), oldLength);
+    }
+
+    private static int[] filled(int[] rows, int from) {
+        Arrays.fill(rows, from, rows.length, NO_ROW);
+        return rows;
+    }
+
+    private static int orZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+
+    private static long toCents(BigDecimal amount) {
+        if (amount == null) {
+            return NO_VALUE;
+        }
+        return amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Assigns each distinct string a small int code, in order of first use.
+     */
+    private static final class Dictionary {
+        private final List<String> values = new ArrayList<>();
+        private final Map<String, Integer> codes = new HashMap<>();
+
+        int code(String value) {
+            if (value == null) {
+                return NO_CODE;
+            }
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                values.add(value);
+                codes.put(value, code);
+            }
+            return code;
+        }
+
+        String value(int code) {
+            return values.get(code);
+        }
+
+        int size() {
+            return values.size();
+        }
+    }
+}
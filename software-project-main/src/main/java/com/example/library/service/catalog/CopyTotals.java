@@ -0,0 +1,64 @@
+package com.example.library.service.catalog;
+
+/**
+ * Item and copy counts for one group of the catalog, such as one media type
+ * or one publisher.
+ */
+public final class CopyTotals {
+    private final long items;
+    private final long availableItems;
+    private final long totalCopies;
+    private final long availableCopies;
+
+    CopyTotals(long items, long availableItems, long totalCopies, long availableCopies) {
+        this.items = items;
+        this.availableItems = availableItems;
+        this.totalCopies = totalCopies;
+        this.availableCopies = availableCopies;
+    }
+
+    /** @return the number of items in the group */
+    public long getItems() {
+        return items;
+    }
+
+    /** @return the number of items with at least one copy available */
+    public long getAvailableItems() {
+        return availableItems;
+    }
+
+    /** @return the copies owned across the group */
+    public long getTotalCopies() {
+        return totalCopies;
+    }
+
+    /** @return the copies on the shelf across the group */
+    public long getAvailableCopies() {
+        return availableCopies;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CopyTotals)) {
+            return false;
+        }
+        CopyTotals that = (CopyTotals) other;
+        return items == that.items && availableItems == that.availableItems
+                && totalCopies == that.totalCopies && availableCopies == that.availableCopies;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(items) * 31 * 31 * 31 + Long.hashCode(availableItems) * 31 * 31
+                + Long.hashCode(totalCopies) * 31 + Long.hashCode(availableCopies);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("items=%d, availableItems=%d, totalCopies=%d, availableCopies=%d",
+                items, availableItems, totalCopies, availableCopies);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.library.service.reminder;
+
+import java.time.LocalDate;
+
+/**
+ * What one reminder pass did: how many loans it looked at, how many
+ * reminders it sent, and how fast.
+ */
+public final class ReminderPassReport {
+    private final LocalDate runDate;
+    private final String kind;
+    private final int resumedAfterLoanId;
+    private final boolean alreadyCompleted;
+    private final int scanned;
+    private final int sent;
+    private final int alreadySent;
+    private final int failed;
+    private final long elapsedNanos;
+    private final long totalNotifyNanos;
+    private final long maxNotifyNanos;
+
+    ReminderPassReport(LocalDate runDate, String kind, int resumedAfterLoanId, boolean alreadyCompleted,
+                       int scanned, int sent, int alreadySent, int failed,
+                       long elapsedNanos, long totalNotifyNanos, long maxNotifyNanos) {
+        this.runDate = runDate;
+        this.kind = kind;
+        this.resumedAfterLoanId = resumedAfterLoanId;
+        this.alreadyCompleted = alreadyCompleted;
+        this.scanned = scanned;
+        this.sent = sent;
+        this.alreadySent = alreadySent;
+        this.failed = failed;
+        this.elapsedNanos = elapsedNanos;
+        this.totalNotifyNanos = totalNotifyNanos;
+        this.maxNotifyNanos = maxNotifyNanos;
+    }
+
+    /** @return the day the pass ran for */
+    public LocalDate getRunDate() {
+        return runDate;
+    }
+
+    /** @return DUE_SOON or OVERDUE */
+    public String getKind() {
+        return kind;
+    }
+
+    /** @return the loan ID the pass resumed after, or 0 if it started from the beginning */
+    public int getResumedAfterLoanId() {
+        return resumedAfterLoanId;
+    }
+
+    /** @return true if the day's pass had already finished and nothing was done */
+    public boolean isAlreadyCompleted() {
+        return alreadyCompleted;
+    }
+
+    /** @return the number of loans read */
+    public int getScanned() {
+        return scanned;
+    }
+
+    /** @return the number of reminders delivered */
+    public int getSent() {
+        return sent;
+    }
+
+    /** @return the number of loans skipped because their reminder was sent before */
+    public int getAlreadySent() {
+        return alreadySent;
+    }
+
+    /** @return the number of reminders that could not be sent */
+    public int getFailed() {
+        return failed;
+    }
+
+    /** @return the duration of the pass, in milliseconds */
+    public double getElapsedMillis() {
+        return elapsedNanos / 1_000_000.0;
+    }
+
+    /** @return reminders sent per second of the pass */
+    public double getSentPerSecond() {
+        return elapsedNanos == 0 ? 0 : sent * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /** @return the average time one notification took to be delivered or to fail, in milliseconds */
+    public double getAverageNotifyMillis() {
+        int attempts = sent + failed;
+        return attempts == 0 ? 0 : totalNotifyNanos / 1_000_000.0 / attempts;
+    }
+
+    /** @return the longest time one notification took to be delivered or to fail, in milliseconds */
+    public double getMaxNotifyMillis() {
+        return maxNotifyNanos / 1_000_000.0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s: scanned=%d, sent=%d, alreadySent=%d, failed=%d, resumedAfter=%d, "
+                        + "elapsed=%.2fms, throughput=%.1f/s, averageNotify=%.2fms, maxNotify=%.2fms%s",
+                runDate, kind, scanned, sent, alreadySent, failed, resumedAfterLoanId, getElapsedMillis(),
+                getSentPerSecond(), getAverageNotifyMillis(), getMaxNotifyMillis(),
+                alreadyCompleted ? " (already completed)" : "");
+    }
+}
@@ -0,0 +1,284 @@
+package com.example.library.service.reminder;
+
+import com.example.library.domain.DueLoan;
+import com.example.library.domain.Loan;
+import com.example.library.domain.ReminderCheckpoint;
+import com.example.library.domain.User;
+import com.example.library.notification.Notifier;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.ReminderRepository;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job that sends due-soon and overdue reminders once a day.
+ *
+ * Each day's run has two passes, {@link #DUE_SOON} and {@link #OVERDUE}.
+ * A pass reads open loans in chunks of {@code chunkSize}, ordered by loan ID:
+ * <ul>
+ *   <li>Loans that already have a reminder of the pass's kind for their
+ *       current due date are skipped, so nobody is reminded twice about the
+ *       same due date, however often the run is repeated.</li>
+ *   <li>A reminder is recorded before it is sent and the record is removed
+ *       if delivery fails, so the next run retries it. A crash between the two
+ *       loses that one reminder rather than sending it twice.</li>
+ *   <li>The reminders of a chunk are handed to {@link Notifier#deliver} together
+ *       and the pass waits for all of them to be delivered or to fail, so a
+ *       notifier that sends in the background still has its failures counted
+ *       and retried.</li>
+ *   <li>After every chunk the pass saves a checkpoint with the last loan ID
+ *       it finished, and marks the day done at the end. A run restarted
+ *       after a crash carries on from the checkpoint, and a finished pass is
+ *       not repeated the same day.</li>
+ * </ul>
+ *
+ * Runs start every day at {@code runAt}, and a failed run is retried after
+ * fifteen minutes; {@link #runNow} runs one immediately.
+ * Each pass returns a {@link ReminderPassReport} with its counts and
+ * throughput, and scheduled runs print theirs.
+ */
+public class ReminderScheduler implements AutoCloseable {
+
+    /** Reminder kind for loans coming due within {@code daysAhead} days. */
+    public static final String DUE_SOON = "DUE_SOON";
+
+    /** Reminder kind for loans past their due date. */
+    public static final String OVERDUE = "OVERDUE";
+
+    private static final Duration RETRY_DELAY = Duration.ofMinutes(15);
+    private static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+
+    private final LoanRepository loanRepository;
+    private final ReminderRepository reminderRepository;
+    private final Notifier notifier;
+    private final LocalTime runAt;
+    private final int daysAhead;
+    private final int chunkSize;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile List<ReminderPassReport> lastRun = List.of();
+
+    /**
+     * Creates the scheduler and schedules the first run at the next {@code runAt}.
+     *
+     * @param loanRepository the repository for loan data
+     * @param reminderRepository the record of reminders sent and run checkpoints
+     * @param notifier the notification mechanism to use
+     * @param runAt the time of day runs start
+     * @param daysAhead how many days before its due date a loan gets a due-soon reminder
+     * @param chunkSize the number of loans read per query
+     */
+    public ReminderScheduler(LoanRepository loanRepository, ReminderRepository reminderRepository,
+                             Notifier notifier, LocalTime runAt, int daysAhead, int chunkSize) {
+        this(loanRepository, reminderRepository, notifier, runAt, daysAhead, chunkSize, Clock.systemDefaultZone());
+    }
+
+    ReminderScheduler(LoanRepository loanRepository, ReminderRepository reminderRepository, Notifier notifier,
+                      LocalTime runAt, int daysAhead, int chunkSize, Clock clock) {
+        if (daysAhead < 0 || chunkSize <= 0) {
+            throw new IllegalArgumentException("daysAhead must not be negative and chunkSize must be positive");
+        }
+        this.loanRepository = loanRepository;
+        this.reminderRepository = reminderRepository;
+        this.notifier = notifier;
+        this.runAt = runAt;
+        this.daysAhead = daysAhead;
+        this.chunkSize = chunkSize;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reminder-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleNextRun();
+    }
+
+    /**
+     * Runs the day's due-soon and overdue passes now, on the calling thread.
+     * Passes already completed for the day are skipped.
+     *
+     * @param today the day to run for
+     * @return the reports of the due-soon and the overdue pass
+     */
+    public synchronized List<ReminderPassReport> runNow(LocalDate today) {
+        List<ReminderPassReport> reports = new ArrayList<>();
+        reports.add(runPass(today, DUE_SOON));
+        reports.add(runPass(today, OVERDUE));
+        lastRun = List.copyOf(reports);
+        return reports;
+    }
+
+    /**
+     * Gets the reports of the most recent run.
+     *
+     * @return the pass reports, or an empty list if nothing has run yet
+     */
+    public List<ReminderPassReport> getLastRun() {
+        return lastRun;
+    }
+
+    /**
+     * Stops scheduling runs and waits up to ten seconds for a run already in
+     * progress to finish, so what it uses can be closed once this returns.
+     * A run still going after that fails at its next database call and carries
+     * on from its checkpoint the next time the scheduler starts.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private ReminderPassReport runPass(LocalDate today, String kind) {
+        Optional<ReminderCheckpoint> checkpoint = reminderRepository.findCheckpoint(today, kind);
+        int afterLoanId = checkpoint.map(ReminderCheckpoint::getLastLoanId).orElse(0);
+        if (checkpoint.isPresent() && checkpoint.get().isCompleted()) {
+            return new ReminderPassReport(today, kind, afterLoanId, true, 0, 0, 0, 0, 0, 0, 0);
+        }
+
+        int resumedAfter = afterLoanId;
+        int scanned = 0;
+        int sent = 0;
+        int alreadySent = 0;
+        int failed = 0;
+        long totalNotifyNanos = 0;
+        long maxNotifyNanos = 0;
+        long start = System.nanoTime();
+
+        List<DueLoan> chunk;
+        do {
+            chunk = DUE_SOON.equals(kind)
+                    ? loanRepository.findLoansDueSoon(today, daysAhead, afterLoanId, chunkSize)
+                    : loanRepository.findOverdueLoans(today, afterLoanId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            scanned += chunk.size();
+
+            List<Loan> loans = new ArrayList<>(chunk.size());
+            for (DueLoan dueLoan : chunk) {
+                loans.add(dueLoan.getLoan());
+            }
+            Set<Integer> reminded = reminderRepository.findRemindedLoanIds(kind, loans);
+
+            List<PendingReminder> pending = new ArrayList<>(chunk.size());
+            for (DueLoan dueLoan : chunk) {
+                Loan loan = dueLoan.getLoan();
+                // Recording first also stops a concurrent run from sending the same reminder
+                if (reminded.contains(loan.getLoanId())
+                        || !reminderRepository.recordReminder(loan.getLoanId(), kind, loan.getDueDate())) {
+                    alreadySent++;
+                    continue;
+                }
+                long notifyStart = System.nanoTime();
+                pending.add(new PendingReminder(loan, notifyStart,
+                        deliver(dueLoan.getBorrower(), buildMessage(kind, loan))));
+            }
+
+            for (PendingReminder reminder : pending) {
+                Loan loan = reminder.loan;
+                try {
+                    reminder.outcome.join();
+                    sent++;
+                } catch (CompletionException e) {
+                    failed++;
+                    reminderRepository.deleteReminder(loan.getLoanId(), kind, loan.getDueDate());
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    System.err.println("Failed to send " + kind + " reminder for loan "
+                            + loan.getLoanId() + ": " + cause.getMessage());
+                }
+                totalNotifyNanos += reminder.nanos;
+                maxNotifyNanos = Math.max(maxNotifyNanos, reminder.nanos);
+            }
+
+            afterLoanId = chunk.get(chunk.size() - 1).getLoan().getLoanId();
+            reminderRepository.saveCheckpoint(new ReminderCheckpoint(today, kind, afterLoanId, false));
+        } while (chunk.size() == chunkSize);
+
+        reminderRepository.saveCheckpoint(new ReminderCheckpoint(today, kind, afterLoanId, true));
+        return new ReminderPassReport(today, kind, resumedAfter, false, scanned, sent, alreadySent, failed,
+                System.nanoTime() - start, totalNotifyNanos, maxNotifyNanos);
+    }
+
+    private CompletableFuture<Void> deliver(User borrower, String message) {
+        try {
+            return notifier.deliver(borrower, message);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static String buildMessage(String kind, Loan loan) {
+        if (DUE_SOON.equals(kind)) {
+            return "Reminder: an item you borrowed is due on " + loan.getDueDate() + ".";
+        }
+        return "An item you borrowed was due on " + loan.getDueDate() + " and is now overdue.";
+    }
+
+    private void scheduleNextRun() {
+        LocalDateTime now = LocalDateTime.now(clock);
+        LocalDateTime next = now.toLocalDate().atTime(runAt);
+        if (!next.isAfter(now)) {
+            next = next.plusDays(1);
+        }
+        // Rescheduled after every run so the start time does not drift across clock changes
+        scheduler.schedule(this::scheduledRun, Duration.between(now, next).toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void scheduledRun() {
+        boolean failed = false;
+        try {
+            for (ReminderPassReport report : runNow(LocalDate.now(clock))) {
+                System.out.println("Reminder pass " + report);
+            }
+        } catch (RuntimeException e) {
+            failed = true;
+            System.err.println("Reminder run failed, retrying in " + RETRY_DELAY.toMinutes()
+                    + " minutes: " + e.getMessage());
+        } finally {
+            if (scheduler.isShutdown()) {
+                return;
+            }
+            if (failed) {
+                // The retry resumes from the checkpoint the failed run left
+                scheduler.schedule(this::scheduledRun, RETRY_DELAY.toMillis(), TimeUnit.MILLISECONDS);
+            } else {
+                scheduleNextRun();
+            }
+        }
+    }
+
+    /**
+     * A reminder handed to the notifier, with the time it took to be delivered
+     * or to fail.
+     */
+    private static final class PendingReminder {
+        private final Loan loan;
+        private final CompletableFuture<Void> outcome;
+        private volatile long nanos;
+
+        private PendingReminder(Loan loan, long start, CompletableFuture<Void> delivery) {
+            this.loan = loan;
+            // The timing is set before outcome completes, so it is in place once join returns
+            this.outcome = delivery.whenComplete((ignored, failure) -> nanos = System.nanoTime() - start);
+        }
+    }
+}
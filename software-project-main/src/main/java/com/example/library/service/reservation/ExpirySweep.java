@@ -0,0 +1,39 @@
+package com.example.library.service.reservation;
+
+import com.example.library.domain.Reservation;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of one reservation expiry sweep: the reservations it expired and
+ * the waiting reservations it promoted in their place.
+ */
+public class ExpirySweep {
+    private final List<Integer> expiredIds;
+    private final List<Reservation> promoted;
+
+    public ExpirySweep(List<Integer> expiredIds, List<Reservation> promoted) {
+        this.expiredIds = Collections.unmodifiableList(expiredIds);
+        this.promoted = Collections.unmodifiableList(promoted);
+    }
+
+    /**
+     * Gets the IDs of the reservations that expired.
+     *
+     * @return the expired reservation IDs, in the order they were processed
+     */
+    public List<Integer> getExpiredIds() {
+        return expiredIds;
+    }
+
+    /**
+     * Gets the reservations promoted to FULFILLED because the head of their
+     * item's waitlist changed and a copy was free.
+     *
+     * @return the promoted reservations
+     */
+    public List<Reservation> getPromoted() {
+        return promoted;
+    }
+}
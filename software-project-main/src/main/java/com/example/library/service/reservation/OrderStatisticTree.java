@@ -0,0 +1,195 @@
+package com.example.library.service.reservation;
+
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Sorted set that also answers "how many elements come before this one".
+ * It is a treap: a binary search tree kept balanced by random heap priorities,
+ * with every node storing the size of its subtree. Insert, remove, rank and
+ * positional lookup all take expected O(log n).
+ *
+ * Not thread-safe; callers are expected to guard concurrent access.
+ *
+ * @param <E> the element type
+ */
+class OrderStatisticTree<E> {
+
+    private final Comparator<? super E> comparator;
+    private Node<E> root;
+
+    /**
+     * Creates an empty tree.
+     *
+     * @param comparator the element order; elements comparing equal are duplicates
+     */
+    OrderStatisticTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    /**
+     * Adds an element. Duplicates are ignored.
+     *
+     * @param element the element to add
+     * @return true if the element was not already present
+     */
+    boolean add(E element) {
+        if (rank(element) >= 0) {
+            return false;
+        }
+        Split<E> parts = split(root, element);
+        root = merge(merge(parts.before, new Node<>(element)), parts.rest);
+        return true;
+    }
+
+    /**
+     * Removes an element.
+     *
+     * @param element the element to remove
+     * @return true if the element was present
+     */
+    boolean remove(E element) {
+        if (rank(element) < 0) {
+            return false;
+        }
+        root = remove(root, element);
+        return true;
+    }
+
+    /**
+     * Counts the elements that come before an element.
+     *
+     * @param element the element to look up
+     * @return the element's 0-based rank, or -1 if it is not in the tree
+     */
+    int rank(E element) {
+        int before = 0;
+        Node<E> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(element, node.value);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                before += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return before + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the element at a position.
+     *
+     * @param index the 0-based position
+     * @return the element
+     * @throws IndexOutOfBoundsException if the position is outside the tree
+     */
+    E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+        }
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Splits a subtree into the elements ordered before the key and the rest.
+     */
+    private Split<E> split(Node<E> node, E key) {
+        if (node == null) {
+            return new Split<>(null, null);
+        }
+        if (comparator.compare(node.value, key) < 0) {
+            Split<E> right = split(node.right, key);
+            node.right = right.before;
+            return new Split<>(node.update(), right.rest);
+        }
+        Split<E> left = split(node.left, key);
+        node.left = left.rest;
+        return new Split<>(left.before, node.update());
+    }
+
+    /**
+     * Joins two subtrees where every element of the first comes before the second.
+     */
+    private Node<E> merge(Node<E> left, Node<E> right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return left.update();
+        }
+        right.left = merge(left, right.left);
+        return right.update();
+    }
+
+    private Node<E> remove(Node<E> node, E element) {
+        int cmp = comparator.compare(element, node.value);
+        if (cmp < 0) {
+            node.left = remove(node.left, element);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, element);
+        } else {
+            return merge(node.left, node.right);
+        }
+        return node.update();
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node<E> {
+        private final E value;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private Node<E> left;
+        private Node<E> right;
+        private int size = 1;
+
+        private Node(E value) {
+            this.value = value;
+        }
+
+        private Node<E> update() {
+            size = 1 + size(left) + size(right);
+            return this;
+        }
+    }
+
+    /**
+     * The two subtrees a split produces.
+     */
+    private static final class Split<E> {
+        private final Node<E> before;
+        private final Node<E> rest;
+
+        private Split(Node<E> before, Node<E> rest) {
+            this.before = before;
+            this.rest = rest;
+        }
+    }
+}
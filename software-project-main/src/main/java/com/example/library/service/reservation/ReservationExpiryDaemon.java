@@ -0,0 +1,193 @@
+package com.example.library.service.reservation;
+
+import com.example.library.service.ReservationServiceImpl;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Background job that periodically expires overdue reservations and promotes
+ * the next waiting reservation of each affected item, through
+ * {@link ReservationServiceImpl#sweepExpiredReservations}.
+ *
+ * The first sweep runs one interval after construction; {@link #sweep()} runs
+ * one immediately. {@link #getStats()} reports rows processed and sweep
+ * durations for monitoring.
+ */
+public class ReservationExpiryDaemon implements AutoCloseable {
+
+    private static final long CLOSE_TIMEOUT_MILLIS = 10_000;
+
+    private final ReservationServiceImpl reservationService;
+    private final int chunkSize;
+    private final Clock clock;
+    private final ScheduledExecutorService scheduler;
+
+    private final LongAdder sweeps = new LongAdder();
+    private final LongAdder failures = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+    private final LongAdder promoted = new LongAdder();
+    private final LongAdder totalSweepNanos = new LongAdder();
+    private final AtomicLong lastSweepNanos = new AtomicLong();
+    private final AtomicLong maxSweepNanos = new AtomicLong();
+
+    /**
+     * Creates the daemon and schedules its sweeps.
+     *
+     * @param reservationService the service whose reservations are swept
+     * @param interval the time between the end of one sweep and the start of the next
+     * @param chunkSize the maximum number of reservations expired per transaction
+     */
+    public ReservationExpiryDaemon(ReservationServiceImpl reservationService, Duration interval, int chunkSize) {
+        this(reservationService, interval, chunkSize, Clock.systemDefaultZone());
+    }
+
+    ReservationExpiryDaemon(ReservationServiceImpl reservationService, Duration interval, int chunkSize, Clock clock) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive");
+        }
+        this.reservationService = reservationService;
+        this.chunkSize = chunkSize;
+        this.clock = clock;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "reservation-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = interval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::scheduledSweep, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs one sweep now, on the calling thread.
+     *
+     * @return the expired reservation IDs and the promoted reservations
+     */
+    public synchronized ExpirySweep sweep() {
+        long start = System.nanoTime();
+        try {
+            ExpirySweep result = reservationService.sweepExpiredReservations(LocalDateTime.now(clock), chunkSize);
+            expired.add(result.getExpiredIds().size());
+            promoted.add(result.getPromoted().size());
+            return result;
+        } catch (RuntimeException e) {
+            failures.increment();
+            throw e;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            sweeps.increment();
+            totalSweepNanos.add(elapsed);
+            lastSweepNanos.set(elapsed);
+            maxSweepNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the sweep counters.
+     *
+     * @return the current statistics
+     */
+    public Stats getStats() {
+        return new Stats(sweeps.sum(), failures.sum(), expired.sum(), promoted.sum(),
+                totalSweepNanos.sum(), lastSweepNanos.get(), maxSweepNanos.get());
+    }
+
+    /**
+     * Stops scheduling sweeps and waits up to ten seconds for a sweep already
+     * running to finish, so what it uses can be closed once this returns.
+     */
+    @Override
+    public void close() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(CLOSE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void scheduledSweep() {
+        try {
+            sweep();
+        } catch (RuntimeException e) {
+            // An escaping exception would cancel every later sweep
+            System.err.println("Reservation expiry sweep failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Point-in-time copy of the daemon's counters.
+     */
+    public static final class Stats {
+        private final long sweeps;
+        private final long failures;
+        private final long expired;
+        private final long promoted;
+        private final long totalSweepNanos;
+        private final long lastSweepNanos;
+        private final long maxSweepNanos;
+
+        Stats(long sweeps, long failures, long expired, long promoted, long totalSweepNanos,
+              long lastSweepNanos, long maxSweepNanos) {
+            this.sweeps = sweeps;
+            this.failures = failures;
+            this.expired = expired;
+            this.promoted = promoted;
+            this.totalSweepNanos = totalSweepNanos;
+            this.lastSweepNanos = lastSweepNanos;
+            this.maxSweepNanos = maxSweepNanos;
+        }
+
+        /** @return the number of sweeps run, including failed ones */
+        public long getSweeps() {
+            return sweeps;
+        }
+
+        /** @return the number of sweeps that threw an exception */
+        public long getFailures() {
+            return failures;
+        }
+
+        /** @return the number of reservations expired */
+        public long getExpired() {
+            return expired;
+        }
+
+        /** @return the number of waiting reservations promoted */
+        public long getPromoted() {
+            return promoted;
+        }
+
+        /** @return the duration of the most recent sweep, in milliseconds */
+        public double getLastSweepMillis() {
+            return lastSweepNanos / 1_000_000.0;
+        }
+
+        /** @return the duration of the slowest sweep, in milliseconds */
+        public double getMaxSweepMillis() {
+            return maxSweepNanos / 1_000_000.0;
+        }
+
+        /** @return the average sweep duration, in milliseconds */
+        public double getAverageSweepMillis() {
+            return sweeps == 0 ? 0 : totalSweepNanos / 1_000_000.0 / sweeps;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("sweeps=%d, failures=%d, expired=%d, promoted=%d, lastSweep=%.2fms, "
+                            + "maxSweep=%.2fms, averageSweep=%.2fms",
+                    sweeps, failures, expired, promoted, getLastSweepMillis(), getMaxSweepMillis(),
+                    getAverageSweepMillis());
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.library.service.reservation;
+
+import com.example.library.domain.Reservation;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory waitlists of the active reservations, one per item, ordered by
+ * reservation date. Each waitlist is an {@link OrderStatisticTree}, so a
+ * reservation's queue position, enqueueing and cancelling take O(log n) for an
+ * item with n waiting users. A hash of (user, item) pairs answers duplicate
+ * checks in O(1), and {@link #claim} lets a caller hold a pair while the
+ * reservation is being saved, so two concurrent requests cannot both pass the
+ * check.
+ *
+ * The index does not read the database itself; it is fed by
+ * {@link com.example.library.service.ReservationServiceImpl}.
+ */
+public class ReservationQueueIndex {
+
+    private static final Comparator<Entry> QUEUE_ORDER = Comparator
+            .comparing((Entry entry) -> entry.reservationDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingInt(entry -> entry.reservationId);
+
+    private final Map<Integer, OrderStatisticTree<Entry>> queues = new HashMap<>();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final Map<Long, Integer> activePairs = new HashMap<>();
+    private final Set<Long> claimedPairs = new HashSet<>();
+
+    /**
+     * Indexes all of the given reservations.
+     *
+     * @param reservations the reservations to index; those that are not active are skipped
+     */
+    public synchronized void putAll(Collection<Reservation> reservations) {
+        for (Reservation reservation : reservations) {
+            put(reservation);
+        }
+    }
+
+    /**
+     * Adds, moves or drops a reservation according to its current status.
+     * An active reservation is queued (and replaces any earlier version of
+     * itself); any other status removes it from its queue.
+     *
+     * @param reservation the reservation; must have an ID
+     */
+    public synchronized void put(Reservation reservation) {
+        if (reservation == null || reservation.getReservationId() == null) {
+            throw new IllegalArgumentException("Reservation must have an ID");
+        }
+        remove(reservation.getReservationId());
+        if (!"ACTIVE".equals(reservation.getStatus())) {
+            return;
+        }
+        Entry entry = new Entry(reservation);
+        entries.put(entry.reservationId, entry);
+        queues.computeIfAbsent(entry.itemId, id -> new OrderStatisticTree<>(QUEUE_ORDER)).add(entry);
+        long pair = pair(entry.userId, entry.itemId);
+        activePairs.merge(pair, 1, Integer::sum);
+        claimedPairs.remove(pair);
+    }
+
+    /**
+     * Drops a reservation from its queue.
+     *
+     * @param reservationId the reservation ID
+     */
+    public synchronized void remove(int reservationId) {
+        Entry entry = entries.remove(reservationId);
+        if (entry == null) {
+            return;
+        }
+        OrderStatisticTree<Entry> queue = queues.get(entry.itemId);
+        queue.remove(entry);
+        if (queue.isEmpty()) {
+            queues.remove(entry.itemId);
+        }
+        activePairs.computeIfPresent(pair(entry.userId, entry.itemId), (pair, count) -> count == 1 ? null : count - 1);
+    }
+
+    /**
+     * Gets a reservation's place in its item's waitlist.
+     *
+     * @param reservationId the reservation ID
+     * @return the position (1-based), or -1 if the reservation is not queued
+     */
+    public synchronized int position(int reservationId) {
+        Entry entry = entries.get(reservationId);
+        if (entry == null) {
+            return -1;
+        }
+        return queues.get(entry.itemId).rank(entry) + 1;
+    }
+
+    /**
+     * Counts the users waiting for an item.
+     *
+     * @param itemId the item ID
+     * @return the number of active reservations for the item
+     */
+    public synchronized int queueLength(int itemId) {
+        OrderStatisticTree<Entry> queue = queues.get(itemId);
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * Gets the reservation at the head of an item's waitlist.
+     *
+     * @param itemId the item ID
+     * @return the oldest active reservation's ID, or -1 if nobody is waiting
+     */
+    public synchronized int first(int itemId) {
+        OrderStatisticTree<Entry> queue = queues.get(itemId);
+        return queue == null ? -1 : queue.get(0).reservationId;
+    }
+
+    /**
+     * Checks whether a user has an active or claimed reservation for an item.
+     *
+     * @param userId the user ID
+     * @param itemId the item ID
+     * @return true if the user is already waiting for the item
+     */
+    public synchronized boolean hasActive(int userId, int itemId) {
+        long pair = pair(userId, itemId);
+        return activePairs.containsKey(pair) || claimedPairs.contains(pair);
+    }
+
+    /**
+     * Reserves a (user, item) pair while its reservation is being saved.
+     * The claim ends when the saved reservation is {@link #put} or when it is
+     * {@link #release released}.
+     *
+     * @param userId the user ID
+     * @param itemId the item ID
+     * @return false if the user already has an active or claimed reservation for the item
+     */
+    public synchronized boolean claim(int userId, int itemId) {
+        if (hasActive(userId, itemId)) {
+            return false;
+        }
+        claimedPairs.add(pair(userId, itemId));
+        return true;
+    }
+
+    /**
+     * Gives up a claim whose reservation was never saved.
+     *
+     * @param userId the user ID
+     * @param itemId the item ID
+     */
+    public synchronized void release(int userId, int itemId) {
+        claimedPairs.remove(pair(userId, itemId));
+    }
+
+    private static long pair(int userId, int itemId) {
+        return ((long) userId << 32) | (itemId & 0xFFFFFFFFL);
+    }
+
+    /**
+     * The queue-relevant fields of a reservation, copied so that later changes
+     * to the reservation object cannot reorder a queue behind its back.
+     */
+    private static final class Entry {
+        private final int reservationId;
+        private final int userId;
+        private final int itemId;
+        private final LocalDateTime reservationDate;
+
+        private Entry(Reservation reservation) {
+            this.reservationId = reservation.getReservationId();
+            this.userId = reservation.getUserId();
+            this.itemId = reservation.getItemId();
+            this.reservationDate = reservation.getReservationDate();
+        }
+    }
+}
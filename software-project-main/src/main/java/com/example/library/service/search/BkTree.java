@@ -0,0 +1,157 @@
+package com.example.library.service.search;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Burkhard-Keller tree over a dictionary of terms using Levenshtein distance.
+ * Because edit distance is a metric, a lookup with tolerance k only has to
+ * descend into children whose edge distance lies in [d - k, d + k], which
+ * prunes most of the dictionary for small k.
+ *
+ * Not thread-safe; callers are expected to guard concurrent access.
+ */
+public class BkTree {
+
+    private Node root;
+    private int size;
+
+    /**
+     * Adds a term to the tree. Duplicate terms are ignored.
+     *
+     * @param term the term to add
+     * @return true if the term was not already present
+     */
+    public boolean add(String term) {
+        if (term == null || term.isEmpty()) {
+            throw new IllegalArgumentException("Term cannot be null or empty");
+        }
+        if (root == null) {
+            root = new Node(term);
+            size++;
+            return true;
+        }
+        Node current = root;
+        while (true) {
+            int distance = Levenshtein.distance(current.term, term);
+            if (distance == 0) {
+                return false;
+            }
+            Node child = current.child(distance);
+            if (child == null) {
+                current.addChild(distance, new Node(term));
+                size++;
+                return true;
+            }
+            current = child;
+        }
+    }
+
+    /**
+     * Finds every term within the given edit distance of the query.
+     *
+     * @param query the term to look up
+     * @param maxDistance the maximum edit distance (inclusive)
+     * @return matching terms with their distance to the query, in no particular order
+     */
+    public List<Match> search(String query, int maxDistance) {
+        List<Match> matches = new ArrayList<>();
+        if (root == null || query == null || query.isEmpty()) {
+            return matches;
+        }
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while (!pending.isEmpty()) {
+            Node node = pending.pop();
+            int distance = Levenshtein.distance(query, node.term);
+            if (distance <= maxDistance) {
+                matches.add(new Match(node.term, distance));
+            }
+            int low = distance - maxDistance;
+            int high = distance + maxDistance;
+            for (int i = 0; i < node.childCount; i++) {
+                int edge = node.edges[i];
+                if (edge >= low && edge <= high) {
+                    pending.push(node.children[i]);
+                }
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Gets the number of distinct terms in the tree.
+     *
+     * @return the term count
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * A dictionary term that matched a lookup.
+     */
+    public static final class Match {
+        private final String term;
+        private final int distance;
+
+        Match(String term, int distance) {
+            this.term = term;
+            this.distance = distance;
+        }
+
+        public String getTerm() {
+            return term;
+        }
+
+        public int getDistance() {
+            return distance;
+        }
+
+        @Override
+        public String toString() {
+            return term + "(" + distance + ")";
+        }
+    }
+
+    /**
+     * Tree node. Children are kept in parallel arrays rather than a map,
+     * since most nodes have only a handful of edges.
+     */
+    private static final class Node {
+        private final String term;
+        private int[] edges;
+        private Node[] children;
+        private int childCount;
+
+        Node(String term) {
+            this.term = term;
+        }
+
+        Node child(int distance) {
+            for (int i = 0; i < childCount; i++) {
+                if (edges[i] == distance) {
+                    return children[i];
+                }
+            }
+            return null;
+        }
+
+        void addChild(int distance, Node child) {
+            if (edges == null) {
+                edges = new int[2];
+                children = new Node[2];
+            } else if (childCount == edges.length) {
+                int capacity = childCount * 2;
+                edges = Arrays.copyOf(edges, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            edges[childCount] = distance;
+            children[childCount] = child;
+            childCount++;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.library.service.search;
+
+/**
+ * Catalog attributes that can be counted and filtered in a {@link MediaItemFacetIndex}.
+ */
+public enum Facet {
+    /** Media type such as BOOK or CD, compared case-insensitively. */
+    TYPE,
+    /** Publisher name, compared exactly. */
+    PUBLISHER,
+    /** Publication year. */
+    YEAR,
+    /** Whether at least one copy is available ("AVAILABLE" or "UNAVAILABLE"). */
+    AVAILABILITY
+}
@@ -0,0 +1,93 @@
+package com.example.library.service.search;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Selection of facet values to filter the catalog by.
+ * Values of the same facet are OR-ed together and different facets are AND-ed,
+ * so {@code new FacetFilter().type("BOOK").type("CD").availableOnly()} selects
+ * available books and CDs. An empty filter matches every item.
+ */
+public class FacetFilter {
+
+    private final Set<String> types = new LinkedHashSet<>();
+    private final Set<String> publishers = new LinkedHashSet<>();
+    private Integer fromYear;
+    private Integer toYear;
+    private boolean availableOnly;
+
+    /**
+     * Adds a media type to the filter.
+     *
+     * @param type the media type (case-insensitive)
+     * @return this filter
+     */
+    public FacetFilter type(String type) {
+        types.add(normalizeType(type));
+        return this;
+    }
+
+    /**
+     * Adds a publisher to the filter.
+     *
+     * @param publisher the exact publisher name
+     * @return this filter
+     */
+    public FacetFilter publisher(String publisher) {
+        publishers.add(publisher);
+        return this;
+    }
+
+    /**
+     * Restricts the filter to items published in the given years (inclusive).
+     *
+     * @param fromYear the first year to include
+     * @param toYear the last year to include
+     * @return this filter
+     */
+    public FacetFilter yearBetween(int fromYear, int toYear) {
+        if (fromYear > toYear) {
+            throw new IllegalArgumentException("fromYear must not be after toYear");
+        }
+        this.fromYear = fromYear;
+        this.toYear = toYear;
+        return this;
+    }
+
+    /**
+     * Restricts the filter to items with at least one available copy.
+     *
+     * @return this filter
+     */
+    public FacetFilter availableOnly() {
+        this.availableOnly = true;
+        return this;
+    }
+
+    public Set<String> getTypes() {
+        return Collections.unmodifiableSet(types);
+    }
+
+    public Set<String> getPublishers() {
+        return Collections.unmodifiableSet(publishers);
+    }
+
+    public Integer getFromYear() {
+        return fromYear;
+    }
+
+    public Integer getToYear() {
+        return toYear;
+    }
+
+    public boolean isAvailableOnly() {
+        return availableOnly;
+    }
+
+    static String normalizeType(String type) {
+        return type == null ? null : type.toUpperCase(Locale.ROOT);
+    }
+}
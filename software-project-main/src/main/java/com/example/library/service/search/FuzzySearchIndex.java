@@ -0,0 +1,171 @@
+package com.example.library.service.search;
+
+import com.example.library.domain.MediaItem;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Typo-tolerant search index over media item titles and authors.
+ * Titles and authors are split into lower-case terms; each distinct term is
+ * stored once in a {@link BkTree} and mapped to the ids of the items that
+ * contain it. A query is tokenized the same way and every token is looked up
+ * within a small edit distance, so "tolkein" still finds "Tolkien".
+ */
+public class FuzzySearchIndex {
+
+    /** Terms shorter than this are matched exactly; typos in them are too ambiguous. */
+    private static final int MIN_FUZZY_LENGTH = 3;
+
+    /** Terms of this length and above tolerate two edits instead of one. */
+    private static final int TWO_EDIT_LENGTH = 6;
+
+    private final BkTree dictionary = new BkTree();
+    private final Map<String, Set<Integer>> postings = new HashMap<>();
+    private final Map<Integer, Set<String>> itemTerms = new HashMap<>();
+
+    /**
+     * Indexes all of the given items.
+     *
+     * @param items the items to index
+     */
+    public synchronized void indexAll(Collection<MediaItem> items) {
+        for (MediaItem item : items) {
+            index(item);
+        }
+    }
+
+    /**
+     * Adds or re-indexes a single item. Terms from a previous version of the
+     * item that no longer appear in its title or author are dropped.
+     *
+     * @param item the item to index; must have an id
+     */
+    public synchronized void index(MediaItem item) {
+        if (item == null || item.getItemId() == null) {
+            throw new IllegalArgumentException("Item and item ID cannot be null");
+        }
+        remove(item.getItemId());
+        Set<String> terms = new HashSet<>();
+        terms.addAll(tokenize(item.getTitle()));
+        terms.addAll(tokenize(item.getAuthor()));
+        for (String term : terms) {
+            dictionary.add(term);
+            postings.computeIfAbsent(term, t -> new HashSet<>()).add(item.getItemId());
+        }
+        itemTerms.put(item.getItemId(), terms);
+    }
+
+    /**
+     * Removes an item from the index. Its terms stay in the dictionary
+     * but no longer point at the item.
+     *
+     * @param itemId the id of the item to remove
+     */
+    public synchronized void remove(Integer itemId) {
+        Set<String> terms = itemTerms.remove(itemId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Set<Integer> ids = postings.get(term);
+            if (ids != null) {
+                ids.remove(itemId);
+                if (ids.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds items whose title or author terms are close to the query terms.
+     * Items matching more query terms rank first, then items with the smaller
+     * total edit distance.
+     *
+     * @param query the (possibly misspelled) search text
+     * @param limit the maximum number of item ids to return
+     * @return matching item ids, best match first
+     */
+    public synchronized List<Integer> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        Map<Integer, int[]> scores = new HashMap<>();
+        for (String token : tokens) {
+            Map<Integer, Integer> bestForToken = new HashMap<>();
+            for (BkTree.Match match : dictionary.search(token, maxDistanceFor(token))) {
+                Set<Integer> ids = postings.get(match.getTerm());
+                if (ids == null) {
+                    continue;
+                }
+                for (Integer id : ids) {
+                    bestForToken.merge(id, match.getDistance(), Math::min);
+                }
+            }
+            for (Map.Entry<Integer, Integer> entry : bestForToken.entrySet()) {
+                int[] score = scores.computeIfAbsent(entry.getKey(), id -> new int[2]);
+                score[0]++;
+                score[1] += entry.getValue();
+            }
+        }
+        List<Integer> ranked = new ArrayList<>(scores.keySet());
+        ranked.sort((a, b) -> {
+            int[] sa = scores.get(a);
+            int[] sb = scores.get(b);
+            if (sa[0] != sb[0]) {
+                return Integer.compare(sb[0], sa[0]);
+            }
+            if (sa[1] != sb[1]) {
+                return Integer.compare(sa[1], sb[1]);
+            }
+            return Integer.compare(a, b);
+        });
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+
+    /**
+     * Gets the number of distinct terms in the dictionary.
+     *
+     * @return the term count
+     */
+    public synchronized int termCount() {
+        return dictionary.size();
+    }
+
+    /**
+     * Gets the number of indexed items.
+     *
+     * @return the item count
+     */
+    public synchronized int itemCount() {
+        return itemTerms.size();
+    }
+
+    static int maxDistanceFor(String term) {
+        if (term.length() < MIN_FUZZY_LENGTH) {
+            return 0;
+        }
+        return term.length() >= TWO_EDIT_LENGTH ? 2 : 1;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        Set<String> unique = new LinkedHashSet<>();
+        for (String raw : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!raw.isEmpty()) {
+                unique.add(raw);
+            }
+        }
+        tokens.addAll(unique);
+        return tokens;
+    }
+}
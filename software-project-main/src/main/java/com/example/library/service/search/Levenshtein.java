@@ -0,0 +1,50 @@
+package com.example.library.service.search;
+
+/**
+ * Levenshtein edit distance (insertions, deletions and substitutions).
+ */
+public final class Levenshtein {
+
+    private Levenshtein() {
+    }
+
+    /**
+     * Computes the edit distance between two strings using two rolling rows,
+     * so memory is proportional to the shorter string.
+     *
+     * @param a the first string
+     * @param b the second string
+     * @return the number of single-character edits needed to turn a into b
+     */
+    public static int distance(String a, String b) {
+        if (a.equals(b)) {
+            return 0;
+        }
+        if (a.length() < b.length()) {
+            String swap = a;
+            a = b;
+            b = swap;
+        }
+        int shorter = b.length();
+        if (shorter == 0) {
+            return a.length();
+        }
+        int[] previous = new int[shorter + 1];
+        int[] current = new int[shorter + 1];
+        for (int j = 0; j <= shorter; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= shorter; j++) {
+                int cost = ca == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[shorter];
+    }
+}
@@ -0,0 +1,263 @@
+package com.example.library.service.search;
+
+import com.example.library.domain.MediaItem;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * In-memory bitmap index over the catalog's facet attributes.
+ * Every facet value owns a bitmap whose set bits are the ids of the items that
+ * have that value. Item ids are dense database serials, so plain {@link BitSet}s
+ * stay compact, and a multi-facet filter is a handful of word-wise OR/AND
+ * operations instead of a table scan.
+ *
+ * The index does not read the database itself; it is fed by
+ * {@link com.example.library.repository.FacetIndexedMediaItemRepository}.
+ */
+public class MediaItemFacetIndex {
+
+    static final String AVAILABLE = "AVAILABLE";
+    static final String UNAVAILABLE = "UNAVAILABLE";
+
+    private final BitSet allItems = new BitSet();
+    private final BitSet availableItems = new BitSet();
+    private final Map<String, BitSet> byType = new HashMap<>();
+    private final Map<String, BitSet> byPublisher = new HashMap<>();
+    private final NavigableMap<Integer, BitSet> byYear = new TreeMap<>();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final BitSet scratch = new BitSet();
+
+    /**
+     * Indexes all of the given items.
+     *
+     * @param items the items to index
+     */
+    public synchronized void putAll(Collection<MediaItem> items) {
+        for (MediaItem item : items) {
+            put(item);
+        }
+    }
+
+    /**
+     * Adds an item or replaces the facet values of an already indexed item.
+     *
+     * @param item the item to index; must have a non-negative id
+     */
+    public synchronized void put(MediaItem item) {
+        if (item == null || item.getItemId() == null || item.getItemId() < 0) {
+            throw new IllegalArgumentException("Item must have a non-negative ID");
+        }
+        int id = item.getItemId();
+        remove(id);
+        Entry entry = new Entry(
+                FacetFilter.normalizeType(item.getType()),
+                item.getPublisher(),
+                item.getPublicationDate() == null ? null : item.getPublicationDate().getYear());
+        allItems.set(id);
+        setBit(byType, entry.type, id);
+        setBit(byPublisher, entry.publisher, id);
+        setBit(byYear, entry.year, id);
+        availableItems.set(id, isAvailable(item.getAvailableCopies()));
+        entries.put(id, entry);
+    }
+
+    /**
+     * Removes an item from every facet.
+     *
+     * @param itemId the id of the item to remove
+     */
+    public synchronized void remove(Integer itemId) {
+        Entry entry = entries.remove(itemId);
+        if (entry == null) {
+            return;
+        }
+        int id = itemId;
+        allItems.clear(id);
+        availableItems.clear(id);
+        clearBit(byType, entry.type, id);
+        clearBit(byPublisher, entry.publisher, id);
+        clearBit(byYear, entry.year, id);
+    }
+
+    /**
+     * Applies a change in available copies. Only the availability bitmap is
+     * touched; items that are not indexed are ignored.
+     *
+     * @param itemId the item id
+     * @param availableCopies the new number of available copies
+     */
+    public synchronized void updateAvailableCopies(Integer itemId, Integer availableCopies) {
+        if (itemId != null && entries.containsKey(itemId)) {
+            availableItems.set(itemId, isAvailable(availableCopies));
+        }
+    }
+
+    /**
+     * Finds the ids of the items matching a filter.
+     *
+     * @param filter the facet values to match
+     * @return matching item ids in ascending order
+     */
+    public synchronized List<Integer> findIds(FacetFilter filter) {
+        BitSet selection = select(filter, null);
+        List<Integer> ids = new ArrayList<>(selection.cardinality());
+        for (int id = selection.nextSetBit(0); id >= 0; id = selection.nextSetBit(id + 1)) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Counts the items matching a filter.
+     *
+     * @param filter the facet values to match
+     * @return the number of matching items
+     */
+    public synchronized int count(FacetFilter filter) {
+        return select(filter, null).cardinality();
+    }
+
+    /**
+     * Counts matching items per value of one facet. The filter's own condition on
+     * that facet is ignored, so the counts show what selecting another value of
+     * the facet would return. Values with no matching items are omitted.
+     *
+     * @param facet the facet to count
+     * @param filter the current selection
+     * @return item count per facet value
+     */
+    public synchronized Map<String, Integer> facetCounts(Facet facet, FacetFilter filter) {
+        BitSet selection = select(filter, facet);
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        switch (facet) {
+            case TYPE:
+                countValues(byType, selection, counts);
+                break;
+            case PUBLISHER:
+                countValues(byPublisher, selection, counts);
+                break;
+            case YEAR:
+                countValues(byYear, selection, counts);
+                break;
+            case AVAILABILITY:
+                int available = intersectionSize(availableItems, selection);
+                int unavailable = selection.cardinality() - available;
+                if (available > 0) {
+                    counts.put(AVAILABLE, available);
+                }
+                if (unavailable > 0) {
+                    counts.put(UNAVAILABLE, unavailable);
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported facet: " + facet);
+        }
+        return counts;
+    }
+
+    /**
+     * Gets the number of indexed items.
+     *
+     * @return the item count
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private BitSet select(FacetFilter filter, Facet ignored) {
+        BitSet selection = (BitSet) allItems.clone();
+        if (filter == null) {
+            return selection;
+        }
+        if (ignored != Facet.TYPE && !filter.getTypes().isEmpty()) {
+            selection.and(union(byType, filter.getTypes()));
+        }
+        if (ignored != Facet.PUBLISHER && !filter.getPublishers().isEmpty()) {
+            selection.and(union(byPublisher, filter.getPublishers()));
+        }
+        if (ignored != Facet.YEAR && filter.getFromYear() != null) {
+            BitSet years = new BitSet();
+            for (BitSet bits : byYear.subMap(filter.getFromYear(), true, filter.getToYear(), true).values()) {
+                years.or(bits);
+            }
+            selection.and(years);
+        }
+        if (ignored != Facet.AVAILABILITY && filter.isAvailableOnly()) {
+            selection.and(availableItems);
+        }
+        return selection;
+    }
+
+    private <K> BitSet union(Map<K, BitSet> bitmaps, Collection<K> keys) {
+        BitSet result = new BitSet();
+        for (K key : keys) {
+            BitSet bits = bitmaps.get(key);
+            if (bits != null) {
+                result.or(bits);
+            }
+        }
+        return result;
+    }
+
+    private <K> void countValues(Map<K, BitSet> bitmaps, BitSet selection, Map<String, Integer> counts) {
+        for (Map.Entry<K, BitSet> value : bitmaps.entrySet()) {
+            int count = intersectionSize(value.getValue(), selection);
+            if (count > 0) {
+                counts.put(String.valueOf(value.getKey()), count);
+            }
+        }
+    }
+
+    private int intersectionSize(BitSet bits, BitSet selection) {
+        scratch.clear();
+        scratch.or(bits);
+        scratch.and(selection);
+        return scratch.cardinality();
+    }
+
+    private static <K> void setBit(Map<K, BitSet> bitmaps, K key, int id) {
+        if (key != null) {
+            bitmaps.computeIfAbsent(key, k -> new BitSet()).set(id);
+        }
+    }
+
+    private static <K> void clearBit(Map<K, BitSet> bitmaps, K key, int id) {
+        if (key == null) {
+            return;
+        }
+        BitSet bits = bitmaps.get(key);
+        if (bits != null) {
+            bits.clear(id);
+            if (bits.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private static boolean isAvailable(Integer availableCopies) {
+        return availableCopies != null && availableCopies > 0;
+    }
+
+    /**
+     * Facet values an item was indexed under, kept so they can be cleared later.
+     */
+    private static final class Entry {
+        private final String type;
+        private final String publisher;
+        private final Integer year;
+
+        Entry(String type, String publisher, Integer year) {
+            this.type = type;
+            this.publisher = publisher;
+            this.year = year;
+        }
+    }
+}
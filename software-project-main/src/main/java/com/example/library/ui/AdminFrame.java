@@ -1,20 +1,32 @@
 package com.example.library.ui;
 
+import com.example.library.domain.FineWithUserView;
 import com.example.library.domain.Loan;
+import com.example.library.domain.LoanAdminView;
 import com.example.library.domain.MediaItem;
 import com.example.library.domain.User;
 import com.example.library.notification.EmailNotifier;
+import com.example.library.repository.FinePage;
+import com.example.library.repository.Page;
+import com.example.library.repository.SearchCancellation;
 import com.example.library.service.*;
+import com.example.library.service.search.Facet;
+import com.example.library.service.search.FacetFilter;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
 import java.awt.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -37,6 +49,8 @@ public class AdminFrame extends JFrame {
     private final com.example.library.repository.LoanRepository loanRepository;
     
     private JTabbedPane tabbedPane;
+    private final BackgroundLoader loader = new BackgroundLoader(this);
+    private final Map<Component, Runnable> tabLoaders = new HashMap<>();
     
     /**
      * Constructs a new AdminFrame with the specified services and repositories.
@@ -86,6 +100,10 @@ public class AdminFrame extends JFrame {
         tabbedPane.addTab("Fines Overview", createFinesOverviewPanel());
         tabbedPane.addTab("Profile", createProfilePanel());
         
+        // Reload a tab's table whenever it is shown; loads for other tabs are abandoned
+        tabbedPane.addChangeListener(e -> loadSelectedTab());
+        SwingUtilities.invokeLater(this::loadSelectedTab);
+        
         // Add tabbed pane to frame
         add(tabbedPane, BorderLayout.CENTER);
         
@@ -96,6 +114,10 @@ public class AdminFrame extends JFrame {
         welcomeLabel.setFont(new Font("Arial", Font.BOLD, 14));
         headerPanel.add(welcomeLabel, BorderLayout.WEST);
         
+        JPanel progressPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        progressPanel.add(loader.getProgressBar());
+        headerPanel.add(progressPanel, BorderLayout.CENTER);
+        
         JButton logoutButton = new JButton("Logout");
         logoutButton.addActionListener(e -> logout());
         headerPanel.add(logoutButton, BorderLayout.EAST);
@@ -103,6 +125,17 @@ public class AdminFrame extends JFrame {
         add(headerPanel, BorderLayout.NORTH);
     }
     
+    /**
+     * Cancels any table loads still running and starts the load for the selected tab.
+     */
+    private void loadSelectedTab() {
+        loader.cancelAll();
+        Runnable tabLoader = tabLoaders.get(tabbedPane.getSelectedComponent());
+        if (tabLoader != null) {
+            tabLoader.run();
+        }
+    }
+    
     /**
      * Creates and returns the panel for adding new media items to the library.
      * Provides form fields for item details including title, author, type, and copies.
@@ -296,20 +329,46 @@ public class AdminFrame extends JFrame {
         JButton showAllButton = new JButton("Show All");
         searchPanel.add(showAllButton);
         
-        panel.add(searchPanel, BorderLayout.NORTH);
+        // Facet filter panel
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        filterPanel.add(new JLabel("Type:"));
+        JComboBox<String> typeFilterCombo = new JComboBox<>(new String[]{"All", "BOOK", "CD", "DVD"});
+        filterPanel.add(typeFilterCombo);
+        filterPanel.add(new JLabel("Publisher:"));
+        JTextField publisherFilterField = new JTextField(15);
+        filterPanel.add(publisherFilterField);
+        JCheckBox availableOnlyBox = new JCheckBox("Available only");
+        filterPanel.add(availableOnlyBox);
+        JButton filterButton = new JButton("Filter");
+        filterPanel.add(filterButton);
+        JLabel facetCountsLabel = new JLabel();
+        filterPanel.add(facetCountsLabel);
+        
+        JPanel topPanel = new JPanel(new GridLayout(2, 1));
+        topPanel.add(searchPanel);
+        topPanel.add(filterPanel);
+        panel.add(topPanel, BorderLayout.NORTH);
         
         // Table
-        String[] columns = {"ID", "Title", "Author", "Type", "ISBN", "Publisher", "Available/Total"};
-        DefaultTableModel tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        PagedTableModel<MediaItem> tableModel = new PagedTableModel<>("items", Arrays.asList(
+                PagedTableModel.Column.of("ID", Integer.class, MediaItem::getItemId),
+                PagedTableModel.Column.of("Title", String.class, MediaItem::getTitle),
+                PagedTableModel.Column.of("Author", String.class, MediaItem::getAuthor),
+                PagedTableModel.Column.of("Type", String.class, MediaItem::getType),
+                PagedTableModel.Column.of("ISBN", String.class, MediaItem::getIsbn),
+                PagedTableModel.Column.of("Publisher", String.class, MediaItem::getPublisher),
+                PagedTableModel.Column.of("Available/Total", String.class,
+                        item -> item.getAvailableCopies() + "/" + item.getTotalCopies())), loader);
         JTable table = new JTable(tableModel);
         JScrollPane scrollPane = new JScrollPane(table);
         panel.add(scrollPane, BorderLayout.CENTER);
         
+        // Search as the admin types, once typing pauses
+        SearchAsYouType itemSearch = new SearchAsYouType(searchField, loader, "items",
+                SearchAsYouType.DEFAULT_DELAY_MS, this::searchItems,
+                tableModel::setRows, ex -> JOptionPane.showMessageDialog(this, "Error searching items: " + ex.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE));
+        
         // Action buttons panel
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 10));
         
@@ -320,76 +379,83 @@ public class AdminFrame extends JFrame {
         
         JButton editButton = new JButton("Edit Item");
         editButton.setPreferredSize(new Dimension(120, 30));
-        editButton.addActionListener(e -> editItem(table, tableModel));
+        editButton.addActionListener(e -> editItem(table, itemSearch));
         buttonPanel.add(editButton);
         
         JButton deleteButton = new JButton("Delete Item");
         deleteButton.setPreferredSize(new Dimension(120, 30));
-        deleteButton.addActionListener(e -> deleteItem(table, tableModel));
+        deleteButton.addActionListener(e -> deleteItem(table, itemSearch));
         buttonPanel.add(deleteButton);
         
         panel.add(buttonPanel, BorderLayout.SOUTH);
         
         // Search action
-        searchButton.addActionListener(e -> {
-            String keyword = searchField.getText().trim();
-            searchItems(tableModel, keyword);
-        });
+        searchButton.addActionListener(e -> itemSearch.searchNow());
         
         // Show All action
         showAllButton.addActionListener(e -> {
             searchField.setText("");
-            searchItems(tableModel, "");
+            itemSearch.searchNow();
         });
         
         // Allow Enter key to trigger search
         searchField.addActionListener(e -> searchButton.doClick());
         
-        // Load all items initially
-        searchItems(tableModel, "");
+        // Filter action
+        filterButton.addActionListener(e -> {
+            FacetFilter filter = new FacetFilter();
+            if (typeFilterCombo.getSelectedIndex() > 0) {
+                filter.type((String) typeFilterCombo.getSelectedItem());
+            }
+            String publisher = publisherFilterField.getText().trim();
+            if (!publisher.isEmpty()) {
+                filter.publisher(publisher);
+            }
+            if (availableOnlyBox.isSelected()) {
+                filter.availableOnly();
+            }
+            filterItems(filter, tableModel, facetCountsLabel);
+        });
+        publisherFilterField.addActionListener(e -> filterButton.doClick());
+        
+        // Reload items whenever the tab is shown, since they may have changed meanwhile
+        tabLoaders.put(panel, itemSearch::refresh);
         
         return panel;
     }
     
-    private void searchItems(DefaultTableModel tableModel, String keyword) {
-        try {
-            List<MediaItem> items;
-            
-            // If keyword is a number, search by exact ID
-            if (keyword.trim().matches("\\d+")) {
-                try {
-                    int itemId = Integer.parseInt(keyword.trim());
-                    Optional<MediaItem> item = mediaItemRepository.findById(itemId);
-                    items = item.isPresent() ? java.util.Collections.singletonList(item.get()) : new ArrayList<>();
-                } catch (NumberFormatException e) {
-                    items = new ArrayList<>();
-                }
-            } else {
-                // Otherwise, search by keyword across title, author, ISBN, type
-                items = libraryService.searchItems(keyword);
+    /**
+     * Shows the items matching a facet filter, and how many items of each type it matches.
+     */
+    private void filterItems(FacetFilter filter, PagedTableModel<MediaItem> tableModel, JLabel facetCountsLabel) {
+        loader.load("items", () -> libraryService.findItemsByFacets(filter), tableModel::setRows,
+                ex -> JOptionPane.showMessageDialog(this, "Error filtering items: " + ex.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE));
+        loader.load("itemFacetCounts", () -> libraryService.getFacetCounts(Facet.TYPE, filter), counts -> {
+            StringBuilder text = new StringBuilder();
+            for (Map.Entry<String, Integer> count : counts.entrySet()) {
+                text.append(text.length() == 0 ? "" : ", ").append(count.getKey()).append(": ").append(count.getValue());
             }
-            
-            // Clear table
-            tableModel.setRowCount(0);
-            
-            // Add items to table
-            for (MediaItem item : items) {
-                Object[] row = {
-                        item.getItemId(),
-                        item.getTitle(),
-                        item.getAuthor(),
-                        item.getType(),
-                        item.getIsbn() != null ? item.getIsbn() : "",
-                        item.getPublisher() != null ? item.getPublisher() : "",
-                        item.getAvailableCopies() + "/" + item.getTotalCopies()
-                };
-                tableModel.addRow(row);
+            facetCountsLabel.setText(text.toString());
+        }, ex -> facetCountsLabel.setText(""));
+    }
+    
+    /**
+     * Runs an item search; called off the EDT by the search field.
+     */
+    private List<MediaItem> searchItems(String keyword, SearchCancellation cancellation) {
+        // If keyword is a number, search by exact ID
+        if (keyword.matches("\\d+")) {
+            try {
+                int itemId = Integer.parseInt(keyword);
+                Optional<MediaItem> item = mediaItemRepository.findById(itemId);
+                return item.isPresent() ? Collections.singletonList(item.get()) : new ArrayList<MediaItem>();
+            } catch (NumberFormatException e) {
+                return new ArrayList<MediaItem>();
             }
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error searching items: " + ex.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
         }
+        // Otherwise, search by keyword across title, author, ISBN, type
+        return libraryService.searchItems(keyword, cancellation);
     }
     
     private void viewItemDetails(JTable table) {
@@ -460,7 +526,7 @@ public class AdminFrame extends JFrame {
         panel.add(new JLabel(value), gbc);
     }
     
-    private void editItem(JTable table, DefaultTableModel tableModel) {
+    private void editItem(JTable table, SearchAsYouType itemSearch) {
         int selectedRow = table.getSelectedRow();
         if (selectedRow == -1) {
             JOptionPane.showMessageDialog(this, "Please select an item first",
@@ -550,13 +616,13 @@ public class AdminFrame extends JFrame {
                     item.setAvailableCopies(availableCopies);
                     item.setLateFeesPerDay(new BigDecimal(lateFeesField.getText().trim()));
                     
-                    mediaItemRepository.update(item);
+                    libraryService.updateMediaItem(item);
                     
                     JOptionPane.showMessageDialog(dialog, "Item updated successfully!",
                             "Success", JOptionPane.INFORMATION_MESSAGE);
                     
                     // Refresh table
-                    searchItems(tableModel, "");
+                    itemSearch.refresh();
                     dialog.dispose();
                     
                 } catch (Exception ex) {
@@ -582,7 +648,7 @@ public class AdminFrame extends JFrame {
         }
     }
     
-    private void deleteItem(JTable table, DefaultTableModel tableModel) {
+    private void deleteItem(JTable table, SearchAsYouType itemSearch) {
         int selectedRow = table.getSelectedRow();
         if (selectedRow == -1) {
             JOptionPane.showMessageDialog(this, "Please select an item first",
@@ -599,13 +665,13 @@ public class AdminFrame extends JFrame {
                     "Confirm Delete", JOptionPane.YES_NO_OPTION, JOptionPane.WARNING_MESSAGE);
             
             if (confirm == JOptionPane.YES_OPTION) {
-                mediaItemRepository.deleteById(itemId);
+                libraryService.deleteMediaItem(itemId);
                 
                 JOptionPane.showMessageDialog(this, "Item deleted successfully!",
                         "Success", JOptionPane.INFORMATION_MESSAGE);
                 
                 // Refresh table
-                searchItems(tableModel, "");
+                itemSearch.refresh();
             }
             
         } catch (Exception ex) {
@@ -625,55 +691,33 @@ public class AdminFrame extends JFrame {
         panel.add(headerPanel, BorderLayout.NORTH);
         
         // Table
-        String[] columns = {"Loan ID", "User ID", "Item ID", "Loan Date", "Due Date", "Days Overdue", "Status"};
-        DefaultTableModel tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        PagedTableModel<Loan> tableModel = new PagedTableModel<>("overdueLoans", Arrays.asList(
+                PagedTableModel.Column.of("Loan ID", Integer.class, Loan::getLoanId),
+                PagedTableModel.Column.of("User ID", Integer.class, Loan::getUserId),
+                PagedTableModel.Column.of("Item ID", Integer.class, Loan::getItemId),
+                PagedTableModel.Column.of("Loan Date", LocalDate.class, Loan::getLoanDate),
+                PagedTableModel.Column.of("Due Date", LocalDate.class, Loan::getDueDate),
+                PagedTableModel.Column.of("Days Overdue", Long.class,
+                        loan -> ChronoUnit.DAYS.between(loan.getDueDate(), LocalDate.now())),
+                PagedTableModel.Column.of("Status", String.class, Loan::getStatus)), loader);
         JTable table = new JTable(tableModel);
+        CellFormats.install(table);
         JScrollPane scrollPane = new JScrollPane(table);
         panel.add(scrollPane, BorderLayout.CENTER);
         
         // Refresh action
         refreshButton.addActionListener(e -> loadOverdueLoans(tableModel));
         
-        // Load overdue loans initially
-        loadOverdueLoans(tableModel);
+        // Load overdue loans whenever the tab is shown
+        tabLoaders.put(panel, () -> loadOverdueLoans(tableModel));
         
         return panel;
     }
     
-    private void loadOverdueLoans(DefaultTableModel tableModel) {
-        try {
-            LocalDate today = LocalDate.now();
-            List<Loan> overdueLoans = libraryService.getOverdueLoans(today);
-            
-            // Clear table
-            tableModel.setRowCount(0);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-            
-            // Add loans to table
-            for (Loan loan : overdueLoans) {
-                long daysOverdue = java.time.temporal.ChronoUnit.DAYS.between(loan.getDueDate(), today);
-                Object[] row = {
-                        loan.getLoanId(),
-                        loan.getUserId(),
-                        loan.getItemId(),
-                        loan.getLoanDate().format(formatter),
-                        loan.getDueDate().format(formatter),
-                        daysOverdue,
-                        loan.getStatus()
-                };
-                tableModel.addRow(row);
-            }
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading overdue loans: " + ex.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
+    private void loadOverdueLoans(PagedTableModel<Loan> tableModel) {
+        LocalDate today = LocalDate.now();
+        loader.load("overdueLoans", () -> libraryService.getOverdueLoans(today), tableModel::setRows, ex -> JOptionPane.showMessageDialog(this, "Error loading overdue loans: " + ex.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE));
     }
     
     private JPanel createUserLoansPanel() {
@@ -693,14 +737,18 @@ public class AdminFrame extends JFrame {
         panel.add(inputPanel, BorderLayout.NORTH);
         
         // Table
-        String[] columns = {"Loan ID", "User ID", "Item ID", "Loan Date", "Due Date", "Return Date", "Status"};
-        DefaultTableModel tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        PagedTableModel<LoanAdminView> tableModel = new PagedTableModel<>("loans", Arrays.asList(
+                PagedTableModel.Column.of("Loan ID", Integer.class, view -> view.getLoan().getLoanId()),
+                PagedTableModel.Column.of("User ID", Integer.class, view -> view.getLoan().getUserId()),
+                PagedTableModel.Column.of("Username", String.class, LoanAdminView::getUsername),
+                PagedTableModel.Column.of("Item ID", Integer.class, view -> view.getLoan().getItemId()),
+                PagedTableModel.Column.of("Title", String.class, LoanAdminView::getItemTitle),
+                PagedTableModel.Column.of("Loan Date", LocalDate.class, view -> view.getLoan().getLoanDate()),
+                PagedTableModel.Column.of("Due Date", LocalDate.class, view -> view.getLoan().getDueDate()),
+                PagedTableModel.Column.of("Return Date", LocalDate.class, view -> view.getLoan().getReturnDate()),
+                PagedTableModel.Column.of("Status", String.class, view -> view.getLoan().getStatus())), loader);
         JTable table = new JTable(tableModel);
+        CellFormats.install(table);
         JScrollPane scrollPane = new JScrollPane(table);
         panel.add(scrollPane, BorderLayout.CENTER);
         
@@ -715,7 +763,7 @@ public class AdminFrame extends JFrame {
             
             try {
                 int userId = Integer.parseInt(userIdStr);
-                loadUserLoansForAdmin(tableModel, userId);
+                loadLoansForAdmin(tableModel, userId);
             } catch (NumberFormatException ex) {
                 JOptionPane.showMessageDialog(this, "User ID must be a number",
                         "Validation Error", JOptionPane.ERROR_MESSAGE);
@@ -725,84 +773,47 @@ public class AdminFrame extends JFrame {
         // Show All action
         showAllButton.addActionListener(e -> {
             userIdField.setText("");
-            loadAllLoansForAdmin(tableModel);
+            loadLoansForAdmin(tableModel, null);
         });
         
-        // Load all loans initially
-        loadAllLoansForAdmin(tableModel);
+        // Load all loans whenever the tab is shown, unless a user filter is active
+        tabLoaders.put(panel, () -> {
+            if (userIdField.getText().trim().isEmpty()) {
+                loadLoansForAdmin(tableModel, null);
+            }
+        });
         
         return panel;
     }
     
-    private void loadUserLoansForAdmin(DefaultTableModel tableModel, int userId) {
-        try {
-            List<Loan> loans = libraryService.getUserLoans(userId);
-            
-            // Clear table
-            tableModel.setRowCount(0);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-            
-            // Add loans to table
-            for (Loan loan : loans) {
-                Object[] row = {
-                        loan.getLoanId(),
-                        loan.getUserId(),
-                        loan.getItemId(),
-                        loan.getLoanDate().format(formatter),
-                        loan.getDueDate().format(formatter),
-                        loan.getReturnDate() != null ? loan.getReturnDate().format(formatter) : "",
-                        loan.getStatus()
-                };
-                tableModel.addRow(row);
+    /**
+     * Pages through the loans of one user, or of everyone when userId is null.
+     * Each page is a single query joining the borrower and item and counting
+     * the whole result, and only the pages scrolled into view are fetched.
+     */
+    private void loadLoansForAdmin(PagedTableModel<LoanAdminView> tableModel, Integer userId) {
+        tableModel.load(new PagedTableModel.RowSource<LoanAdminView>() {
+            @Override
+            public int count() {
+                return loanRepository.findAdminView(userId, 0, 1).getTotalCount();
             }
             
-            if (loans.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "No loans found for user ID: " + userId,
-                        "Info", JOptionPane.INFORMATION_MESSAGE);
+            @Override
+            public List<LoanAdminView> fetch(int offset, int limit) {
+                return loanRepository.findAdminView(userId, offset, limit).getRows();
             }
             
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading user loans: " + ex.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-    
-    private void loadAllLoansForAdmin(DefaultTableModel tableModel) {
-        try {
-            // Get all loans from all users
-            List<Loan> allLoans = new ArrayList<>();
-            
-            // Get all users and their loans
-            List<User> users = userRepository.findAll();
-            for (User user : users) {
-                List<Loan> userLoans = libraryService.getUserLoans(user.getUserId());
-                allLoans.addAll(userLoans);
+            @Override
+            public Page<LoanAdminView> fetchFirst(int limit) {
+                return loanRepository.findAdminView(userId, 0, limit);
             }
-            
-            // Clear table
-            tableModel.setRowCount(0);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-            
-            // Add all loans to table
-            for (Loan loan : allLoans) {
-                Object[] row = {
-                        loan.getLoanId(),
-                        loan.getUserId(),
-                        loan.getItemId(),
-                        loan.getLoanDate().format(formatter),
-                        loan.getDueDate().format(formatter),
-                        loan.getReturnDate() != null ? loan.getReturnDate().format(formatter) : "",
-                        loan.getStatus()
-                };
-                tableModel.addRow(row);
+        }, count -> {
+            if (userId != null && count == 0) {
+                JOptionPane.showMessageDialog(this, "No loans found for user ID: " + userId,
+                        "Info", JOptionPane.INFORMATION_MESSAGE);
             }
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading all loans: " + ex.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, ex -> JOptionPane.showMessageDialog(this, "Error loading loans: " + ex.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE));
     }
     
     private JPanel createFinesOverviewPanel() {
@@ -822,14 +833,17 @@ public class AdminFrame extends JFrame {
         panel.add(inputPanel, BorderLayout.NORTH);
         
         // Table
-        String[] columns = {"Fine ID", "User ID", "Loan ID", "Amount (NIS)", "Issued Date", "Status", "Paid Date"};
-        DefaultTableModel tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        PagedTableModel<FineWithUserView> tableModel = new PagedTableModel<>("fines", Arrays.asList(
+                PagedTableModel.Column.of("Fine ID", Integer.class, view -> view.getFine().getFineId()),
+                PagedTableModel.Column.of("User ID", Integer.class, FineWithUserView::getUserId),
+                PagedTableModel.Column.of("Username", String.class, FineWithUserView::getUsername),
+                PagedTableModel.Column.of("Loan ID", Integer.class, view -> view.getFine().getLoanId()),
+                PagedTableModel.Column.of("Amount (NIS)", BigDecimal.class, view -> view.getFine().getAmount()),
+                PagedTableModel.Column.of("Issued Date", LocalDate.class, view -> view.getFine().getIssuedDate()),
+                PagedTableModel.Column.of("Status", String.class, view -> view.getFine().getStatus()),
+                PagedTableModel.Column.of("Paid Date", LocalDate.class, view -> view.getFine().getPaidDate())), loader);
         JTable table = new JTable(tableModel);
+        CellFormats.install(table);
         JScrollPane scrollPane = new JScrollPane(table);
         panel.add(scrollPane, BorderLayout.CENTER);
         
@@ -861,106 +875,65 @@ public class AdminFrame extends JFrame {
         // Show All action
         showAllButton.addActionListener(e -> {
             userIdField.setText("");
-            loadAllFinesForAdmin(tableModel, totalLabel);
+            loadFinesForAdmin(tableModel, totalLabel, null);
         });
         
-        // Load all fines initially
-        loadAllFinesForAdmin(tableModel, totalLabel);
+        // Load all fines whenever the tab is shown, unless a user filter is active
+        tabLoaders.put(panel, () -> {
+            if (userIdField.getText().trim().isEmpty()) {
+                loadFinesForAdmin(tableModel, totalLabel, null);
+            }
+        });
         
         return panel;
     }
     
-    private void loadFinesForAdmin(DefaultTableModel tableModel, JLabel totalLabel, int searchUserId) {
-        try {
-            List<com.example.library.domain.Fine> allFines = fineRepository.findAll();
-            List<com.example.library.domain.Fine> filteredFines = new ArrayList<>();
-            BigDecimal total = BigDecimal.ZERO;
-            
-            // Filter fines by userId
-            for (com.example.library.domain.Fine fine : allFines) {
-                Optional<Loan> loanOpt = loanRepository.findById(fine.getLoanId());
-                if (loanOpt.isPresent() && loanOpt.get().getUserId().equals(searchUserId)) {
-                    filteredFines.add(fine);
-                    if ("UNPAID".equals(fine.getStatus())) {
-                        total = total.add(fine.getAmount());
-                    }
-                }
-            }
-            
-            // Clear table
-            tableModel.setRowCount(0);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-            
-            // Add fines to table
-            for (com.example.library.domain.Fine fine : filteredFines) {
-                Object[] row = {
-                        fine.getFineId(),
-                        searchUserId,
-                        fine.getLoanId(),
-                        String.format("%.2f", fine.getAmount()),
-                        fine.getIssuedDate().format(formatter),
-                        fine.getStatus(),
-                        fine.getPaidDate() != null ? fine.getPaidDate().format(formatter) : ""
-                };
-                tableModel.addRow(row);
-            }
-            
-            totalLabel.setText(String.format("Total Unpaid: %.2f NIS", total));
+    /**
+     * Pages through the fines of one user, or of everyone when userId is null.
+     * The first page's query also returns the unpaid total of the whole result.
+     */
+    private void loadFinesForAdmin(PagedTableModel<FineWithUserView> tableModel, JLabel totalLabel, Integer userId) {
+        FineSource source = new FineSource(fineRepository, userId);
+        tableModel.load(source, count -> {
+            totalLabel.setText(String.format("Total Unpaid: %.2f NIS", source.totalUnpaid));
             
-            if (filteredFines.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "No fines found for user ID: " + searchUserId,
+            if (userId != null && count == 0) {
+                JOptionPane.showMessageDialog(this, "No fines found for user ID: " + userId,
                         "Info", JOptionPane.INFORMATION_MESSAGE);
             }
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading fines: " + ex.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, ex -> JOptionPane.showMessageDialog(this, "Error loading fines: " + ex.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE));
     }
     
-    private void loadAllFinesForAdmin(DefaultTableModel tableModel, JLabel totalLabel) {
-        try {
-            // Get all fines
-            List<com.example.library.domain.Fine> allFines = fineRepository.findAll();
-            BigDecimal totalUnpaid = BigDecimal.ZERO;
-            
-            // Clear table
-            tableModel.setRowCount(0);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-            
-            // Add all fines to table
-            for (com.example.library.domain.Fine fine : allFines) {
-                // Get userId from loan
-                Integer userId = null;
-                Optional<Loan> loanOpt = loanRepository.findById(fine.getLoanId());
-                if (loanOpt.isPresent()) {
-                    userId = loanOpt.get().getUserId();
-                }
-                
-                Object[] row = {
-                        fine.getFineId(),
-                        userId != null ? userId : "N/A",
-                        fine.getLoanId(),
-                        String.format("%.2f", fine.getAmount()),
-                        fine.getIssuedDate().format(formatter),
-                        fine.getStatus(),
-                        fine.getPaidDate() != null ? fine.getPaidDate().format(formatter) : ""
-                };
-                tableModel.addRow(row);
-                
-                // Calculate total unpaid
-                if ("UNPAID".equals(fine.getStatus())) {
-                    totalUnpaid = totalUnpaid.add(fine.getAmount());
-                }
-            }
-            
-            totalLabel.setText(String.format("Total Unpaid: %.2f NIS", totalUnpaid));
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading all fines: " + ex.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
+    /**
+     * Fines overview rows for one user or everyone, remembering the unpaid
+     * total returned with the first page.
+     */
+    private static final class FineSource implements PagedTableModel.RowSource<FineWithUserView> {
+        private final com.example.library.repository.FineRepository fineRepository;
+        private final Integer userId;
+        private volatile BigDecimal totalUnpaid = BigDecimal.ZERO;
+        
+        FineSource(com.example.library.repository.FineRepository fineRepository, Integer userId) {
+            this.fineRepository = fineRepository;
+            this.userId = userId;
+        }
+        
+        @Override
+        public int count() {
+            return fetchFirst(1).getTotalCount();
+        }
+        
+        @Override
+        public List<FineWithUserView> fetch(int offset, int limit) {
+            return fineRepository.findWithUsers(userId, offset, limit).getRows();
+        }
+        
+        @Override
+        public Page<FineWithUserView> fetchFirst(int limit) {
+            FinePage page = fineRepository.findWithUsers(userId, 0, limit);
+            totalUnpaid = page.getTotalUnpaid();
+            return page;
         }
     }
     
@@ -1085,14 +1058,14 @@ public class AdminFrame extends JFrame {
         panel.add(topPanel, BorderLayout.NORTH);
         
         // Table to display users
-        String[] columns = {"User ID", "Username", "Email", "Role", "Created At"};
-        DefaultTableModel tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        PagedTableModel<User> tableModel = new PagedTableModel<>("users", Arrays.asList(
+                PagedTableModel.Column.of("User ID", Integer.class, User::getUserId),
+                PagedTableModel.Column.of("Username", String.class, User::getUsername),
+                PagedTableModel.Column.of("Email", String.class, User::getEmail),
+                PagedTableModel.Column.of("Role", String.class, User::getRole),
+                PagedTableModel.Column.of("Created At", LocalDateTime.class, User::getCreatedAt)), loader);
         JTable userTable = new JTable(tableModel);
+        CellFormats.install(userTable);
         userTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         JScrollPane scrollPane = new JScrollPane(userTable);
         panel.add(scrollPane, BorderLayout.CENTER);
@@ -1101,47 +1074,31 @@ public class AdminFrame extends JFrame {
         panel.putClientProperty("tableModel", tableModel);
         panel.putClientProperty("userTable", userTable);
         
-        // Load users initially
-        loadUsers(tableModel);
+        // Load users whenever the tab is shown
+        tabLoaders.put(panel, () -> loadUsers(tableModel));
         
         return panel;
     }
     
     /**
-     * Loads all users from the database and displays them in the user table.
-     * Formats user data including creation timestamp for display.
+     * Loads all users from the database in the background and displays them in the user table.
+     * The creation timestamp is formatted by the table's renderer.
      * 
      * @param tableModel the table model to populate with user data
      */
-    private void loadUsers(DefaultTableModel tableModel) {
-        try {
-            List<User> users = userRepository.findAll();
-            tableModel.setRowCount(0);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-            for (User user : users) {
-                Object[] row = {
-                    user.getUserId(),
-                    user.getUsername(),
-                    user.getEmail(),
-                    user.getRole(),
-                    user.getCreatedAt().format(formatter)
-                };
-                tableModel.addRow(row);
-            }
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading users: " + ex.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
+    private void loadUsers(PagedTableModel<User> tableModel) {
+        loader.load("users", userRepository::findAll, tableModel::setRows, ex -> JOptionPane.showMessageDialog(this, "Error loading users: " + ex.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE));
     }
     
     /**
      * Refreshes the user management table by reloading all users from database.
      * Retrieves the table model from the User Management tab and updates it.
      */
+    @SuppressWarnings("unchecked")
     private void refreshUserTable() {
         JPanel userManagementPanel = (JPanel) tabbedPane.getComponentAt(2); // User Management is 3rd tab (index 2)
-        DefaultTableModel tableModel = (DefaultTableModel) userManagementPanel.getClientProperty("tableModel");
+        PagedTableModel<User> tableModel = (PagedTableModel<User>) userManagementPanel.getClientProperty("tableModel");
         loadUsers(tableModel);
     }
     
@@ -1259,7 +1216,7 @@ public class AdminFrame extends JFrame {
                 
                 User savedUser = userRepository.save(newUser);
                 
-                // Send welcome email (best-effort - failures are logged inside EmailNotifier)
+                // Send welcome email (best-effort - delivery is queued and failures are logged by the mail sender)
                 try {
                     EmailNotifier notifier = new EmailNotifier();
                     notifier.notify(savedUser,
@@ -1303,7 +1260,7 @@ public class AdminFrame extends JFrame {
     private void editUser() {
         JPanel userManagementPanel = (JPanel) tabbedPane.getComponentAt(2); // User Management tab
         JTable userTable = (JTable) userManagementPanel.getClientProperty("userTable");
-        DefaultTableModel tableModel = (DefaultTableModel) userManagementPanel.getClientProperty("tableModel");
+        TableModel tableModel = (TableModel) userManagementPanel.getClientProperty("tableModel");
         
         int selectedRow = userTable.getSelectedRow();
         if (selectedRow == -1) {
@@ -1475,7 +1432,7 @@ public class AdminFrame extends JFrame {
     private void deleteUser() {
         JPanel userManagementPanel = (JPanel) tabbedPane.getComponentAt(2); // User Management tab
         JTable userTable = (JTable) userManagementPanel.getClientProperty("userTable");
-        DefaultTableModel tableModel = (DefaultTableModel) userManagementPanel.getClientProperty("tableModel");
+        TableModel tableModel = (TableModel) userManagementPanel.getClientProperty("tableModel");
         
         int selectedRow = userTable.getSelectedRow();
         if (selectedRow == -1) {
@@ -1543,6 +1500,7 @@ public class AdminFrame extends JFrame {
         int choice = JOptionPane.showConfirmDialog(this, "Are you sure you want to logout?",
                 "Logout", JOptionPane.YES_NO_OPTION);
         if (choice == JOptionPane.YES_OPTION) {
+            loader.shutdown();
             dispose();
             // Reopen login frame
             SwingUtilities.invokeLater(() -> {
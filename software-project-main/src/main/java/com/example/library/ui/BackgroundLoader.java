@@ -0,0 +1,180 @@
+package com.example.library.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs table queries off the Event Dispatch Thread so the window stays responsive.
+ * Each load is identified by a key (usually one per table). Starting a new load
+ * with the same key cancels the previous one, and a load whose result arrives
+ * after it was cancelled or superseded is silently dropped, so a slow old query
+ * can never overwrite the rows of a newer one.
+ *
+ * Queries run on up to {@value #MAX_CONCURRENT_LOADS} daemon threads, so the
+ * tables of one window load in parallel, each on its own pooled connection.
+ * The limit keeps a window from taking most of the connection pool. A cancelled
+ * query that has not started yet is skipped entirely. A query that is already
+ * running finishes in the background and its result is ignored. While anything is loading, the progress bar returned by
+ * {@link #getProgressBar()} is shown and the owner gets a wait cursor.
+ *
+ * All methods must be called on the Event Dispatch Thread.
+ */
+public class BackgroundLoader {
+
+    /** Number of queries one loader runs at the same time. */
+    static final int MAX_CONCURRENT_LOADS = 3;
+
+    private final Component owner;
+    private final JProgressBar progressBar;
+    private final ExecutorService executor;
+    private final Map<String, LoadTask<?>> running = new HashMap<>();
+
+    /**
+     * Creates a loader for a window or panel.
+     *
+     * @param owner the component that shows a wait cursor while loading
+     */
+    public BackgroundLoader(Component owner) {
+        this.owner = owner;
+        this.progressBar = new JProgressBar();
+        this.progressBar.setIndeterminate(true);
+        this.progressBar.setStringPainted(true);
+        this.progressBar.setString("Loading...");
+        this.progressBar.setVisible(false);
+        this.executor = Executors.newFixedThreadPool(MAX_CONCURRENT_LOADS, runnable -> {
+            Thread thread = new Thread(runnable, "background-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Gets the progress bar that is visible while a load is in progress.
+     * Callers add it to their layout once.
+     *
+     * @return the progress bar
+     */
+    public JProgressBar getProgressBar() {
+        return progressBar;
+    }
+
+    /**
+     * Starts a background load, cancelling any load already running under the same key.
+     *
+     * @param key identifies the table or view being loaded
+     * @param query the work to run off the EDT; must not touch Swing components
+     * @param onSuccess receives the result on the EDT unless the load was cancelled or superseded
+     * @param onError receives the failure on the EDT unless the load was cancelled or superseded
+     * @param <T> the result type
+     */
+    public <T> void load(String key, Callable<T> query, Consumer<T> onSuccess, Consumer<Exception> onError) {
+        checkEventDispatchThread();
+        cancel(key);
+        LoadTask<T> task = new LoadTask<>(key, query, onSuccess, onError);
+        running.put(key, task);
+        updateBusyState();
+        executor.execute(task);
+    }
+
+    /**
+     * Cancels the load running under a key, if any. Its result will be discarded.
+     *
+     * @param key the key passed to {@link #load}
+     */
+    public void cancel(String key) {
+        checkEventDispatchThread();
+        LoadTask<?> task = running.remove(key);
+        if (task != null) {
+            // Not interrupting: an interrupted JDBC call can close the connection it is using
+            task.cancel(false);
+            updateBusyState();
+        }
+    }
+
+    /**
+     * Cancels every running load, for example when the user switches tabs.
+     */
+    public void cancelAll() {
+        checkEventDispatchThread();
+        for (String key : new ArrayList<>(running.keySet())) {
+            cancel(key);
+        }
+    }
+
+    /**
+     * Checks whether a load is in progress under a key.
+     *
+     * @param key the key passed to {@link #load}
+     * @return true if a load has been started and has not finished or been cancelled
+     */
+    public boolean isLoading(String key) {
+        return running.containsKey(key);
+    }
+
+    /**
+     * Cancels all loads and stops the worker threads. Call when the owning window is disposed.
+     */
+    public void shutdown() {
+        cancelAll();
+        executor.shutdown();
+    }
+
+    private void updateBusyState() {
+        boolean busy = !running.isEmpty();
+        progressBar.setVisible(busy);
+        if (owner != null) {
+            owner.setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+        }
+    }
+
+    private static void checkEventDispatchThread() {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            throw new IllegalStateException("BackgroundLoader must be used on the Event Dispatch Thread");
+        }
+    }
+
+    private final class LoadTask<T> extends SwingWorker<T, Void> {
+        private final String key;
+        private final Callable<T> query;
+        private final Consumer<T> onSuccess;
+        private final Consumer<Exception> onError;
+
+        LoadTask(String key, Callable<T> query, Consumer<T> onSuccess, Consumer<Exception> onError) {
+            this.key = key;
+            this.query = query;
+            this.onSuccess = onSuccess;
+            this.onError = onError;
+        }
+
+        @Override
+        protected T doInBackground() throws Exception {
+            return query.call();
+        }
+
+        @Override
+        protected void done() {
+            if (running.get(key) != this) {
+                // Cancelled or replaced by a newer load: the result is stale
+                return;
+            }
+            running.remove(key);
+            updateBusyState();
+            try {
+                onSuccess.accept(get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                onError.accept(cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.library.ui;
+
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Renderers that format raw cell values when a cell is painted, so a table
+ * model can hold dates and amounts as-is and only the visible cells are ever
+ * converted to text. The formatters are shared by every table.
+ */
+public final class CellFormats {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private CellFormats() {
+    }
+
+    /**
+     * Installs the date, date-time and amount renderers on a table.
+     *
+     * @param table the table whose model reports {@link LocalDate},
+     *              {@link LocalDateTime} or {@link BigDecimal} column classes
+     */
+    public static void install(JTable table) {
+        table.setDefaultRenderer(LocalDate.class, new Renderer() {
+            @Override
+            String format(Object value) {
+                return DATE.format((LocalDate) value);
+            }
+        });
+        table.setDefaultRenderer(LocalDateTime.class, new Renderer() {
+            @Override
+            String format(Object value) {
+                return DATE_TIME.format((LocalDateTime) value);
+            }
+        });
+        table.setDefaultRenderer(BigDecimal.class, new AmountRenderer());
+    }
+
+    private abstract static class Renderer extends DefaultTableCellRenderer {
+        abstract String format(Object value);
+
+        @Override
+        protected void setValue(Object value) {
+            setText(value == null ? "" : format(value));
+        }
+    }
+
+    private static final class AmountRenderer extends Renderer {
+        // DecimalFormat is not thread-safe, but renderers only run on the EDT
+        private final DecimalFormat amount = new DecimalFormat("0.00");
+
+        AmountRenderer() {
+            setHorizontalAlignment(RIGHT);
+        }
+
+        @Override
+        String format(Object value) {
+            return amount.format(value);
+        }
+    }
+}
@@ -1,10 +1,21 @@
 package com.example.library.ui;
 
+import com.example.library.DatabaseConnection;
+import com.example.library.notification.EmailNotifier;
+import com.example.library.notification.SentMessageJournal;
 import com.example.library.repository.*;
 import com.example.library.service.*;
 import com.example.library.service.fine.FineCalculator;
+import com.example.library.service.reminder.ReminderScheduler;
+import com.example.library.service.reservation.ReservationExpiryDaemon;
+import com.library.metrics.Instrumentation;
 
+import javax.sql.DataSource;
 import javax.swing.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalTime;
 
 /**
  * Swing GUI application bootstrapper for the Library Management System.
@@ -16,6 +27,16 @@ import javax.swing.*;
  */
 public class LibraryApplication {
     
+    private static final Duration RESERVATION_EXPIRY_INTERVAL = Duration.ofMinutes(5);
+    private static final int RESERVATION_EXPIRY_CHUNK_SIZE = 500;
+    private static final LocalTime REMINDER_RUN_TIME = LocalTime.of(8, 0);
+    private static final int REMINDER_DAYS_AHEAD = 2;
+    private static final int REMINDER_CHUNK_SIZE = 500;
+    private static final int SENT_MESSAGES_IN_MEMORY = 1_000;
+    private static final Path SENT_MESSAGES_DIRECTORY = Paths.get("logs", "sent-messages");
+    private static final long SENT_MESSAGES_FILE_BYTES = 10L * 1024 * 1024;
+    private static final int SENT_MESSAGES_FILE_COUNT = 5;
+    
     /**
      * Main entry point for the Library Management System GUI application.
      * Initializes all repositories and services with dependency injection,
@@ -24,25 +45,68 @@ public class LibraryApplication {
      * @param args command line arguments (not used)
      */
     public static void main(String[] args) {
-        // Initialize repositories
-        UserRepository userRepository = new JdbcUserRepository();
-        MediaItemRepository mediaItemRepository = new JdbcMediaItemRepository();
-        LoanRepository loanRepository = new JdbcLoanRepository();
-        FineRepository fineRepository = new JdbcFineRepository();
+        // All JDBC repositories share one connection pool, closed when the JVM exits.
+        // They borrow through the transaction manager so service operations can run as one transaction.
+        JdbcTransactionManager transactionManager = new JdbcTransactionManager(DatabaseConnection.getDataSource());
+        DataSource dataSource = transactionManager.getDataSource();
+        
+        // Initialize repositories; every repository and service call is counted and timed, visible over JMX
+        UserRepository userRepository = Instrumentation.instrument(UserRepository.class, new JdbcUserRepository(dataSource));
+        // The facet index behind the item repository answers the admin catalog filters
+        FacetIndexedMediaItemRepository facetIndexedItems = new FacetIndexedMediaItemRepository(
+                new JdbcMediaItemRepository(dataSource), transactionManager);
+        MediaItemRepository mediaItemRepository = Instrumentation.instrument(MediaItemRepository.class, facetIndexedItems);
+        MediaItemFacetRepository facetRepository = Instrumentation.instrument(MediaItemFacetRepository.class, facetIndexedItems);
+        LoanRepository loanRepository = Instrumentation.instrument(LoanRepository.class, new JdbcLoanRepository(dataSource));
+        FineRepository fineRepository = Instrumentation.instrument(FineRepository.class, new JdbcFineRepository(dataSource));
         
         // Initialize FineCalculator
         FineCalculator fineCalculator = new FineCalculator();
         
-        // Initialize services
-        AuthService authService = new AuthServiceImpl(userRepository);
-        LibraryService libraryService = new LibraryServiceImpl(
+        // Initialize services; the library and payment services share one eligibility cache
+        EligibilityCache eligibilityCache = new EligibilityCache(Duration.ofSeconds(30));
+        AuthService authService = Instrumentation.instrument(AuthService.class, new AuthServiceImpl(userRepository));
+        LibraryService libraryService = Instrumentation.instrument(LibraryService.class, new LibraryServiceImpl(
                 userRepository,
                 mediaItemRepository,
                 loanRepository,
                 fineRepository,
-                fineCalculator
-        );
-        PaymentService paymentService = new PaymentServiceImpl(fineRepository);
+                fineCalculator,
+                transactionManager,
+                eligibilityCache,
+                facetRepository
+        ));
+        PaymentService paymentService = Instrumentation.instrument(PaymentService.class,
+                new PaymentServiceImpl(fineRepository, eligibilityCache));
+        
+        // Expire lapsed reservations in the background and hand free copies to the next in line
+        ReservationServiceImpl reservationService = new ReservationServiceImpl(
+                Instrumentation.instrument(ReservationRepository.class, new JdbcReservationRepository(dataSource)),
+                userRepository, mediaItemRepository, transactionManager);
+        // Load the reservation queues now, so the first reservation a user makes is not slowed by it
+        reservationService.rebuildQueueIndex();
+        ReservationExpiryDaemon reservationExpiry = new ReservationExpiryDaemon(
+                reservationService, RESERVATION_EXPIRY_INTERVAL, RESERVATION_EXPIRY_CHUNK_SIZE);
+        
+        // Send due-soon and overdue reminders every morning, keeping older sent messages on disk
+        SentMessageJournal sentReminders = new SentMessageJournal(SENT_MESSAGES_IN_MEMORY,
+                SENT_MESSAGES_DIRECTORY, SENT_MESSAGES_FILE_BYTES, SENT_MESSAGES_FILE_COUNT);
+        ReminderScheduler reminders = new ReminderScheduler(loanRepository,
+                Instrumentation.instrument(ReminderRepository.class, new JdbcReminderRepository(dataSource)),
+                new EmailNotifier(EmailNotifier.getDefaultMailSender(), sentReminders),
+                REMINDER_RUN_TIME, REMINDER_DAYS_AHEAD, REMINDER_CHUNK_SIZE);
+        
+        // Shutdown hooks run concurrently in no fixed order, so one hook closes everything
+        // in dependency order: the background jobs first, then the mail sender and the
+        // journal they write to, and the connection pool they all use last
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            reminders.close();
+            reservationExpiry.close();
+            // Emails go out in the background; give queued ones a chance to leave before exit
+            EmailNotifier.closeDefaultMailSender();
+            sentReminders.close();
+            DatabaseConnection.closeDataSource();
+        }, "library-shutdown"));
         
         // Launch GUI on Event Dispatch Thread
         SwingUtilities.invokeLater(() -> {
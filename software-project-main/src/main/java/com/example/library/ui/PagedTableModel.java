@@ -0,0 +1,327 @@
+package com.example.library.ui;
+
+import com.example.library.repository.Page;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Table model that keeps domain objects instead of pre-formatted rows and only
+ * materializes the rows the table actually asks for.
+ *
+ * Rows come from a {@link RowSource} in fixed-size pages. Pages live in a small
+ * LRU cache; a page that is not cached yet is fetched through the
+ * {@link BackgroundLoader} when the viewport first touches it, and the next page
+ * is prefetched once the user scrolls past the middle of the current one. Rows
+ * whose page is still loading read as {@code null} and are repainted when the
+ * page arrives. In-memory sources skip the loader and are read directly.
+ *
+ * Cell values are the raw column values (dates, amounts); formatting is left to
+ * the renderers installed by {@link CellFormats#install}, so only visible cells
+ * are ever formatted.
+ *
+ * @param <R> the row type
+ */
+public class PagedTableModel<R> extends AbstractTableModel {
+
+    /** Default number of rows fetched per page. */
+    public static final int DEFAULT_PAGE_SIZE = 200;
+
+    /** Default number of pages kept in the cache. */
+    public static final int DEFAULT_MAX_CACHED_PAGES = 10;
+
+    private final String name;
+    private final List<Column<R>> columns;
+    private final BackgroundLoader loader;
+    private final int pageSize;
+    private final int maxCachedPages;
+    private final Map<Integer, List<R>> pages;
+    private final Set<Integer> pendingPages = new HashSet<>();
+
+    private RowSource<R> source = RowSource.of(Collections.emptyList());
+    private int rowCount;
+    private int generation;
+
+    /**
+     * Creates a model with the default page size and cache size.
+     *
+     * @param name a unique name, used to key page loads in the loader
+     * @param columns the column definitions
+     * @param loader the loader that runs page fetches off the EDT
+     */
+    public PagedTableModel(String name, List<Column<R>> columns, BackgroundLoader loader) {
+        this(name, columns, loader, DEFAULT_PAGE_SIZE, DEFAULT_MAX_CACHED_PAGES);
+    }
+
+    /**
+     * Creates a model.
+     *
+     * @param name a unique name, used to key page loads in the loader
+     * @param columns the column definitions
+     * @param loader the loader that runs page fetches off the EDT
+     * @param pageSize the number of rows fetched per page
+     * @param maxCachedPages the number of pages kept before the least recently used is dropped
+     */
+    public PagedTableModel(String name, List<Column<R>> columns, BackgroundLoader loader,
+                           int pageSize, int maxCachedPages) {
+        if (pageSize <= 0 || maxCachedPages < 2) {
+            throw new IllegalArgumentException("pageSize must be positive and maxCachedPages at least 2");
+        }
+        this.name = name;
+        this.columns = new ArrayList<>(columns);
+        this.loader = loader;
+        this.pageSize = pageSize;
+        this.maxCachedPages = maxCachedPages;
+        this.pages = new LinkedHashMap<Integer, List<R>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<R>> eldest) {
+                return size() > PagedTableModel.this.maxCachedPages;
+            }
+        };
+    }
+
+    /**
+     * Replaces the rows with an in-memory list. Must be called on the EDT.
+     *
+     * @param rows the new rows
+     */
+    public void setRows(List<R> rows) {
+        swapSource(RowSource.of(rows), rows.size(), null);
+    }
+
+    /**
+     * Counts the rows of a paged source and fetches its first page in the
+     * background, then swaps it in. Pages fetched for the previous source that
+     * arrive afterwards are discarded. Must be called on the EDT.
+     *
+     * @param newSource the source to page through
+     * @param onLoaded receives the new row count once the source is swapped in
+     * @param onError receives a failure from counting or fetching the first page
+     */
+    public void load(RowSource<R> newSource, Consumer<Integer> onLoaded, Consumer<Exception> onError) {
+        loader.load(name, () -> newSource.fetchFirst(pageSize), firstPage -> {
+            swapSource(newSource, firstPage.getTotalCount(), firstPage.getRows());
+            onLoaded.accept(firstPage.getTotalCount());
+        }, onError);
+    }
+
+    /**
+     * Gets the row object at a position, fetching its page if needed.
+     *
+     * @param rowIndex the model row index
+     * @return the row, or null while its page is loading
+     */
+    public R getRow(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount) {
+            return null;
+        }
+        int page = rowIndex / pageSize;
+        int offsetInPage = rowIndex % pageSize;
+        if (offsetInPage >= pageSize / 2 && (page + 1) * pageSize < rowCount) {
+            requestPage(page + 1);
+        }
+        List<R> rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page);
+            rows = pages.get(page);
+        }
+        return rows != null && offsetInPage < rows.size() ? rows.get(offsetInPage) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns.get(column).name;
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return columns.get(column).type;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        R row = getRow(rowIndex);
+        return row == null ? null : columns.get(columnIndex).value.apply(row);
+    }
+
+    int cachedPageCount() {
+        return pages.size();
+    }
+
+    private void swapSource(RowSource<R> newSource, int count, List<R> firstPage) {
+        generation++;
+        source = newSource;
+        rowCount = count;
+        pages.clear();
+        for (Integer page : pendingPages) {
+            loader.cancel(pageKey(page));
+        }
+        pendingPages.clear();
+        if (firstPage != null) {
+            pages.put(0, firstPage);
+        }
+        fireTableDataChanged();
+    }
+
+    private void requestPage(int page) {
+        // A pending page whose load was cancelled from outside (e.g. a tab switch) is requested again
+        if (pages.containsKey(page) || (pendingPages.contains(page) && loader.isLoading(pageKey(page)))) {
+            return;
+        }
+        RowSource<R> requestSource = source;
+        int offset = page * pageSize;
+        if (requestSource.isInMemory()) {
+            try {
+                pages.put(page, requestSource.fetch(offset, pageSize));
+            } catch (Exception e) {
+                throw new IllegalStateException("In-memory row source failed", e);
+            }
+            return;
+        }
+        int requestGeneration = generation;
+        pendingPages.add(page);
+        loader.load(pageKey(page), () -> requestSource.fetch(offset, pageSize), rows -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            pendingPages.remove(page);
+            pages.put(page, rows);
+            int last = Math.min(offset + pageSize, rowCount) - 1;
+            if (last >= offset) {
+                fireTableRowsUpdated(offset, last);
+            }
+        }, ex -> {
+            if (requestGeneration == generation) {
+                pendingPages.remove(page);
+            }
+        });
+    }
+
+    private String pageKey(int page) {
+        return name + "#" + page;
+    }
+
+    /**
+     * Supplies table rows in ranges.
+     *
+     * @param <R> the row type
+     */
+    public interface RowSource<R> {
+
+        /**
+         * Counts the rows available.
+         *
+         * @return the row count
+         * @throws Exception if the rows cannot be counted
+         */
+        int count() throws Exception;
+
+        /**
+         * Fetches a range of rows.
+         *
+         * @param offset the index of the first row
+         * @param limit the maximum number of rows
+         * @return the rows in the range
+         * @throws Exception if the rows cannot be fetched
+         */
+        List<R> fetch(int offset, int limit) throws Exception;
+
+        /**
+         * Fetches the first rows together with the row count. Sources whose
+         * query returns the total alongside the rows override this to load a
+         * table in a single round trip.
+         *
+         * @param limit the maximum number of rows
+         * @return the first rows and the total row count
+         * @throws Exception if the rows cannot be counted or fetched
+         */
+        default Page<R> fetchFirst(int limit) throws Exception {
+            int count = count();
+            return new Page<>(count > 0 ? fetch(0, limit) : Collections.<R>emptyList(), count);
+        }
+
+        /**
+         * Tells whether fetching is cheap enough to do on the EDT.
+         *
+         * @return true for sources backed by memory
+         */
+        default boolean isInMemory() {
+            return false;
+        }
+
+        /**
+         * Wraps an in-memory list.
+         *
+         * @param rows the rows
+         * @param <R> the row type
+         * @return a source reading from the list
+         */
+        static <R> RowSource<R> of(List<R> rows) {
+            return new RowSource<R>() {
+                @Override
+                public int count() {
+                    return rows.size();
+                }
+
+                @Override
+                public List<R> fetch(int offset, int limit) {
+                    int from = Math.min(offset, rows.size());
+                    return rows.subList(from, Math.min(from + limit, rows.size()));
+                }
+
+                @Override
+                public boolean isInMemory() {
+                    return true;
+                }
+            };
+        }
+    }
+
+    /**
+     * A table column: its header, value type and how to read the value from a row.
+     *
+     * @param <R> the row type
+     */
+    public static final class Column<R> {
+        private final String name;
+        private final Class<?> type;
+        private final Function<R, ?> value;
+
+        private Column(String name, Class<?> type, Function<R, ?> value) {
+            this.name = name;
+            this.type = type;
+            this.value = value;
+        }
+
+        /**
+         * Defines a column.
+         *
+         * @param name the header text
+         * @param type the value type, used to pick the renderer
+         * @param value reads the raw cell value from a row
+         * @param <R> the row type
+         * @return the column
+         */
+        public static <R> Column<R> of(String name, Class<?> type, Function<R, ?> value) {
+            return new Column<>(name, type, value);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.library.ui;
+
+import com.example.library.domain.MediaItem;
+import com.example.library.repository.SearchCancellation;
+
+import javax.swing.JTextField;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * Runs a catalog search while the user types into a search field.
+ *
+ * Keystrokes restart a short debounce timer, so a query only runs once typing
+ * pauses. Every query gets its own {@link SearchCancellation}, and when a new
+ * query starts while the previous one is still running, the previous one is
+ * cancelled in the database through its handle instead of being left to finish
+ * on the loader thread. Searches run by other windows are not affected.
+ *
+ * Results are cached for the lifetime of the window, keyed by the lower-cased
+ * keyword. Since the catalog search is a case-insensitive substring match on
+ * title, author, ISBN and type, refining a query only narrows its result, so
+ * typing "harry" after "har" filters the cached "har" rows in memory instead of
+ * querying again. Keywords made only of digits are never refined this way
+ * because the admin search looks them up as item IDs, and neither are keywords
+ * containing the SQL wildcards {@code %} or {@code _}.
+ *
+ * Must be used from the Event Dispatch Thread.
+ */
+public class SearchAsYouType {
+
+    /** Default pause in typing, in milliseconds, before a search runs. */
+    public static final int DEFAULT_DELAY_MS = 300;
+
+    /** Number of keywords whose results are kept. */
+    static final int MAX_CACHED_KEYWORDS = 16;
+
+    private final JTextField field;
+    private final BackgroundLoader loader;
+    private final String key;
+    private final BiFunction<String, SearchCancellation, List<MediaItem>> search;
+    private final Consumer<List<MediaItem>> onResults;
+    private final Consumer<Exception> onError;
+    private final Timer debounce;
+    private SearchCancellation runningSearch;
+    private final Map<String, List<MediaItem>> cache =
+            new LinkedHashMap<String, List<MediaItem>>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, List<MediaItem>> eldest) {
+                    return size() > MAX_CACHED_KEYWORDS;
+                }
+            };
+
+    /**
+     * Attaches search-as-you-type to a text field.
+     *
+     * @param field the search field
+     * @param loader the loader that runs the search off the EDT
+     * @param key the loader key of the results table
+     * @param delayMillis the pause in typing before a search runs
+     * @param search runs the search for a trimmed keyword, which the given
+     *               handle cancels; called off the EDT
+     * @param onResults receives the matching items on the EDT
+     * @param onError receives a search failure on the EDT
+     */
+    public SearchAsYouType(JTextField field, BackgroundLoader loader, String key, int delayMillis,
+                           BiFunction<String, SearchCancellation, List<MediaItem>> search,
+                           Consumer<List<MediaItem>> onResults, Consumer<Exception> onError) {
+        this.field = field;
+        this.loader = loader;
+        this.key = key;
+        this.search = search;
+        this.onResults = onResults;
+        this.onError = onError;
+        this.debounce = new Timer(delayMillis, e -> searchNow());
+        this.debounce.setRepeats(false);
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+        });
+    }
+
+    /**
+     * Searches for the current text right away, for example when Enter is pressed.
+     * Cached or refinable results are shown without querying.
+     */
+    public void searchNow() {
+        debounce.stop();
+        String keyword = field.getText().trim();
+        String cacheKey = keyword.toLowerCase(Locale.ROOT);
+
+        List<MediaItem> cached = cache.get(cacheKey);
+        if (cached == null) {
+            cached = refineCachedResult(cacheKey);
+        }
+        if (cached != null) {
+            abandonRunningSearch();
+            cache.put(cacheKey, cached);
+            onResults.accept(cached);
+            return;
+        }
+
+        abandonRunningSearch();
+        SearchCancellation cancellation = new SearchCancellation();
+        runningSearch = cancellation;
+        loader.load(key, () -> search.apply(keyword, cancellation), items -> {
+            cache.put(cacheKey, items);
+            onResults.accept(items);
+        }, onError);
+    }
+
+    /**
+     * Forgets all cached results and searches again. Call after the catalog
+     * changes, for example after an item is edited or borrowed.
+     */
+    public void refresh() {
+        cache.clear();
+        searchNow();
+    }
+
+    /**
+     * Gets the number of keywords with cached results.
+     *
+     * @return the cache size
+     */
+    int cachedKeywordCount() {
+        return cache.size();
+    }
+
+    private void abandonRunningSearch() {
+        if (loader.isLoading(key)) {
+            loader.cancel(key);
+        }
+        // Only this window's own query is cancelled; a finished one ignores it
+        if (runningSearch != null) {
+            runningSearch.cancel();
+            runningSearch = null;
+        }
+    }
+
+    /**
+     * Filters the cached result of the longest cached prefix of a keyword.
+     *
+     * @return the filtered items, or null if no usable prefix is cached or the
+     *         filter matches nothing (an empty exact match falls back to the
+     *         service's typo-tolerant search, which only a real query can do)
+     */
+    private List<MediaItem> refineCachedResult(String cacheKey) {
+        if (!isRefinable(cacheKey)) {
+            return null;
+        }
+        for (int length = cacheKey.length() - 1; length >= 0; length--) {
+            String prefix = cacheKey.substring(0, length);
+            List<MediaItem> prefixItems = isRefinable(prefix) ? cache.get(prefix) : null;
+            if (prefixItems == null) {
+                continue;
+            }
+            List<MediaItem> refined = new ArrayList<>();
+            for (MediaItem item : prefixItems) {
+                if (matches(item, cacheKey)) {
+                    refined.add(item);
+                }
+            }
+            return refined.isEmpty() ? null : refined;
+        }
+        return null;
+    }
+
+    static boolean isRefinable(String cacheKey) {
+        return !cacheKey.matches("\\d+") && cacheKey.indexOf('%') < 0 && cacheKey.indexOf('_') < 0;
+    }
+
+    static boolean matches(MediaItem item, String cacheKey) {
+        return contains(item.getTitle(), cacheKey)
+                || contains(item.getAuthor(), cacheKey)
+                || contains(item.getIsbn(), cacheKey)
+                || contains(item.getType(), cacheKey);
+    }
+
+    private static boolean contains(String value, String cacheKey) {
+        return value != null && value.toLowerCase(Locale.ROOT).contains(cacheKey);
+    }
+}
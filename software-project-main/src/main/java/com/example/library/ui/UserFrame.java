@@ -2,6 +2,7 @@ package com.example.library.ui;
 
 import com.example.library.domain.Fine;
 import com.example.library.domain.Loan;
+import com.example.library.domain.LoanWithItem;
 import com.example.library.domain.MediaItem;
 import com.example.library.domain.User;
 import com.example.library.service.*;
@@ -12,7 +13,10 @@ import java.awt.*;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * User interface for the Library Management System.
@@ -31,6 +35,8 @@ public class UserFrame extends JFrame {
     private final com.example.library.repository.UserRepository userRepository;
     
     private JTabbedPane tabbedPane;
+    private final BackgroundLoader loader = new BackgroundLoader(this);
+    private final Map<Component, Runnable> tabLoaders = new HashMap<>();
     
     /**
      * Constructs a new UserFrame for the specified user with required services.
@@ -74,6 +80,10 @@ public class UserFrame extends JFrame {
         tabbedPane.addTab("My Fines", createFinesPanel());
         tabbedPane.addTab("Profile", createProfilePanel());
         
+        // Reload a tab's table whenever it is shown; loads for other tabs are abandoned
+        tabbedPane.addChangeListener(e -> loadSelectedTab());
+        SwingUtilities.invokeLater(this::loadSelectedTab);
+        
         // Add tabbed pane to frame
         add(tabbedPane, BorderLayout.CENTER);
         
@@ -84,6 +94,10 @@ public class UserFrame extends JFrame {
         welcomeLabel.setFont(new Font("Arial", Font.BOLD, 14));
         headerPanel.add(welcomeLabel, BorderLayout.WEST);
         
+        JPanel progressPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        progressPanel.add(loader.getProgressBar());
+        headerPanel.add(progressPanel, BorderLayout.CENTER);
+        
         JButton logoutButton = new JButton("Logout");
         logoutButton.addActionListener(e -> logout());
         headerPanel.add(logoutButton, BorderLayout.EAST);
@@ -91,6 +105,17 @@ public class UserFrame extends JFrame {
         add(headerPanel, BorderLayout.NORTH);
     }
     
+    /**
+     * Cancels any table loads still running and starts the load for the selected tab.
+     */
+    private void loadSelectedTab() {
+        loader.cancelAll();
+        Runnable tabLoader = tabLoaders.get(tabbedPane.getSelectedComponent());
+        if (tabLoader != null) {
+            tabLoader.run();
+        }
+    }
+    
     private JPanel createSearchItemsPanel() {
         JPanel panel = new JPanel(new BorderLayout(10, 10));
         panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
@@ -106,59 +131,37 @@ public class UserFrame extends JFrame {
         panel.add(searchPanel, BorderLayout.NORTH);
         
         // Table
-        String[] columns = {"Item ID", "Title", "Author", "Type", "ISBN", "Publisher", "Available/Total"};
-        DefaultTableModel tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        PagedTableModel<MediaItem> tableModel = new PagedTableModel<>("items", Arrays.asList(
+                PagedTableModel.Column.of("Item ID", Integer.class, MediaItem::getItemId),
+                PagedTableModel.Column.of("Title", String.class, MediaItem::getTitle),
+                PagedTableModel.Column.of("Author", String.class, MediaItem::getAuthor),
+                PagedTableModel.Column.of("Type", String.class, MediaItem::getType),
+                PagedTableModel.Column.of("ISBN", String.class, MediaItem::getIsbn),
+                PagedTableModel.Column.of("Publisher", String.class, MediaItem::getPublisher),
+                PagedTableModel.Column.of("Available/Total", String.class,
+                        item -> item.getAvailableCopies() + "/" + item.getTotalCopies())), loader);
         JTable table = new JTable(tableModel);
         JScrollPane scrollPane = new JScrollPane(table);
         panel.add(scrollPane, BorderLayout.CENTER);
         
+        // Search as the user types, once typing pauses
+        SearchAsYouType itemSearch = new SearchAsYouType(searchField, loader, "items",
+                SearchAsYouType.DEFAULT_DELAY_MS, libraryService::searchItems,
+                tableModel::setRows, ex -> JOptionPane.showMessageDialog(this, "Error searching items: " + ex.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE));
+        
         // Search action
-        searchButton.addActionListener(e -> {
-            String keyword = searchField.getText().trim();
-            searchItems(tableModel, keyword);
-        });
+        searchButton.addActionListener(e -> itemSearch.searchNow());
         
         // Allow Enter key to trigger search
         searchField.addActionListener(e -> searchButton.doClick());
         
-        // Load all items initially
-        searchItems(tableModel, "");
+        // Reload items whenever the tab is shown, since availability may have changed meanwhile
+        tabLoaders.put(panel, itemSearch::refresh);
         
         return panel;
     }
     
-    private void searchItems(DefaultTableModel tableModel, String keyword) {
-        try {
-            List<MediaItem> items = libraryService.searchItems(keyword);
-            
-            // Clear table
-            tableModel.setRowCount(0);
-            
-            // Add items to table
-            for (MediaItem item : items) {
-                Object[] row = {
-                        item.getItemId(),
-                        item.getTitle(),
-                        item.getAuthor(),
-                        item.getType(),
-                        item.getIsbn() != null ? item.getIsbn() : "",
-                        item.getPublisher() != null ? item.getPublisher() : "",
-                        item.getAvailableCopies() + "/" + item.getTotalCopies()
-                };
-                tableModel.addRow(row);
-            }
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error searching items: " + ex.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-    
     private JPanel createBorrowItemPanel() {
         JPanel panel = new JPanel(new BorderLayout(10, 10));
         panel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
@@ -290,30 +293,26 @@ public class UserFrame extends JFrame {
         buttonPanel.add(refreshButton);
         panel.add(buttonPanel, BorderLayout.SOUTH);
         
-        // Load initial data
-        loadActiveLoans(tableModel);
+        // Load active loans whenever the tab is shown
+        tabLoaders.put(panel, () -> loadActiveLoans(tableModel));
         
         return panel;
     }
     
     private void loadActiveLoans(DefaultTableModel tableModel) {
-        try {
-            List<Loan> loans = libraryService.getUserLoans(currentUser.getUserId());
-            
-            // Clear table
-            tableModel.setRowCount(0);
+        loader.load("activeLoans", () -> {
+            // Loans and their items in two queries, however many loans there are
+            List<LoanWithItem> loans = libraryService.getUserLoansWithItems(currentUser.getUserId());
+            List<Object[]> rows = new java.util.ArrayList<>();
             
             DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
             LocalDate today = LocalDate.now();
             
             // Only show ACTIVE loans
-            for (Loan loan : loans) {
+            for (LoanWithItem loanWithItem : loans) {
+                Loan loan = loanWithItem.getLoan();
                 if ("ACTIVE".equals(loan.getStatus())) {
-                    // Get item details
-                    MediaItem item = libraryService.searchItems("").stream()
-                            .filter(i -> i.getItemId() == loan.getItemId())
-                            .findFirst()
-                            .orElse(null);
+                    MediaItem item = loanWithItem.getItem();
                     
                     String itemTitle = item != null ? item.getTitle() : "Unknown";
                     LocalDate dueDate = loan.getDueDate();
@@ -341,19 +340,24 @@ public class UserFrame extends JFrame {
                         lateFee + " NIS",
                         "Return"
                     };
-                    tableModel.addRow(row);
+                    rows.add(row);
                 }
             }
+            return rows;
+        }, rows -> {
+            // Clear table
+            tableModel.setRowCount(0);
+            
+            for (Object[] row : rows) {
+                tableModel.addRow(row);
+            }
             
             if (tableModel.getRowCount() == 0) {
                 Object[] emptyRow = {"No active loans", "", "", "", "", "", "", ""};
                 tableModel.addRow(emptyRow);
             }
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading active loans: " + ex.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, ex -> JOptionPane.showMessageDialog(this, "Error loading active loans: " + ex.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE));
     }
     
     private void returnItemQuick(int loanId, DefaultTableModel tableModel) {
@@ -388,14 +392,15 @@ public class UserFrame extends JFrame {
         panel.add(formPanel, BorderLayout.NORTH);
         
         // Table for displaying user's loans
-        String[] columns = {"Loan ID", "Item ID", "Loan Date", "Due Date", "Return Date", "Status"};
-        DefaultTableModel tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        PagedTableModel<Loan> tableModel = new PagedTableModel<>("loans", Arrays.asList(
+                PagedTableModel.Column.of("Loan ID", Integer.class, Loan::getLoanId),
+                PagedTableModel.Column.of("Item ID", Integer.class, Loan::getItemId),
+                PagedTableModel.Column.of("Loan Date", LocalDate.class, Loan::getLoanDate),
+                PagedTableModel.Column.of("Due Date", LocalDate.class, Loan::getDueDate),
+                PagedTableModel.Column.of("Return Date", LocalDate.class, Loan::getReturnDate),
+                PagedTableModel.Column.of("Status", String.class, Loan::getStatus)), loader);
         JTable table = new JTable(tableModel);
+        CellFormats.install(table);
         JScrollPane scrollPane = new JScrollPane(table);
         panel.add(scrollPane, BorderLayout.CENTER);
         
@@ -422,38 +427,15 @@ public class UserFrame extends JFrame {
         // View loans action
         viewLoansButton.addActionListener(e -> loadUserLoans(tableModel));
         
-        // Load user loans initially
-        loadUserLoans(tableModel);
+        // Load user loans whenever the tab is shown
+        tabLoaders.put(panel, () -> loadUserLoans(tableModel));
         
         return panel;
     }
     
-    private void loadUserLoans(DefaultTableModel tableModel) {
-        try {
-            List<Loan> loans = libraryService.getUserLoans(currentUser.getUserId());
-            
-            // Clear table
-            tableModel.setRowCount(0);
-            
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
-            
-            // Add loans to table
-            for (Loan loan : loans) {
-                Object[] row = {
-                        loan.getLoanId(),
-                        loan.getItemId(),
-                        loan.getLoanDate().format(formatter),
-                        loan.getDueDate().format(formatter),
-                        loan.getReturnDate() != null ? loan.getReturnDate().format(formatter) : "",
-                        loan.getStatus()
-                };
-                tableModel.addRow(row);
-            }
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading loans: " + ex.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
+    private void loadUserLoans(PagedTableModel<Loan> tableModel) {
+        loader.load("loans", () -> libraryService.getUserLoans(currentUser.getUserId()), tableModel::setRows, ex -> JOptionPane.showMessageDialog(this, "Error loading loans: " + ex.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE));
     }
     
     private void returnItem(int loanId) {
@@ -546,16 +528,19 @@ public class UserFrame extends JFrame {
             payFine(fineId, tableModel, totalLabel);
         });
         
-        // Load fines initially
-        loadFines(tableModel, totalLabel);
+        // Load fines whenever the tab is shown
+        tabLoaders.put(panel, () -> loadFines(tableModel, totalLabel));
         
         return panel;
     }
     
     private void loadFines(DefaultTableModel tableModel, JLabel totalLabel) {
-        try {
-            List<Fine> fines = paymentService.getUnpaidFines(currentUser.getUserId());
-            BigDecimal total = paymentService.getTotalUnpaid(currentUser.getUserId());
+        loader.load("fines", () -> paymentService.getUnpaidFines(currentUser.getUserId()), fines -> {
+            // Unpaid fines are all listed, so the total is their sum
+            BigDecimal total = BigDecimal.ZERO;
+            for (Fine fine : fines) {
+                total = total.add(fine.getAmount());
+            }
             
             // Clear table
             tableModel.setRowCount(0);
@@ -576,11 +561,8 @@ public class UserFrame extends JFrame {
             }
             
             totalLabel.setText(String.format("Total Unpaid: %.2f NIS", total));
-            
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading fines: " + ex.getMessage(),
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        }, ex -> JOptionPane.showMessageDialog(this, "Error loading fines: " + ex.getMessage(),
+                "Error", JOptionPane.ERROR_MESSAGE));
     }
     
     private void payAllFines(DefaultTableModel tableModel, JLabel totalLabel) {
@@ -709,6 +691,7 @@ public class UserFrame extends JFrame {
         int choice = JOptionPane.showConfirmDialog(this, "Are you sure you want to logout?",
                 "Logout", JOptionPane.YES_NO_OPTION);
         if (choice == JOptionPane.YES_OPTION) {
+            loader.shutdown();
             dispose();
             // Reopen login frame
             SwingUtilities.invokeLater(() -> {
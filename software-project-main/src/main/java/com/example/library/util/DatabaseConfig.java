@@ -59,4 +59,72 @@ public class DatabaseConfig {
         String prop = properties.getProperty("use.file.db");
         return prop != null && Boolean.parseBoolean(prop);
     }
+
+    public static int getPoolMinSize() {
+        return getIntProperty("db.pool.minSize", 2);
+    }
+    
+    public static int getPoolMaxSize() {
+        return getIntProperty("db.pool.maxSize", 10);
+    }
+    
+    public static long getPoolBorrowTimeoutMillis() {
+        return getIntProperty("db.pool.borrowTimeoutMs", 5000);
+    }
+    
+    public static long getPoolIdleTimeoutMillis() {
+        return getIntProperty("db.pool.idleTimeoutMs", 300000);
+    }
+    
+    public static long getPoolLeakThresholdMillis() {
+        return getIntProperty("db.pool.leakThresholdMs", 0);
+    }
+    
+    public static int getSlowQueryThresholdMillis() {
+        return getIntProperty("db.slowQuery.thresholdMs", 200);
+    }
+    
+    public static String getSlowQueryLogFile() {
+        String systemValue = System.getProperty("db.slowQuery.logFile");
+        if (systemValue != null && !systemValue.isEmpty()) {
+            return systemValue;
+        }
+        return properties.getProperty("db.slowQuery.logFile", "logs/slow-query.log");
+    }
+    
+    public static int getSlowQueryLogMaxFileSizeKb() {
+        return getIntProperty("db.slowQuery.maxFileSizeKb", 10240);
+    }
+    
+    public static int getSlowQueryLogFileCount() {
+        return getIntProperty("db.slowQuery.fileCount", 5);
+    }
+    
+    public static int getSlowQueryTopN() {
+        return getIntProperty("db.slowQuery.topN", 20);
+    }
+    
+    public static boolean isSlowQueryLogBindValues() {
+        String systemValue = System.getProperty("db.slowQuery.logBindValues");
+        if (systemValue != null && !systemValue.isEmpty()) {
+            return Boolean.parseBoolean(systemValue);
+        }
+        return Boolean.parseBoolean(properties.getProperty("db.slowQuery.logBindValues", "false"));
+    }
+    
+    private static int getIntProperty(String key, int defaultValue) {
+        // System property override first, as for the connection settings
+        String value = System.getProperty(key);
+        if (value == null || value.isEmpty()) {
+            value = properties.getProperty(key);
+        }
+        if (value == null || value.trim().isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new RuntimeException("Invalid value for " + key + ": " + value, e);
+        }
+    }
 }
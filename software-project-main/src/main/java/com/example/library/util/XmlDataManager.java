@@ -12,4 +12,8 @@ public class XmlDataManager {
         }
         return baseDir + fileName;
     }
+
+    public static java.nio.file.Path getDataDirectory() {
+        return java.nio.file.Paths.get(getDataFilePath(""));
+    }
 }
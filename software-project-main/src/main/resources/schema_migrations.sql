@@ -0,0 +1,25 @@
+-- Changes for databases created by an older schema.sql, run on every start.
+-- schema.sql only runs against an empty database, so every table or index
+-- added to it must also be added here, in a form that can run repeatedly.
+
+-- Reminders (scheduled due-soon and overdue notices)
+CREATE TABLE IF NOT EXISTS reminder_sent (
+    loan_id INTEGER NOT NULL,
+    kind VARCHAR(20) NOT NULL,
+    due_date DATE NOT NULL,
+    sent_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (loan_id, kind, due_date),
+    CONSTRAINT fk_reminder_loan FOREIGN KEY (loan_id) REFERENCES loan(loan_id) ON DELETE CASCADE,
+    CONSTRAINT chk_reminder_kind CHECK (kind IN ('DUE_SOON', 'OVERDUE'))
+);
+
+CREATE TABLE IF NOT EXISTS reminder_checkpoint (
+    run_date DATE NOT NULL,
+    kind VARCHAR(20) NOT NULL,
+    last_loan_id INTEGER NOT NULL DEFAULT 0,
+    completed BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (run_date, kind)
+);
+
+CREATE INDEX IF NOT EXISTS idx_loan_due_date ON loan(due_date);
@@ -0,0 +1,219 @@
+package com.example.library;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConnectionPoolTest {
+
+    private final List<FakeConnection> opened = new ArrayList<>();
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    @Test
+    void testGetConnection_ReusesReturnedConnection() throws SQLException {
+        // Arrange
+        pool = createPool(0, 2, 0);
+
+        // Act
+        Connection first = pool.getConnection();
+        first.close();
+        Connection second = pool.getConnection();
+
+        // Assert
+        assertEquals(1, opened.size());
+        assertFalse(opened.get(0).closed);
+        assertTrue(first.isClosed());
+        assertFalse(second.isClosed());
+        assertEquals(1, pool.getStats().getActive());
+        assertEquals(2, pool.getStats().getBorrows());
+    }
+
+    @Test
+    void testClose_ReturnedConnectionCannotBeUsed() throws SQLException {
+        // Arrange
+        pool = createPool(0, 1, 0);
+        Connection conn = pool.getConnection();
+
+        // Act
+        conn.close();
+        conn.close();
+
+        // Assert
+        assertThrows(SQLException.class, conn::createStatement);
+        assertEquals(1, pool.getStats().getIdle());
+    }
+
+    @Test
+    void testGetConnection_TimesOutWhenAllConnectionsAreInUse() throws SQLException {
+        // Arrange
+        pool = createPool(0, 1, 0);
+        Connection held = pool.getConnection();
+
+        // Act & Assert
+        assertThrows(SQLTimeoutException.class, () -> pool.getConnection());
+        assertEquals(1, pool.getStats().getTimeouts());
+        held.close();
+        assertDoesNotThrow(() -> pool.getConnection().close());
+    }
+
+    @Test
+    void testGetConnection_DiscardsIdleConnectionThatFailsValidation() throws Exception {
+        // Arrange
+        pool = createPool(0, 2, 0);
+        pool.getConnection().close();
+        opened.get(0).valid = false;
+        Thread.sleep(ConnectionPool.VALIDATION_BYPASS_MILLIS + 100);
+
+        // Act
+        Connection conn = pool.getConnection();
+
+        // Assert
+        assertNotNull(conn);
+        assertEquals(2, opened.size());
+        assertTrue(opened.get(0).closed);
+        assertEquals(1, pool.getStats().getValidationFailures());
+        assertEquals(1, pool.getStats().getTotal());
+    }
+
+    @Test
+    void testClose_RollsBackOpenTransaction() throws SQLException {
+        // Arrange
+        pool = createPool(0, 1, 0);
+        Connection conn = pool.getConnection();
+        conn.setAutoCommit(false);
+
+        // Act
+        conn.close();
+
+        // Assert
+        assertEquals(1, opened.get(0).rollbacks);
+        assertTrue(opened.get(0).autoCommit);
+    }
+
+    @Test
+    void testHousekeep_FillsPoolToMinimumSize() throws SQLException {
+        // Arrange
+        pool = createPool(2, 4, 0);
+
+        // Act
+        pool.housekeep();
+
+        // Assert
+        assertEquals(2, pool.getStats().getTotal());
+        assertEquals(2, pool.getStats().getIdle());
+    }
+
+    @Test
+    void testHousekeep_EvictsIdleConnectionsAboveMinimumSize() throws SQLException {
+        // Arrange
+        pool = new ConnectionPool(this::open, 1, 3, 100, 0, 0);
+        Connection a = pool.getConnection();
+        Connection b = pool.getConnection();
+        Connection c = pool.getConnection();
+        a.close();
+        b.close();
+        c.close();
+
+        // Act
+        pool.housekeep();
+
+        // Assert
+        assertEquals(1, pool.getStats().getTotal());
+        assertEquals(1, pool.getStats().getIdle());
+    }
+
+    @Test
+    void testHousekeep_ReportsLeakedConnectionOnce() throws Exception {
+        // Arrange
+        pool = createPool(0, 1, 1);
+        Connection leaked = pool.getConnection();
+        Thread.sleep(20);
+
+        // Act
+        pool.housekeep();
+        pool.housekeep();
+
+        // Assert
+        assertEquals(1, pool.getStats().getLeaks());
+        leaked.close();
+    }
+
+    @Test
+    void testClose_ClosesIdleAndLaterReturnedConnections() throws SQLException {
+        // Arrange
+        pool = createPool(0, 2, 0);
+        Connection idle = pool.getConnection();
+        Connection borrowed = pool.getConnection();
+        idle.close();
+
+        // Act
+        pool.close();
+        borrowed.close();
+
+        // Assert
+        assertTrue(opened.get(0).closed);
+        assertTrue(opened.get(1).closed);
+        assertThrows(SQLException.class, () -> pool.getConnection());
+    }
+
+    private ConnectionPool createPool(int minSize, int maxSize, long leakThresholdMillis) {
+        // The idle timeout is long so only explicit housekeeping in a test changes the pool
+        return new ConnectionPool(this::open, minSize, maxSize, 100, 60_000, leakThresholdMillis);
+    }
+
+    private synchronized Connection open() {
+        FakeConnection fake = new FakeConnection();
+        opened.add(fake);
+        return fake.proxy;
+    }
+
+    /**
+     * Physical connection stand-in that records what the pool does with it.
+     */
+    private static final class FakeConnection {
+        private volatile boolean closed;
+        private volatile boolean valid = true;
+        private volatile boolean autoCommit = true;
+        private volatile int rollbacks;
+        private final Connection proxy = (Connection) Proxy.newProxyInstance(
+                ConnectionPoolTest.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (p, method, args) -> {
+                    switch (method.getName()) {
+                        case "close":
+                            closed = true;
+                            return null;
+                        case "isClosed":
+                            return closed;
+                        case "isValid":
+                            return valid && !closed;
+                        case "getAutoCommit":
+                            return autoCommit;
+                        case "setAutoCommit":
+                            autoCommit = (Boolean) args[0];
+                            return null;
+                        case "rollback":
+                            rollbacks++;
+                            return null;
+                        case "toString":
+                            return "FakeConnection";
+                        default:
+                            return null;
+                    }
+                });
+    }
+}
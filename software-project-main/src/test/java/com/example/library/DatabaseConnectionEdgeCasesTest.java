@@ -2,6 +2,9 @@ package com.example.library;
 
 import org.junit.jupiter.api.Test;
 import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
 import static org.junit.jupiter.api.Assertions.*;
 
 class DatabaseConnectionEdgeCasesTest {
@@ -43,4 +46,35 @@ class DatabaseConnectionEdgeCasesTest {
         // Act & Assert - Closing again should not throw exception
         assertDoesNotThrow(() -> DatabaseConnection.closeConnection());
     }
+    
+    @Test
+    void testMigrateSchema_AddsMissingTablesToExistingDatabaseAndCanRunAgain() throws Exception {
+        try (Connection conn = DriverManager.getConnection("jdbc:h2:mem:migration;MODE=PostgreSQL", "sa", "")) {
+            // Arrange - A database created before the reminder tables existed
+            try (Statement stmt = conn.createStatement()) {
+                stmt.execute("CREATE TABLE loan (loan_id SERIAL PRIMARY KEY, due_date DATE NOT NULL)");
+            }
+            
+            // Act
+            DatabaseConnection.migrateSchema(conn);
+            DatabaseConnection.migrateSchema(conn);
+            
+            // Assert
+            assertTrue(tableExists(conn, "REMINDER_SENT"));
+            assertTrue(tableExists(conn, "REMINDER_CHECKPOINT"));
+            try (ResultSet rs = conn.getMetaData().getIndexInfo(null, null, "LOAN", false, false)) {
+                boolean found = false;
+                while (rs.next()) {
+                    found |= "IDX_LOAN_DUE_DATE".equalsIgnoreCase(rs.getString("INDEX_NAME"));
+                }
+                assertTrue(found, "idx_loan_due_date should exist");
+            }
+        }
+    }
+    
+    private static boolean tableExists(Connection conn, String table) throws Exception {
+        try (ResultSet rs = conn.getMetaData().getTables(null, null, table, null)) {
+            return rs.next();
+        }
+    }
 }
@@ -3,13 +3,21 @@ package com.example.library.notification;
 import com.example.library.domain.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class EmailNotifierTest {
     
+    @TempDir
+    Path tempDir;
+    
     private EmailNotifier emailNotifier;
     private User testUser;
     
@@ -259,4 +267,76 @@ class EmailNotifierTest {
         });
         assertEquals(1, notifier.getSentMessages().size());
     }
+
+    @Test
+    void testNotify_DeliversThroughMailSenderWithoutWaiting() throws IOException, InterruptedException {
+        // Arrange
+        try (SmtpStubServer server = new SmtpStubServer();
+             SmtpMailSender sender = new SmtpMailSender(server.mailProperties())) {
+            EmailNotifier notifier = new EmailNotifier(sender);
+            
+            // Act
+            notifier.notify(testUser, "Your book is overdue!");
+            notifier.notify(testUser, "Your reservation is ready");
+            sender.flush(10_000);
+            
+            // Assert
+            assertEquals(2, notifier.getSentMessages().size());
+            assertEquals(2, server.getReceived().size());
+            assertEquals("testuser@example.com", server.getReceived().get(0).getRecipients().get(0));
+            assertTrue(server.getReceived().stream().anyMatch(mail -> mail.getData().contains("Your book is overdue!")));
+            assertTrue(server.getReceived().get(0).getData().contains("Subject: Library Notification"));
+        }
+    }
+
+    @Test
+    void testNotifyAndDeliver_MessagesTheClosedSenderDropsAreNotRecorded() throws IOException {
+        // Arrange
+        EmailNotifier notifier;
+        try (SmtpStubServer server = new SmtpStubServer();
+             SmtpMailSender sender = new SmtpMailSender(server.mailProperties())) {
+            notifier = new EmailNotifier(sender);
+        }
+        
+        // Act
+        CompletableFuture<Void> delivery = notifier.deliver(testUser, "Too late");
+        assertDoesNotThrow(() -> notifier.notify(testUser, "Also too late"));
+        
+        // Assert
+        assertTrue(delivery.isCompletedExceptionally());
+        assertTrue(notifier.getSentMessages().isEmpty());
+    }
+
+    @Test
+    void testNotify_WithoutMailSenderOnlyStoresMessage() {
+        // Arrange
+        EmailNotifier notifier = new EmailNotifier(null);
+        
+        // Act
+        notifier.notify(testUser, "Stored only");
+        
+        // Assert
+        assertEquals(List.of("testuser@example.com: Stored only"), notifier.getSentMessages());
+    }
+
+    @Test
+    void testGetSentMessages_KeepsRecentInMemoryAndPagesOlderFromDisk() {
+        // Arrange
+        EmailNotifier notifier = new EmailNotifier(null, new SentMessageJournal(2, tempDir, 1_000_000, 5));
+        
+        // Act
+        for (int i = 1; i <= 5; i++) {
+            notifier.notify(testUser, "Message " + i);
+        }
+        List<SentMessageJournal.Entry> firstPage = notifier.getSentMessages(0, 3);
+        List<SentMessageJournal.Entry> secondPage = notifier.getSentMessages(firstPage.get(2).getSequence() + 1, 3);
+        
+        // Assert
+        assertEquals(List.of("testuser@example.com: Message 4", "testuser@example.com: Message 5"),
+                notifier.getSentMessages());
+        assertEquals(3, firstPage.size());
+        assertEquals("testuser@example.com: Message 1", firstPage.get(0).getMessage());
+        assertEquals(2, secondPage.size());
+        assertEquals("testuser@example.com: Message 5", secondPage.get(1).getMessage());
+    }
 }
@@ -0,0 +1,199 @@
+package com.example.library.notification;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SentMessageJournalTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testAppend_MemoryOnlyJournalKeepsLastCapacityMessages() {
+        // Arrange
+        SentMessageJournal journal = new SentMessageJournal(3);
+
+        // Act
+        for (int i = 0; i < 5; i++) {
+            journal.append("m" + i);
+        }
+
+        // Assert
+        assertEquals(List.of("m2", "m3", "m4"), journal.recent());
+        assertEquals(List.of(2L, 3L, 4L), sequences(journal.read(0, 10)));
+        assertEquals(5, journal.nextSequence());
+    }
+
+    @Test
+    void testRead_PagesAcrossDiskAndMemoryInSequenceOrder() {
+        // Arrange
+        SentMessageJournal journal = new SentMessageJournal(3, tempDir, 1_000_000, 5);
+        for (int i = 0; i < 10; i++) {
+            journal.append("m" + i);
+        }
+
+        // Act
+        List<SentMessageJournal.Entry> first = journal.read(0, 4);
+        List<SentMessageJournal.Entry> second = journal.read(4, 4);
+        List<SentMessageJournal.Entry> third = journal.read(8, 4);
+
+        // Assert
+        assertEquals(List.of(0L, 1L, 2L, 3L), sequences(first));
+        assertEquals("m0", first.get(0).getMessage());
+        assertEquals(List.of(4L, 5L, 6L, 7L), sequences(second));
+        assertEquals(List.of(8L, 9L), sequences(third));
+        assertEquals(List.of("m7", "m8", "m9"), journal.recent());
+    }
+
+    @Test
+    void testAppend_RotatesFilesAndDeletesOldest() throws IOException {
+        // Arrange
+        SentMessageJournal journal = new SentMessageJournal(1, tempDir, 40, 2);
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            journal.append("message number " + i);
+        }
+        journal.close();
+
+        // Assert
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertEquals(2, files.count());
+        }
+        List<SentMessageJournal.Entry> kept = journal.read(0, 100);
+        assertTrue(kept.get(0).getSequence() > 0, "the oldest messages should be gone");
+        assertEquals(19, kept.get(kept.size() - 1).getSequence());
+    }
+
+    @Test
+    void testRead_MultiLineMessageSurvivesTheDisk() {
+        // Arrange
+        String message = "line one\nline two\\n not a newline\r\n\ttabbed";
+        SentMessageJournal journal = new SentMessageJournal(1, tempDir, 1_000_000, 5);
+
+        // Act
+        journal.append(message);
+        journal.append("pushes the first one to disk");
+
+        // Assert
+        assertEquals(message, journal.read(0, 1).get(0).getMessage());
+    }
+
+    @Test
+    void testAppend_ConcurrentSendersLoseNothing() throws InterruptedException {
+        // Arrange
+        SentMessageJournal journal = new SentMessageJournal(64, tempDir, 1_000_000, 100);
+        int threads = 8;
+        int perThread = 1_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> senders = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int sender = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    journal.append("sender " + sender + " message " + i);
+                }
+            });
+            thread.start();
+            senders.add(thread);
+        }
+
+        // Act
+        start.countDown();
+        for (Thread thread : senders) {
+            thread.join();
+        }
+        Set<Long> seen = new TreeSet<>();
+        long from = 0;
+        List<SentMessageJournal.Entry> page;
+        while (!(page = journal.read(from, 500)).isEmpty()) {
+            for (SentMessageJournal.Entry entry : page) {
+                assertTrue(seen.add(entry.getSequence()), "duplicate sequence " + entry.getSequence());
+            }
+            from = page.get(page.size() - 1).getSequence() + 1;
+        }
+
+        // Assert
+        assertEquals(threads * perThread, seen.size());
+        assertEquals(64, journal.recent().size());
+    }
+
+    @Test
+    void testClose_NextRunReadsOldMessagesAndContinuesNumbering() {
+        // Arrange
+        SentMessageJournal journal = new SentMessageJournal(5, tempDir, 1_000_000, 5);
+        journal.append("m0");
+        journal.append("m1");
+        journal.append("m2");
+
+        // Act
+        journal.close();
+        SentMessageJournal reopened = new SentMessageJournal(5, tempDir, 1_000_000, 5);
+        long next = reopened.append("m3");
+
+        // Assert
+        assertEquals(3, next);
+        assertEquals(List.of(0L, 1L, 2L, 3L), sequences(reopened.read(0, 10)));
+        assertEquals(List.of("m3"), reopened.recent());
+    }
+
+    @Test
+    void testClose_WritesEveryQueuedSpillBeforeStopping() {
+        // Arrange
+        SentMessageJournal journal = new SentMessageJournal(1, tempDir, 1_000_000, 5);
+        for (int i = 0; i < 500; i++) {
+            journal.append("m" + i);
+        }
+
+        // Act
+        journal.close();
+        SentMessageJournal reopened = new SentMessageJournal(1, tempDir, 1_000_000, 5);
+
+        // Assert
+        List<SentMessageJournal.Entry> all = reopened.read(0, 1_000);
+        assertEquals(500, all.size());
+        assertEquals("m499", all.get(499).getMessage());
+        assertEquals(500, reopened.nextSequence());
+    }
+
+    @Test
+    void testClear_RemovesMemoryAndDisk() {
+        // Arrange
+        SentMessageJournal journal = new SentMessageJournal(2, tempDir, 1_000_000, 5);
+        for (int i = 0; i < 5; i++) {
+            journal.append("m" + i);
+        }
+
+        // Act
+        journal.clear();
+
+        // Assert
+        assertTrue(journal.recent().isEmpty());
+        assertTrue(journal.read(0, 10).isEmpty());
+    }
+
+    private static List<Long> sequences(List<SentMessageJournal.Entry> entries) {
+        List<Long> sequences = new ArrayList<>();
+        for (SentMessageJournal.Entry entry : entries) {
+            sequences.add(entry.getSequence());
+        }
+        return sequences;
+    }
+}
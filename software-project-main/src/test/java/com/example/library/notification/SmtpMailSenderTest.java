@@ -0,0 +1,235 @@
+package com.example.library.notification;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import jakarta.mail.MessagingException;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmtpMailSenderTest {
+
+    private SmtpStubServer server;
+    private SmtpMailSender sender;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = new SmtpStubServer();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (sender != null) {
+            sender.close();
+        }
+        server.close();
+    }
+
+    @Test
+    void testSubmit_SendsManyMessagesOverOneConnection() throws InterruptedException {
+        // Arrange
+        Properties props = server.mailProperties();
+        props.setProperty("mail.sender.threads", "1");
+        sender = new SmtpMailSender(props);
+
+        // Act
+        for (int i = 0; i < 20; i++) {
+            assertTrue(sender.submit("user" + i + "@example.com", "Library Notification", "Message " + i));
+        }
+        boolean drained = sender.flush(10_000);
+
+        // Assert
+        assertTrue(drained);
+        assertEquals(20, server.getReceived().size());
+        assertEquals(1, server.getConnections());
+        assertEquals("library@example.com", server.getReceived().get(0).getFrom());
+        assertEquals("user0@example.com", server.getReceived().get(0).getRecipients().get(0));
+        assertTrue(server.getReceived().get(0).getData().contains("Message 0"));
+        SmtpMailSender.Stats stats = sender.getStats();
+        assertEquals(20, stats.getSubmitted());
+        assertEquals(20, stats.getSent());
+        assertEquals(0, stats.getFailed());
+        assertEquals(1, stats.getConnectionsOpened());
+        assertEquals(0, stats.getQueued());
+    }
+
+    @Test
+    void testSubmit_ReconnectsAndRetriesWhenServerDropsConnection() throws InterruptedException {
+        // Arrange
+        server.dropConnectionsAfter(3);
+        Properties props = server.mailProperties();
+        props.setProperty("mail.sender.threads", "1");
+        sender = new SmtpMailSender(props);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            sender.submit("user" + i + "@example.com", "Library Notification", "Message " + i);
+        }
+        sender.flush(10_000);
+
+        // Assert
+        assertEquals(10, server.getReceived().size());
+        assertEquals(4, server.getConnections());
+        SmtpMailSender.Stats stats = sender.getStats();
+        assertEquals(10, stats.getSent());
+        assertEquals(0, stats.getFailed());
+        assertEquals(3, stats.getRetries());
+    }
+
+    @Test
+    void testSubmit_RecyclesConnectionAfterMessagesPerConnection() throws InterruptedException {
+        // Arrange
+        Properties props = server.mailProperties();
+        props.setProperty("mail.sender.threads", "1");
+        props.setProperty("mail.sender.messagesPerConnection", "4");
+        sender = new SmtpMailSender(props);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            sender.submit("user" + i + "@example.com", "Library Notification", "Message " + i);
+        }
+        sender.flush(10_000);
+
+        // Assert
+        assertEquals(10, server.getReceived().size());
+        assertEquals(3, server.getConnections());
+        assertEquals(0, sender.getStats().getRetries());
+    }
+
+    @Test
+    void testSubmit_RejectedRecipientFailsWithoutRetryAndOthersStillSend() throws InterruptedException {
+        // Arrange
+        server.rejectRecipient("nobody@example.com");
+        Properties props = server.mailProperties();
+        props.setProperty("mail.sender.threads", "1");
+        sender = new SmtpMailSender(props);
+
+        // Act
+        sender.submit("user1@example.com", "Library Notification", "First");
+        sender.submit("nobody@example.com", "Library Notification", "Lost");
+        sender.submit("user2@example.com", "Library Notification", "Second");
+        sender.flush(10_000);
+
+        // Assert
+        assertEquals(2, server.getReceived().size());
+        SmtpMailSender.Stats stats = sender.getStats();
+        assertEquals(2, stats.getSent());
+        assertEquals(1, stats.getFailed());
+        assertEquals(0, stats.getRetries());
+    }
+
+    @Test
+    void testSend_FutureReportsDeliveryAndRejection() {
+        // Arrange
+        server.rejectRecipient("nobody@example.com");
+        Properties props = server.mailProperties();
+        props.setProperty("mail.sender.threads", "1");
+        sender = new SmtpMailSender(props);
+
+        // Act
+        CompletableFuture<Void> delivered = sender.send("user1@example.com", "Library Notification", "Arrives");
+        CompletableFuture<Void> rejected = sender.send("nobody@example.com", "Library Notification", "Lost");
+
+        // Assert
+        assertDoesNotThrow(() -> delivered.get(10, TimeUnit.SECONDS));
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> rejected.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(MessagingException.class, failure.getCause());
+        assertEquals(1, server.getReceived().size());
+    }
+
+    @Test
+    void testSubmit_GivesUpAfterMaxAttemptsWhenServerIsDown() throws IOException, InterruptedException {
+        // Arrange
+        Properties props = server.mailProperties();
+        props.setProperty("mail.sender.threads", "1");
+        props.setProperty("mail.sender.maxAttempts", "2");
+        props.setProperty("mail.smtp.connectiontimeout", "1000");
+        server.close();
+        sender = new SmtpMailSender(props);
+
+        // Act
+        sender.submit("user1@example.com", "Library Notification", "Never arrives");
+        boolean drained = sender.flush(10_000);
+
+        // Assert
+        assertTrue(drained);
+        SmtpMailSender.Stats stats = sender.getStats();
+        assertEquals(0, stats.getSent());
+        assertEquals(1, stats.getFailed());
+        assertEquals(1, stats.getRetries());
+        assertEquals(0, stats.getConnectionsOpened());
+    }
+
+    @Test
+    void testSubmit_RateLimitSpacesOutSends() throws InterruptedException {
+        // Arrange
+        Properties props = server.mailProperties();
+        props.setProperty("mail.sender.threads", "4");
+        props.setProperty("mail.sender.ratePerSecond", "50");
+        sender = new SmtpMailSender(props);
+
+        // Act
+        long start = System.nanoTime();
+        for (int i = 0; i < 11; i++) {
+            sender.submit("user" + i + "@example.com", "Library Notification", "Message " + i);
+        }
+        sender.flush(10_000);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        // Assert
+        assertEquals(11, server.getReceived().size());
+        assertTrue(elapsedMillis >= 190, "11 sends at 50/s should take at least 200ms, took " + elapsedMillis);
+    }
+
+    @Test
+    void testSubmit_AfterCloseIsDropped() {
+        // Arrange
+        sender = new SmtpMailSender(server.mailProperties());
+        sender.close();
+
+        // Act
+        boolean accepted = sender.submit("user1@example.com", "Library Notification", "Too late");
+
+        // Assert
+        assertFalse(accepted);
+        assertEquals(1, sender.getStats().getDropped());
+        assertTrue(server.getReceived().isEmpty());
+    }
+
+    @Test
+    void testSend_AfterCloseFailsImmediately() {
+        // Arrange
+        sender = new SmtpMailSender(server.mailProperties());
+        sender.close();
+
+        // Act
+        CompletableFuture<Void> delivery = sender.send("user1@example.com", "Library Notification", "Too late");
+
+        // Assert
+        assertTrue(delivery.isCompletedExceptionally());
+        assertEquals(1, sender.getStats().getDropped());
+    }
+
+    @Test
+    void testIsConfigured_RequiresHostCredentialsAndSender() {
+        // Arrange
+        Properties props = new Properties();
+        props.setProperty("mail.smtp.host", "smtp.example.com");
+
+        // Act & Assert
+        assertFalse(SmtpMailSender.isConfigured(new Properties()));
+        assertFalse(SmtpMailSender.isConfigured(props));
+        props.setProperty("mail.smtp.username", "library@example.com");
+        props.setProperty("mail.smtp.password", "secret");
+        assertTrue(SmtpMailSender.isConfigured(props));
+        assertTrue(SmtpMailSender.isConfigured(server.mailProperties()));
+        assertThrows(IllegalArgumentException.class, () -> new SmtpMailSender(new Properties()));
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.library.notification;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal in-process SMTP server for tests. It speaks just enough of the
+ * protocol for Jakarta Mail to deliver plain messages without TLS or
+ * authentication, and records what it receives.
+ *
+ * It can also misbehave on purpose: {@link #dropConnectionsAfter} hangs up on
+ * a client after a number of messages, and {@link #rejectRecipient} refuses
+ * one address.
+ */
+class SmtpStubServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final List<ReceivedMail> received = new CopyOnWriteArrayList<>();
+    private final List<Socket> clients = new CopyOnWriteArrayList<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private volatile int messagesPerConnection = Integer.MAX_VALUE;
+    private volatile String rejectedRecipient;
+
+    SmtpStubServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "smtp-stub-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    /**
+     * Builds sender settings that point at this server.
+     *
+     * @return properties for {@link SmtpMailSender}
+     */
+    Properties mailProperties() {
+        Properties props = new Properties();
+        props.setProperty("mail.smtp.host", "127.0.0.1");
+        props.setProperty("mail.smtp.port", String.valueOf(serverSocket.getLocalPort()));
+        props.setProperty("mail.smtp.auth", "false");
+        props.setProperty("mail.smtp.starttls.enable", "false");
+        props.setProperty("mail.from.address", "library@example.com");
+        props.setProperty("mail.sender.retryBackoffMillis", "10");
+        props.setProperty("mail.sender.ratePerSecond", "0");
+        return props;
+    }
+
+    void dropConnectionsAfter(int messages) {
+        this.messagesPerConnection = messages;
+    }
+
+    void rejectRecipient(String address) {
+        this.rejectedRecipient = address;
+    }
+
+    List<ReceivedMail> getReceived() {
+        return received;
+    }
+
+    int getConnections() {
+        return connections.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        for (Socket client : clients) {
+            client.close();
+        }
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket client = serverSocket.accept();
+                connections.incrementAndGet();
+                clients.add(client);
+                Thread handler = new Thread(() -> handle(client), "smtp-stub-client");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void handle(Socket client) {
+        try (Socket socket = client;
+             BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             PrintWriter out = new PrintWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            reply(out, "220 localhost SMTP stub");
+            int messages = 0;
+            String from = null;
+            List<String> recipients = new ArrayList<>();
+            String line;
+            while ((line = in.readLine()) != null) {
+                String command = line.toUpperCase();
+                if (command.startsWith("EHLO") || command.startsWith("HELO")) {
+                    reply(out, "250 localhost");
+                } else if (command.startsWith("MAIL FROM:")) {
+                    if (messages >= messagesPerConnection) {
+                        return;
+                    }
+                    from = address(line);
+                    recipients.clear();
+                    reply(out, "250 OK");
+                } else if (command.startsWith("RCPT TO:")) {
+                    String recipient = address(line);
+                    if (recipient.equalsIgnoreCase(rejectedRecipient)) {
+                        reply(out, "550 No such user");
+                    } else {
+                        recipients.add(recipient);
+                        reply(out, "250 OK");
+                    }
+                } else if (command.equals("DATA")) {
+                    reply(out, "354 End data with <CR><LF>.<CR><LF>");
+                    StringBuilder data = new StringBuilder();
+                    while ((line = in.readLine()) != null && !line.equals(".")) {
+                        data.append(line.startsWith(".") ? line.substring(1) : line).append('\n');
+                    }
+                    received.add(new ReceivedMail(from, new ArrayList<>(recipients), data.toString()));
+                    messages++;
+                    reply(out, "250 OK");
+                } else if (command.equals("QUIT")) {
+                    reply(out, "221 Bye");
+                    return;
+                } else if (command.startsWith("RSET") || command.startsWith("NOOP")) {
+                    reply(out, "250 OK");
+                } else {
+                    reply(out, "502 Command not implemented");
+                }
+            }
+        } catch (IOException e) {
+            // Client went away
+        }
+    }
+
+    private static void reply(PrintWriter out, String response) {
+        out.print(response + "\r\n");
+        out.flush();
+    }
+
+    private static String address(String line) {
+        int start = line.indexOf('<');
+        int end = line.indexOf('>');
+        return start >= 0 && end > start ? line.substring(start + 1, end) : line.substring(line.indexOf(':') + 1).trim();
+    }
+
+    /**
+     * A message as the server received it.
+     */
+    static final class ReceivedMail {
+        private final String from;
+        private final List<String> recipients;
+        private final String data;
+
+        ReceivedMail(String from, List<String> recipients, String data) {
+            this.from = from;
+            this.recipients = recipients;
+            this.data = data;
+        }
+
+        String getFrom() {
+            return from;
+        }
+
+        List<String> getRecipients() {
+            return recipients;
+        }
+
+        /** @return the headers and body, with dot-stuffing removed */
+        String getData() {
+            return data;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.library.repository;
+
+import com.example.library.domain.MediaItem;
+import com.example.library.service.catalog.CopyTotals;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarCatalogMediaItemRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileMediaItemRepository delegate;
+    private ColumnarCatalogMediaItemRepository repo;
+
+    @BeforeEach
+    void setUp() {
+        delegate = new FileMediaItemRepository(tempDir);
+        delegate.save(createItem("Book A", "BOOK", "Penguin", 2, 1));
+        delegate.save(createItem("Book B", "BOOK", "Orbit", 1, 0));
+        delegate.save(createItem("Album", "CD", "Sony", 3, 2));
+        repo = new ColumnarCatalogMediaItemRepository(delegate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        delegate.close();
+    }
+
+    @Test
+    void testAvailabilityByType_LoadsColumnsFromDelegate() {
+        // Act
+        CopyTotals books = repo.availabilityByType().get("BOOK");
+
+        // Assert
+        assertEquals(2, books.getItems());
+        assertEquals(1, books.getAvailableItems());
+        assertEquals(3, books.getTotalCopies());
+        assertEquals(1, books.getAvailableCopies());
+    }
+
+    @Test
+    void testWrites_AreAppliedToLoadedColumns() {
+        // Arrange
+        repo.availabilityByType();
+        MediaItem album = delegate.findByIsbn("Album-ISBN").get();
+
+        // Act
+        repo.save(createItem("Book C", "BOOK", "Orbit", 4, 4));
+        repo.decrementAvailableCopies(album.getItemId());
+        repo.deleteById(delegate.findByIsbn("Book A-ISBN").get().getItemId());
+
+        // Assert
+        CopyTotals books = repo.availabilityByType().get("BOOK");
+        assertEquals(2, books.getItems());
+        assertEquals(5, books.getTotalCopies());
+        assertEquals(4, books.getAvailableCopies());
+        assertEquals(1, repo.availabilityByType().get("CD").getAvailableCopies());
+        assertEquals(2, repo.copiesByPublisher().get("Orbit").getItems());
+        assertFalse(repo.copiesByPublisher().containsKey("Penguin"));
+    }
+
+    @Test
+    void testReloadCatalog_PicksUpWritesMadeBehindTheDecorator() {
+        // Arrange
+        repo.availabilityByType();
+        delegate.save(createItem("Film", "DVD", "Warner", 1, 1));
+
+        // Act
+        boolean before = repo.availabilityByType().containsKey("DVD");
+        repo.reloadCatalog();
+        boolean after = repo.availabilityByType().containsKey("DVD");
+
+        // Assert
+        assertFalse(before);
+        assertTrue(after);
+    }
+
+    private MediaItem createItem(String title, String type, String publisher, int totalCopies, int availableCopies) {
+        MediaItem item = new MediaItem();
+        item.setTitle(title);
+        item.setAuthor("Author");
+        item.setType(type);
+        item.setIsbn(title + "-ISBN");
+        item.setPublisher(publisher);
+        item.setPublicationDate(LocalDate.of(2020, 1, 1));
+        item.setTotalCopies(totalCopies);
+        item.setAvailableCopies(availableCopies);
+        item.setLateFeesPerDay(new BigDecimal("0.50"));
+        return item;
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.library.repository;
+
+import com.example.library.domain.MediaItem;
+import com.example.library.service.search.Facet;
+import com.example.library.service.search.FacetFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FacetIndexedMediaItemRepositoryTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FileMediaItemRepository delegate;
+    private FacetIndexedMediaItemRepository repo;
+
+    @BeforeEach
+    void setUp() {
+        delegate = new FileMediaItemRepository(tempDir);
+        delegate.save(createItem("Book A", "BOOK", "Penguin", 2010, 1));
+        delegate.save(createItem("Book B", "BOOK", "Orbit", 2018, 0));
+        delegate.save(createItem("Album", "CD", "Sony", 2018, 2));
+        repo = new FacetIndexedMediaItemRepository(delegate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        delegate.close();
+    }
+
+    @Test
+    void testFindByFacets_LoadsIndexFromDelegate() {
+        // Act
+        List<MediaItem> result = repo.findByFacets(new FacetFilter().type("BOOK").availableOnly());
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals("Book A", result.get(0).getTitle());
+    }
+
+    @Test
+    void testSave_IsVisibleToFacetQueries() {
+        // Arrange
+        repo.countByFacets(new FacetFilter());
+
+        // Act
+        repo.save(createItem("Book C", "BOOK", "Orbit", 2021, 4));
+
+        // Assert
+        assertEquals(2, repo.countByFacets(new FacetFilter().publisher("Orbit")));
+        assertEquals(Integer.valueOf(3), repo.facetCounts(Facet.TYPE, new FacetFilter()).get("BOOK"));
+    }
+
+    @Test
+    void testUpdateAvailableCopies_UpdatesDelegateAndIndex() {
+        // Arrange
+        repo.countByFacets(new FacetFilter());
+
+        // Act
+        repo.updateAvailableCopies(2, 3);
+        repo.updateAvailableCopies(3, 0);
+
+        // Assert
+        assertEquals(Integer.valueOf(3), delegate.findById(2).get().getAvailableCopies());
+        assertEquals(2, repo.countByFacets(new FacetFilter().type("BOOK").availableOnly()));
+        assertEquals(0, repo.countByFacets(new FacetFilter().type("CD").availableOnly()));
+    }
+
+    @Test
+    void testDeleteById_RemovesFromIndex() {
+        // Arrange
+        repo.countByFacets(new FacetFilter());
+
+        // Act
+        boolean deleted = repo.deleteById(3);
+
+        // Assert
+        assertTrue(deleted);
+        assertEquals(0, repo.countByFacets(new FacetFilter().type("CD")));
+    }
+
+    @Test
+    void testUpdate_MovesItemBetweenFacetValues() {
+        // Arrange
+        repo.countByFacets(new FacetFilter());
+        MediaItem item = delegate.findById(1).get();
+        item.setPublisher("Orbit");
+
+        // Act
+        repo.update(item);
+
+        // Assert
+        assertEquals(0, repo.countByFacets(new FacetFilter().publisher("Penguin")));
+        assertEquals(2, repo.countByFacets(new FacetFilter().publisher("Orbit")));
+    }
+
+    @Test
+    void testDecrementAvailableCopies_IndexFollowsOnlyOnceTransactionCommits() {
+        // Arrange
+        JdbcTransactionManager transactionManager = new JdbcTransactionManager(noOpDataSource());
+        repo = new FacetIndexedMediaItemRepository(delegate, transactionManager);
+        repo.countByFacets(new FacetFilter());
+        FacetFilter availableBooks = new FacetFilter().type("BOOK").availableOnly();
+
+        // Act
+        int duringTransaction = transactionManager.inTransaction(() -> {
+            repo.decrementAvailableCopies(1);
+            return repo.countByFacets(availableBooks);
+        });
+
+        // Assert
+        assertEquals(1, duringTransaction);
+        assertEquals(0, repo.countByFacets(availableBooks));
+    }
+
+    @Test
+    void testDecrementAvailableCopies_RolledBackTransactionLeavesIndexUnchanged() {
+        // Arrange
+        JdbcTransactionManager transactionManager = new JdbcTransactionManager(noOpDataSource());
+        repo = new FacetIndexedMediaItemRepository(delegate, transactionManager);
+        repo.countByFacets(new FacetFilter());
+
+        // Act
+        assertThrows(IllegalStateException.class, () -> transactionManager.runInTransaction(() -> {
+            repo.decrementAvailableCopies(1);
+            throw new IllegalStateException("borrow failed");
+        }));
+
+        // Assert
+        assertEquals(1, repo.countByFacets(new FacetFilter().type("BOOK").availableOnly()));
+    }
+
+    @Test
+    void testDecrementAndIncrement_OverlappingRefreshesKeepTheLatestCount() throws Exception {
+        // Arrange
+        CountDownLatch borrowRead = new CountDownLatch(1);
+        CountDownLatch returnDone = new CountDownLatch(1);
+        AtomicBoolean firstRead = new AtomicBoolean(true);
+        delegate.close();
+        delegate = new FileMediaItemRepository(tempDir) {
+            @Override
+            public Optional<MediaItem> findById(Integer itemId) {
+                Optional<MediaItem> item = super.findById(itemId);
+                if (firstRead.getAndSet(false)) {
+                    // Hold the borrow's stale read while the return commits
+                    borrowRead.countDown();
+                    try {
+                        returnDone.await(200, TimeUnit.MILLISECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return item;
+            }
+        };
+        repo = new FacetIndexedMediaItemRepository(delegate);
+        repo.countByFacets(new FacetFilter());
+        Thread borrower = new Thread(() -> repo.decrementAvailableCopies(1));
+
+        // Act
+        borrower.start();
+        assertTrue(borrowRead.await(5, TimeUnit.SECONDS));
+        Thread returner = new Thread(() -> {
+            repo.incrementAvailableCopies(1);
+            returnDone.countDown();
+        });
+        returner.start();
+        borrower.join();
+        returner.join();
+
+        // Assert
+        assertEquals(Integer.valueOf(1), delegate.findById(1).get().getAvailableCopies());
+        assertEquals(1, repo.countByFacets(new FacetFilter().type("BOOK").availableOnly()));
+    }
+
+    @Test
+    void testReloadIndex_PicksUpWritesMadeBehindTheDecorator() {
+        // Arrange
+        repo.countByFacets(new FacetFilter());
+        delegate.save(createItem("Film", "DVD", "Warner", 2005, 1));
+
+        // Act
+        int before = repo.countByFacets(new FacetFilter().type("DVD"));
+        repo.reloadIndex();
+        int after = repo.countByFacets(new FacetFilter().type("DVD"));
+
+        // Assert
+        assertEquals(0, before);
+        assertEquals(1, after);
+    }
+
+    /**
+     * Data source for a transaction manager around the file repository, which
+     * has no transactions of its own; its connections ignore every call.
+     */
+    private static DataSource noOpDataSource() {
+        Connection conn = (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, (proxy, method, args) -> null);
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getConnection")) {
+                        return conn;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    private MediaItem createItem(String title, String type, String publisher, int year, int availableCopies) {
+        MediaItem item = new MediaItem();
+        item.setTitle(title);
+        item.setAuthor("Author");
+        item.setType(type);
+        item.setIsbn(title + "-ISBN");
+        item.setPublisher(publisher);
+        item.setPublicationDate(LocalDate.of(year, 1, 1));
+        item.setTotalCopies(availableCopies + 1);
+        item.setAvailableCopies(availableCopies);
+        return item;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.library.repository;
 
 import com.example.library.domain.MediaItem;
 import com.example.library.util.XmlDataManager;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
@@ -9,8 +10,12 @@ import org.junit.jupiter.api.io.TempDir;
 import java.math.BigDecimal;
 import java.nio.file.Path;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -31,6 +36,11 @@ public class FileMediaItemRepositoryTest {
         repo = new FileMediaItemRepository();
     }
 
+    @AfterEach
+    void tearDown() {
+        repo.close();
+    }
+
     @Test
     void saveFindAndExists() {
         MediaItem item = new MediaItem();
@@ -68,6 +78,23 @@ public class FileMediaItemRepositoryTest {
         assertFalse(repo.findById(saved.getItemId()).isPresent());
     }
 
+    @Test
+    void decrementAndIncrementAvailableCopies() {
+        MediaItem item = new MediaItem();
+        item.setTitle("Book3");
+        item.setType("BOOK");
+        item.setIsbn("ISBN-COPY");
+        item.setTotalCopies(1);
+        item.setAvailableCopies(1);
+
+        MediaItem saved = repo.save(item);
+        assertTrue(repo.decrementAvailableCopies(saved.getItemId()));
+        assertFalse(repo.decrementAvailableCopies(saved.getItemId()));
+        repo.incrementAvailableCopies(saved.getItemId());
+        assertEquals(1, repo.findById(saved.getItemId()).get().getAvailableCopies());
+        assertFalse(repo.decrementAvailableCopies(999));
+    }
+
     // Branch/edge coverage tests
 
     @Test
@@ -213,11 +240,130 @@ public class FileMediaItemRepositoryTest {
         assertTrue(items.isEmpty());
     }
 
+    @Test
+    void findByIds_returnsExistingItemsOrderedById() {
+        MediaItem first = repo.save(createItem("First", "Author", "BOOK", "1"));
+        MediaItem second = repo.save(createItem("Second", "Author", "BOOK", "2"));
+        List<MediaItem> items = repo.findByIds(Arrays.asList(second.getItemId(), 999, null, first.getItemId(), second.getItemId()));
+        assertEquals(2, items.size());
+        assertEquals("First", items.get(0).getTitle());
+        assertEquals("Second", items.get(1).getTitle());
+    }
+
     @Test
     void existsByIsbn_returnsFalse_whenNotFound() {
         assertFalse(repo.existsByIsbn("notfound"));
     }
 
+    @Test
+    void reopen_keepsCopyCountChanges() {
+        MediaItem item = createItem("Durable", "Author", "BOOK", "DUR-1");
+        item.setTotalCopies(3);
+        item.setAvailableCopies(3);
+        item.setLateFeesPerDay(new BigDecimal("0.25"));
+        repo.save(item);
+        repo.decrementAvailableCopies(item.getItemId());
+        repo.decrementAvailableCopies(item.getItemId());
+        repo.incrementAvailableCopies(item.getItemId());
+        repo.close();
+
+        repo = new FileMediaItemRepository();
+
+        MediaItem found = repo.findByIsbn("DUR-1").orElseThrow();
+        assertEquals(Integer.valueOf(2), found.getAvailableCopies());
+        assertEquals(new BigDecimal("0.25"), found.getLateFeesPerDay());
+        assertEquals(item.getPublicationDate(), found.getPublicationDate());
+    }
+
+    @Test
+    void save_rejectsIsbnTakenByAnotherItem() {
+        repo.save(createItem("First", "Author", "BOOK", "DUP-1"));
+
+        assertThrows(DataAccessException.class, () -> repo.save(createItem("Second", "Author", "BOOK", "DUP-1")));
+        assertEquals("First", repo.findByIsbn("DUP-1").get().getTitle());
+    }
+
+    @Test
+    void update_movesItemBetweenIsbnAndTypeIndexes() {
+        MediaItem item = repo.save(createItem("Moving", "Author", "BOOK", "OLD-ISBN"));
+        item.setIsbn("NEW-ISBN");
+        item.setType("DVD");
+
+        repo.update(item);
+
+        assertFalse(repo.existsByIsbn("OLD-ISBN"));
+        assertEquals(item.getItemId(), repo.findByIsbn("NEW-ISBN").get().getItemId());
+        assertTrue(repo.findByType("BOOK").isEmpty());
+        assertEquals(1, repo.findByType("DVD").size());
+    }
+
+    @Test
+    void decrementAvailableCopies_concurrentBorrowersNeverOversell() throws InterruptedException {
+        MediaItem item = createItem("Popular", "Author", "BOOK", "POP-1");
+        item.setTotalCopies(50);
+        item.setAvailableCopies(50);
+        repo.save(item);
+        AtomicInteger borrowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> borrowers = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 20; i++) {
+                    if (repo.decrementAvailableCopies(item.getItemId())) {
+                        borrowed.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            borrowers.add(thread);
+        }
+
+        start.countDown();
+        for (Thread thread : borrowers) {
+            thread.join();
+        }
+
+        assertEquals(50, borrowed.get());
+        assertEquals(Integer.valueOf(0), repo.findById(item.getItemId()).get().getAvailableCopies());
+    }
+
+    @Test
+    void findAll_returnsSharedReadOnlyItems() {
+        repo.save(createItem("Shared", "Author", "BOOK", "SHARED-1"));
+
+        MediaItem first = repo.findAll().get(0);
+        MediaItem second = repo.findByType("BOOK").get(0);
+
+        assertSame(first, second);
+        assertThrows(UnsupportedOperationException.class, () -> first.setTitle("Changed"));
+        // Single-item lookups still hand out a copy the caller may edit
+        MediaItem editable = repo.findById(first.getItemId()).get();
+        assertNotSame(first, editable);
+        editable.setTitle("Changed");
+        assertEquals("Shared", repo.findAll().get(0).getTitle());
+    }
+
+    @Test
+    void updateAvailableCopies_swapsInNewVersionAndLeavesOldOneUnchanged() {
+        MediaItem item = createItem("Versioned", "Author", "BOOK", "VER-1");
+        item.setTotalCopies(5);
+        item.setAvailableCopies(5);
+        repo.save(item);
+        MediaItem before = repo.findAll().get(0);
+
+        repo.updateAvailableCopies(item.getItemId(), 2);
+
+        MediaItem after = repo.findAll().get(0);
+        assertEquals(Integer.valueOf(5), before.getAvailableCopies());
+        assertEquals(Integer.valueOf(2), after.getAvailableCopies());
+        assertNotSame(before, after);
+    }
+
     private MediaItem createItem(String title, String author, String type, String isbn) {
         MediaItem item = new MediaItem();
         item.setTitle(title);
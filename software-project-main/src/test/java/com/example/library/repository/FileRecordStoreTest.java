@@ -0,0 +1,203 @@
+package com.example.library.repository;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileRecordStoreTest {
+
+    private static final long LARGE = 1024 * 1024;
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testOpen_ReplaysPutsAndDeletesFromEarlierRun() {
+        // Arrange
+        FileRecordStore store = new FileRecordStore(tempDir, "items", LARGE, 0);
+        store.put(1, bytes("one"));
+        store.put(2, bytes("two"));
+        store.put(1, bytes("uno"));
+        store.delete(2);
+        store.close();
+
+        // Act
+        FileRecordStore reopened = new FileRecordStore(tempDir, "items", LARGE, 0);
+        Map<Integer, byte[]> records = reopened.records();
+        reopened.close();
+
+        // Assert
+        assertEquals(1, records.size());
+        assertEquals("uno", text(records.get(1)));
+    }
+
+    @Test
+    void testOpen_TruncatesTornRecordAtEndOfLog() throws IOException {
+        // Arrange
+        FileRecordStore store = new FileRecordStore(tempDir, "items", LARGE, 0);
+        store.put(1, bytes("one"));
+        store.put(2, bytes("two"));
+        store.close();
+        Path log = files(".log").get(0);
+        long goodSize = Files.size(log);
+        // Half a record, as left by a crash in the middle of a write
+        Files.write(log, new byte[] {0, 0, 0, 9, 1, 2}, StandardOpenOption.APPEND);
+
+        // Act
+        FileRecordStore reopened = new FileRecordStore(tempDir, "items", LARGE, 0);
+        reopened.put(3, bytes("three"));
+        reopened.close();
+        FileRecordStore again = new FileRecordStore(tempDir, "items", LARGE, 0);
+        Map<Integer, byte[]> records = again.records();
+        again.close();
+
+        // Assert
+        assertEquals(Set.of(1, 2, 3), records.keySet());
+        assertTrue(Files.size(log) > goodSize);
+    }
+
+    @Test
+    void testOpen_StopsAtRecordWithBadChecksum() throws IOException {
+        // Arrange
+        FileRecordStore store = new FileRecordStore(tempDir, "items", LARGE, 0);
+        store.put(1, bytes("one"));
+        store.put(2, bytes("two"));
+        store.close();
+        Path log = files(".log").get(0);
+        byte[] contents = Files.readAllBytes(log);
+        // Flip a byte in the payload of the last record
+        contents[contents.length - 1] ^= 0x7f;
+        Files.write(log, contents);
+
+        // Act
+        FileRecordStore reopened = new FileRecordStore(tempDir, "items", LARGE, 0);
+        Map<Integer, byte[]> records = reopened.records();
+        reopened.close();
+
+        // Assert
+        assertEquals(Set.of(1), records.keySet());
+        assertEquals("one", text(records.get(1)));
+    }
+
+    @Test
+    void testCompact_ReplacesLogsWithSnapshotAndKeepsState() throws IOException {
+        // Arrange
+        FileRecordStore store = new FileRecordStore(tempDir, "items", LARGE, 0);
+        for (int i = 1; i <= 50; i++) {
+            store.put(i, bytes("v" + i));
+        }
+        for (int i = 1; i <= 40; i++) {
+            store.delete(i);
+        }
+
+        // Act
+        store.compact();
+        store.put(51, bytes("after snapshot"));
+        store.close();
+        FileRecordStore reopened = new FileRecordStore(tempDir, "items", LARGE, 0);
+        Map<Integer, byte[]> records = reopened.records();
+        int nextId = reopened.nextId();
+        reopened.close();
+
+        // Assert
+        assertEquals(1, files(".snapshot").size());
+        assertEquals(1, files(".log").size(), "logs folded into the snapshot should be deleted");
+        assertEquals(11, records.size());
+        assertEquals("after snapshot", text(records.get(51)));
+        assertEquals(52, nextId);
+    }
+
+    @Test
+    void testCompact_DeletedHighestIdIsNotHandedOutAgain() {
+        // Arrange
+        FileRecordStore store = new FileRecordStore(tempDir, "items", LARGE, 0);
+        int id = store.nextId();
+        store.put(id, bytes("gone"));
+        store.delete(id);
+        store.compact();
+        store.close();
+
+        // Act
+        FileRecordStore reopened = new FileRecordStore(tempDir, "items", LARGE, 0);
+        int next = reopened.nextId();
+        reopened.close();
+
+        // Assert
+        assertEquals(id + 1, next);
+    }
+
+    @Test
+    void testPut_CompactsInBackgroundOnceLogPassesThreshold() throws Exception {
+        // Arrange
+        FileRecordStore store = new FileRecordStore(tempDir, "items", 256, 0);
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            store.put(i % 5, bytes("value " + i));
+        }
+        long deadline = System.currentTimeMillis() + 5000;
+        while (files(".snapshot").isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        store.close();
+        FileRecordStore reopened = new FileRecordStore(tempDir, "items", 256, 0);
+        Map<Integer, byte[]> records = reopened.records();
+        reopened.close();
+
+        // Assert
+        assertFalse(files(".snapshot").isEmpty());
+        assertEquals(5, records.size());
+        assertEquals("value 99", text(records.get(4)));
+    }
+
+    @Test
+    void testOpen_CrashBeforeSnapshotRenameReplaysEveryLog() throws IOException {
+        // Arrange
+        FileRecordStore store = new FileRecordStore(tempDir, "items", LARGE, 0);
+        store.put(1, bytes("one"));
+        store.compact();
+        store.put(2, bytes("two"));
+        store.close();
+        // A later compaction that started a new log but died before its snapshot was renamed
+        Files.write(tempDir.resolve("items.snapshot.tmp"), new byte[] {1, 2, 3});
+        Files.createFile(tempDir.resolve(String.format("items-%020d.log", 2)));
+
+        // Act
+        FileRecordStore reopened = new FileRecordStore(tempDir, "items", LARGE, 0);
+        reopened.put(3, bytes("three"));
+        Map<Integer, byte[]> records = reopened.records();
+        reopened.close();
+
+        // Assert
+        assertEquals(Set.of(1, 2, 3), records.keySet());
+        assertFalse(Files.exists(tempDir.resolve("items.snapshot.tmp")));
+    }
+
+    private List<Path> files(String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(tempDir)) {
+            return files.filter(file -> file.getFileName().toString().endsWith(suffix))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
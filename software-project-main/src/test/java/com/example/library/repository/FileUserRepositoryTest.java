@@ -2,14 +2,19 @@ package com.example.library.repository;
 
 import com.example.library.domain.User;
 import com.example.library.util.XmlDataManager;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -31,6 +36,11 @@ public class FileUserRepositoryTest {
         repo = new FileUserRepository();
     }
 
+    @AfterEach
+    void tearDown() {
+        repo.close();
+    }
+
     @Test
     void saveAndFindByUsername() {
         User user = new User();
@@ -216,4 +226,102 @@ public class FileUserRepositoryTest {
         user.setCreatedAt(LocalDateTime.now());
         return user;
     }
+
+    @Test
+    void reopen_loadsUsersSavedByEarlierRun() {
+        User alice = repo.save(createUser("alice", "alice@example.com", "ADMIN"));
+        User bob = repo.save(createUser("bob", "bob@example.com", "USER"));
+        bob.setEmail("bob@new.example.com");
+        repo.update(bob);
+        repo.deleteById(alice.getUserId());
+        repo.close();
+
+        repo = new FileUserRepository();
+
+        assertFalse(repo.findById(alice.getUserId()).isPresent());
+        Optional<User> found = repo.findByUsername("bob");
+        assertTrue(found.isPresent());
+        assertEquals("bob@new.example.com", found.get().getEmail());
+        assertEquals(bob.getCreatedAt(), found.get().getCreatedAt());
+    }
+
+    @Test
+    void reopen_doesNotReuseIds() {
+        User first = repo.save(createUser("first", "first@example.com", "USER"));
+        User second = repo.save(createUser("second", "second@example.com", "USER"));
+        repo.deleteById(second.getUserId());
+        repo.close();
+
+        repo = new FileUserRepository();
+        User third = repo.save(createUser("third", "third@example.com", "USER"));
+
+        assertTrue(third.getUserId() > second.getUserId());
+        assertTrue(repo.findById(first.getUserId()).isPresent());
+    }
+
+    @Test
+    void save_rejectsUsernameOrEmailTakenByAnotherUser() {
+        repo.save(createUser("taken", "taken@example.com", "USER"));
+
+        assertThrows(DataAccessException.class,
+                () -> repo.save(createUser("taken", "other@example.com", "USER")));
+        assertThrows(DataAccessException.class,
+                () -> repo.save(createUser("other", "taken@example.com", "USER")));
+        assertEquals(1, repo.findAll().size());
+    }
+
+    @Test
+    void update_movesUserBetweenIndexedValues() {
+        User user = repo.save(createUser("before", "before@example.com", "USER"));
+        user.setUsername("after");
+        user.setEmail("after@example.com");
+        user.setRole("ADMIN");
+
+        repo.update(user);
+
+        assertFalse(repo.existsByUsername("before"));
+        assertFalse(repo.existsByEmail("before@example.com"));
+        assertTrue(repo.findByRole("USER").isEmpty());
+        assertEquals(user.getUserId(), repo.findByEmail("after@example.com").get().getUserId());
+        assertEquals(1, repo.findByRole("ADMIN").size());
+        // The old username is free again
+        assertNotNull(repo.save(createUser("before", "before@example.com", "USER")).getUserId());
+    }
+
+    @Test
+    void save_concurrentWritersGetDistinctIdsAndIndexedUsers() throws InterruptedException {
+        int threads = 8;
+        int perThread = 200;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int writer = t;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    String name = "w" + writer + "-" + i;
+                    repo.save(createUser(name, name + "@example.com", i % 2 == 0 ? "USER" : "ADMIN"));
+                }
+            });
+            thread.start();
+            writers.add(thread);
+        }
+
+        start.countDown();
+        for (Thread thread : writers) {
+            thread.join();
+        }
+
+        Set<Integer> ids = new HashSet<>();
+        for (User user : repo.findAll()) {
+            assertTrue(ids.add(user.getUserId()), "duplicate id " + user.getUserId());
+        }
+        assertEquals(threads * perThread, ids.size());
+        assertEquals(threads * perThread / 2, repo.findByRole("ADMIN").size());
+        assertTrue(repo.findByUsername("w7-199").isPresent());
+    }
 }
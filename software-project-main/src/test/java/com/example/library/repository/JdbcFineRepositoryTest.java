@@ -135,6 +135,45 @@ class JdbcFineRepositoryTest {
         assertNull(found.getPaidDate(), "Paid date should be null");
     }
     
+    @Test
+    void testFindWithUsers_PagesAndTotalsUnpaidAcrossAllPages() {
+        // Arrange
+        fineRepository.save(createFine("15.00", "UNPAID"));
+        fineRepository.save(createFine("10.00", "PAID"));
+        fineRepository.save(createFine("5.50", "UNPAID"));
+        
+        // Act
+        FinePage firstPage = fineRepository.findWithUsers(null, 0, 2);
+        FinePage secondPage = fineRepository.findWithUsers(null, 2, 2);
+        
+        // Assert
+        assertEquals(3, firstPage.getTotalCount());
+        assertEquals(2, firstPage.getRows().size());
+        assertEquals(0, new BigDecimal("20.50").compareTo(firstPage.getTotalUnpaid()));
+        assertEquals(testUserId, firstPage.getRows().get(0).getUserId());
+        assertEquals("testuser", firstPage.getRows().get(0).getUsername());
+        assertEquals(testLoanId, firstPage.getRows().get(0).getFine().getLoanId());
+        assertEquals(1, secondPage.getRows().size());
+        assertEquals("UNPAID", secondPage.getRows().get(0).getFine().getStatus());
+    }
+    
+    @Test
+    void testFindWithUsers_FiltersByUser() {
+        // Arrange
+        fineRepository.save(createFine("15.00", "UNPAID"));
+        
+        // Act
+        FinePage ownFines = fineRepository.findWithUsers(testUserId, 0, 10);
+        FinePage otherFines = fineRepository.findWithUsers(testUserId + 1000, 0, 10);
+        
+        // Assert
+        assertEquals(1, ownFines.getTotalCount());
+        assertEquals(0, new BigDecimal("15.00").compareTo(ownFines.getTotalUnpaid()));
+        assertEquals(0, otherFines.getTotalCount());
+        assertTrue(otherFines.getRows().isEmpty());
+        assertEquals(0, BigDecimal.ZERO.compareTo(otherFines.getTotalUnpaid()));
+    }
+    
     @Test
     void testFindUnpaidFinesByUser() {
         // Arrange - Insert 2 unpaid fines
@@ -461,4 +500,14 @@ class JdbcFineRepositoryTest {
     void deleteById_doesNothing_whenNotFound() {
         assertDoesNotThrow(() -> fineRepository.deleteById(99999));
     }
+    
+    private Fine createFine(String amount, String status) {
+        Fine fine = new Fine();
+        fine.setLoanId(testLoanId);
+        fine.setAmount(new BigDecimal(amount));
+        fine.setIssuedDate(LocalDate.now());
+        fine.setStatus(status);
+        fine.setPaidDate("PAID".equals(status) ? LocalDate.now() : null);
+        return fine;
+    }
 }
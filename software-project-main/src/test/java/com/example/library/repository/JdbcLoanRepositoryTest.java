@@ -1,7 +1,12 @@
 package com.example.library.repository;
 
 import com.example.library.DatabaseConnection;
+import com.example.library.domain.BorrowingEligibility;
+import com.example.library.domain.DueLoan;
+import com.example.library.domain.Fine;
 import com.example.library.domain.Loan;
+import com.example.library.domain.LoanAdminView;
+import com.example.library.domain.OverdueSummary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
@@ -199,6 +204,94 @@ class JdbcLoanRepositoryTest {
         assertNull(found.getReturnDate(), "Return date should be null for overdue loan");
     }
     
+    @Test
+    void testFindBorrowingEligibility_ReportsOverdueLoanAndUnpaidFines() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        Loan returnedLoan = new Loan();
+        returnedLoan.setUserId(testUserId);
+        returnedLoan.setItemId(testItemId);
+        returnedLoan.setLoanDate(today.minusDays(40));
+        returnedLoan.setDueDate(today.minusDays(26));
+        returnedLoan.setReturnDate(today.minusDays(20));
+        returnedLoan.setStatus("RETURNED");
+        loanRepository.save(returnedLoan);
+        
+        JdbcFineRepository fineRepository = new JdbcFineRepository();
+        fineRepository.save(createFine(returnedLoan.getLoanId(), "12.50", "UNPAID"));
+        fineRepository.save(createFine(returnedLoan.getLoanId(), "4.00", "PAID"));
+        
+        // Act
+        BorrowingEligibility finesOnly = loanRepository.findBorrowingEligibility(testUserId, today);
+        
+        Loan overdueLoan = new Loan();
+        overdueLoan.setUserId(testUserId);
+        overdueLoan.setItemId(testItemId);
+        overdueLoan.setLoanDate(today.minusDays(20));
+        overdueLoan.setDueDate(today.minusDays(5));
+        overdueLoan.setStatus("ACTIVE");
+        loanRepository.save(overdueLoan);
+        BorrowingEligibility withOverdue = loanRepository.findBorrowingEligibility(testUserId, today);
+        BorrowingEligibility otherUser = loanRepository.findBorrowingEligibility(testUserId + 1000, today);
+        
+        // Assert
+        assertFalse(finesOnly.hasOverdueLoans());
+        assertEquals(0, new BigDecimal("12.50").compareTo(finesOnly.getUnpaidFines()));
+        assertFalse(finesOnly.isEligible());
+        assertTrue(withOverdue.hasOverdueLoans());
+        assertFalse(otherUser.hasOverdueLoans());
+        assertEquals(0, BigDecimal.ZERO.compareTo(otherUser.getUnpaidFines()));
+        assertTrue(otherUser.isEligible());
+    }
+    
+    @Test
+    void testFindOverdueSummaries_GroupsOverdueLoansPerUserAndPagesByUserId() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        loanRepository.save(createLoan(today.minusDays(30), today.minusDays(16), null, "ACTIVE"));
+        loanRepository.save(createLoan(today.minusDays(20), today.minusDays(6), null, "ACTIVE"));
+        loanRepository.save(createLoan(today.minusDays(40), today.minusDays(26), today.minusDays(20), "RETURNED"));
+        loanRepository.save(createLoan(today, today.plusDays(14), null, "ACTIVE"));
+        
+        // Act
+        List<OverdueSummary> firstPage = loanRepository.findOverdueSummaries(today, 0, 10);
+        List<OverdueSummary> nextPage = loanRepository.findOverdueSummaries(today, testUserId, 10);
+        
+        // Assert
+        assertEquals(1, firstPage.size());
+        OverdueSummary summary = firstPage.get(0);
+        assertEquals(testUserId, summary.getUser().getUserId());
+        assertEquals("testuser@example.com", summary.getUser().getEmail());
+        assertEquals(2, summary.getOverdueCount());
+        assertTrue(nextPage.isEmpty());
+    }
+    
+    @Test
+    void testFindLoansDueSoonAndOverdue_PageByLoanIdWithBorrower() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        Loan dueToday = loanRepository.save(createLoan(today.minusDays(14), today, null, "ACTIVE"));
+        Loan dueInTwoDays = loanRepository.save(createLoan(today.minusDays(12), today.plusDays(2), null, "ACTIVE"));
+        loanRepository.save(createLoan(today.minusDays(1), today.plusDays(13), null, "ACTIVE"));
+        loanRepository.save(createLoan(today.minusDays(20), today.plusDays(1), today.minusDays(2), "RETURNED"));
+        Loan overdue = loanRepository.save(createLoan(today.minusDays(20), today.minusDays(6), null, "ACTIVE"));
+        
+        // Act
+        List<DueLoan> firstPage = loanRepository.findLoansDueSoon(today, 3, 0, 1);
+        List<DueLoan> secondPage = loanRepository.findLoansDueSoon(today, 3, firstPage.get(0).getLoan().getLoanId(), 1);
+        List<DueLoan> lastPage = loanRepository.findLoansDueSoon(today, 3, dueInTwoDays.getLoanId(), 1);
+        List<DueLoan> overdueLoans = loanRepository.findOverdueLoans(today, 0, 10);
+        
+        // Assert
+        assertEquals(dueToday.getLoanId(), firstPage.get(0).getLoan().getLoanId());
+        assertEquals("testuser@example.com", firstPage.get(0).getBorrower().getEmail());
+        assertEquals(dueInTwoDays.getLoanId(), secondPage.get(0).getLoan().getLoanId());
+        assertTrue(lastPage.isEmpty());
+        assertEquals(1, overdueLoans.size());
+        assertEquals(overdue.getLoanId(), overdueLoans.get(0).getLoan().getLoanId());
+        assertEquals(testUserId, overdueLoans.get(0).getBorrower().getUserId());
+    }
+    
     @Test
     void testUpdateStatus() {
         // Arrange - Insert a loan
@@ -223,6 +316,33 @@ class JdbcLoanRepositoryTest {
         assertEquals(returnDate, updated.get().getReturnDate(), "Return date should be set");
     }
     
+    @Test
+    void testMarkReturned_OnlyTheFirstReturnSucceeds() {
+        // Arrange - Insert an active loan
+        Loan loan = new Loan();
+        loan.setUserId(testUserId);
+        loan.setItemId(testItemId);
+        loan.setLoanDate(LocalDate.now());
+        loan.setDueDate(LocalDate.now().plusDays(14));
+        loan.setReturnDate(null);
+        loan.setStatus("ACTIVE");
+        
+        Loan saved = loanRepository.save(loan);
+        LocalDate returnDate = LocalDate.now();
+        
+        // Act
+        boolean first = loanRepository.markReturned(saved.getLoanId(), returnDate);
+        boolean second = loanRepository.markReturned(saved.getLoanId(), returnDate.plusDays(1));
+        
+        // Assert
+        assertTrue(first, "The active loan should be returned");
+        assertFalse(second, "A returned loan should not be returned again");
+        assertFalse(loanRepository.markReturned(99999, returnDate), "A missing loan should not be returned");
+        Loan updated = loanRepository.findById(saved.getLoanId()).get();
+        assertEquals("RETURNED", updated.getStatus());
+        assertEquals(returnDate, updated.getReturnDate(), "The first return date should be kept");
+    }
+    
     @Test
     void testFindById_NotFound() {
         // Act
@@ -313,6 +433,56 @@ class JdbcLoanRepositoryTest {
         assertFalse(allLoans.isEmpty(), "Should have at least one loan");
     }
     
+    @Test
+    void testFindAdminView_JoinsUserAndItemAndCountsAllPages() {
+        // Arrange - Create three loans
+        for (int i = 0; i < 3; i++) {
+            Loan loan = new Loan();
+            loan.setUserId(testUserId);
+            loan.setItemId(testItemId);
+            loan.setLoanDate(LocalDate.now().minusDays(i));
+            loan.setDueDate(LocalDate.now().plusDays(14 - i));
+            loan.setStatus("ACTIVE");
+            loanRepository.save(loan);
+        }
+        List<Loan> allLoans = loanRepository.findAll();
+
+        // Act
+        Page<LoanAdminView> firstPage = loanRepository.findAdminView(null, 0, 2);
+        Page<LoanAdminView> secondPage = loanRepository.findAdminView(null, 2, 2);
+
+        // Assert
+        assertEquals(3, firstPage.getTotalCount());
+        assertEquals(2, firstPage.getRows().size());
+        assertEquals(allLoans.get(0).getLoanId(), firstPage.getRows().get(0).getLoan().getLoanId());
+        assertEquals("testuser", firstPage.getRows().get(0).getUsername());
+        assertEquals("Test Book", firstPage.getRows().get(0).getItemTitle());
+        assertEquals(1, secondPage.getRows().size());
+        assertEquals(allLoans.get(2).getLoanId(), secondPage.getRows().get(0).getLoan().getLoanId());
+    }
+
+    @Test
+    void testFindAdminView_FiltersByUser() {
+        // Arrange
+        Loan loan = new Loan();
+        loan.setUserId(testUserId);
+        loan.setItemId(testItemId);
+        loan.setLoanDate(LocalDate.now());
+        loan.setDueDate(LocalDate.now().plusDays(14));
+        loan.setStatus("ACTIVE");
+        loanRepository.save(loan);
+
+        // Act
+        Page<LoanAdminView> ownLoans = loanRepository.findAdminView(testUserId, 0, 10);
+        Page<LoanAdminView> otherLoans = loanRepository.findAdminView(testUserId + 1000, 0, 10);
+
+        // Assert
+        assertEquals(1, ownLoans.getTotalCount());
+        assertEquals(testUserId, ownLoans.getRows().get(0).getLoan().getUserId());
+        assertEquals(0, otherLoans.getTotalCount());
+        assertTrue(otherLoans.getRows().isEmpty());
+    }
+
     @Test
     void testDeleteById() {
         // Arrange
@@ -445,4 +615,25 @@ class JdbcLoanRepositoryTest {
     void deleteById_doesNothing_whenNotFound() {
         assertDoesNotThrow(() -> loanRepository.deleteById(99999));
     }
+    
+    private Loan createLoan(LocalDate loanDate, LocalDate dueDate, LocalDate returnDate, String status) {
+        Loan loan = new Loan();
+        loan.setUserId(testUserId);
+        loan.setItemId(testItemId);
+        loan.setLoanDate(loanDate);
+        loan.setDueDate(dueDate);
+        loan.setReturnDate(returnDate);
+        loan.setStatus(status);
+        return loan;
+    }
+    
+    private Fine createFine(Integer loanId, String amount, String status) {
+        Fine fine = new Fine();
+        fine.setLoanId(loanId);
+        fine.setAmount(new BigDecimal(amount));
+        fine.setIssuedDate(LocalDate.now());
+        fine.setStatus(status);
+        fine.setPaidDate("PAID".equals(status) ? LocalDate.now() : null);
+        return fine;
+    }
 }
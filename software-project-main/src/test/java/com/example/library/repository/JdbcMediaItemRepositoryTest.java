@@ -10,6 +10,9 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -136,6 +139,37 @@ class JdbcMediaItemRepositoryTest {
         assertEquals(10, updated.get().getTotalCopies(), "Total copies should remain 10");
     }
     
+    @Test
+    void testDecrementAvailableCopies_StopsAtZero() {
+        // Arrange - Save an item with one copy
+        MediaItem item = new MediaItem();
+        item.setTitle("Last Copy");
+        item.setAuthor("Test Author");
+        item.setType("BOOK");
+        item.setIsbn("978-2222222222");
+        item.setPublicationDate(LocalDate.of(2020, 1, 1));
+        item.setPublisher("Test Publisher");
+        item.setTotalCopies(1);
+        item.setAvailableCopies(1);
+        item.setLateFeesPerDay(new BigDecimal("1.00"));
+        MediaItem saved = mediaItemRepository.save(item);
+        
+        // Act
+        boolean first = mediaItemRepository.decrementAvailableCopies(saved.getItemId());
+        boolean second = mediaItemRepository.decrementAvailableCopies(saved.getItemId());
+        
+        // Assert
+        assertTrue(first, "The last copy should be taken");
+        assertFalse(second, "No copy should be left to take");
+        assertEquals(0, mediaItemRepository.findById(saved.getItemId()).get().getAvailableCopies());
+        
+        // Act - Put the copy back
+        mediaItemRepository.incrementAvailableCopies(saved.getItemId());
+        
+        // Assert
+        assertEquals(1, mediaItemRepository.findById(saved.getItemId()).get().getAvailableCopies());
+    }
+    
     @Test
     void testFindById_NotFound() {
         // Act
@@ -463,9 +497,67 @@ class JdbcMediaItemRepositoryTest {
         assertThrows(com.example.library.repository.DataAccessException.class, () -> mediaItemRepository.updateAvailableCopies(99999, 5));
     }
 
+    @Test
+    void incrementAvailableCopies_throws_whenNotFound() {
+        assertThrows(com.example.library.repository.DataAccessException.class, () -> mediaItemRepository.incrementAvailableCopies(99999));
+    }
+
     @Test
     void search_returnsEmpty_whenNoMatch() {
         List<MediaItem> items = mediaItemRepository.search("notfound");
         assertTrue(items.isEmpty());
     }
+
+    @Test
+    void testFindByIds_SpansSeveralChunks() {
+        // Arrange - Three items and enough missing IDs to need several IN lists
+        List<Integer> ids = new ArrayList<>();
+        List<Integer> savedIds = new ArrayList<>();
+        for (String title : Arrays.asList("Alpha", "Beta", "Gamma")) {
+            MediaItem item = new MediaItem();
+            item.setTitle(title);
+            item.setAuthor("Author");
+            item.setType("BOOK");
+            item.setTotalCopies(1);
+            item.setAvailableCopies(1);
+            item.setLateFeesPerDay(new BigDecimal("1.00"));
+            savedIds.add(mediaItemRepository.save(item).getItemId());
+        }
+        for (int i = 0; i < JdbcMediaItemRepository.FIND_BY_IDS_CHUNK_SIZE * 2; i++) {
+            ids.add(-1 - i);
+        }
+        ids.addAll(savedIds);
+        ids.add(savedIds.get(0));
+        ids.add(null);
+        Collections.reverse(ids);
+        
+        // Act
+        List<MediaItem> items = mediaItemRepository.findByIds(ids);
+        
+        // Assert
+        assertEquals(3, items.size(), "Only existing items should be returned, once each");
+        assertEquals(savedIds.get(0), items.get(0).getItemId());
+        assertEquals("Gamma", items.get(2).getTitle());
+    }
+
+    @Test
+    void findByIds_returnsEmpty_whenNoIds() {
+        assertTrue(mediaItemRepository.findByIds(Collections.emptyList()).isEmpty());
+    }
+
+    @Test
+    void search_failsWithoutQuerying_whenItsHandleIsAlreadyCancelled() {
+        SearchCancellation cancelled = new SearchCancellation();
+        cancelled.cancel();
+        assertThrows(DataAccessException.class, () -> mediaItemRepository.search("notfound", cancelled));
+    }
+
+    @Test
+    void cancel_onlyAffectsItsOwnSearch() {
+        SearchCancellation finished = new SearchCancellation();
+        assertTrue(mediaItemRepository.search("notfound", finished).isEmpty());
+        assertDoesNotThrow(finished::cancel);
+        assertTrue(mediaItemRepository.search("notfound", new SearchCancellation()).isEmpty());
+        assertTrue(mediaItemRepository.search("notfound").isEmpty());
+    }
 }
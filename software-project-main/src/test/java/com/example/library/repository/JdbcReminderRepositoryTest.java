@@ -0,0 +1,130 @@
+package com.example.library.repository;
+
+import com.example.library.DatabaseConnection;
+import com.example.library.domain.Loan;
+import com.example.library.domain.ReminderCheckpoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcReminderRepositoryTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 11, 27);
+
+    private JdbcReminderRepository reminderRepository;
+    private Loan loan;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        reminderRepository = new JdbcReminderRepository();
+        int userId;
+        int itemId;
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM reminder_sent")) {
+                pstmt.executeUpdate();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM reminder_checkpoint")) {
+                pstmt.executeUpdate();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM app_user WHERE username = 'remindertest'")) {
+                pstmt.executeUpdate();
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement("DELETE FROM media_item WHERE isbn = 'REMINDER-ISBN'")) {
+                pstmt.executeUpdate();
+            }
+            userId = insert(conn, "INSERT INTO app_user (username, password, email, role) " +
+                    "VALUES ('remindertest', 'p', 'remindertest@example.com', 'STUDENT')");
+            itemId = insert(conn, "INSERT INTO media_item (title, author, type, isbn, total_copies, available_copies) " +
+                    "VALUES ('Reminder Book', 'Author', 'BOOK', 'REMINDER-ISBN', 1, 0)");
+        }
+
+        loan = new Loan();
+        loan.setUserId(userId);
+        loan.setItemId(itemId);
+        loan.setLoanDate(TODAY.minusDays(20));
+        loan.setDueDate(TODAY.minusDays(6));
+        loan.setStatus("ACTIVE");
+        new JdbcLoanRepository().save(loan);
+    }
+
+    @Test
+    void testRecordReminder_SecondRecordOfSameReminderIsRefused() {
+        // Act
+        boolean first = reminderRepository.recordReminder(loan.getLoanId(), "OVERDUE", loan.getDueDate());
+        boolean second = reminderRepository.recordReminder(loan.getLoanId(), "OVERDUE", loan.getDueDate());
+        boolean otherKind = reminderRepository.recordReminder(loan.getLoanId(), "DUE_SOON", loan.getDueDate());
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertTrue(otherKind);
+    }
+
+    @Test
+    void testFindRemindedLoanIds_OnlyMatchesCurrentDueDate() {
+        // Arrange
+        reminderRepository.recordReminder(loan.getLoanId(), "OVERDUE", loan.getDueDate());
+
+        // Act
+        Set<Integer> reminded = reminderRepository.findRemindedLoanIds("OVERDUE", List.of(loan));
+        Set<Integer> otherKind = reminderRepository.findRemindedLoanIds("DUE_SOON", List.of(loan));
+        loan.setDueDate(TODAY.plusDays(14));
+        Set<Integer> afterRenewal = reminderRepository.findRemindedLoanIds("OVERDUE", List.of(loan));
+
+        // Assert
+        assertEquals(Set.of(loan.getLoanId()), reminded);
+        assertTrue(otherKind.isEmpty());
+        assertTrue(afterRenewal.isEmpty());
+    }
+
+    @Test
+    void testDeleteReminder_AllowsRecordingAgain() {
+        // Arrange
+        reminderRepository.recordReminder(loan.getLoanId(), "OVERDUE", loan.getDueDate());
+
+        // Act
+        reminderRepository.deleteReminder(loan.getLoanId(), "OVERDUE", loan.getDueDate());
+
+        // Assert
+        assertTrue(reminderRepository.recordReminder(loan.getLoanId(), "OVERDUE", loan.getDueDate()));
+    }
+
+    @Test
+    void testSaveCheckpoint_InsertsThenUpdates() {
+        // Act
+        Optional<ReminderCheckpoint> before = reminderRepository.findCheckpoint(TODAY, "OVERDUE");
+        reminderRepository.saveCheckpoint(new ReminderCheckpoint(TODAY, "OVERDUE", 25, false));
+        reminderRepository.saveCheckpoint(new ReminderCheckpoint(TODAY, "OVERDUE", 60, true));
+        Optional<ReminderCheckpoint> after = reminderRepository.findCheckpoint(TODAY, "OVERDUE");
+        Optional<ReminderCheckpoint> otherDay = reminderRepository.findCheckpoint(TODAY.plusDays(1), "OVERDUE");
+
+        // Assert
+        assertFalse(before.isPresent());
+        assertTrue(after.isPresent());
+        assertEquals(60, after.get().getLastLoanId());
+        assertTrue(after.get().isCompleted());
+        assertFalse(otherDay.isPresent());
+    }
+
+    private static int insert(Connection conn, String sql) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                keys.next();
+                return keys.getInt(1);
+            }
+        }
+    }
+}
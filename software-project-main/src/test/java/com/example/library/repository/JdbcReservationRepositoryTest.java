@@ -99,6 +99,55 @@ class JdbcReservationRepositoryTest {
         assertEquals("ACTIVE", found.get().getStatus());
     }
 
+    @Test
+    void findAllActive_returnsOnlyActive_oldestFirst() {
+        LocalDateTime now = LocalDateTime.now();
+        Reservation newer = repo.save(reservation(now.minusHours(1), "ACTIVE"));
+        Reservation older = repo.save(reservation(now.minusHours(2), "ACTIVE"));
+        repo.save(reservation(now.minusHours(3), "CANCELLED"));
+
+        List<Reservation> active = repo.findAllActive();
+
+        assertEquals(2, active.size());
+        assertEquals(older.getReservationId(), active.get(0).getReservationId());
+        assertEquals(newer.getReservationId(), active.get(1).getReservationId());
+    }
+
+    @Test
+    void expireActiveBefore_expiresUpToLimit_andPromoteFillsFreeCopy() throws SQLException {
+        LocalDateTime now = LocalDateTime.now();
+        Reservation lapsed1 = reservation(now.minusDays(3), "ACTIVE");
+        lapsed1.setExpiryDate(now.minusDays(1));
+        Reservation lapsed2 = reservation(now.minusDays(3), "ACTIVE");
+        lapsed2.setExpiryDate(now.minusHours(1));
+        lapsed1 = repo.save(lapsed1);
+        lapsed2 = repo.save(lapsed2);
+        Reservation waiting = repo.save(reservation(now.minusDays(2), "ACTIVE"));
+        Reservation waitingBehind = repo.save(reservation(now.minusDays(1), "ACTIVE"));
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("UPDATE media_item SET available_copies = 1 WHERE item_id = ?")) {
+            pstmt.setInt(1, testItemId);
+            pstmt.executeUpdate();
+        }
+
+        List<Reservation> firstChunk = repo.expireActiveBefore(now, 1);
+        List<Reservation> secondChunk = repo.expireActiveBefore(now, 1);
+        List<Reservation> thirdChunk = repo.expireActiveBefore(now, 1);
+        List<Reservation> promoted = repo.promoteNextReservations(List.of(testItemId), now, now.plusHours(48));
+        List<Reservation> promotedAgain = repo.promoteNextReservations(List.of(testItemId), now, now.plusHours(48));
+
+        assertEquals(lapsed1.getReservationId(), firstChunk.get(0).getReservationId());
+        assertEquals(lapsed2.getReservationId(), secondChunk.get(0).getReservationId());
+        assertTrue(thirdChunk.isEmpty());
+        assertEquals("EXPIRED", repo.findById(lapsed1.getReservationId()).get().getStatus());
+        assertEquals(1, promoted.size());
+        assertEquals(waiting.getReservationId(), promoted.get(0).getReservationId());
+        assertEquals("FULFILLED", repo.findById(waiting.getReservationId()).get().getStatus());
+        // The only free copy is now held, so the next in line keeps waiting
+        assertTrue(promotedAgain.isEmpty());
+        assertEquals("ACTIVE", repo.findById(waitingBehind.getReservationId()).get().getStatus());
+    }
+
     // Branch/edge coverage tests
 
     @Test
@@ -147,4 +196,14 @@ class JdbcReservationRepositoryTest {
     void deleteById_doesNothing_whenNotFound() {
         assertDoesNotThrow(() -> repo.deleteById(99999));
     }
+
+    private Reservation reservation(LocalDateTime reservationDate, String status) {
+        Reservation r = new Reservation();
+        r.setUserId(testUserId);
+        r.setItemId(testItemId);
+        r.setReservationDate(reservationDate);
+        r.setExpiryDate(reservationDate.plusDays(7));
+        r.setStatus(status);
+        return r;
+    }
 }
@@ -0,0 +1,137 @@
+package com.example.library.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcTransactionManagerTest {
+
+    private final List<List<String>> connectionCalls = new ArrayList<>();
+    private JdbcTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        DataSource dataSource = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getConnection")) {
+                        return recordingConnection();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        transactionManager = new JdbcTransactionManager(dataSource);
+    }
+
+    @Test
+    void testInTransaction_RepositoryCallsShareOneConnectionAndCommitOnce() throws SQLException {
+        // Arrange
+        DataSource repositoryDataSource = transactionManager.getDataSource();
+
+        // Act
+        String result = transactionManager.inTransaction(() -> {
+            useAndClose(repositoryDataSource);
+            useAndClose(repositoryDataSource);
+            return "done";
+        });
+
+        // Assert
+        assertEquals("done", result);
+        assertEquals(1, connectionCalls.size());
+        assertEquals(List.of("setAutoCommit(false)", "createStatement", "createStatement", "commit",
+                "setAutoCommit(true)", "close"), connectionCalls.get(0));
+    }
+
+    @Test
+    void testInTransaction_RollsBackAndRethrowsWhenWorkFails() {
+        // Arrange
+        DataSource repositoryDataSource = transactionManager.getDataSource();
+
+        // Act
+        BusinessFailure thrown = assertThrows(BusinessFailure.class, () -> transactionManager.runInTransaction(() -> {
+            useAndClose(repositoryDataSource);
+            throw new BusinessFailure();
+        }));
+
+        // Assert
+        assertNotNull(thrown);
+        assertEquals(List.of("setAutoCommit(false)", "createStatement", "rollback",
+                "setAutoCommit(true)", "close"), connectionCalls.get(0));
+    }
+
+    @Test
+    void testInTransaction_NestedTransactionJoinsOuterOne() {
+        // Act
+        transactionManager.runInTransaction(() -> transactionManager.runInTransaction(
+                () -> useAndClose(transactionManager.getDataSource())));
+
+        // Assert
+        assertEquals(1, connectionCalls.size());
+        assertEquals(1, connectionCalls.get(0).stream().filter("commit"::equals).count());
+    }
+
+    @Test
+    void testAfterCommit_RunsOnceTransactionHasCommittedAndReleasedItsConnection() {
+        // Act
+        transactionManager.runInTransaction(
+                () -> transactionManager.afterCommit(() -> connectionCalls.get(0).add("afterCommit")));
+
+        // Assert
+        assertEquals(List.of("setAutoCommit(false)", "commit", "setAutoCommit(true)", "close", "afterCommit"),
+                connectionCalls.get(0));
+    }
+
+    @Test
+    void testAfterCommit_DroppedWhenTransactionRollsBack() {
+        // Arrange
+        List<String> actions = new ArrayList<>();
+
+        // Act
+        assertThrows(BusinessFailure.class, () -> transactionManager.runInTransaction(() -> {
+            transactionManager.afterCommit(() -> actions.add("afterCommit"));
+            throw new BusinessFailure();
+        }));
+
+        // Assert
+        assertTrue(actions.isEmpty());
+    }
+
+    @Test
+    void testGetDataSource_OutsideTransactionBorrowsOwnConnection() {
+        // Act
+        useAndClose(transactionManager.getDataSource());
+        useAndClose(transactionManager.getDataSource());
+
+        // Assert
+        assertEquals(2, connectionCalls.size());
+        assertEquals(List.of("createStatement", "close"), connectionCalls.get(0));
+    }
+
+    private static void useAndClose(DataSource dataSource) {
+        try (Connection conn = dataSource.getConnection()) {
+            conn.createStatement();
+        } catch (SQLException e) {
+            throw new DataAccessException(e);
+        }
+    }
+
+    private Connection recordingConnection() {
+        List<String> calls = new ArrayList<>();
+        connectionCalls.add(calls);
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    calls.add(name.equals("setAutoCommit") ? name + "(" + args[0] + ")" : name);
+                    return name.equals("isClosed") ? Boolean.FALSE : null;
+                });
+    }
+
+    private static final class BusinessFailure extends RuntimeException {
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.library.service;
+
+import com.example.library.DatabaseConnection;
+import com.example.library.repository.JdbcFineRepository;
+import com.example.library.repository.JdbcLoanRepository;
+import com.example.library.repository.JdbcMediaItemRepository;
+import com.example.library.repository.JdbcUserRepository;
+import com.example.library.service.fine.FineCalculator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load test showing the checkout eligibility check does not slow down as
+ * other users' overdue loans pile up. Run on demand; it seeds tens of
+ * thousands of rows into the configured database.
+ */
+class CheckoutEligibilityIntegrationTest {
+
+    private static final int OTHER_USERS = 50;
+    private static final int WARMUP_CALLS = 200;
+    private static final int TIMED_CALLS = 500;
+
+    private final LocalDate today = LocalDate.now();
+    private LibraryServiceImpl libraryService;
+    private int checkoutUserId;
+    private int firstOtherUserId;
+    private int itemId;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        libraryService = new LibraryServiceImpl(new JdbcUserRepository(), new JdbcMediaItemRepository(),
+                new JdbcLoanRepository(), new JdbcFineRepository(), new FineCalculator());
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            clean(conn);
+            checkoutUserId = insertUser(conn, "loadtest-checkout");
+            firstOtherUserId = insertUser(conn, "loadtest-other-0");
+            for (int i = 1; i < OTHER_USERS; i++) {
+                insertUser(conn, "loadtest-other-" + i);
+            }
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    "INSERT INTO media_item (title, type, total_copies, available_copies) VALUES ('Load Test Book', 'BOOK', 1, 1)",
+                    Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.executeUpdate();
+                itemId = generatedKey(pstmt);
+            }
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            clean(conn);
+        }
+    }
+
+    @Test
+    void testCanUserBorrow_LatencyStaysFlatAsOverduePopulationGrows() throws SQLException {
+        // Arrange & Act
+        long baseline = medianCanUserBorrowNanos();
+        seedOverdueLoans(5_000);
+        long medium = medianCanUserBorrowNanos();
+        seedOverdueLoans(45_000);
+        long large = medianCanUserBorrowNanos();
+
+        // Assert
+        System.out.printf("canUserBorrow median: %d us (0 overdue), %d us (5k), %d us (50k)%n",
+                baseline / 1_000, medium / 1_000, large / 1_000);
+        // A scan of every overdue loan would grow ~10x between the last two steps;
+        // allow generous noise plus a fixed floor for very fast baselines
+        long allowed = Math.max(baseline, medium) * 3 + 1_000_000;
+        assertTrue(large <= allowed, "median grew from " + baseline + " ns to " + large + " ns");
+        assertTrue(libraryService.canUserBorrow(checkoutUserId, today));
+    }
+
+    private long medianCanUserBorrowNanos() {
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            libraryService.canUserBorrow(checkoutUserId, today);
+        }
+        long[] samples = new long[TIMED_CALLS];
+        for (int i = 0; i < TIMED_CALLS; i++) {
+            long start = System.nanoTime();
+            libraryService.canUserBorrow(checkoutUserId, today);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[TIMED_CALLS / 2];
+    }
+
+    private void seedOverdueLoans(int count) throws SQLException {
+        try (Connection conn = DatabaseConnection.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(
+                     "INSERT INTO loan (user_id, item_id, loan_date, due_date, status) VALUES (?, ?, ?, ?, 'ACTIVE')")) {
+            for (int i = 0; i < count; i++) {
+                pstmt.setInt(1, firstOtherUserId + i % OTHER_USERS);
+                pstmt.setInt(2, itemId);
+                pstmt.setDate(3, Date.valueOf(today.minusDays(30)));
+                pstmt.setDate(4, Date.valueOf(today.minusDays(1 + i % 14)));
+                pstmt.addBatch();
+                if (i % 1_000 == 999) {
+                    pstmt.executeBatch();
+                }
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    private static int insertUser(Connection conn, String username) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO app_user (username, password, email, role) VALUES (?, 'password', ?, 'STUDENT')",
+                Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, username);
+            pstmt.setString(2, username + "@example.com");
+            pstmt.executeUpdate();
+            return generatedKey(pstmt);
+        }
+    }
+
+    private static int generatedKey(PreparedStatement pstmt) throws SQLException {
+        try (ResultSet rs = pstmt.getGeneratedKeys()) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    private static void clean(Connection conn) throws SQLException {
+        // Loans and fines go with their users through ON DELETE CASCADE
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM app_user WHERE username LIKE 'loadtest-%'");
+            stmt.executeUpdate("DELETE FROM media_item WHERE title = 'Load Test Book'");
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.library.service;
+
+import com.example.library.domain.BorrowingEligibility;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EligibilityCacheTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 1);
+
+    private final AtomicLong clock = new AtomicLong();
+    private final EligibilityCache cache = new EligibilityCache(Duration.ofSeconds(30), clock::get);
+    private final BorrowingEligibility eligible = new BorrowingEligibility(false, BigDecimal.ZERO);
+
+    @Test
+    void testGet_ReturnsEntryUntilItExpires() {
+        // Arrange
+        cache.put(1, TODAY, eligible);
+
+        // Act
+        clock.set(Duration.ofSeconds(29).toNanos());
+        BorrowingEligibility beforeExpiry = cache.get(1, TODAY);
+        clock.set(Duration.ofSeconds(30).toNanos());
+        BorrowingEligibility afterExpiry = cache.get(1, TODAY);
+
+        // Assert
+        assertSame(eligible, beforeExpiry);
+        assertNull(afterExpiry);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testGet_EntryForAnotherDateIsNotReturned() {
+        // Arrange
+        cache.put(1, TODAY, eligible);
+
+        // Act & Assert
+        assertNull(cache.get(1, TODAY.plusDays(1)));
+    }
+
+    @Test
+    void testInvalidate_DropsOnlyThatUser() {
+        // Arrange
+        cache.put(1, TODAY, eligible);
+        cache.put(2, TODAY, eligible);
+
+        // Act
+        cache.invalidate(1);
+
+        // Assert
+        assertNull(cache.get(1, TODAY));
+        assertSame(eligible, cache.get(2, TODAY));
+    }
+
+    @Test
+    void testInvalidateAll_DropsEveryUser() {
+        // Arrange
+        cache.put(1, TODAY, eligible);
+        cache.put(2, TODAY, eligible);
+
+        // Act
+        cache.invalidateAll();
+
+        // Assert
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testDisabled_HoldsNothing() {
+        // Arrange
+        EligibilityCache disabled = EligibilityCache.disabled();
+
+        // Act
+        disabled.put(1, TODAY, eligible);
+
+        // Assert
+        assertNull(disabled.get(1, TODAY));
+    }
+
+    @Test
+    void testConstructor_RejectsNegativeTtl() {
+        assertThrows(IllegalArgumentException.class, () -> new EligibilityCache(Duration.ofSeconds(-1)));
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.library.service;
 
+import com.example.library.domain.BorrowingEligibility;
 import com.example.library.domain.MediaItem;
 import com.example.library.domain.User;
 import com.example.library.repository.FineRepository;
@@ -81,10 +82,9 @@ class LibraryServiceImplAdditionalEdgeCaseTest {
         
         when(userRepository.findById(1)).thenReturn(Optional.of(user));
         when(mediaItemRepository.findById(1)).thenReturn(Optional.of(item));
-        when(loanRepository.findOverdueLoans(any(LocalDate.class))).thenReturn(java.util.Collections.emptyList());
-        when(fineRepository.calculateTotalUnpaidByUserId(1)).thenReturn(BigDecimal.ZERO);
+        when(loanRepository.findBorrowingEligibility(eq(1), any(LocalDate.class))).thenReturn(new BorrowingEligibility(false, BigDecimal.ZERO));
         when(loanRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
-        doNothing().when(mediaItemRepository).updateAvailableCopies(anyInt(), anyInt());
+        when(mediaItemRepository.decrementAvailableCopies(anyInt())).thenReturn(true);
         
         var loan = libraryService.borrowItem(1, 1, LocalDate.now());
         
@@ -106,10 +106,9 @@ class LibraryServiceImplAdditionalEdgeCaseTest {
         
         when(userRepository.findById(1)).thenReturn(Optional.of(user));
         when(mediaItemRepository.findById(1)).thenReturn(Optional.of(item));
-        when(loanRepository.findOverdueLoans(any(LocalDate.class))).thenReturn(java.util.Collections.emptyList());
-        when(fineRepository.calculateTotalUnpaidByUserId(1)).thenReturn(BigDecimal.ZERO);
+        when(loanRepository.findBorrowingEligibility(eq(1), any(LocalDate.class))).thenReturn(new BorrowingEligibility(false, BigDecimal.ZERO));
         when(loanRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
-        doNothing().when(mediaItemRepository).updateAvailableCopies(anyInt(), anyInt());
+        when(mediaItemRepository.decrementAvailableCopies(anyInt())).thenReturn(true);
         
         var loan = libraryService.borrowItem(1, 1, LocalDate.now());
         
@@ -130,6 +129,7 @@ class LibraryServiceImplAdditionalEdgeCaseTest {
         
         when(loanRepository.findById(1)).thenReturn(Optional.of(loan));
         when(mediaItemRepository.findById(999)).thenReturn(Optional.empty());
+        when(loanRepository.markReturned(eq(1), any())).thenReturn(true);
         
         assertThrows(BusinessException.class, () -> {
             libraryService.returnItem(1, LocalDate.now());
@@ -153,10 +153,9 @@ class LibraryServiceImplAdditionalEdgeCaseTest {
         
         when(userRepository.findById(1)).thenReturn(Optional.of(user));
         when(mediaItemRepository.findById(1)).thenReturn(Optional.of(item));
-        when(loanRepository.findOverdueLoans(any(LocalDate.class))).thenReturn(java.util.Collections.emptyList());
-        when(fineRepository.calculateTotalUnpaidByUserId(1)).thenReturn(BigDecimal.ZERO);
+        when(loanRepository.findBorrowingEligibility(eq(1), any(LocalDate.class))).thenReturn(new BorrowingEligibility(false, BigDecimal.ZERO));
         when(loanRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
-        doNothing().when(mediaItemRepository).updateAvailableCopies(anyInt(), anyInt());
+        when(mediaItemRepository.decrementAvailableCopies(anyInt())).thenReturn(true);
         
         var loan = libraryService.borrowItem(1, 1, LocalDate.now());
         
@@ -178,8 +177,7 @@ class LibraryServiceImplAdditionalEdgeCaseTest {
         
         when(userRepository.findById(1)).thenReturn(Optional.of(user));
         when(mediaItemRepository.findById(1)).thenReturn(Optional.of(item));
-        when(loanRepository.findOverdueLoans(any(LocalDate.class))).thenReturn(java.util.Collections.emptyList());
-        when(fineRepository.calculateTotalUnpaidByUserId(1)).thenReturn(new BigDecimal("25.00")); // Has unpaid fines
+        when(loanRepository.findBorrowingEligibility(eq(1), any(LocalDate.class))).thenReturn(new BorrowingEligibility(false, new BigDecimal("25.00"))); // Has unpaid fines
         
         assertThrows(BusinessException.class, () -> {
             libraryService.borrowItem(1, 1, LocalDate.now());
@@ -1,23 +1,34 @@
 package com.example.library.service;
 
+import com.example.library.domain.BorrowingEligibility;
 import com.example.library.domain.Loan;
+import com.example.library.domain.LoanWithItem;
 import com.example.library.domain.MediaItem;
 import com.example.library.domain.User;
 import com.example.library.repository.FineRepository;
 import com.example.library.repository.LoanRepository;
+import com.example.library.repository.MediaItemFacetRepository;
 import com.example.library.repository.MediaItemRepository;
+import com.example.library.repository.SearchCancellation;
+import com.example.library.repository.TransactionManager;
 import com.example.library.repository.UserRepository;
 import com.example.library.service.fine.FineCalculator;
+import com.example.library.service.search.Facet;
+import com.example.library.service.search.FacetFilter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -101,6 +112,149 @@ class LibraryServiceImplTest {
         verify(mediaItemRepository, times(1)).search("nonexistent");
     }
     
+    @Test
+    void testSearchItems_NoExactMatch_FallsBackToFuzzySearch() {
+        // Arrange
+        MediaItem hobbit = createMediaItem(1, "The Hobbit", "J.R.R. Tolkien", 3, 3);
+        MediaItem dune = createMediaItem(2, "Dune", "Frank Herbert", 2, 2);
+        when(mediaItemRepository.search("tolkein")).thenReturn(Arrays.asList());
+        when(mediaItemRepository.findAll()).thenReturn(Arrays.asList(hobbit, dune));
+        when(mediaItemRepository.findByIds(Arrays.asList(1))).thenReturn(Arrays.asList(hobbit));
+        
+        // Act
+        List<MediaItem> results = libraryService.searchItems("tolkein");
+        
+        // Assert
+        assertEquals(1, results.size());
+        assertEquals("The Hobbit", results.get(0).getTitle());
+        verify(mediaItemRepository, never()).findById(2);
+    }
+    
+    @Test
+    void testSearchItems_FuzzyIndexIncludesItemsAddedLater() {
+        // Arrange
+        when(mediaItemRepository.search(anyString())).thenReturn(Arrays.asList());
+        when(mediaItemRepository.findAll()).thenReturn(Arrays.asList());
+        libraryService.searchItems("warmup");
+        MediaItem saved = createMediaItem(7, "Neuromancer", "William Gibson", 1, 1);
+        when(mediaItemRepository.save(any(MediaItem.class))).thenReturn(saved);
+        when(mediaItemRepository.findByIds(Arrays.asList(7))).thenReturn(Arrays.asList(saved));
+        
+        // Act
+        libraryService.addMediaItem(createMediaItem(null, "Neuromancer", "William Gibson", 1, 1));
+        List<MediaItem> results = libraryService.searchItems("neuromancr");
+        
+        // Assert
+        assertEquals(1, results.size());
+        verify(mediaItemRepository, times(1)).findAll();
+    }
+    
+    @Test
+    void testUpdateMediaItem_FuzzyIndexFollowsRenamedTitle() {
+        // Arrange
+        MediaItem original = createMediaItem(7, "Neuromancer", "William Gibson", 1, 1);
+        MediaItem renamed = createMediaItem(7, "Count Zero", "William Gibson", 1, 1);
+        when(mediaItemRepository.search(anyString())).thenReturn(Arrays.asList());
+        when(mediaItemRepository.findAll()).thenReturn(Arrays.asList(original));
+        when(mediaItemRepository.update(renamed)).thenReturn(renamed);
+        when(mediaItemRepository.findByIds(Arrays.asList(7))).thenReturn(Arrays.asList(renamed));
+        libraryService.searchItems("warmup");
+        
+        // Act
+        libraryService.updateMediaItem(renamed);
+        
+        // Assert
+        assertTrue(libraryService.searchItems("neuromancr").isEmpty());
+        assertEquals(1, libraryService.searchItems("cont zero").size());
+        verify(mediaItemRepository, times(1)).findAll();
+    }
+    
+    @Test
+    void testDeleteMediaItem_RemovesItemFromFuzzyIndex() {
+        // Arrange
+        MediaItem item = createMediaItem(7, "Neuromancer", "William Gibson", 1, 1);
+        when(mediaItemRepository.search(anyString())).thenReturn(Arrays.asList());
+        when(mediaItemRepository.findAll()).thenReturn(Arrays.asList(item));
+        when(mediaItemRepository.deleteById(7)).thenReturn(true);
+        libraryService.searchItems("warmup");
+        
+        // Act
+        boolean deleted = libraryService.deleteMediaItem(7);
+        
+        // Assert
+        assertTrue(deleted);
+        assertTrue(libraryService.searchItems("neuromancr").isEmpty());
+        verify(mediaItemRepository).deleteById(7);
+    }
+    
+    @Test
+    void testGetUserLoansWithItems_LooksUpAllItemsInOneBatch() {
+        // Arrange
+        LocalDate today = LocalDate.now();
+        Loan first = createLoan(1, 5, 10, today.minusDays(3), today.plusDays(11));
+        Loan second = createLoan(2, 5, 20, today.minusDays(2), today.plusDays(12));
+        Loan deletedItem = createLoan(3, 5, 30, today.minusDays(1), today.plusDays(13));
+        MediaItem book = createMediaItem(10, "Book", "Author", 1, 0);
+        MediaItem other = createMediaItem(20, "Other", "Author", 1, 0);
+        when(loanRepository.findByUserId(5)).thenReturn(Arrays.asList(first, second, deletedItem));
+        when(mediaItemRepository.findByIds(Arrays.asList(10, 20, 30))).thenReturn(Arrays.asList(book, other));
+        
+        // Act
+        List<LoanWithItem> result = libraryService.getUserLoansWithItems(5);
+        
+        // Assert
+        assertEquals(3, result.size());
+        assertSame(first, result.get(0).getLoan());
+        assertEquals("Book", result.get(0).getItem().getTitle());
+        assertEquals("Other", result.get(1).getItem().getTitle());
+        assertNull(result.get(2).getItem());
+        verify(mediaItemRepository, times(1)).findByIds(anyCollection());
+        verify(mediaItemRepository, never()).findById(anyInt());
+    }
+    
+    @Test
+    void testSearchItems_PassesCallersCancellationToRepository() {
+        // Arrange
+        SearchCancellation cancellation = new SearchCancellation();
+        MediaItem item = createMediaItem(1, "Java Programming", "John Doe", 5, 3);
+        when(mediaItemRepository.search("Java", cancellation)).thenReturn(Arrays.asList(item));
+        
+        // Act
+        List<MediaItem> result = libraryService.searchItems("Java", cancellation);
+        
+        // Assert
+        assertEquals(Arrays.asList(item), result);
+        verify(mediaItemRepository, never()).search("Java");
+    }
+    
+    @Test
+    void testFindItemsByFacets_UsesFacetRepository() {
+        // Arrange
+        MediaItemFacetRepository facetRepository = mock(MediaItemFacetRepository.class);
+        LibraryServiceImpl service = new LibraryServiceImpl(userRepository, mediaItemRepository, loanRepository,
+                fineRepository, fineCalculator, TransactionManager.none(), EligibilityCache.disabled(), facetRepository);
+        FacetFilter filter = new FacetFilter().type("BOOK").availableOnly();
+        List<MediaItem> books = Arrays.asList(createMediaItem(1, "Book", "Author", 2, 1));
+        when(facetRepository.findByFacets(filter)).thenReturn(books);
+        when(facetRepository.facetCounts(Facet.TYPE, filter)).thenReturn(Map.of("BOOK", 1, "CD", 2));
+        
+        // Act
+        List<MediaItem> result = service.findItemsByFacets(filter);
+        Map<String, Integer> counts = service.getFacetCounts(Facet.TYPE, filter);
+        
+        // Assert
+        assertEquals(books, result);
+        assertEquals(Integer.valueOf(2), counts.get("CD"));
+    }
+    
+    @Test
+    void testFindItemsByFacets_WithoutFacetRepositoryThrows() {
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> libraryService.findItemsByFacets(new FacetFilter()));
+        assertEquals("Filtering by facets is not available", exception.getMessage());
+    }
+    
     @Test
     void testBorrowItem_Success() {
         // Arrange
@@ -113,14 +267,14 @@ class LibraryServiceImplTest {
         
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(mediaItemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(loanRepository.findOverdueLoans(today)).thenReturn(Arrays.asList());
+        when(loanRepository.findBorrowingEligibility(userId, today)).thenReturn(new BorrowingEligibility(false, BigDecimal.ZERO));
         when(fineRepository.findUnpaidByUserId(userId)).thenReturn(Arrays.asList());
-        when(fineRepository.calculateTotalUnpaidByUserId(userId)).thenReturn(BigDecimal.ZERO);
         when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> {
             Loan loan = invocation.getArgument(0);
             loan.setLoanId(100);
             return loan;
         });
+        when(mediaItemRepository.decrementAvailableCopies(itemId)).thenReturn(true);
         
         // Act
         Loan result = libraryService.borrowItem(userId, itemId, today);
@@ -132,7 +286,7 @@ class LibraryServiceImplTest {
         assertEquals(itemId, result.getItemId());
         assertEquals("ACTIVE", result.getStatus());
         verify(loanRepository, times(1)).save(any(Loan.class));
-        verify(mediaItemRepository, times(1)).updateAvailableCopies(itemId, 2);
+        verify(mediaItemRepository, times(1)).decrementAvailableCopies(itemId);
     }
     
     @Test
@@ -164,7 +318,7 @@ class LibraryServiceImplTest {
         
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(mediaItemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(loanRepository.findOverdueLoans(today)).thenReturn(Arrays.asList());
+        when(loanRepository.findBorrowingEligibility(userId, today)).thenReturn(new BorrowingEligibility(false, BigDecimal.ZERO));
         when(fineRepository.findUnpaidByUserId(userId)).thenReturn(Arrays.asList());
         
         // Act & Assert
@@ -175,6 +329,58 @@ class LibraryServiceImplTest {
         verify(loanRepository, never()).save(any(Loan.class));
     }
     
+    @Test
+    void testBorrowItem_LastCopyTakenByAnotherBorrower_SavesNoLoan() {
+        // Arrange
+        int userId = 1;
+        int itemId = 10;
+        LocalDate today = LocalDate.now();
+        
+        when(userRepository.findById(userId)).thenReturn(Optional.of(createUser(userId, "testuser", "STUDENT")));
+        when(mediaItemRepository.findById(itemId)).thenReturn(Optional.of(createMediaItem(itemId, "Test Book", "Author", 1, 1)));
+        when(loanRepository.findBorrowingEligibility(userId, today)).thenReturn(new BorrowingEligibility(false, BigDecimal.ZERO));
+        when(mediaItemRepository.decrementAvailableCopies(itemId)).thenReturn(false);
+        
+        // Act & Assert
+        assertThrows(BusinessException.class, () -> libraryService.borrowItem(userId, itemId, today));
+        verify(loanRepository, never()).save(any(Loan.class));
+    }
+    
+    @Test
+    void testBorrowItem_RunsAsOneTransaction() {
+        // Arrange
+        int userId = 1;
+        int itemId = 10;
+        LocalDate today = LocalDate.now();
+        List<String> events = new ArrayList<>();
+        TransactionManager transactionManager = new TransactionManager() {
+            @Override
+            public <T> T inTransaction(Supplier<T> work) {
+                events.add("begin");
+                T result = work.get();
+                events.add("commit");
+                return result;
+            }
+        };
+        libraryService = new LibraryServiceImpl(userRepository, mediaItemRepository, loanRepository,
+                fineRepository, fineCalculator, transactionManager, EligibilityCache.disabled());
+        
+        when(userRepository.findById(userId)).thenReturn(Optional.of(createUser(userId, "testuser", "STUDENT")));
+        when(mediaItemRepository.findById(itemId)).thenReturn(Optional.of(createMediaItem(itemId, "Test Book", "Author", 1, 1)));
+        when(loanRepository.findBorrowingEligibility(userId, today)).thenReturn(new BorrowingEligibility(false, BigDecimal.ZERO));
+        when(mediaItemRepository.decrementAvailableCopies(itemId)).thenAnswer(invocation -> events.add("decrement"));
+        when(loanRepository.save(any(Loan.class))).thenAnswer(invocation -> {
+            events.add("save");
+            return invocation.getArgument(0);
+        });
+        
+        // Act
+        libraryService.borrowItem(userId, itemId, today);
+        
+        // Assert
+        assertEquals(Arrays.asList("begin", "decrement", "save", "commit"), events);
+    }
+    
     @Test
     void testGetOverdueLoans() {
         // Arrange
@@ -218,9 +424,8 @@ class LibraryServiceImplTest {
         int userId = 1;
         LocalDate today = LocalDate.now();
         
-        when(loanRepository.findOverdueLoans(today)).thenReturn(Arrays.asList());
+        when(loanRepository.findBorrowingEligibility(userId, today)).thenReturn(new BorrowingEligibility(false, BigDecimal.ZERO));
         when(fineRepository.findUnpaidByUserId(userId)).thenReturn(Arrays.asList());
-        when(fineRepository.calculateTotalUnpaidByUserId(userId)).thenReturn(BigDecimal.ZERO);
         
         // Act
         boolean result = libraryService.canUserBorrow(userId, today);
@@ -234,9 +439,8 @@ class LibraryServiceImplTest {
         // Arrange
         int userId = 1;
         LocalDate today = LocalDate.now();
-        Loan overdueLoan = createLoan(1, userId, 100, today.minusDays(20), today.minusDays(5));
         
-        when(loanRepository.findOverdueLoans(today)).thenReturn(Arrays.asList(overdueLoan));
+        when(loanRepository.findBorrowingEligibility(userId, today)).thenReturn(new BorrowingEligibility(true, BigDecimal.ZERO));
         
         // Act
         boolean result = libraryService.canUserBorrow(userId, today);
@@ -245,6 +449,35 @@ class LibraryServiceImplTest {
         assertFalse(result, "User with overdue loans should not be eligible");
     }
     
+    @Test
+    void testCanUserBorrow_CachedUntilReturnInvalidatesIt() {
+        // Arrange
+        int userId = 1;
+        int loanId = 5;
+        LocalDate today = LocalDate.now();
+        libraryService = new LibraryServiceImpl(userRepository, mediaItemRepository, loanRepository,
+                fineRepository, fineCalculator, TransactionManager.none(), new EligibilityCache(Duration.ofMinutes(1)));
+        
+        when(loanRepository.findBorrowingEligibility(userId, today))
+                .thenReturn(new BorrowingEligibility(true, BigDecimal.ZERO))
+                .thenReturn(new BorrowingEligibility(false, BigDecimal.ZERO));
+        when(loanRepository.findById(loanId)).thenReturn(Optional.of(createLoan(loanId, userId, 100, today.minusDays(10), today.plusDays(4))));
+        when(mediaItemRepository.findById(100)).thenReturn(Optional.of(createMediaItem(100, "Test Book", "Author", 1, 0)));
+        when(loanRepository.markReturned(loanId, today)).thenReturn(true);
+        
+        // Act
+        boolean first = libraryService.canUserBorrow(userId, today);
+        boolean cached = libraryService.canUserBorrow(userId, today);
+        libraryService.returnItem(loanId, today);
+        boolean afterReturn = libraryService.canUserBorrow(userId, today);
+        
+        // Assert
+        assertFalse(first);
+        assertFalse(cached);
+        assertTrue(afterReturn);
+        verify(loanRepository, times(2)).findBorrowingEligibility(userId, today);
+    }
+    
     // Helper methods
     private MediaItem createMediaItem(Integer itemId, String title, String author, int totalCopies, int availableCopies) {
         MediaItem item = new MediaItem();
@@ -1,5 +1,6 @@
 package com.example.library.service;
 
+import com.example.library.domain.BorrowingEligibility;
 import com.example.library.domain.Fine;
 import com.example.library.repository.FineRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -8,6 +9,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
@@ -175,6 +177,26 @@ class PaymentServiceImplTest {
         verify(fineRepository, never()).markAsPaid(anyInt(), any(LocalDate.class));
     }
     
+    @Test
+    void testPayAllFinesForUser_InvalidatesCachedEligibility() {
+        // Arrange
+        int userId = 10;
+        LocalDate today = LocalDate.now();
+        EligibilityCache eligibilityCache = new EligibilityCache(Duration.ofMinutes(1));
+        eligibilityCache.put(userId, today, new BorrowingEligibility(false, new BigDecimal("10.00")));
+        eligibilityCache.put(11, today, new BorrowingEligibility(false, BigDecimal.ZERO));
+        paymentService = new PaymentServiceImpl(fineRepository, eligibilityCache);
+        
+        when(fineRepository.findUnpaidByUserId(userId)).thenReturn(Arrays.asList(createFine(1, 100, "10.00", "UNPAID")));
+        
+        // Act
+        paymentService.payAllFinesForUser(userId);
+        
+        // Assert
+        assertNull(eligibilityCache.get(userId, today));
+        assertNotNull(eligibilityCache.get(11, today));
+    }
+    
     // Helper method
     private Fine createFine(Integer fineId, Integer loanId, String amount, String status) {
         Fine fine = new Fine();
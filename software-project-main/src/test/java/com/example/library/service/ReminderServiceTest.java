@@ -1,183 +1,202 @@
 package com.example.library.service;
 
-import com.example.library.domain.Loan;
+import com.example.library.domain.OverdueSummary;
 import com.example.library.domain.User;
 import com.example.library.notification.Notifier;
 import com.example.library.repository.LoanRepository;
-import com.example.library.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 class ReminderServiceTest {
-    
+
+    private static final int CHUNK_SIZE = 2;
+
     private LoanRepository loanRepository;
-    private UserRepository userRepository;
     private Notifier notifier;
     private ReminderService reminderService;
-    
+
     @BeforeEach
     void setUp() {
         loanRepository = mock(LoanRepository.class);
-        userRepository = mock(UserRepository.class);
         notifier = mock(Notifier.class);
-        
-        reminderService = new ReminderService(
-                loanRepository,
-                userRepository,
-                notifier
-        );
+
+        reminderService = new ReminderService(loanRepository, notifier, 4, CHUNK_SIZE);
     }
-    
+
     @Test
     void testSendOverdueReminders_multipleUsersWithOverdueLoans() {
         // Arrange
         LocalDate today = LocalDate.of(2025, 11, 27);
-        
-        // Create 2 overdue loans for user 1
-        Loan loan1User1 = new Loan();
-        loan1User1.setLoanId(1);
-        loan1User1.setUserId(1);
-        loan1User1.setItemId(10);
-        loan1User1.setLoanDate(LocalDate.of(2025, 10, 1));
-        loan1User1.setDueDate(LocalDate.of(2025, 11, 1));
-        loan1User1.setReturnDate(null);
-        loan1User1.setStatus("ACTIVE");
-        
-        Loan loan2User1 = new Loan();
-        loan2User1.setLoanId(2);
-        loan2User1.setUserId(1);
-        loan2User1.setItemId(11);
-        loan2User1.setLoanDate(LocalDate.of(2025, 10, 5));
-        loan2User1.setDueDate(LocalDate.of(2025, 11, 5));
-        loan2User1.setReturnDate(null);
-        loan2User1.setStatus("ACTIVE");
-        
-        // Create 1 overdue loan for user 2
-        Loan loan1User2 = new Loan();
-        loan1User2.setLoanId(3);
-        loan1User2.setUserId(2);
-        loan1User2.setItemId(20);
-        loan1User2.setLoanDate(LocalDate.of(2025, 10, 10));
-        loan1User2.setDueDate(LocalDate.of(2025, 11, 10));
-        loan1User2.setReturnDate(null);
-        loan1User2.setStatus("ACTIVE");
-        
-        List<Loan> overdueLoans = Arrays.asList(loan1User1, loan2User1, loan1User2);
-        
-        // Create users with emails
-        User user1 = new User();
-        user1.setUserId(1);
-        user1.setUsername("user1");
-        user1.setEmail("user1@example.com");
-        user1.setRole("STUDENT");
-        
-        User user2 = new User();
-        user2.setUserId(2);
-        user2.setUsername("user2");
-        user2.setEmail("user2@example.com");
-        user2.setRole("STUDENT");
-        
-        // Mock repository responses
-        when(loanRepository.findOverdueLoans(today)).thenReturn(overdueLoans);
-        when(userRepository.findById(1)).thenReturn(Optional.of(user1));
-        when(userRepository.findById(2)).thenReturn(Optional.of(user2));
-        
+        User user1 = createUser(1, "STUDENT");
+        User user2 = createUser(2, "STUDENT");
+
+        when(loanRepository.findOverdueSummaries(today, 0, CHUNK_SIZE)).thenReturn(Arrays.asList(
+                new OverdueSummary(user1, 2),
+                new OverdueSummary(user2, 1)));
+        when(loanRepository.findOverdueSummaries(today, 2, CHUNK_SIZE)).thenReturn(List.of());
+
         // Act
-        reminderService.sendOverdueReminders(today);
-        
+        int sent = reminderService.sendOverdueReminders(today);
+
         // Assert
-        // Verify notifier.notify was called exactly 2 times (once per user)
+        assertEquals(2, sent);
         verify(notifier, times(2)).notify(any(User.class), anyString());
-        
-        // Verify user 1 received notification with 2 overdue books
         verify(notifier).notify(user1, "You have 2 overdue book(s).");
-        
-        // Verify user 2 received notification with 1 overdue book
         verify(notifier).notify(user2, "You have 1 overdue book(s).");
-        
-        // Verify repositories were called
-        verify(loanRepository).findOverdueLoans(today);
-        verify(userRepository).findById(1);
-        verify(userRepository).findById(2);
+        verify(loanRepository, never()).findOverdueLoans(any());
     }
-    
+
     @Test
     void testSendOverdueReminders_noOverdueLoans() {
         // Arrange
         LocalDate today = LocalDate.of(2025, 11, 27);
-        
-        when(loanRepository.findOverdueLoans(today)).thenReturn(Arrays.asList());
-        
+
+        when(loanRepository.findOverdueSummaries(today, 0, CHUNK_SIZE)).thenReturn(List.of());
+
         // Act
-        reminderService.sendOverdueReminders(today);
-        
+        int sent = reminderService.sendOverdueReminders(today);
+
         // Assert
-        verify(loanRepository).findOverdueLoans(today);
+        assertEquals(0, sent);
+        verify(loanRepository).findOverdueSummaries(today, 0, CHUNK_SIZE);
         verify(notifier, never()).notify(any(User.class), anyString());
-        verify(userRepository, never()).findById(anyInt());
     }
-    
+
     @Test
-    void testSendOverdueReminders_userNotFound() {
+    void testSendOverdueReminders_readsUsersInChunksAfterLastUserId() {
         // Arrange
         LocalDate today = LocalDate.of(2025, 11, 27);
-        
-        Loan loan = new Loan();
-        loan.setLoanId(1);
-        loan.setUserId(999);
-        loan.setItemId(10);
-        loan.setLoanDate(LocalDate.of(2025, 10, 1));
-        loan.setDueDate(LocalDate.of(2025, 11, 1));
-        loan.setReturnDate(null);
-        loan.setStatus("ACTIVE");
-        
-        when(loanRepository.findOverdueLoans(today)).thenReturn(Arrays.asList(loan));
-        when(userRepository.findById(999)).thenReturn(Optional.empty());
-        
+        User user3 = createUser(3, "STUDENT");
+        User user7 = createUser(7, "STUDENT");
+        User user9 = createUser(9, "FACULTY");
+
+        when(loanRepository.findOverdueSummaries(today, 0, CHUNK_SIZE)).thenReturn(Arrays.asList(
+                new OverdueSummary(user3, 1),
+                new OverdueSummary(user7, 3)));
+        when(loanRepository.findOverdueSummaries(today, 7, CHUNK_SIZE)).thenReturn(List.of(
+                new OverdueSummary(user9, 1)));
+
         // Act
-        reminderService.sendOverdueReminders(today);
-        
+        int sent = reminderService.sendOverdueReminders(today);
+
         // Assert
-        verify(loanRepository).findOverdueLoans(today);
-        verify(userRepository).findById(999);
-        verify(notifier, never()).notify(any(User.class), anyString());
+        assertEquals(3, sent);
+        verify(loanRepository).findOverdueSummaries(today, 0, CHUNK_SIZE);
+        verify(loanRepository).findOverdueSummaries(today, 7, CHUNK_SIZE);
+        verify(loanRepository, times(2)).findOverdueSummaries(any(), anyInt(), anyInt());
+        verify(notifier).notify(user7, "You have 3 overdue book(s).");
+        verify(notifier).notify(user9, "You have 1 overdue book(s).");
     }
-    
+
+    @Test
+    void testSendOverdueReminders_failedNotificationDoesNotStopOthers() {
+        // Arrange
+        LocalDate today = LocalDate.of(2025, 11, 27);
+        User unreachable = createUser(1, "STUDENT");
+        User user2 = createUser(2, "STUDENT");
+
+        when(loanRepository.findOverdueSummaries(today, 0, CHUNK_SIZE)).thenReturn(Arrays.asList(
+                new OverdueSummary(unreachable, 1),
+                new OverdueSummary(user2, 1)));
+        when(loanRepository.findOverdueSummaries(today, 2, CHUNK_SIZE)).thenReturn(List.of());
+        doThrow(new IllegalArgumentException("User email cannot be null or empty"))
+                .when(notifier).notify(eq(unreachable), anyString());
+
+        // Act
+        int sent = reminderService.sendOverdueReminders(today);
+
+        // Assert
+        assertEquals(1, sent);
+        verify(notifier).notify(user2, "You have 1 overdue book(s).");
+    }
+
+    @Test
+    void testSendOverdueReminders_rejectedSendIsRethrown() {
+        // Arrange
+        LocalDate today = LocalDate.of(2025, 11, 27);
+        when(loanRepository.findOverdueSummaries(today, 0, CHUNK_SIZE)).thenReturn(Arrays.asList(
+                new OverdueSummary(createUser(1, "STUDENT"), 1),
+                new OverdueSummary(createUser(2, "STUDENT"), 2)));
+        ReminderService rejectingService = new ReminderService(loanRepository, notifier, 1, CHUNK_SIZE, threads -> {
+            ExecutorService executor = Executors.newSingleThreadExecutor();
+            executor.shutdown();
+            return executor;
+        });
+
+        // Act & Assert
+        assertThrows(RejectedExecutionException.class, () -> rejectingService.sendOverdueReminders(today));
+        verifyNoInteractions(notifier);
+    }
+
     @Test
     void testSendOverdueReminders_singleUserWithSingleOverdueBook() {
         // Arrange
         LocalDate today = LocalDate.of(2025, 11, 27);
-        
-        Loan loan = new Loan();
-        loan.setLoanId(1);
-        loan.setUserId(5);
-        loan.setItemId(50);
-        loan.setLoanDate(LocalDate.of(2025, 10, 1));
-        loan.setDueDate(LocalDate.of(2025, 11, 1));
-        loan.setReturnDate(null);
-        loan.setStatus("ACTIVE");
-        
-        User user = new User();
-        user.setUserId(5);
-        user.setUsername("user5");
-        user.setEmail("user5@example.com");
-        user.setRole("FACULTY");
-        
-        when(loanRepository.findOverdueLoans(today)).thenReturn(Arrays.asList(loan));
-        when(userRepository.findById(5)).thenReturn(Optional.of(user));
-        
+        User user = createUser(5, "FACULTY");
+
+        when(loanRepository.findOverdueSummaries(today, 0, CHUNK_SIZE)).thenReturn(List.of(
+                new OverdueSummary(user, 1)));
+
         // Act
         reminderService.sendOverdueReminders(today);
-        
+
         // Assert
         verify(notifier).notify(user, "You have 1 overdue book(s).");
         verify(notifier, times(1)).notify(any(User.class), anyString());
     }
+
+    @Test
+    void testSendOverdueReminders_neverExceedsMaxConcurrentSends() {
+        // Arrange
+        LocalDate today = LocalDate.of(2025, 11, 27);
+        List<OverdueSummary> summaries = new ArrayList<>();
+        for (int userId = 1; userId <= 40; userId++) {
+            summaries.add(new OverdueSummary(createUser(userId, "STUDENT"), 1));
+        }
+        when(loanRepository.findOverdueSummaries(today, 0, 100)).thenReturn(summaries);
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        AtomicInteger delivered = new AtomicInteger();
+        Notifier slowNotifier = (user, message) -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(5);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            inFlight.decrementAndGet();
+            delivered.incrementAndGet();
+        };
+        ReminderService boundedService = new ReminderService(loanRepository, slowNotifier, 3, 100);
+
+        // Act
+        int sent = boundedService.sendOverdueReminders(today);
+
+        // Assert
+        assertEquals(40, sent);
+        assertEquals(40, delivered.get(), "every send should finish before the method returns");
+        assertTrue(maxInFlight.get() <= 3, "at most 3 sends should run at once, saw " + maxInFlight.get());
+    }
+
+    private static User createUser(int userId, String role) {
+        User user = new User();
+        user.setUserId(userId);
+        user.setUsername("user" + userId);
+        user.setEmail("user" + userId + "@example.com");
+        user.setRole(role);
+        return user;
+    }
 }
@@ -5,7 +5,9 @@ import com.example.library.domain.Reservation;
 import com.example.library.domain.User;
 import com.example.library.repository.MediaItemRepository;
 import com.example.library.repository.ReservationRepository;
+import com.example.library.repository.TransactionManager;
 import com.example.library.repository.UserRepository;
+import com.example.library.service.reservation.ExpirySweep;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -15,10 +17,13 @@ import org.mockito.MockitoAnnotations;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -62,7 +67,7 @@ class ReservationServiceImplTest {
         
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(mediaItemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(reservationRepository.findActiveByUserId(userId)).thenReturn(Collections.emptyList());
+        when(reservationRepository.findAllActive()).thenReturn(Collections.emptyList());
         when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> {
             Reservation res = invocation.getArgument(0);
             res.setReservationId(1);
@@ -140,14 +145,11 @@ class ReservationServiceImplTest {
         User user = createUser(userId, "john", "john@example.com");
         MediaItem item = createMediaItem(itemId, "Java Book", 2, 0);
         
-        Reservation existingReservation = new Reservation();
-        existingReservation.setUserId(userId);
-        existingReservation.setItemId(itemId);
-        existingReservation.setStatus("ACTIVE");
+        Reservation existingReservation = createReservation(1, userId, itemId);
         
         when(userRepository.findById(userId)).thenReturn(Optional.of(user));
         when(mediaItemRepository.findById(itemId)).thenReturn(Optional.of(item));
-        when(reservationRepository.findActiveByUserId(userId))
+        when(reservationRepository.findAllActive())
             .thenReturn(Arrays.asList(existingReservation));
         
         // Act & Assert
@@ -331,21 +333,82 @@ class ReservationServiceImplTest {
             createReservation(2, 2, 2)
         );
         
-        when(reservationRepository.findExpiredReservations(any(LocalDateTime.class)))
+        when(reservationRepository.expireActiveBefore(any(LocalDateTime.class), anyInt()))
             .thenReturn(expiredReservations);
-        when(reservationRepository.update(any(Reservation.class)))
-            .thenAnswer(invocation -> invocation.getArgument(0));
+        when(reservationRepository.promoteNextReservations(anyCollection(), any(LocalDateTime.class), any(LocalDateTime.class)))
+            .thenReturn(Collections.emptyList());
         
         // Act
         int count = reservationService.expireOldReservations();
         
         // Assert
         assertEquals(2, count);
-        verify(reservationRepository, times(2)).update(argThat(res -> 
-            "EXPIRED".equals(res.getStatus())
-        ));
+        verify(reservationRepository, times(1)).expireActiveBefore(any(LocalDateTime.class), anyInt());
+        verify(reservationRepository, never()).update(any());
+        verify(reservationRepository).promoteNextReservations(eq(new TreeSet<>(Arrays.asList(1, 2))),
+            any(LocalDateTime.class), any(LocalDateTime.class));
+    }
+    
+    @Test
+    @DisplayName("Should keep expiring in chunks until a chunk comes back short")
+    void testSweepExpiredReservations_ProcessesBacklogInChunks() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 12, 0);
+        ReservationServiceImpl service = (ReservationServiceImpl) reservationService;
+        Reservation promoted = createReservation(5, 5, 1);
+        promoted.setStatus("FULFILLED");
+        
+        when(reservationRepository.expireActiveBefore(now, 2))
+            .thenReturn(Arrays.asList(createReservation(1, 1, 1), createReservation(2, 2, 1)))
+            .thenReturn(Arrays.asList(createReservation(3, 3, 2)));
+        when(reservationRepository.promoteNextReservations(anyCollection(), eq(now), eq(now.plusHours(48))))
+            .thenReturn(Arrays.asList(promoted))
+            .thenReturn(Collections.emptyList());
+        
+        // Act
+        ExpirySweep sweep = service.sweepExpiredReservations(now, 2);
+        
+        // Assert
+        assertEquals(Arrays.asList(1, 2, 3), sweep.getExpiredIds());
+        assertEquals(1, sweep.getPromoted().size());
+        assertEquals(Integer.valueOf(5), sweep.getPromoted().get(0).getReservationId());
+        verify(reservationRepository, times(2)).expireActiveBefore(now, 2);
     }
     
+    @Test
+    @DisplayName("Should run each expiry chunk in its own transaction")
+    void testSweepExpiredReservations_EachChunkIsOneTransaction() {
+        // Arrange
+        LocalDateTime now = LocalDateTime.of(2024, 3, 1, 12, 0);
+        List<String> events = new ArrayList<>();
+        TransactionManager transactionManager = new TransactionManager() {
+            @Override
+            public <T> T inTransaction(Supplier<T> work) {
+                events.add("begin");
+                T result = work.get();
+                events.add("commit");
+                return result;
+            }
+        };
+        ReservationServiceImpl service = new ReservationServiceImpl(reservationRepository, userRepository,
+                mediaItemRepository, transactionManager);
+        
+        when(reservationRepository.expireActiveBefore(now, 1)).thenAnswer(invocation -> {
+            events.add("expire");
+            return events.contains("promote") ? Collections.emptyList() : Arrays.asList(createReservation(1, 1, 1));
+        });
+        when(reservationRepository.promoteNextReservations(anyCollection(), eq(now), any(LocalDateTime.class)))
+            .thenAnswer(invocation -> {
+                events.add("promote");
+                return Collections.emptyList();
+            });
+        
+        // Act
+        service.sweepExpiredReservations(now, 1);
+        
+        // Assert
+        assertEquals(Arrays.asList("begin", "expire", "promote", "commit", "begin", "expire", "commit"), events);
+    }    
     @Test
     @DisplayName("Should get queue position correctly")
     void testGetQueuePosition() {
@@ -353,17 +416,17 @@ class ReservationServiceImplTest {
         int reservationId = 2;
         int itemId = 1;
         
+        LocalDateTime now = LocalDateTime.now();
+        Reservation first = createReservation(1, 1, itemId);
+        first.setReservationDate(now.minusHours(3));
         Reservation targetReservation = createReservation(reservationId, 2, itemId);
+        targetReservation.setReservationDate(now.minusHours(2));
+        Reservation third = createReservation(3, 3, itemId);
+        third.setReservationDate(now.minusHours(1));
         
-        List<Reservation> queue = Arrays.asList(
-            createReservation(1, 1, itemId),
-            targetReservation,
-            createReservation(3, 3, itemId)
-        );
+        List<Reservation> queue = Arrays.asList(first, targetReservation, third);
         
-        when(reservationRepository.findById(reservationId))
-            .thenReturn(Optional.of(targetReservation));
-        when(reservationRepository.findActiveByItemId(itemId)).thenReturn(queue);
+        when(reservationRepository.findAllActive()).thenReturn(queue);
         
         // Act
         int position = reservationService.getQueuePosition(reservationId);
@@ -393,7 +456,7 @@ class ReservationServiceImplTest {
         int itemId = 1;
         
         Reservation reservation = createReservation(1, userId, itemId);
-        when(reservationRepository.findActiveByUserId(userId))
+        when(reservationRepository.findAllActive())
             .thenReturn(Arrays.asList(reservation));
         
         // Act
@@ -410,7 +473,7 @@ class ReservationServiceImplTest {
         int userId = 1;
         int itemId = 1;
         
-        when(reservationRepository.findActiveByUserId(userId))
+        when(reservationRepository.findAllActive())
             .thenReturn(Collections.emptyList());
         
         // Act
@@ -431,7 +494,7 @@ class ReservationServiceImplTest {
         Reservation res1 = createReservation(1, userId, 1);
         Reservation res2 = createReservation(2, userId, 2);
         
-        when(reservationRepository.findActiveByUserId(userId))
+        when(reservationRepository.findAllActive())
             .thenReturn(Arrays.asList(res1, res2));
         
         // Act
@@ -441,6 +504,79 @@ class ReservationServiceImplTest {
         assertFalse(result);
     }
     
+    @Test
+    @DisplayName("Should move later reservations up when one is cancelled")
+    void testGetQueuePosition_AfterCancellation() {
+        // Arrange
+        int itemId = 1;
+        Reservation first = createReservation(1, 1, itemId);
+        Reservation second = createReservation(2, 2, itemId);
+        first.setReservationDate(LocalDateTime.now().minusHours(2));
+        second.setReservationDate(LocalDateTime.now().minusHours(1));
+        
+        when(reservationRepository.findAllActive()).thenReturn(Arrays.asList(second, first));
+        when(reservationRepository.findById(1)).thenReturn(Optional.of(first));
+        when(reservationRepository.update(any(Reservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // Act
+        int before = reservationService.getQueuePosition(2);
+        reservationService.cancelReservation(1, 1);
+        int after = reservationService.getQueuePosition(2);
+        
+        // Assert
+        assertEquals(2, before);
+        assertEquals(1, after);
+        assertEquals(-1, reservationService.getQueuePosition(1));
+        assertFalse(reservationService.hasActiveReservation(1, itemId));
+        verify(reservationRepository, times(1)).findAllActive();
+    }
+    
+    @Test
+    @DisplayName("Should reject a second reservation while the first is being saved")
+    void testCreateReservation_DuplicateWhileFirstIsSaving() {
+        // Arrange
+        int userId = 1;
+        int itemId = 1;
+        
+        when(userRepository.findById(userId)).thenReturn(Optional.of(createUser(userId, "john", "john@example.com")));
+        when(mediaItemRepository.findById(itemId)).thenReturn(Optional.of(createMediaItem(itemId, "Java Book", 2, 0)));
+        when(reservationRepository.findAllActive()).thenReturn(Collections.emptyList());
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> {
+            // A second request arrives before the first one's row is saved
+            assertThrows(BusinessException.class, () -> reservationService.createReservation(userId, itemId));
+            Reservation res = invocation.getArgument(0);
+            res.setReservationId(1);
+            return res;
+        });
+        
+        // Act
+        reservationService.createReservation(userId, itemId);
+        
+        // Assert
+        verify(reservationRepository, times(1)).save(any(Reservation.class));
+        assertTrue(reservationService.hasActiveReservation(userId, itemId));
+        assertEquals(1, reservationService.getQueuePosition(1));
+    }
+    
+    @Test
+    @DisplayName("Should release the duplicate check when saving fails")
+    void testCreateReservation_SaveFailureReleasesClaim() {
+        // Arrange
+        int userId = 1;
+        int itemId = 1;
+        
+        when(userRepository.findById(userId)).thenReturn(Optional.of(createUser(userId, "john", "john@example.com")));
+        when(mediaItemRepository.findById(itemId)).thenReturn(Optional.of(createMediaItem(itemId, "Java Book", 2, 0)));
+        when(reservationRepository.findAllActive()).thenReturn(Collections.emptyList());
+        when(reservationRepository.save(any(Reservation.class))).thenThrow(new RuntimeException("db down"));
+        
+        // Act
+        assertThrows(RuntimeException.class, () -> reservationService.createReservation(userId, itemId));
+        
+        // Assert
+        assertFalse(reservationService.hasActiveReservation(userId, itemId));
+    }
+    
     // Helper methods
     
     private User createUser(int userId, String username, String email) {
@@ -535,7 +671,7 @@ class ReservationServiceImplTest {
         
         when(reservationRepository.findById(reservationId))
             .thenReturn(Optional.of(targetReservation));
-        when(reservationRepository.findActiveByItemId(itemId)).thenReturn(queue);
+        when(reservationRepository.findAllActive()).thenReturn(queue);
         
         // Act
         int position = reservationService.getQueuePosition(reservationId);
@@ -0,0 +1,214 @@
+package com.example.library.service;
+
+import com.example.library.DatabaseConnection;
+import com.example.library.domain.Loan;
+import com.example.library.domain.LoanWithItem;
+import com.example.library.repository.FinePage;
+import com.example.library.repository.JdbcFineRepository;
+import com.example.library.repository.JdbcLoanRepository;
+import com.example.library.repository.JdbcMediaItemRepository;
+import com.example.library.repository.JdbcUserRepository;
+import com.example.library.service.fine.FineCalculator;
+import com.library.metrics.QueryBudget;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards the number of SQL statements the main service operations run, so
+ * that a per-row lookup added to any of them fails the build. The test
+ * bodies only assert on returned values, since a query made to check the
+ * outcome would count against the budget.
+ */
+class ServiceQueryBudgetTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 3, 1);
+    private static final int ACTIVE_LOANS = 4;
+    private static final int OVERDUE_USERS = 3;
+
+    private LibraryServiceImpl libraryService;
+    private PaymentServiceImpl paymentService;
+    private JdbcFineRepository fineRepository;
+    private ReminderService reminderService;
+    private final AtomicInteger notified = new AtomicInteger();
+
+    private int borrowerId;
+    private int lateUserId;
+    private int bookId;
+    private int overdueLoanId;
+    private int unpaidFineId;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        JdbcLoanRepository loanRepository = new JdbcLoanRepository();
+        fineRepository = new JdbcFineRepository();
+        libraryService = new LibraryServiceImpl(new JdbcUserRepository(), new JdbcMediaItemRepository(),
+                loanRepository, fineRepository, new FineCalculator());
+        paymentService = new PaymentServiceImpl(fineRepository);
+        reminderService = new ReminderService(loanRepository, (user, message) -> notified.incrementAndGet());
+
+        try (Connection conn = DatabaseConnection.getConnection()) {
+            // Clean in correct order: fines → loans → media_items → users
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("DELETE FROM fine");
+                stmt.executeUpdate("DELETE FROM loan");
+                stmt.executeUpdate("DELETE FROM media_item");
+                stmt.executeUpdate("DELETE FROM app_user WHERE username LIKE 'budget%'");
+            }
+
+            borrowerId = insertUser(conn, "budget_borrower");
+            lateUserId = insertUser(conn, "budget_late");
+            bookId = insertItem(conn, "Budget Book 0");
+
+            // The late user has an overdue loan, a returned loan with a fine and several active loans
+            overdueLoanId = insertLoan(conn, lateUserId, insertItem(conn, "Budget Book Overdue"),
+                    TODAY.minusDays(20), TODAY.minusDays(6), null);
+            int returnedLoanId = insertLoan(conn, lateUserId, bookId,
+                    TODAY.minusDays(60), TODAY.minusDays(32), TODAY.minusDays(30));
+            unpaidFineId = insertFine(conn, returnedLoanId);
+            for (int i = 1; i <= ACTIVE_LOANS; i++) {
+                insertLoan(conn, lateUserId, insertItem(conn, "Budget Book " + i),
+                        TODAY.minusDays(2), TODAY.plusDays(26), null);
+            }
+
+            for (int i = 1; i < OVERDUE_USERS; i++) {
+                insertLoan(conn, insertUser(conn, "budget_late" + i), bookId,
+                        TODAY.minusDays(30), TODAY.minusDays(2), null);
+            }
+        }
+    }
+
+    @Test
+    @QueryBudget(5)
+    void testBorrowItem_StaysWithinBudget() {
+        // Act
+        Loan loan = libraryService.borrowItem(borrowerId, bookId, TODAY);
+
+        // Assert
+        assertNotNull(loan.getLoanId());
+    }
+
+    @Test
+    @QueryBudget(5)
+    void testReturnItem_OverdueStaysWithinBudget() {
+        // Act & Assert
+        assertDoesNotThrow(() -> libraryService.returnItem(overdueLoanId, TODAY));
+    }
+
+    @Test
+    @QueryBudget(2)
+    void testGetUserLoansWithItems_IsOneQueryForLoansAndOneForItems() {
+        // Act
+        List<LoanWithItem> loans = libraryService.getUserLoansWithItems(lateUserId);
+
+        // Assert
+        assertEquals(ACTIVE_LOANS + 2, loans.size());
+        loans.forEach(loan -> assertNotNull(loan.getItem()));
+    }
+
+    @Test
+    @QueryBudget(2)
+    void testPayFine_StaysWithinBudget() {
+        // Act & Assert
+        assertDoesNotThrow(() -> paymentService.payFine(unpaidFineId));
+    }
+
+    @Test
+    @QueryBudget(1)
+    void testFindWithUsers_AdminFinesPageIsOneQuery() {
+        // Act
+        FinePage page = fineRepository.findWithUsers(null, 0, 50);
+
+        // Assert
+        assertEquals(1, page.getTotalCount());
+        assertEquals("budget_late", page.getRows().get(0).getUsername());
+    }
+
+    @Test
+    @QueryBudget(1)
+    void testSendOverdueReminders_IsOneQueryForAllUsers() {
+        // Act
+        int sent = reminderService.sendOverdueReminders(TODAY);
+
+        // Assert
+        assertEquals(OVERDUE_USERS, sent);
+        assertEquals(OVERDUE_USERS, notified.get());
+    }
+
+    private static int insertUser(Connection conn, String username) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO app_user (username, password, email, role) VALUES (?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, username);
+            pstmt.setString(2, "password123");
+            pstmt.setString(3, username + "@example.com");
+            pstmt.setString(4, "STUDENT");
+            pstmt.executeUpdate();
+            return generatedKey(pstmt);
+        }
+    }
+
+    private static int insertItem(Connection conn, String title) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO media_item (title, author, type, total_copies, available_copies, late_fees_per_day) " +
+                "VALUES (?, ?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setString(1, title);
+            pstmt.setString(2, "Test Author");
+            pstmt.setString(3, "BOOK");
+            pstmt.setInt(4, 5);
+            pstmt.setInt(5, 3);
+            pstmt.setBigDecimal(6, new BigDecimal("10.00"));
+            pstmt.executeUpdate();
+            return generatedKey(pstmt);
+        }
+    }
+
+    private static int insertLoan(Connection conn, int userId, int itemId, LocalDate loanDate, LocalDate dueDate,
+                                  LocalDate returnDate) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO loan (user_id, item_id, loan_date, due_date, return_date, status) VALUES (?, ?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setInt(1, userId);
+            pstmt.setInt(2, itemId);
+            pstmt.setDate(3, Date.valueOf(loanDate));
+            pstmt.setDate(4, Date.valueOf(dueDate));
+            pstmt.setDate(5, returnDate != null ? Date.valueOf(returnDate) : null);
+            pstmt.setString(6, returnDate != null ? "RETURNED" : "ACTIVE");
+            pstmt.executeUpdate();
+            return generatedKey(pstmt);
+        }
+    }
+
+    private static int insertFine(Connection conn, int loanId) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO fine (loan_id, amount, issued_date, status) VALUES (?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setInt(1, loanId);
+            pstmt.setBigDecimal(2, new BigDecimal("20.00"));
+            pstmt.setDate(3, Date.valueOf(TODAY.minusDays(30)));
+            pstmt.setString(4, "UNPAID");
+            pstmt.executeUpdate();
+            return generatedKey(pstmt);
+        }
+    }
+
+    private static int generatedKey(PreparedStatement pstmt) throws SQLException {
+        try (ResultSet rs = pstmt.getGeneratedKeys()) {
+            assertTrue(rs.next());
+            return rs.getInt(1);
+        }
+    }
+}
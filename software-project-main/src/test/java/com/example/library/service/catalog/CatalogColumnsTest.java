@@ -0,0 +1,136 @@
+package com.example.library.service.catalog;
+
+import com.example.library.domain.MediaItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogColumnsTest {
+
+    private CatalogColumns columns;
+
+    @BeforeEach
+    void setUp() {
+        columns = new CatalogColumns();
+        columns.putAll(Arrays.asList(
+            createItem(1, "BOOK", "Penguin", 2001, 3, 2, "0.50"),
+            createItem(2, "BOOK", "Penguin", 2015, 1, 0, "0.25"),
+            createItem(3, "CD", "Sony", 2015, 2, 1, "1.00"),
+            createItem(4, "book", "Orbit", 2020, 4, 4, null),
+            createItem(5, "DVD", null, null, 1, 1, "0.10")
+        ));
+    }
+
+    @Test
+    void testAvailabilityByType_TotalsItemsAndCopiesPerType() {
+        // Act
+        Map<String, CopyTotals> totals = columns.availabilityByType();
+
+        // Assert
+        assertEquals(Set.of("BOOK", "CD", "DVD"), totals.keySet());
+        assertEquals(new CopyTotals(3, 2, 8, 6), totals.get("BOOK"));
+        assertEquals(new CopyTotals(1, 1, 2, 1), totals.get("CD"));
+    }
+
+    @Test
+    void testCopiesByPublisher_SkipsItemsWithoutPublisher() {
+        // Act
+        Map<String, CopyTotals> totals = columns.copiesByPublisher();
+
+        // Assert
+        assertEquals(Arrays.asList("Orbit", "Penguin", "Sony"), Arrays.asList(totals.keySet().toArray()));
+        assertEquals(new CopyTotals(2, 1, 4, 2), totals.get("Penguin"));
+    }
+
+    @Test
+    void testUpdateAvailableCopies_ChangesOnlyThatRow() {
+        // Act
+        columns.updateAvailableCopies(2, 1);
+        columns.updateAvailableCopies(99, 5);
+
+        // Assert
+        assertEquals(new CopyTotals(3, 3, 8, 7), columns.availabilityByType().get("BOOK"));
+        assertEquals(5, columns.size());
+    }
+
+    @Test
+    void testRemove_MovesLastRowIntoTheGap() {
+        // Act
+        columns.remove(2);
+        columns.remove(2);
+        columns.updateAvailableCopies(5, 0);
+
+        // Assert
+        assertEquals(4, columns.size());
+        assertEquals(new HashSet<>(Arrays.asList(1, 3, 4, 5)), new HashSet<>(columns.itemIds()));
+        assertEquals(new CopyTotals(1, 0, 1, 0), columns.availabilityByType().get("DVD"));
+        assertEquals(1, columns.copiesByPublisher().get("Penguin").getItems());
+    }
+
+    @Test
+    void testPut_ReplacesRowOfExistingItem() {
+        // Act
+        columns.put(createItem(3, "DVD", "Warner", 2015, 2, 2, "1.00"));
+
+        // Assert
+        assertEquals(5, columns.size());
+        assertFalse(columns.availabilityByType().containsKey("CD"));
+        assertEquals(new CopyTotals(2, 2, 3, 3), columns.availabilityByType().get("DVD"));
+        assertEquals(1, columns.copiesByPublisher().get("Warner").getItems());
+    }
+
+    @Test
+    void testCountPublishedBetween_IgnoresUndatedItems() {
+        // Act & Assert
+        assertEquals(2, columns.countPublishedBetween(LocalDate.of(2015, 1, 1), LocalDate.of(2015, 12, 31)));
+        assertEquals(4, columns.countPublishedBetween(LocalDate.MIN, LocalDate.MAX));
+    }
+
+    @Test
+    void testTotalLateFeeCents_SkipsItemsWithoutFee() {
+        // Act & Assert
+        assertEquals(185, columns.totalLateFeeCents());
+    }
+
+    @Test
+    void testPut_SparseIdsGrowTheColumns() {
+        // Act
+        for (int id = 100; id < 1_100; id++) {
+            columns.put(createItem(id, "CD", "Sony", 2010, 1, 1, "0.01"));
+        }
+
+        // Assert
+        assertEquals(1_005, columns.size());
+        assertEquals(1_001, columns.availabilityByType().get("CD").getItems());
+        assertEquals(1_185, columns.totalLateFeeCents());
+    }
+
+    @Test
+    void testPut_NullId_ThrowsException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> columns.put(createItem(null, "BOOK", "Pub", 2020, 1, 1, "0.10")));
+    }
+
+    private MediaItem createItem(Integer itemId, String type, String publisher, Integer year,
+                                 int totalCopies, int availableCopies, String lateFee) {
+        MediaItem item = new MediaItem();
+        item.setItemId(itemId);
+        item.setTitle("Item " + itemId);
+        item.setType(type);
+        item.setPublisher(publisher);
+        item.setPublicationDate(year == null ? null : LocalDate.of(year, 1, 1));
+        item.setTotalCopies(totalCopies);
+        item.setAvailableCopies(availableCopies);
+        item.setLateFeesPerDay(lateFee == null ? null : new BigDecimal(lateFee));
+        return item;
+    }
+}
@@ -0,0 +1,297 @@
+package com.example.library.service.reminder;
+
+import com.example.library.domain.DueLoan;
+import com.example.library.domain.Loan;
+import com.example.library.domain.ReminderCheckpoint;
+import com.example.library.domain.User;
+import com.example.library.notification.Notifier;
+import com.example.library.repository.LoanRepository;
+import com.example.library.repository.ReminderRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReminderSchedulerTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 11, 27);
+    private static final int CHUNK_SIZE = 2;
+
+    @Mock
+    private LoanRepository loanRepository;
+
+    private InMemoryReminderRepository reminderRepository;
+    private List<String> notifications;
+    private ReminderScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        reminderRepository = new InMemoryReminderRepository();
+        notifications = new ArrayList<>();
+        Clock clock = Clock.fixed(Instant.from(TODAY.atStartOfDay().atOffset(ZoneOffset.UTC)), ZoneOffset.UTC);
+        // The first scheduled run is hours away, so only explicit runs in a test touch the repositories
+        scheduler = new ReminderScheduler(loanRepository, reminderRepository,
+                (user, message) -> notifications.add(user.getEmail() + ": " + message),
+                LocalTime.of(8, 0), 3, CHUNK_SIZE, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.close();
+    }
+
+    @Test
+    void testRunNow_SendsDueSoonAndOverdueRemindersAndReportsCounts() {
+        // Arrange
+        when(loanRepository.findLoansDueSoon(TODAY, 3, 0, CHUNK_SIZE)).thenReturn(List.of(
+                dueLoan(1, 10, TODAY.plusDays(2))));
+        when(loanRepository.findOverdueLoans(TODAY, 0, CHUNK_SIZE)).thenReturn(List.of(
+                dueLoan(2, 11, TODAY.minusDays(1))));
+
+        // Act
+        List<ReminderPassReport> reports = scheduler.runNow(TODAY);
+
+        // Assert
+        assertEquals(List.of(
+                "user10@example.com: Reminder: an item you borrowed is due on 2025-11-29.",
+                "user11@example.com: An item you borrowed was due on 2025-11-26 and is now overdue."),
+                notifications);
+        assertEquals(ReminderScheduler.DUE_SOON, reports.get(0).getKind());
+        assertEquals(1, reports.get(0).getSent());
+        assertEquals(1, reports.get(1).getSent());
+        assertEquals(reports, scheduler.getLastRun());
+        assertTrue(reminderRepository.findCheckpoint(TODAY, ReminderScheduler.OVERDUE).get().isCompleted());
+    }
+
+    @Test
+    void testRunNow_ReadsLoansInChunksAndCheckpointsEachOne() {
+        // Arrange
+        when(loanRepository.findLoansDueSoon(TODAY, 3, 0, CHUNK_SIZE)).thenReturn(List.of(
+                dueLoan(1, 10, TODAY), dueLoan(4, 11, TODAY)));
+        when(loanRepository.findLoansDueSoon(TODAY, 3, 4, CHUNK_SIZE)).thenReturn(List.of(
+                dueLoan(7, 12, TODAY.plusDays(1))));
+        when(loanRepository.findOverdueLoans(TODAY, 0, CHUNK_SIZE)).thenReturn(List.of());
+
+        // Act
+        ReminderPassReport report = scheduler.runNow(TODAY).get(0);
+
+        // Assert
+        assertEquals(3, report.getScanned());
+        assertEquals(3, report.getSent());
+        verify(loanRepository).findLoansDueSoon(TODAY, 3, 4, CHUNK_SIZE);
+        assertEquals(List.of(4, 7, 7), reminderRepository.savedCheckpoints.get(ReminderScheduler.DUE_SOON));
+    }
+
+    @Test
+    void testRunNow_SecondRunOnSameDayDoesNothing() {
+        // Arrange
+        when(loanRepository.findLoansDueSoon(TODAY, 3, 0, CHUNK_SIZE)).thenReturn(List.of(
+                dueLoan(1, 10, TODAY.plusDays(2))));
+        when(loanRepository.findOverdueLoans(TODAY, 0, CHUNK_SIZE)).thenReturn(List.of());
+        scheduler.runNow(TODAY);
+
+        // Act
+        List<ReminderPassReport> again = scheduler.runNow(TODAY);
+
+        // Assert
+        assertEquals(1, notifications.size());
+        assertTrue(again.get(0).isAlreadyCompleted());
+        assertTrue(again.get(1).isAlreadyCompleted());
+        verify(loanRepository, times(1)).findLoansDueSoon(any(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void testRunNow_ResumesAfterCheckpointLeftByCrashedRun() {
+        // Arrange
+        reminderRepository.saveCheckpoint(new ReminderCheckpoint(TODAY, ReminderScheduler.OVERDUE, 40, false));
+        when(loanRepository.findLoansDueSoon(TODAY, 3, 0, CHUNK_SIZE)).thenReturn(List.of());
+        when(loanRepository.findOverdueLoans(TODAY, 40, CHUNK_SIZE)).thenReturn(List.of(
+                dueLoan(41, 10, TODAY.minusDays(3))));
+
+        // Act
+        ReminderPassReport report = scheduler.runNow(TODAY).get(1);
+
+        // Assert
+        assertEquals(40, report.getResumedAfterLoanId());
+        assertEquals(1, report.getSent());
+        verify(loanRepository, never()).findOverdueLoans(TODAY, 0, CHUNK_SIZE);
+    }
+
+    @Test
+    void testRunNow_LoanAlreadyRemindedOnEarlierDayIsSkipped() {
+        // Arrange
+        LocalDate dueDate = TODAY.minusDays(5);
+        reminderRepository.recordReminder(3, ReminderScheduler.OVERDUE, dueDate);
+        when(loanRepository.findLoansDueSoon(TODAY, 3, 0, CHUNK_SIZE)).thenReturn(List.of());
+        when(loanRepository.findOverdueLoans(TODAY, 0, CHUNK_SIZE)).thenReturn(List.of(
+                dueLoan(3, 10, dueDate), dueLoan(5, 11, TODAY.minusDays(1))));
+        when(loanRepository.findOverdueLoans(TODAY, 5, CHUNK_SIZE)).thenReturn(List.of());
+
+        // Act
+        ReminderPassReport report = scheduler.runNow(TODAY).get(1);
+
+        // Assert
+        assertEquals(1, report.getSent());
+        assertEquals(1, report.getAlreadySent());
+        assertEquals(List.of("user11@example.com: An item you borrowed was due on 2025-11-26 and is now overdue."),
+                notifications);
+    }
+
+    @Test
+    void testRunNow_FailedReminderIsUnrecordedSoALaterRunRetriesIt() {
+        // Arrange
+        ReminderScheduler failingScheduler = new ReminderScheduler(loanRepository, reminderRepository,
+                (user, message) -> {
+                    throw new IllegalStateException("mail server down");
+                }, LocalTime.of(8, 0), 3, CHUNK_SIZE);
+        when(loanRepository.findLoansDueSoon(TODAY, 3, 0, CHUNK_SIZE)).thenReturn(List.of(
+                dueLoan(1, 10, TODAY.plusDays(1))));
+        when(loanRepository.findOverdueLoans(TODAY, 0, CHUNK_SIZE)).thenReturn(List.of());
+
+        // Act
+        ReminderPassReport report;
+        try {
+            report = failingScheduler.runNow(TODAY).get(0);
+        } finally {
+            failingScheduler.close();
+        }
+
+        // Assert
+        assertEquals(1, report.getFailed());
+        assertEquals(0, report.getSent());
+        assertTrue(reminderRepository.recordReminder(1, ReminderScheduler.DUE_SOON, TODAY.plusDays(1)),
+                "the failed reminder should no longer be recorded");
+    }
+
+    @Test
+    void testRunNow_ReminderQueuedButNotDeliveredIsUnrecordedAndCountedAsFailed() {
+        // Arrange
+        Notifier queueingNotifier = new Notifier() {
+            @Override
+            public void notify(User user, String message) {
+                notifications.add(user.getEmail() + ": " + message);
+            }
+
+            @Override
+            public CompletableFuture<Void> deliver(User user, String message) {
+                notify(user, message);
+                // The mail server gives up on user 11 after the notifier has returned
+                CompletableFuture<Void> delivery = new CompletableFuture<>();
+                CompletableFuture.runAsync(() -> {
+                    if (user.getUserId() == 11) {
+                        delivery.completeExceptionally(new IllegalStateException("mailbox unavailable"));
+                    } else {
+                        delivery.complete(null);
+                    }
+                });
+                return delivery;
+            }
+        };
+        ReminderScheduler queueingScheduler = new ReminderScheduler(loanRepository, reminderRepository,
+                queueingNotifier, LocalTime.of(8, 0), 3, CHUNK_SIZE);
+        when(loanRepository.findLoansDueSoon(TODAY, 3, 0, CHUNK_SIZE)).thenReturn(List.of());
+        when(loanRepository.findOverdueLoans(TODAY, 0, CHUNK_SIZE)).thenReturn(List.of(
+                dueLoan(1, 10, TODAY.minusDays(2)), dueLoan(2, 11, TODAY.minusDays(1))));
+        when(loanRepository.findOverdueLoans(TODAY, 2, CHUNK_SIZE)).thenReturn(List.of());
+
+        // Act
+        ReminderPassReport report;
+        try {
+            report = queueingScheduler.runNow(TODAY).get(1);
+        } finally {
+            queueingScheduler.close();
+        }
+
+        // Assert
+        assertEquals(2, notifications.size());
+        assertEquals(1, report.getSent());
+        assertEquals(1, report.getFailed());
+        assertFalse(reminderRepository.recordReminder(1, ReminderScheduler.OVERDUE, TODAY.minusDays(2)),
+                "the delivered reminder should stay recorded");
+        assertTrue(reminderRepository.recordReminder(2, ReminderScheduler.OVERDUE, TODAY.minusDays(1)),
+                "the undelivered reminder should no longer be recorded");
+    }
+
+    private static DueLoan dueLoan(int loanId, int userId, LocalDate dueDate) {
+        Loan loan = new Loan();
+        loan.setLoanId(loanId);
+        loan.setUserId(userId);
+        loan.setItemId(100 + loanId);
+        loan.setLoanDate(dueDate.minusDays(14));
+        loan.setDueDate(dueDate);
+        loan.setStatus("ACTIVE");
+        User user = new User();
+        user.setUserId(userId);
+        user.setUsername("user" + userId);
+        user.setEmail("user" + userId + "@example.com");
+        user.setRole("STUDENT");
+        return new DueLoan(loan, user);
+    }
+
+    /**
+     * Keeps reminders and checkpoints in maps, and remembers the loan ID of
+     * every checkpoint saved per kind.
+     */
+    private static final class InMemoryReminderRepository implements ReminderRepository {
+        private final Set<String> reminders = new HashSet<>();
+        private final Map<String, ReminderCheckpoint> checkpoints = new HashMap<>();
+        private final Map<String, List<Integer>> savedCheckpoints = new HashMap<>();
+
+        @Override
+        public Set<Integer> findRemindedLoanIds(String kind, Collection<Loan> loans) {
+            Set<Integer> reminded = new HashSet<>();
+            for (Loan loan : loans) {
+                if (reminders.contains(key(loan.getLoanId(), kind, loan.getDueDate()))) {
+                    reminded.add(loan.getLoanId());
+                }
+            }
+            return reminded;
+        }
+
+        @Override
+        public boolean recordReminder(Integer loanId, String kind, LocalDate dueDate) {
+            return reminders.add(key(loanId, kind, dueDate));
+        }
+
+        @Override
+        public void deleteReminder(Integer loanId, String kind, LocalDate dueDate) {
+            reminders.remove(key(loanId, kind, dueDate));
+        }
+
+        @Override
+        public Optional<ReminderCheckpoint> findCheckpoint(LocalDate runDate, String kind) {
+            return Optional.ofNullable(checkpoints.get(runDate + "/" + kind));
+        }
+
+        @Override
+        public void saveCheckpoint(ReminderCheckpoint checkpoint) {
+            checkpoints.put(checkpoint.getRunDate() + "/" + checkpoint.getKind(), checkpoint);
+            savedCheckpoints.computeIfAbsent(checkpoint.getKind(), kind -> new ArrayList<>())
+                    .add(checkpoint.getLastLoanId());
+        }
+
+        private static String key(Integer loanId, String kind, LocalDate dueDate) {
+            return loanId + "/" + kind + "/" + dueDate;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.library.service.reservation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderStatisticTreeTest {
+
+    @Test
+    void testRankAndGet_FollowElementOrder() {
+        // Arrange
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+        for (int value : new int[]{50, 10, 40, 20, 30}) {
+            tree.add(value);
+        }
+
+        // Act & Assert
+        assertEquals(5, tree.size());
+        assertEquals(0, tree.rank(10));
+        assertEquals(2, tree.rank(30));
+        assertEquals(4, tree.rank(50));
+        assertEquals(-1, tree.rank(35));
+        assertEquals(Integer.valueOf(40), tree.get(3));
+    }
+
+    @Test
+    void testAdd_IgnoresDuplicates() {
+        // Arrange
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+
+        // Act
+        boolean first = tree.add(7);
+        boolean second = tree.add(7);
+
+        // Assert
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(1, tree.size());
+    }
+
+    @Test
+    void testRemove_ShiftsLaterRanks() {
+        // Arrange
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+        tree.add(1);
+        tree.add(2);
+        tree.add(3);
+
+        // Act
+        boolean removed = tree.remove(1);
+        boolean removedAgain = tree.remove(1);
+
+        // Assert
+        assertTrue(removed);
+        assertFalse(removedAgain);
+        assertEquals(0, tree.rank(2));
+        assertEquals(1, tree.rank(3));
+    }
+
+    @Test
+    void testGet_OutOfBoundsThrows() {
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(0));
+    }
+
+    @Test
+    void testRandomOperations_MatchSortedSet() {
+        // Arrange
+        Random random = new Random(42);
+        OrderStatisticTree<Integer> tree = new OrderStatisticTree<>(Comparator.naturalOrder());
+        TreeSet<Integer> expected = new TreeSet<>();
+
+        // Act
+        for (int i = 0; i < 20_000; i++) {
+            int value = random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), tree.remove(value));
+            } else {
+                assertEquals(expected.add(value), tree.add(value));
+            }
+        }
+
+        // Assert
+        List<Integer> sorted = new ArrayList<>(expected);
+        assertEquals(sorted.size(), tree.size());
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.get(i), tree.get(i));
+            assertEquals(i, tree.rank(sorted.get(i)));
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.library.service.reservation;
+
+import com.example.library.domain.Reservation;
+import com.example.library.repository.MediaItemRepository;
+import com.example.library.repository.ReservationRepository;
+import com.example.library.repository.UserRepository;
+import com.example.library.service.ReservationServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ReservationExpiryDaemonTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private MediaItemRepository mediaItemRepository;
+
+    private ReservationExpiryDaemon daemon;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        ReservationServiceImpl reservationService =
+                new ReservationServiceImpl(reservationRepository, userRepository, mediaItemRepository);
+        Clock clock = Clock.fixed(Instant.from(NOW.atOffset(ZoneOffset.UTC)), ZoneOffset.UTC);
+        // The interval is long so only explicit sweeps in a test touch the repository
+        daemon = new ReservationExpiryDaemon(reservationService, Duration.ofHours(1), 100, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        daemon.close();
+    }
+
+    @Test
+    void testSweep_ExpiresAndPromotesAndCountsRows() {
+        // Arrange
+        Reservation promoted = createReservation(3, 1, "FULFILLED");
+        when(reservationRepository.expireActiveBefore(NOW, 100))
+                .thenReturn(Arrays.asList(createReservation(1, 1, "EXPIRED"), createReservation(2, 2, "EXPIRED")));
+        when(reservationRepository.promoteNextReservations(anyCollection(), eq(NOW), any(LocalDateTime.class)))
+                .thenReturn(Collections.singletonList(promoted));
+
+        // Act
+        ExpirySweep sweep = daemon.sweep();
+
+        // Assert
+        assertEquals(Arrays.asList(1, 2), sweep.getExpiredIds());
+        ReservationExpiryDaemon.Stats stats = daemon.getStats();
+        assertEquals(1, stats.getSweeps());
+        assertEquals(2, stats.getExpired());
+        assertEquals(1, stats.getPromoted());
+        assertEquals(0, stats.getFailures());
+        assertTrue(stats.getMaxSweepMillis() >= stats.getLastSweepMillis());
+    }
+
+    @Test
+    void testClose_WaitsForTheScheduledSweepInProgress() throws InterruptedException {
+        // Arrange
+        CountDownLatch sweepStarted = new CountDownLatch(1);
+        AtomicBoolean sweepFinished = new AtomicBoolean();
+        when(reservationRepository.expireActiveBefore(NOW, 100)).thenAnswer(invocation -> {
+            sweepStarted.countDown();
+            Thread.sleep(200);
+            sweepFinished.set(true);
+            return Collections.emptyList();
+        });
+        ReservationServiceImpl reservationService =
+                new ReservationServiceImpl(reservationRepository, userRepository, mediaItemRepository);
+        Clock clock = Clock.fixed(Instant.from(NOW.atOffset(ZoneOffset.UTC)), ZoneOffset.UTC);
+        ReservationExpiryDaemon busyDaemon = new ReservationExpiryDaemon(reservationService, Duration.ofMillis(1), 100, clock);
+        assertTrue(sweepStarted.await(5, TimeUnit.SECONDS));
+
+        // Act
+        busyDaemon.close();
+
+        // Assert
+        assertTrue(sweepFinished.get());
+    }
+
+    @Test
+    void testSweep_NothingExpiredSkipsPromotion() {
+        // Arrange
+        when(reservationRepository.expireActiveBefore(NOW, 100)).thenReturn(Collections.emptyList());
+
+        // Act
+        ExpirySweep sweep = daemon.sweep();
+
+        // Assert
+        assertTrue(sweep.getExpiredIds().isEmpty());
+        verify(reservationRepository, never()).promoteNextReservations(anyCollection(), any(), any());
+    }
+
+    @Test
+    void testSweep_FailureIsCountedAndRethrown() {
+        // Arrange
+        when(reservationRepository.expireActiveBefore(NOW, 100)).thenThrow(new IllegalStateException("db down"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> daemon.sweep());
+        assertEquals(1, daemon.getStats().getFailures());
+        assertEquals(1, daemon.getStats().getSweeps());
+    }
+
+    @Test
+    void testConstructor_RejectsNonPositiveChunkSize() {
+        ReservationServiceImpl reservationService =
+                new ReservationServiceImpl(reservationRepository, userRepository, mediaItemRepository);
+        assertThrows(IllegalArgumentException.class,
+                () -> new ReservationExpiryDaemon(reservationService, Duration.ofHours(1), 0));
+    }
+
+    private Reservation createReservation(int id, int itemId, String status) {
+        Reservation reservation = new Reservation();
+        reservation.setReservationId(id);
+        reservation.setUserId(id);
+        reservation.setItemId(itemId);
+        reservation.setReservationDate(NOW.minusDays(3));
+        reservation.setExpiryDate(NOW.minusDays(1));
+        reservation.setStatus(status);
+        return reservation;
+    }
+}
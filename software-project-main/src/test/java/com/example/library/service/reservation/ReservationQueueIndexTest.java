@@ -0,0 +1,127 @@
+package com.example.library.service.reservation;
+
+import com.example.library.domain.Reservation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationQueueIndexTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 3, 1, 9, 0);
+
+    private ReservationQueueIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ReservationQueueIndex();
+        index.putAll(Arrays.asList(
+            createReservation(3, 30, 1, 2, "ACTIVE"),
+            createReservation(1, 10, 1, 0, "ACTIVE"),
+            createReservation(2, 20, 1, 1, "ACTIVE"),
+            createReservation(4, 10, 2, 0, "ACTIVE"),
+            createReservation(5, 40, 1, 3, "FULFILLED")
+        ));
+    }
+
+    @Test
+    void testPosition_FollowsReservationDate() {
+        // Act & Assert
+        assertEquals(1, index.position(1));
+        assertEquals(2, index.position(2));
+        assertEquals(3, index.position(3));
+        assertEquals(1, index.position(4));
+        assertEquals(-1, index.position(5));
+        assertEquals(3, index.queueLength(1));
+        assertEquals(1, index.first(1));
+    }
+
+    @Test
+    void testPosition_SameDateIsOrderedById() {
+        // Arrange
+        index.put(createReservation(7, 50, 3, 0, "ACTIVE"));
+        index.put(createReservation(6, 60, 3, 0, "ACTIVE"));
+
+        // Act & Assert
+        assertEquals(1, index.position(6));
+        assertEquals(2, index.position(7));
+    }
+
+    @Test
+    void testPut_NonActiveStatusDequeues() {
+        // Act
+        index.put(createReservation(1, 10, 1, 0, "CANCELLED"));
+
+        // Assert
+        assertEquals(-1, index.position(1));
+        assertEquals(1, index.position(2));
+        assertFalse(index.hasActive(10, 1));
+        assertTrue(index.hasActive(10, 2));
+    }
+
+    @Test
+    void testRemove_LastReservationEmptiesQueue() {
+        // Act
+        index.remove(4);
+
+        // Assert
+        assertEquals(0, index.queueLength(2));
+        assertEquals(-1, index.first(2));
+        assertFalse(index.hasActive(10, 2));
+    }
+
+    @Test
+    void testHasActive_ChecksUserAndItemTogether() {
+        // Act & Assert
+        assertTrue(index.hasActive(20, 1));
+        assertFalse(index.hasActive(20, 2));
+        assertFalse(index.hasActive(40, 1));
+    }
+
+    @Test
+    void testClaim_BlocksDuplicateUntilReleased() {
+        // Act
+        boolean claimed = index.claim(99, 1);
+        boolean claimedAgain = index.claim(99, 1);
+        boolean existingPair = index.claim(10, 1);
+        index.release(99, 1);
+
+        // Assert
+        assertTrue(claimed);
+        assertFalse(claimedAgain);
+        assertFalse(existingPair);
+        assertFalse(index.hasActive(99, 1));
+    }
+
+    @Test
+    void testPut_SavedReservationReplacesClaim() {
+        // Arrange
+        index.claim(99, 1);
+
+        // Act
+        index.put(createReservation(8, 99, 1, 4, "ACTIVE"));
+        index.remove(8);
+
+        // Assert
+        assertFalse(index.hasActive(99, 1));
+    }
+
+    @Test
+    void testPut_RequiresReservationId() {
+        assertThrows(IllegalArgumentException.class, () -> index.put(new Reservation()));
+    }
+
+    private Reservation createReservation(int id, int userId, int itemId, int hoursAfterStart, String status) {
+        Reservation reservation = new Reservation();
+        reservation.setReservationId(id);
+        reservation.setUserId(userId);
+        reservation.setItemId(itemId);
+        reservation.setReservationDate(START.plusHours(hoursAfterStart));
+        reservation.setExpiryDate(START.plusHours(hoursAfterStart + 48));
+        reservation.setStatus(status);
+        return reservation;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.library.service.search;
+
+import com.example.library.domain.MediaItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FuzzySearchIndexTest {
+
+    private FuzzySearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new FuzzySearchIndex();
+        index.indexAll(Arrays.asList(
+            createItem(1, "The Hobbit", "J.R.R. Tolkien"),
+            createItem(2, "The Lord of the Rings", "J.R.R. Tolkien"),
+            createItem(3, "Dune", "Frank Herbert"),
+            createItem(4, "Clean Code", "Robert Martin")
+        ));
+    }
+
+    @Test
+    void testSearch_MisspelledAuthor_FindsAllBooksByAuthor() {
+        // Act
+        List<Integer> results = index.search("tolkein", 10);
+
+        // Assert
+        assertEquals(Arrays.asList(1, 2), results);
+    }
+
+    @Test
+    void testSearch_RanksItemsMatchingMoreWordsFirst() {
+        // Act
+        List<Integer> results = index.search("hobit tolkien", 10);
+
+        // Assert
+        assertEquals(Integer.valueOf(1), results.get(0));
+        assertTrue(results.contains(2));
+    }
+
+    @Test
+    void testSearch_ShortWordsRequireExactMatch() {
+        // Act
+        List<Integer> results = index.search("dine", 10);
+        List<Integer> tooShort = index.search("th", 10);
+
+        // Assert
+        assertEquals(Arrays.asList(3), results);
+        assertTrue(tooShort.isEmpty());
+    }
+
+    @Test
+    void testSearch_RespectsLimit() {
+        // Act
+        List<Integer> results = index.search("tolkien", 1);
+
+        // Assert
+        assertEquals(1, results.size());
+    }
+
+    @Test
+    void testSearch_TooManyTypos_ReturnsEmpty() {
+        // Act
+        List<Integer> results = index.search("xyzzy", 10);
+
+        // Assert
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    void testRemove_ItemNoLongerReturned() {
+        // Act
+        index.remove(3);
+
+        // Assert
+        assertTrue(index.search("dune", 10).isEmpty());
+        assertEquals(3, index.itemCount());
+    }
+
+    @Test
+    void testIndex_ReindexingItemDropsOldTerms() {
+        // Act
+        index.index(createItem(4, "Refactoring", "Martin Fowler"));
+
+        // Assert
+        assertTrue(index.search("clean", 10).isEmpty());
+        assertEquals(Arrays.asList(4), index.search("refactorng", 10));
+    }
+
+    @Test
+    void testIndex_NullItemId_ThrowsException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> index.index(createItem(null, "Title", "Author")));
+    }
+
+    @Test
+    void testBkTree_SearchMatchesLinearScan() {
+        // Arrange
+        BkTree tree = new BkTree();
+        List<String> terms = Arrays.asList("book", "books", "boon", "cook", "look", "bake", "brook", "cake");
+        for (String term : terms) {
+            tree.add(term);
+        }
+
+        // Act
+        List<BkTree.Match> matches = tree.search("book", 1);
+
+        // Assert
+        long expected = terms.stream().filter(t -> Levenshtein.distance("book", t) <= 1).count();
+        assertEquals(expected, matches.size());
+        assertFalse(tree.add("book"));
+        assertEquals(terms.size(), tree.size());
+    }
+
+    @Test
+    void testLevenshtein_Distance() {
+        assertEquals(0, Levenshtein.distance("same", "same"));
+        assertEquals(3, Levenshtein.distance("kitten", "sitting"));
+        assertEquals(4, Levenshtein.distance("", "abcd"));
+        assertEquals(2, Levenshtein.distance("tolkien", "tolkein"));
+    }
+
+    private MediaItem createItem(Integer itemId, String title, String author) {
+        MediaItem item = new MediaItem();
+        item.setItemId(itemId);
+        item.setTitle(title);
+        item.setAuthor(author);
+        item.setType("BOOK");
+        return item;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.library.service.search;
+
+import com.example.library.domain.MediaItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MediaItemFacetIndexTest {
+
+    private MediaItemFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MediaItemFacetIndex();
+        index.putAll(Arrays.asList(
+            createItem(1, "BOOK", "Penguin", 2001, 2),
+            createItem(2, "BOOK", "Penguin", 2015, 0),
+            createItem(3, "CD", "Sony", 2015, 1),
+            createItem(4, "book", "Orbit", 2020, 3),
+            createItem(5, "DVD", null, null, 1)
+        ));
+    }
+
+    @Test
+    void testFindIds_EmptyFilter_ReturnsAllItems() {
+        // Act & Assert
+        assertEquals(Arrays.asList(1, 2, 3, 4, 5), index.findIds(new FacetFilter()));
+    }
+
+    @Test
+    void testFindIds_CombinesFacetsWithAnd() {
+        // Arrange
+        FacetFilter filter = new FacetFilter().type("BOOK").availableOnly();
+
+        // Act & Assert
+        assertEquals(Arrays.asList(1, 4), index.findIds(filter));
+    }
+
+    @Test
+    void testFindIds_CombinesValuesOfSameFacetWithOr() {
+        // Arrange
+        FacetFilter filter = new FacetFilter().publisher("Penguin").publisher("Sony").yearBetween(2010, 2019);
+
+        // Act & Assert
+        assertEquals(Arrays.asList(2, 3), index.findIds(filter));
+    }
+
+    @Test
+    void testFacetCounts_IgnoresOwnFacetInFilter() {
+        // Arrange
+        FacetFilter filter = new FacetFilter().type("CD").availableOnly();
+
+        // Act
+        Map<String, Integer> typeCounts = index.facetCounts(Facet.TYPE, filter);
+        Map<String, Integer> availability = index.facetCounts(Facet.AVAILABILITY, new FacetFilter().type("BOOK"));
+
+        // Assert
+        assertEquals(Integer.valueOf(2), typeCounts.get("BOOK"));
+        assertEquals(Integer.valueOf(1), typeCounts.get("CD"));
+        assertEquals(Integer.valueOf(1), typeCounts.get("DVD"));
+        assertEquals(Integer.valueOf(2), availability.get("AVAILABLE"));
+        assertEquals(Integer.valueOf(1), availability.get("UNAVAILABLE"));
+    }
+
+    @Test
+    void testUpdateAvailableCopies_FlipsAvailability() {
+        // Act
+        index.updateAvailableCopies(1, 0);
+        index.updateAvailableCopies(2, 4);
+        index.updateAvailableCopies(99, 4);
+
+        // Assert
+        assertEquals(Arrays.asList(2, 3, 4, 5), index.findIds(new FacetFilter().availableOnly()));
+        assertEquals(5, index.size());
+    }
+
+    @Test
+    void testPut_ReplacesPreviousFacetValues() {
+        // Act
+        index.put(createItem(3, "BOOK", "Orbit", 2020, 1));
+
+        // Assert
+        assertEquals(0, index.count(new FacetFilter().type("CD")));
+        assertEquals(Arrays.asList(3, 4), index.findIds(new FacetFilter().publisher("Orbit")));
+        assertFalse(index.facetCounts(Facet.PUBLISHER, new FacetFilter()).containsKey("Sony"));
+    }
+
+    @Test
+    void testRemove_ClearsItemFromAllFacets() {
+        // Act
+        index.remove(1);
+
+        // Assert
+        assertEquals(3, index.count(new FacetFilter().availableOnly()));
+        assertEquals(Arrays.asList(2), index.findIds(new FacetFilter().publisher("Penguin")));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    void testPut_NullId_ThrowsException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> index.put(createItem(null, "BOOK", "Pub", 2020, 1)));
+    }
+
+    @Test
+    void testYearBetween_InvalidRange_ThrowsException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new FacetFilter().yearBetween(2020, 2010));
+    }
+
+    private MediaItem createItem(Integer itemId, String type, String publisher, Integer year, int availableCopies) {
+        MediaItem item = new MediaItem();
+        item.setItemId(itemId);
+        item.setTitle("Item " + itemId);
+        item.setType(type);
+        item.setPublisher(publisher);
+        item.setPublicationDate(year == null ? null : LocalDate.of(year, 1, 1));
+        item.setTotalCopies(availableCopies + 1);
+        item.setAvailableCopies(availableCopies);
+        return item;
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.library.ui;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BackgroundLoaderTest {
+
+    private BackgroundLoader loader;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SwingUtilities.invokeAndWait(() -> loader = new BackgroundLoader(null));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        SwingUtilities.invokeAndWait(() -> loader.shutdown());
+    }
+
+    @Test
+    void testLoad_DeliversResultOnEventDispatchThread() throws Exception {
+        // Arrange
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> result = new AtomicReference<>();
+        AtomicReference<Boolean> onEdt = new AtomicReference<>();
+
+        // Act
+        SwingUtilities.invokeAndWait(() -> loader.load("key", () -> "rows", value -> {
+            result.set(value);
+            onEdt.set(SwingUtilities.isEventDispatchThread());
+            done.countDown();
+        }, ex -> fail("unexpected error")));
+
+        // Assert
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("rows", result.get());
+        assertTrue(onEdt.get());
+        assertFalse(loader.isLoading("key"));
+    }
+
+    @Test
+    void testLoad_NewerLoadSupersedesOlderOne() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+
+        // Act
+        SwingUtilities.invokeAndWait(() -> {
+            loader.load("key", () -> {
+                release.await(5, TimeUnit.SECONDS);
+                return "stale";
+            }, delivered::add, ex -> fail("unexpected error"));
+            loader.load("key", () -> "fresh", value -> {
+                delivered.add(value);
+                done.countDown();
+            }, ex -> fail("unexpected error"));
+        });
+        release.countDown();
+
+        // Assert
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        SwingUtilities.invokeAndWait(() -> { });
+        assertEquals(Collections.singletonList("fresh"), delivered);
+    }
+
+    @Test
+    void testLoad_DifferentKeysRunAtTheSameTime() throws Exception {
+        // Arrange
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+
+        // Act
+        SwingUtilities.invokeAndWait(() -> {
+            // The first load only succeeds if the second one starts while it is still running
+            loader.load("a", () -> secondStarted.await(5, TimeUnit.SECONDS) ? "a" : "a ran alone", value -> {
+                delivered.add(value);
+                done.countDown();
+            }, ex -> fail("unexpected error"));
+            loader.load("b", () -> {
+                secondStarted.countDown();
+                return "b";
+            }, value -> {
+                delivered.add(value);
+                done.countDown();
+            }, ex -> fail("unexpected error"));
+        });
+
+        // Assert
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertTrue(delivered.contains("a"));
+        assertTrue(delivered.contains("b"));
+    }
+
+    @Test
+    void testCancelAll_DropsPendingResults() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        SwingUtilities.invokeAndWait(() -> loader.load("a", () -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            finished.countDown();
+            return "a";
+        }, delivered::add, ex -> fail("unexpected error")));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        SwingUtilities.invokeAndWait(() -> {
+            loader.load("b", () -> "b", delivered::add, ex -> fail("unexpected error"));
+            loader.cancelAll();
+        });
+        release.countDown();
+
+        // Assert
+        assertTrue(finished.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        SwingUtilities.invokeAndWait(() -> { });
+        assertTrue(delivered.isEmpty());
+        assertFalse(loader.isLoading("a"));
+        assertFalse(loader.getProgressBar().isVisible());
+    }
+
+    @Test
+    void testLoad_FailureIsReportedToErrorHandler() throws Exception {
+        // Arrange
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Exception> error = new AtomicReference<>();
+
+        // Act
+        SwingUtilities.invokeAndWait(() -> loader.load("key", () -> {
+            throw new IllegalStateException("database down");
+        }, value -> fail("unexpected result"), ex -> {
+            error.set(ex);
+            done.countDown();
+        }));
+
+        // Assert
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals("database down", error.get().getMessage());
+    }
+
+    @Test
+    void testLoad_OffEventDispatchThread_ThrowsException() {
+        // Act & Assert
+        assertThrows(IllegalStateException.class,
+            () -> loader.load("key", () -> "rows", value -> { }, ex -> { }));
+    }
+}
@@ -0,0 +1,221 @@
+package com.example.library.ui;
+
+import com.example.library.repository.Page;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import javax.swing.event.TableModelEvent;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedTableModelTest {
+
+    private static final int PAGE_SIZE = 10;
+
+    private BackgroundLoader loader;
+    private PagedTableModel<Integer> model;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            loader = new BackgroundLoader(null);
+            model = new PagedTableModel<>("numbers", Arrays.asList(
+                    PagedTableModel.Column.of("Value", Integer.class, n -> n),
+                    PagedTableModel.Column.of("Date", LocalDate.class, n -> LocalDate.of(2024, 1, 1).plusDays(n))),
+                    loader, PAGE_SIZE, 3);
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        SwingUtilities.invokeAndWait(() -> loader.shutdown());
+    }
+
+    @Test
+    void testSetRows_ExposesRawValuesAndColumnTypes() throws Exception {
+        // Act
+        SwingUtilities.invokeAndWait(() -> model.setRows(Arrays.asList(5, 6, 7)));
+
+        // Assert
+        assertEquals(3, model.getRowCount());
+        assertEquals(2, model.getColumnCount());
+        assertEquals("Date", model.getColumnName(1));
+        assertEquals(LocalDate.class, model.getColumnClass(1));
+        assertEquals(6, model.getValueAt(1, 0));
+        assertEquals(LocalDate.of(2024, 1, 8), model.getValueAt(2, 1));
+        assertFalse(model.isCellEditable(0, 0));
+        assertNull(model.getRow(3));
+    }
+
+    @Test
+    void testLoad_FetchesOnlyFirstPageUpFront() throws Exception {
+        // Arrange
+        RecordingSource source = new RecordingSource(1000);
+
+        // Act
+        loadAndWait(source);
+
+        // Assert
+        assertEquals(1000, model.getRowCount());
+        assertEquals(Collections.singletonList(0), source.offsets);
+        assertEquals(3, model.getValueAt(3, 0));
+    }
+
+    @Test
+    void testLoad_SourceReturningTotalWithRowsIsNotCountedSeparately() throws Exception {
+        // Arrange
+        RecordingSource source = new RecordingSource(25) {
+            @Override
+            public int count() {
+                throw new AssertionError("count() should not be called");
+            }
+
+            @Override
+            public Page<Integer> fetchFirst(int limit) throws Exception {
+                return new Page<>(fetch(0, limit), 25);
+            }
+        };
+
+        // Act
+        loadAndWait(source);
+
+        // Assert
+        assertEquals(25, model.getRowCount());
+        assertEquals(Collections.singletonList(0), source.offsets);
+        assertEquals(3, model.getValueAt(3, 0));
+    }
+
+    @Test
+    void testGetValueAt_UnloadedPageIsFetchedInBackground() throws Exception {
+        // Arrange
+        RecordingSource source = new RecordingSource(1000);
+        loadAndWait(source);
+        CountDownLatch updated = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> model.addTableModelListener(e -> {
+            if (e.getType() == TableModelEvent.UPDATE && e.getFirstRow() == 500) {
+                updated.countDown();
+            }
+        }));
+        AtomicReference<Object> beforeLoad = new AtomicReference<>("unset");
+
+        // Act
+        SwingUtilities.invokeAndWait(() -> beforeLoad.set(model.getValueAt(503, 0)));
+
+        // Assert
+        assertNull(beforeLoad.get());
+        assertTrue(updated.await(5, TimeUnit.SECONDS));
+        assertEquals(503, model.getValueAt(503, 0));
+        assertTrue(source.offsets.contains(500));
+    }
+
+    @Test
+    void testGetValueAt_PastMiddleOfPagePrefetchesNextPage() throws Exception {
+        // Arrange
+        RecordingSource source = new RecordingSource(1000);
+        loadAndWait(source);
+        CountDownLatch updated = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> model.addTableModelListener(e -> {
+            if (e.getType() == TableModelEvent.UPDATE && e.getFirstRow() == PAGE_SIZE) {
+                updated.countDown();
+            }
+        }));
+
+        // Act
+        SwingUtilities.invokeAndWait(() -> model.getValueAt(PAGE_SIZE / 2 + 1, 0));
+
+        // Assert
+        assertTrue(updated.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(0, PAGE_SIZE), source.offsets);
+    }
+
+    @Test
+    void testGetValueAt_EvictsLeastRecentlyUsedPages() throws Exception {
+        // Arrange
+        List<Integer> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rows.add(i);
+        }
+        SwingUtilities.invokeAndWait(() -> model.setRows(rows));
+
+        // Act
+        SwingUtilities.invokeAndWait(() -> {
+            for (int row = 0; row < 100; row += PAGE_SIZE) {
+                model.getValueAt(row, 0);
+            }
+        });
+
+        // Assert
+        assertEquals(3, model.cachedPageCount());
+        assertEquals(99, model.getValueAt(99, 0));
+        assertEquals(0, model.getValueAt(0, 0));
+    }
+
+    @Test
+    void testSetRows_DiscardsPagesFromPreviousSource() throws Exception {
+        // Arrange
+        RecordingSource source = new RecordingSource(1000);
+        loadAndWait(source);
+        CountDownLatch release = new CountDownLatch(1);
+        source.gate = release;
+        SwingUtilities.invokeAndWait(() -> model.getValueAt(700, 0));
+
+        // Act
+        SwingUtilities.invokeAndWait(() -> model.setRows(Collections.singletonList(42)));
+        release.countDown();
+        Thread.sleep(100);
+        SwingUtilities.invokeAndWait(() -> { });
+
+        // Assert
+        assertEquals(1, model.getRowCount());
+        assertEquals(42, model.getValueAt(0, 0));
+        assertEquals(1, model.cachedPageCount());
+    }
+
+    private void loadAndWait(PagedTableModel.RowSource<Integer> source) throws Exception {
+        CountDownLatch loaded = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> model.load(source, count -> loaded.countDown(),
+                ex -> fail("unexpected error")));
+        assertTrue(loaded.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Row source of the integers 0..size-1 that records the offset of every fetch.
+     */
+    private static class RecordingSource implements PagedTableModel.RowSource<Integer> {
+        private final int size;
+        private final List<Integer> offsets = Collections.synchronizedList(new ArrayList<>());
+        private volatile CountDownLatch gate;
+
+        RecordingSource(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int count() {
+            return size;
+        }
+
+        @Override
+        public List<Integer> fetch(int offset, int limit) throws Exception {
+            offsets.add(offset);
+            if (gate != null) {
+                gate.await(5, TimeUnit.SECONDS);
+            }
+            List<Integer> rows = new ArrayList<>();
+            for (int i = offset; i < Math.min(offset + limit, size); i++) {
+                rows.add(i);
+            }
+            return rows;
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.library.ui;
+
+import com.example.library.domain.MediaItem;
+import com.example.library.repository.SearchCancellation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchAsYouTypeTest {
+
+    private static final int DELAY_MS = 50;
+
+    private final List<MediaItem> catalog = Arrays.asList(
+            item(1, "Harry Potter", "J.K. Rowling"),
+            item(2, "Harbour Lights", "Ann Smith"),
+            item(3, "Dune", "Frank Herbert"));
+
+    private BackgroundLoader loader;
+    private JTextField field;
+    private SearchAsYouType search;
+    private final List<String> queries = Collections.synchronizedList(new ArrayList<>());
+    private final List<SearchCancellation> handles = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicReference<List<MediaItem>> shown = new AtomicReference<>();
+    private volatile CountDownLatch resultsShown = new CountDownLatch(1);
+    private volatile CountDownLatch gate;
+    private final CountDownLatch gatedSearchStarted = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            loader = new BackgroundLoader(null);
+            field = new JTextField();
+            search = new SearchAsYouType(field, loader, "items", DELAY_MS, this::query,
+                    items -> {
+                        shown.set(items);
+                        resultsShown.countDown();
+                    }, ex -> fail("unexpected error"));
+        });
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        SwingUtilities.invokeAndWait(() -> loader.shutdown());
+    }
+
+    @Test
+    void testTyping_RunsOneSearchAfterTypingPauses() throws Exception {
+        // Act
+        SwingUtilities.invokeAndWait(() -> {
+            field.setText("h");
+            field.setText("ha");
+            field.setText("har");
+        });
+
+        // Assert
+        assertTrue(resultsShown.await(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList("har"), queries);
+        assertEquals(2, shown.get().size());
+    }
+
+    @Test
+    void testSearchNow_RefiningKeywordFiltersCachedResult() throws Exception {
+        // Arrange
+        searchAndWait("har");
+
+        // Act
+        SwingUtilities.invokeAndWait(() -> {
+            field.setText("HARRY");
+            search.searchNow();
+        });
+
+        // Assert
+        assertEquals(Collections.singletonList("har"), queries);
+        assertEquals(1, shown.get().size());
+        assertEquals(1, shown.get().get(0).getItemId());
+    }
+
+    @Test
+    void testSearchNow_RepeatedKeywordIsServedFromCache() throws Exception {
+        // Arrange
+        searchAndWait("dune");
+        searchAndWait("har");
+
+        // Act
+        SwingUtilities.invokeAndWait(() -> {
+            field.setText("dune");
+            search.searchNow();
+        });
+
+        // Assert
+        assertEquals(Arrays.asList("dune", "har"), queries);
+        assertEquals(3, shown.get().get(0).getItemId());
+    }
+
+    @Test
+    void testSearchNow_RefinementWithoutMatchesQueriesAgain() throws Exception {
+        // Arrange
+        searchAndWait("har");
+
+        // Act
+        searchAndWait("harz");
+
+        // Assert
+        assertEquals(Arrays.asList("har", "harz"), queries);
+    }
+
+    @Test
+    void testSearchNow_DigitKeywordsAreNotRefined() throws Exception {
+        // Arrange
+        searchAndWait("1");
+
+        // Act
+        searchAndWait("12");
+
+        // Assert
+        assertEquals(Arrays.asList("1", "12"), queries);
+    }
+
+    @Test
+    void testRefresh_ForgetsCachedResults() throws Exception {
+        // Arrange
+        searchAndWait("har");
+        resultsShown = new CountDownLatch(1);
+
+        // Act
+        SwingUtilities.invokeAndWait(() -> search.refresh());
+
+        // Assert
+        assertTrue(resultsShown.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("har", "har"), queries);
+        assertEquals(1, search.cachedKeywordCount());
+    }
+
+    @Test
+    void testSearchNow_NewerSearchCancelsRunningOne() throws Exception {
+        // Arrange
+        gate = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> {
+            field.setText("dune");
+            search.searchNow();
+        });
+        assertTrue(gatedSearchStarted.await(5, TimeUnit.SECONDS));
+
+        // Act
+        SwingUtilities.invokeAndWait(() -> {
+            field.setText("har");
+            search.searchNow();
+        });
+        gate.countDown();
+
+        // Assert
+        assertTrue(resultsShown.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        SwingUtilities.invokeAndWait(() -> { });
+        assertEquals(2, handles.size());
+        assertTrue(handles.get(0).isCancelled(), "the superseded search should be cancelled");
+        assertFalse(handles.get(1).isCancelled(), "the newer search should keep running");
+        assertEquals(2, shown.get().size());
+        assertEquals(1, search.cachedKeywordCount());
+    }
+
+    private void searchAndWait(String keyword) throws Exception {
+        resultsShown = new CountDownLatch(1);
+        SwingUtilities.invokeAndWait(() -> {
+            field.setText(keyword);
+            search.searchNow();
+        });
+        assertTrue(resultsShown.await(5, TimeUnit.SECONDS));
+    }
+
+    private List<MediaItem> query(String keyword, SearchCancellation cancellation) {
+        queries.add(keyword);
+        handles.add(cancellation);
+        CountDownLatch waitFor = gate;
+        if (waitFor != null && keyword.equals("dune")) {
+            gatedSearchStarted.countDown();
+            try {
+                waitFor.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        String lower = keyword.toLowerCase(Locale.ROOT);
+        List<MediaItem> result = new ArrayList<>();
+        for (MediaItem item : catalog) {
+            if (SearchAsYouType.matches(item, lower)) {
+                result.add(item);
+            }
+        }
+        return result;
+    }
+
+    private static MediaItem item(int id, String title, String author) {
+        MediaItem item = new MediaItem();
+        item.setItemId(id);
+        item.setTitle(title);
+        item.setAuthor(author);
+        item.setType("BOOK");
+        return item;
+    }
+}
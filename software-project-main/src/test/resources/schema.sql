@@ -5,6 +5,8 @@
 DROP TABLE IF EXISTS fine CASCADE;
 DROP TABLE IF EXISTS loan CASCADE;
 DROP TABLE IF EXISTS media_item CASCADE;
+DROP TABLE IF EXISTS reminder_sent CASCADE;
+DROP TABLE IF EXISTS reminder_checkpoint CASCADE;
 DROP TABLE IF EXISTS app_user CASCADE;
 
 -- Create app_user table
@@ -72,6 +74,27 @@ CREATE TABLE reservation (
     CONSTRAINT chk_reservation_status CHECK (status IN ('ACTIVE', 'FULFILLED', 'EXPIRED', 'CANCELLED'))
 );
 
+-- Create reminder_sent table: one row per reminder, so nobody is notified twice
+CREATE TABLE reminder_sent (
+    loan_id INTEGER NOT NULL,
+    kind VARCHAR(20) NOT NULL,
+    due_date DATE NOT NULL,
+    sent_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (loan_id, kind, due_date),
+    CONSTRAINT fk_reminder_loan FOREIGN KEY (loan_id) REFERENCES loan(loan_id) ON DELETE CASCADE,
+    CONSTRAINT chk_reminder_kind CHECK (kind IN ('DUE_SOON', 'OVERDUE'))
+);
+
+-- Create reminder_checkpoint table: progress of each day's reminder runs
+CREATE TABLE reminder_checkpoint (
+    run_date DATE NOT NULL,
+    kind VARCHAR(20) NOT NULL,
+    last_loan_id INTEGER NOT NULL DEFAULT 0,
+    completed BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (run_date, kind)
+);
+
 -- Create indexes for better query performance
 CREATE INDEX idx_user_username ON app_user(username);
 CREATE INDEX idx_user_email ON app_user(email);
@@ -87,3 +110,4 @@ CREATE INDEX idx_reservation_item ON reservation(item_id);
 CREATE INDEX idx_reservation_status ON reservation(status);
 CREATE INDEX idx_reservation_expiry ON reservation(expiry_date);
 CREATE INDEX idx_reservation_item_status ON reservation(item_id, status, reservation_date);
+CREATE INDEX idx_loan_due_date ON loan(due_date);
@@ -1,6 +1,7 @@
 package com.library.repository;
 
 import com.library.model.Book;
+import java.util.Collection;
 import java.util.List;
 
 public interface BookRepository {
@@ -8,6 +9,7 @@ public interface BookRepository {
     void update(Book book);
     void delete(int bookId);
     Book findById(int bookId);
+    List<Book> findByIds(Collection<Integer> bookIds);
     List<Book> findByTitle(String title);
     List<Book> findByAuthor(String author);
     List<Book> findByISBN(String isbn);
@@ -70,6 +70,28 @@ public class BookRepositoryImpl implements BookRepository {
         return null;
     }
 
+    @Override
+    public List<Book> findByIds(Collection<Integer> bookIds) {
+        List<Book> result = new ArrayList<>();
+        try {
+            for (List<Integer> chunk : IdChunks.of(bookIds)) {
+                String query = "SELECT * FROM books WHERE book_id IN (" + IdChunks.placeholders(chunk.size()) + ")";
+                try (PreparedStatement ps = connection.prepareStatement(query)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        ps.setInt(i + 1, chunk.get(i));
+                    }
+                    ResultSet rs = ps.executeQuery();
+                    while (rs.next()) {
+                        result.add(mapResultSetToBook(rs));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding books by ids", e);
+        }
+        return result;
+    }
+
     @Override
     public List<Book> findByTitle(String title) {
         String query = "SELECT * FROM books WHERE title LIKE ?";
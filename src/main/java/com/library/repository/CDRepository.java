@@ -1,6 +1,7 @@
 package com.library.repository;
 
 import com.library.model.CD;
+import java.util.Collection;
 import java.util.List;
 
 public interface CDRepository {
@@ -8,6 +9,7 @@ public interface CDRepository {
     void update(CD cd);
     void delete(int cdId);
     CD findById(int cdId);
+    List<CD> findByIds(Collection<Integer> cdIds);
     List<CD> findByTitle(String title);
     List<CD> findByArtist(String artist);
     List<CD> findAll();
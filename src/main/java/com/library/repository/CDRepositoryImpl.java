@@ -70,6 +70,28 @@ public class CDRepositoryImpl implements CDRepository {
         return null;
     }
 
+    @Override
+    public List<CD> findByIds(Collection<Integer> cdIds) {
+        List<CD> result = new ArrayList<>();
+        try {
+            for (List<Integer> chunk : IdChunks.of(cdIds)) {
+                String query = "SELECT * FROM cds WHERE cd_id IN (" + IdChunks.placeholders(chunk.size()) + ")";
+                try (PreparedStatement ps = connection.prepareStatement(query)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        ps.setInt(i + 1, chunk.get(i));
+                    }
+                    ResultSet rs = ps.executeQuery();
+                    while (rs.next()) {
+                        result.add(mapResultSetToCD(rs));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding CDs by ids", e);
+        }
+        return result;
+    }
+
     @Override
     public List<CD> findByTitle(String title) {
         String query = "SELECT * FROM cds WHERE title LIKE ?";
@@ -1,17 +1,23 @@
 package com.library.repository;
 
+import com.library.metrics.SlowQueryLog;
+
+import java.nio.file.Paths;
 import java.sql.*;
 import java.time.LocalDateTime;
 
 public class Database {
-    private static final String DATABASE_URL = "jdbc:sqlite:library_management.db";
+    // Overridable so benchmarks and tools can point the application at another database, e.g. jdbc:sqlite::memory:
+    private static final String DATABASE_URL = System.getProperty("library.db.url", "jdbc:sqlite:library_management.db");
+    // Statements taking at least library.slowQuery.thresholdMs are logged with their bind parameters; -1 turns it off
+    private static final SlowQueryLog SLOW_QUERY_LOG = createSlowQueryLog();
     private static Database instance;
     private Connection connection;
 
     private Database() {
         try {
             Class.forName("org.sqlite.JDBC");
-            connection = DriverManager.getConnection(DATABASE_URL);
+            connection = SLOW_QUERY_LOG.wrap(DriverManager.getConnection(DATABASE_URL));
             initializeDatabase();
         } catch (Exception e) {
             throw new RuntimeException("Database initialization failed", e);
@@ -28,7 +34,7 @@ public class Database {
     public Connection getConnection() {
         try {
             if (connection == null || connection.isClosed()) {
-                connection = DriverManager.getConnection(DATABASE_URL);
+                connection = SLOW_QUERY_LOG.wrap(DriverManager.getConnection(DATABASE_URL));
             }
         } catch (SQLException e) {
             throw new RuntimeException("Failed to get database connection", e);
@@ -36,6 +42,21 @@ public class Database {
         return connection;
     }
 
+    public static SlowQueryLog getSlowQueryLog() {
+        return SLOW_QUERY_LOG;
+    }
+
+    private static SlowQueryLog createSlowQueryLog() {
+        SlowQueryLog log = new SlowQueryLog(Long.getLong("library.slowQuery.thresholdMs", 200),
+                Paths.get(System.getProperty("library.slowQuery.logFile", "logs/slow-query.log")),
+                Integer.getInteger("library.slowQuery.maxFileSizeKb", 10240) * 1024,
+                Integer.getInteger("library.slowQuery.fileCount", 5),
+                Integer.getInteger("library.slowQuery.topN", 20),
+                Boolean.getBoolean("library.slowQuery.logBindValues"));
+        log.registerMBean("com.library");
+        return log;
+    }
+
     private void initializeDatabase() {
         try {
             Statement statement = connection.createStatement();
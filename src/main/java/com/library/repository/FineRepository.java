@@ -1,6 +1,7 @@
 package com.library.repository;
 
 import com.library.model.Fine;
+import java.util.Collection;
 import java.util.List;
 
 public interface FineRepository {
@@ -10,6 +11,7 @@ public interface FineRepository {
     Fine findById(int fineId);
     List<Fine> findByUserId(int userId);
     List<Fine> findByRecordId(int recordId);
+    List<Fine> findByRecordIds(Collection<Integer> recordIds);
     List<Fine> findAll();
     List<Fine> findUnpaidByUserId(int userId);
 }
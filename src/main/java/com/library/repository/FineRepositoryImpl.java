@@ -83,6 +83,28 @@ public class FineRepositoryImpl implements FineRepository {
         return executeQuery(query, recordId);
     }
 
+    @Override
+    public List<Fine> findByRecordIds(Collection<Integer> recordIds) {
+        List<Fine> result = new ArrayList<>();
+        try {
+            for (List<Integer> chunk : IdChunks.of(recordIds)) {
+                String query = "SELECT * FROM fines WHERE record_id IN (" + IdChunks.placeholders(chunk.size()) + ")";
+                try (PreparedStatement ps = connection.prepareStatement(query)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        ps.setInt(i + 1, chunk.get(i));
+                    }
+                    ResultSet rs = ps.executeQuery();
+                    while (rs.next()) {
+                        result.add(mapResultSetToFine(rs));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding fines by record ids", e);
+        }
+        return result;
+    }
+
     @Override
     public List<Fine> findAll() {
         String query = "SELECT * FROM fines";
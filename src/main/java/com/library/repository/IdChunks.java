@@ -0,0 +1,47 @@
+package com.library.repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Splits the IDs of a batched lookup into IN lists small enough for one
+ * statement each.
+ */
+final class IdChunks {
+
+    /** Maximum number of IDs bound into one IN list. */
+    static final int CHUNK_SIZE = 500;
+
+    private IdChunks() {
+    }
+
+    /**
+     * @param ids the IDs; duplicates and nulls are ignored
+     * @return the distinct IDs in ascending order, at most {@link #CHUNK_SIZE} per chunk
+     */
+    static List<List<Integer>> of(Collection<Integer> ids) {
+        TreeSet<Integer> unique = new TreeSet<>();
+        for (Integer id : ids) {
+            if (id != null) {
+                unique.add(id);
+            }
+        }
+        List<Integer> sorted = new ArrayList<>(unique);
+        List<List<Integer>> chunks = new ArrayList<>();
+        for (int from = 0; from < sorted.size(); from += CHUNK_SIZE) {
+            chunks.add(sorted.subList(from, Math.min(from + CHUNK_SIZE, sorted.size())));
+        }
+        return chunks;
+    }
+
+    /**
+     * @param count the number of IDs in the chunk
+     * @return {@code ?, ?, ...} with one placeholder per ID
+     */
+    static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -1,6 +1,7 @@
 package com.library.repository;
 
 import com.library.model.User;
+import java.util.Collection;
 import java.util.List;
 
 public interface UserRepository {
@@ -8,6 +9,7 @@ public interface UserRepository {
     void update(User user);
     void delete(int userId);
     User findById(int userId);
+    List<User> findByIds(Collection<Integer> userIds);
     User findByMemberId(String memberId);
     List<User> findByName(String name);
     List<User> findAll();
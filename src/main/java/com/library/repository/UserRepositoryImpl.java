@@ -71,6 +71,28 @@ public class UserRepositoryImpl implements UserRepository {
         return null;
     }
 
+    @Override
+    public List<User> findByIds(Collection<Integer> userIds) {
+        List<User> result = new ArrayList<>();
+        try {
+            for (List<Integer> chunk : IdChunks.of(userIds)) {
+                String query = "SELECT * FROM users WHERE user_id IN (" + IdChunks.placeholders(chunk.size()) + ")";
+                try (PreparedStatement ps = connection.prepareStatement(query)) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        ps.setInt(i + 1, chunk.get(i));
+                    }
+                    ResultSet rs = ps.executeQuery();
+                    while (rs.next()) {
+                        result.add(mapResultSetToUser(rs));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Error finding users by ids", e);
+        }
+        return result;
+    }
+
     @Override
     public User findByMemberId(String memberId) {
         String query = "SELECT * FROM users WHERE member_id=?";
@@ -1,5 +1,6 @@
 package com.library.service;
 
+import com.library.metrics.Instrumentation;
 import com.library.repository.AdminRepository;
 import com.library.repository.AdminRepositoryImpl;
 import com.library.exception.AuthenticationException;
@@ -8,7 +9,7 @@ public class AuthenticationService {
     private AdminRepository adminRepository;
 
     public AuthenticationService() {
-        this.adminRepository = new AdminRepositoryImpl();
+        this.adminRepository = Instrumentation.instrument(AdminRepository.class, new AdminRepositoryImpl());
     }
 
     public AuthenticationService(AdminRepository adminRepository) {
@@ -1,5 +1,6 @@
 package com.library.service;
 
+import com.library.metrics.Instrumentation;
 import com.library.model.Book;
 import com.library.repository.BookRepository;
 import com.library.repository.BookRepositoryImpl;
@@ -9,7 +10,7 @@ public class BookService {
     private BookRepository bookRepository;
 
     public BookService() {
-        this.bookRepository = new BookRepositoryImpl();
+        this.bookRepository = Instrumentation.instrument(BookRepository.class, new BookRepositoryImpl());
     }
 
     public BookService(BookRepository bookRepository) {
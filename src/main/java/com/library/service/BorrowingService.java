@@ -1,5 +1,6 @@
 package com.library.service;
 
+import com.library.metrics.Instrumentation;
 import com.library.model.*;
 import com.library.repository.*;
 import com.library.exception.BorrowingRestrictionException;
@@ -8,6 +9,7 @@ import com.library.util.Constants;
 import com.library.util.TimeProvider;
 import com.library.util.SystemTimeProvider;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 public class BorrowingService {
@@ -19,11 +21,11 @@ public class BorrowingService {
     private TimeProvider timeProvider;
 
     public BorrowingService() {
-        this.borrowingRecordRepository = new BorrowingRecordRepositoryImpl();
-        this.bookRepository = new BookRepositoryImpl();
-        this.cdRepository = new CDRepositoryImpl();
-        this.fineRepository = new FineRepositoryImpl();
-        this.userRepository = new UserRepositoryImpl();
+        this.borrowingRecordRepository = Instrumentation.instrument(BorrowingRecordRepository.class, new BorrowingRecordRepositoryImpl());
+        this.bookRepository = Instrumentation.instrument(BookRepository.class, new BookRepositoryImpl());
+        this.cdRepository = Instrumentation.instrument(CDRepository.class, new CDRepositoryImpl());
+        this.fineRepository = Instrumentation.instrument(FineRepository.class, new FineRepositoryImpl());
+        this.userRepository = Instrumentation.instrument(UserRepository.class, new UserRepositoryImpl());
         this.timeProvider = new SystemTimeProvider();
     }
 
@@ -111,6 +113,16 @@ public class BorrowingService {
         return borrowingRecordRepository.findUnreturnedByUserId(userId);
     }
 
+    public List<BorrowingRecord> getActiveBorrowings() {
+        List<BorrowingRecord> active = new ArrayList<>();
+        for (BorrowingRecord record : borrowingRecordRepository.findAll()) {
+            if (!record.isReturned()) {
+                active.add(record);
+            }
+        }
+        return active;
+    }
+
     public int getUnreturnedItemCount(int userId) {
         return getUserUnreturnedItems(userId).size();
     }
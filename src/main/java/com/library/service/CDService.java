@@ -1,5 +1,6 @@
 package com.library.service;
 
+import com.library.metrics.Instrumentation;
 import com.library.model.CD;
 import com.library.repository.CDRepository;
 import com.library.repository.CDRepositoryImpl;
@@ -9,7 +10,7 @@ public class CDService {
     private CDRepository cdRepository;
 
     public CDService() {
-        this.cdRepository = new CDRepositoryImpl();
+        this.cdRepository = Instrumentation.instrument(CDRepository.class, new CDRepositoryImpl());
     }
 
     public CDService(CDRepository cdRepository) {
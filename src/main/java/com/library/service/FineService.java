@@ -1,5 +1,6 @@
 package com.library.service;
 
+import com.library.metrics.Instrumentation;
 import com.library.model.Fine;
 import com.library.model.Payment;
 import com.library.repository.*;
@@ -11,8 +12,8 @@ public class FineService {
     private PaymentRepository paymentRepository;
 
     public FineService() {
-        this.fineRepository = new FineRepositoryImpl();
-        this.paymentRepository = new PaymentRepositoryImpl();
+        this.fineRepository = Instrumentation.instrument(FineRepository.class, new FineRepositoryImpl());
+        this.paymentRepository = Instrumentation.instrument(PaymentRepository.class, new PaymentRepositoryImpl());
     }
 
     public FineService(FineRepository fineRepository, PaymentRepository paymentRepository) {
@@ -1,13 +1,19 @@
 package com.library.service;
 
+import com.library.metrics.Instrumentation;
 import com.library.model.BorrowingRecord;
 import com.library.model.Book;
 import com.library.model.CD;
 import com.library.model.Fine;
+import com.library.model.User;
 import com.library.repository.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 public class ReportService {
     private BorrowingRecordRepository borrowingRecordRepository;
@@ -17,11 +23,11 @@ public class ReportService {
     private UserRepository userRepository;
 
     public ReportService() {
-        this.borrowingRecordRepository = new BorrowingRecordRepositoryImpl();
-        this.bookRepository = new BookRepositoryImpl();
-        this.cdRepository = new CDRepositoryImpl();
-        this.fineRepository = new FineRepositoryImpl();
-        this.userRepository = new UserRepositoryImpl();
+        this.borrowingRecordRepository = Instrumentation.instrument(BorrowingRecordRepository.class, new BorrowingRecordRepositoryImpl());
+        this.bookRepository = Instrumentation.instrument(BookRepository.class, new BookRepositoryImpl());
+        this.cdRepository = Instrumentation.instrument(CDRepository.class, new CDRepositoryImpl());
+        this.fineRepository = Instrumentation.instrument(FineRepository.class, new FineRepositoryImpl());
+        this.userRepository = Instrumentation.instrument(UserRepository.class, new UserRepositoryImpl());
     }
 
     public ReportService(BorrowingRecordRepository borrowingRecordRepository,
@@ -46,12 +52,16 @@ public class ReportService {
 
         double totalFines = 0.0;
 
+        Names names = loadNames(overdueRecords);
+        Set<Integer> recordIds = overdueRecords.stream().map(BorrowingRecord::getRecordId).collect(Collectors.toSet());
+        Map<Integer, Double> finesByRecord = fineRepository.findByRecordIds(recordIds).stream()
+                .collect(Collectors.groupingBy(Fine::getRecordId, Collectors.summingDouble(Fine::getFineAmount)));
+
         for (BorrowingRecord record : overdueRecords) {
-            String itemName = getItemName(record);
-            String userName = getUserName(record.getUserId());
+            String itemName = names.itemName(record);
+            String userName = names.userName(record.getUserId());
 
-            List<Fine> fines = fineRepository.findByRecordId(record.getRecordId());
-            double recordFine = fines.stream().mapToDouble(Fine::getFineAmount).sum();
+            double recordFine = finesByRecord.getOrDefault(record.getRecordId(), 0.0);
             totalFines += recordFine;
 
             long daysOverdue = java.time.temporal.ChronoUnit.DAYS.between(record.getDueDate(), LocalDate.now());
@@ -85,9 +95,10 @@ public class ReportService {
         report.append("Generated on: ").append(LocalDate.now()).append("\n");
         report.append("Total active items: ").append(activeRecords.size()).append("\n\n");
 
+        Names names = loadNames(activeRecords);
         for (BorrowingRecord record : activeRecords) {
-            String itemName = getItemName(record);
-            String userName = getUserName(record.getUserId());
+            String itemName = names.itemName(record);
+            String userName = names.userName(record.getUserId());
 
             report.append("Item: ").append(itemName).append("\n");
             report.append("User: ").append(userName).append("\n");
@@ -99,18 +110,50 @@ public class ReportService {
         return report.toString();
     }
 
-    private String getItemName(BorrowingRecord record) {
-        if (record.getItemType() == BorrowingRecord.ItemType.BOOK) {
-            Book book = bookRepository.findById(record.getItemId());
-            return book != null ? book.getTitle() + " by " + book.getAuthor() : "Unknown Book";
-        } else {
-            CD cd = cdRepository.findById(record.getItemId());
-            return cd != null ? cd.getTitle() + " by " + cd.getArtist() : "Unknown CD";
+    /**
+     * Loads the books, CDs and users of the records with one query per table
+     * rather than one per record.
+     */
+    private Names loadNames(List<BorrowingRecord> records) {
+        Set<Integer> bookIds = records.stream()
+                .filter(record -> record.getItemType() == BorrowingRecord.ItemType.BOOK)
+                .map(BorrowingRecord::getItemId).collect(Collectors.toSet());
+        Set<Integer> cdIds = records.stream()
+                .filter(record -> record.getItemType() != BorrowingRecord.ItemType.BOOK)
+                .map(BorrowingRecord::getItemId).collect(Collectors.toSet());
+        Set<Integer> userIds = records.stream().map(BorrowingRecord::getUserId).collect(Collectors.toSet());
+
+        Names names = new Names();
+        for (Book book : bookRepository.findByIds(bookIds)) {
+            names.books.put(book.getBookId(), book);
+        }
+        for (CD cd : cdRepository.findByIds(cdIds)) {
+            names.cds.put(cd.getCdId(), cd);
         }
+        for (User user : userRepository.findByIds(userIds)) {
+            names.users.put(user.getUserId(), user);
+        }
+        return names;
     }
 
-    private String getUserName(int userId) {
-        var user = userRepository.findById(userId);
-        return user != null ? user.getName() : "Unknown User";
+    private static final class Names {
+        private final Map<Integer, Book> books = new HashMap<>();
+        private final Map<Integer, CD> cds = new HashMap<>();
+        private final Map<Integer, User> users = new HashMap<>();
+
+        String itemName(BorrowingRecord record) {
+            if (record.getItemType() == BorrowingRecord.ItemType.BOOK) {
+                Book book = books.get(record.getItemId());
+                return book != null ? book.getTitle() + " by " + book.getAuthor() : "Unknown Book";
+            } else {
+                CD cd = cds.get(record.getItemId());
+                return cd != null ? cd.getTitle() + " by " + cd.getArtist() : "Unknown CD";
+            }
+        }
+
+        String userName(int userId) {
+            User user = users.get(userId);
+            return user != null ? user.getName() : "Unknown User";
+        }
     }
 }
@@ -1,5 +1,6 @@
 package com.library.service;
 
+import com.library.metrics.Instrumentation;
 import com.library.model.*;
 import com.library.repository.*;
 import com.library.util.DateUtil;
@@ -17,10 +18,10 @@ public class ReturnService {
     private CDRepository cdRepository;
 
     public ReturnService() {
-        this.borrowingRecordRepository = new BorrowingRecordRepositoryImpl();
-        this.fineRepository = new FineRepositoryImpl();
-        this.bookRepository = new BookRepositoryImpl();
-        this.cdRepository = new CDRepositoryImpl();
+        this.borrowingRecordRepository = Instrumentation.instrument(BorrowingRecordRepository.class, new BorrowingRecordRepositoryImpl());
+        this.fineRepository = Instrumentation.instrument(FineRepository.class, new FineRepositoryImpl());
+        this.bookRepository = Instrumentation.instrument(BookRepository.class, new BookRepositoryImpl());
+        this.cdRepository = Instrumentation.instrument(CDRepository.class, new CDRepositoryImpl());
     }
 
     public ReturnService(BorrowingRecordRepository borrowingRecordRepository,
@@ -78,6 +79,30 @@ public class ReturnService {
             return null; // No fine
         }
 
+        double fineAmount = calculateFineAmount(record, daysOverdue);
+
+        Fine fine = new Fine();
+        fine.setUserId(record.getUserId());
+        fine.setRecordId(record.getRecordId());
+        fine.setFineAmount(fineAmount);
+        fine.setDaysOverdue(daysOverdue);
+        fine.setPaid(false);
+        fine.setCalculationDate(LocalDateTime.now());
+
+        fineRepository.save(fine);
+
+        return fine;
+    }
+
+    public double estimateFine(BorrowingRecord record, LocalDate asOf) {
+        int daysOverdue = DateUtil.calculateDaysOverdue(record.getDueDate(), asOf);
+        if (daysOverdue <= 0) {
+            return 0;
+        }
+        return calculateFineAmount(record, daysOverdue);
+    }
+
+    private double calculateFineAmount(BorrowingRecord record, int daysOverdue) {
         FineCalculationStrategy strategy;
         double dailyRate;
 
@@ -91,19 +116,7 @@ public class ReturnService {
             strategy = new CDFineStrategy();
         }
 
-        double fineAmount = strategy.calculateFine(daysOverdue, dailyRate);
-
-        Fine fine = new Fine();
-        fine.setUserId(record.getUserId());
-        fine.setRecordId(record.getRecordId());
-        fine.setFineAmount(fineAmount);
-        fine.setDaysOverdue(daysOverdue);
-        fine.setPaid(false);
-        fine.setCalculationDate(LocalDateTime.now());
-
-        fineRepository.save(fine);
-
-        return fine;
+        return strategy.calculateFine(daysOverdue, dailyRate);
     }
 
     public List<BorrowingRecord> getOverdueRecords() {
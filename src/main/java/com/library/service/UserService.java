@@ -1,5 +1,6 @@
 package com.library.service;
 
+import com.library.metrics.Instrumentation;
 import com.library.model.User;
 import com.library.repository.UserRepository;
 import com.library.repository.UserRepositoryImpl;
@@ -12,7 +13,7 @@ public class UserService {
     private UserRepository userRepository;
 
     public UserService() {
-        this.userRepository = new UserRepositoryImpl();
+        this.userRepository = Instrumentation.instrument(UserRepository.class, new UserRepositoryImpl());
     }
 
     public UserService(UserRepository userRepository) {
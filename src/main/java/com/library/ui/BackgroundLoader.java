@@ -0,0 +1,130 @@
+package com.library.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Runs table queries off the Event Dispatch Thread. Loads are keyed per table:
+ * starting a load cancels the previous one with the same key, and results of
+ * cancelled or superseded loads are dropped. Queries run one at a time because
+ * all repositories share the single SQLite connection from {@link com.library.repository.Database}.
+ * Must be used from the Event Dispatch Thread.
+ */
+public class BackgroundLoader {
+    private final Component owner;
+    private final JProgressBar progressBar;
+    private final ExecutorService executor;
+    private final Map<String, LoadTask<?>> running = new HashMap<>();
+
+    public BackgroundLoader(Component owner) {
+        this.owner = owner;
+        this.progressBar = new JProgressBar();
+        this.progressBar.setIndeterminate(true);
+        this.progressBar.setStringPainted(true);
+        this.progressBar.setString("Loading...");
+        this.progressBar.setVisible(false);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "background-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public JProgressBar getProgressBar() {
+        return progressBar;
+    }
+
+    public <T> void load(String key, Callable<T> query, Consumer<T> onSuccess, Consumer<Exception> onError) {
+        checkEventDispatchThread();
+        cancel(key);
+        LoadTask<T> task = new LoadTask<>(key, query, onSuccess, onError);
+        running.put(key, task);
+        updateBusyState();
+        executor.execute(task);
+    }
+
+    public void cancel(String key) {
+        checkEventDispatchThread();
+        LoadTask<?> task = running.remove(key);
+        if (task != null) {
+            // Not interrupting: an interrupted JDBC call can leave the shared connection unusable
+            task.cancel(false);
+            updateBusyState();
+        }
+    }
+
+    public void cancelAll() {
+        checkEventDispatchThread();
+        for (String key : new ArrayList<>(running.keySet())) {
+            cancel(key);
+        }
+    }
+
+    public boolean isLoading(String key) {
+        return running.containsKey(key);
+    }
+
+    public void shutdown() {
+        cancelAll();
+        executor.shutdown();
+    }
+
+    private void updateBusyState() {
+        boolean busy = !running.isEmpty();
+        progressBar.setVisible(busy);
+        if (owner != null) {
+            owner.setCursor(busy ? Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR) : null);
+        }
+    }
+
+    private static void checkEventDispatchThread() {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            throw new IllegalStateException("BackgroundLoader must be used on the Event Dispatch Thread");
+        }
+    }
+
+    private final class LoadTask<T> extends SwingWorker<T, Void> {
+        private final String key;
+        private final Callable<T> query;
+        private final Consumer<T> onSuccess;
+        private final Consumer<Exception> onError;
+
+        LoadTask(String key, Callable<T> query, Consumer<T> onSuccess, Consumer<Exception> onError) {
+            this.key = key;
+            this.query = query;
+            this.onSuccess = onSuccess;
+            this.onError = onError;
+        }
+
+        @Override
+        protected T doInBackground() throws Exception {
+            return query.call();
+        }
+
+        @Override
+        protected void done() {
+            if (running.get(key) != this) {
+                // Cancelled or replaced by a newer load: the result is stale
+                return;
+            }
+            running.remove(key);
+            updateBusyState();
+            try {
+                onSuccess.accept(get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                onError.accept(cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
+            }
+        }
+    }
+}
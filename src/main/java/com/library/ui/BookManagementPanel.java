@@ -4,11 +4,10 @@ import com.library.service.BookService;
 import com.library.model.Book;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.List;
+import java.util.Arrays;
 
 public class BookManagementPanel extends JPanel {
     private BookService bookService;
@@ -18,12 +17,13 @@ public class BookManagementPanel extends JPanel {
     private JTextField isbnField;
     private JSpinner quantitySpinner;
     private JSpinner fineRateSpinner;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<Book> tableModel;
+    private final BackgroundLoader loader = new BackgroundLoader(this);
 
     public BookManagementPanel() {
         this.bookService = new BookService();
         initializeUI();
-        loadBooks();
+        SwingUtilities.invokeLater(this::loadBooks);
     }
 
     private void initializeUI() {
@@ -61,34 +61,25 @@ public class BookManagementPanel extends JPanel {
         add(topPanel, BorderLayout.NORTH);
 
         // Center panel for table
-        tableModel = new DefaultTableModel();
-        tableModel.addColumn("ID");
-        tableModel.addColumn("Title");
-        tableModel.addColumn("Author");
-        tableModel.addColumn("ISBN");
-        tableModel.addColumn("Total");
-        tableModel.addColumn("Available");
-        tableModel.addColumn("Fine Rate");
+        tableModel = new PagedTableModel<>("books", Arrays.asList(
+                PagedTableModel.Column.of("ID", Integer.class, Book::getBookId),
+                PagedTableModel.Column.of("Title", String.class, Book::getTitle),
+                PagedTableModel.Column.of("Author", String.class, Book::getAuthor),
+                PagedTableModel.Column.of("ISBN", String.class, Book::getIsbn),
+                PagedTableModel.Column.of("Total", Integer.class, Book::getQuantityTotal),
+                PagedTableModel.Column.of("Available", Integer.class, Book::getQuantityAvailable),
+                PagedTableModel.Column.of("Fine Rate", String.class,
+                        book -> String.format("$%.2f", book.getDailyFineRate()))), loader);
 
         booksTable = new JTable(tableModel);
         JScrollPane scrollPane = new JScrollPane(booksTable);
         add(scrollPane, BorderLayout.CENTER);
+        add(loader.getProgressBar(), BorderLayout.SOUTH);
     }
 
     private void loadBooks() {
-        tableModel.setRowCount(0);
-        List<Book> books = bookService.getAllBooks();
-        for (Book book : books) {
-            tableModel.addRow(new Object[]{
-                    book.getBookId(),
-                    book.getTitle(),
-                    book.getAuthor(),
-                    book.getIsbn(),
-                    book.getQuantityTotal(),
-                    book.getQuantityAvailable(),
-                    String.format("$%.2f", book.getDailyFineRate())
-            });
-        }
+        loader.load("books", bookService::getAllBooks, tableModel::setRows,
+                e -> JOptionPane.showMessageDialog(this, "Error loading books: " + e.getMessage()));
     }
 
     private class AddBookAction implements ActionListener {
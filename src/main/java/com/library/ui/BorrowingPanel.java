@@ -3,11 +3,14 @@ package com.library.ui;
 import com.library.service.*;
 import com.library.model.*;
 import com.library.repository.*;
+import com.library.metrics.Instrumentation;
 import com.library.util.TimeProvider;
 import com.library.util.SystemTimeProvider;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
 
 public class BorrowingPanel extends JPanel {
     private JComboBox<String> itemTypeCombo;
@@ -16,8 +19,9 @@ public class BorrowingPanel extends JPanel {
     private JButton borrowButton;
     private JTextArea resultArea;
     private JTable borrowingTable;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<BorrowingRecord> tableModel;
     private BorrowingService borrowingService;
+    private final BackgroundLoader loader = new BackgroundLoader(this);
 
     public BorrowingPanel() {
         setLayout(new BorderLayout());
@@ -39,11 +43,11 @@ public class BorrowingPanel extends JPanel {
     }
 
     private void initializeServices() {
-        BorrowingRecordRepositoryImpl borrowingRepo = new BorrowingRecordRepositoryImpl();
-        BookRepositoryImpl bookRepo = new BookRepositoryImpl();
-        CDRepositoryImpl cdRepo = new CDRepositoryImpl();
-        FineRepositoryImpl fineRepo = new FineRepositoryImpl();
-        UserRepositoryImpl userRepo = new UserRepositoryImpl();
+        BorrowingRecordRepository borrowingRepo = Instrumentation.instrument(BorrowingRecordRepository.class, new BorrowingRecordRepositoryImpl());
+        BookRepository bookRepo = Instrumentation.instrument(BookRepository.class, new BookRepositoryImpl());
+        CDRepository cdRepo = Instrumentation.instrument(CDRepository.class, new CDRepositoryImpl());
+        FineRepository fineRepo = Instrumentation.instrument(FineRepository.class, new FineRepositoryImpl());
+        UserRepository userRepo = Instrumentation.instrument(UserRepository.class, new UserRepositoryImpl());
         
         TimeProvider timeProvider = new SystemTimeProvider();
         
@@ -78,23 +82,30 @@ public class BorrowingPanel extends JPanel {
         JPanel panel = new JPanel(new BorderLayout());
         panel.setBorder(BorderFactory.createTitledBorder("Active Borrowings"));
         
-        String[] columns = {"Record ID", "User ID", "Item ID", "Item Type", "Borrow Date", "Due Date", "Days Remaining"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new PagedTableModel<>("borrowings", Arrays.asList(
+            PagedTableModel.Column.of("Record ID", Integer.class, BorrowingRecord::getRecordId),
+            PagedTableModel.Column.of("User ID", Integer.class, BorrowingRecord::getUserId),
+            PagedTableModel.Column.of("Item ID", Integer.class, BorrowingRecord::getItemId),
+            PagedTableModel.Column.of("Item Type", BorrowingRecord.ItemType.class, BorrowingRecord::getItemType),
+            PagedTableModel.Column.of("Borrow Date", LocalDate.class, BorrowingRecord::getBorrowDate),
+            PagedTableModel.Column.of("Due Date", LocalDate.class, BorrowingRecord::getDueDate),
+            PagedTableModel.Column.of("Days Remaining", Long.class,
+                record -> ChronoUnit.DAYS.between(LocalDate.now(), record.getDueDate()))), loader);
         
         borrowingTable = new JTable(tableModel);
+        CellFormats.install(borrowingTable);
         borrowingTable.setAutoResizeMode(JTable.AUTO_RESIZE_ALL_COLUMNS);
         JScrollPane scrollPane = new JScrollPane(borrowingTable);
         panel.add(scrollPane, BorderLayout.CENTER);
         
+        JPanel southPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         JButton refreshButton = new JButton("Refresh");
         refreshButton.addActionListener(e -> refreshBorrowingTable());
-        panel.add(refreshButton, BorderLayout.SOUTH);
+        southPanel.add(refreshButton);
+        southPanel.add(loader.getProgressBar());
+        panel.add(southPanel, BorderLayout.SOUTH);
         
-        refreshBorrowingTable();
+        SwingUtilities.invokeLater(this::refreshBorrowingTable);
         return panel;
     }
 
@@ -125,11 +136,6 @@ public class BorrowingPanel extends JPanel {
     }
 
     private void refreshBorrowingTable() {
-        tableModel.setRowCount(0);
-        try {
-            // Refresh active borrowings
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error loading borrowings: " + e.getMessage());
-        }
+        loader.load("borrowings", () -> borrowingService.getActiveBorrowings(), tableModel::setRows, e -> JOptionPane.showMessageDialog(this, "Error loading borrowings: " + e.getMessage()));
     }
 }
@@ -4,11 +4,10 @@ import com.library.service.CDService;
 import com.library.model.CD;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.util.List;
+import java.util.Arrays;
 
 public class CDManagementPanel extends JPanel {
     private CDService cdService;
@@ -18,12 +17,13 @@ public class CDManagementPanel extends JPanel {
     private JTextField catalogField;
     private JSpinner quantitySpinner;
     private JSpinner fineRateSpinner;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<CD> tableModel;
+    private final BackgroundLoader loader = new BackgroundLoader(this);
 
     public CDManagementPanel() {
         this.cdService = new CDService();
         initializeUI();
-        loadCDs();
+        SwingUtilities.invokeLater(this::loadCDs);
     }
 
     private void initializeUI() {
@@ -59,34 +59,25 @@ public class CDManagementPanel extends JPanel {
 
         add(topPanel, BorderLayout.NORTH);
 
-        tableModel = new DefaultTableModel();
-        tableModel.addColumn("ID");
-        tableModel.addColumn("Title");
-        tableModel.addColumn("Artist");
-        tableModel.addColumn("Catalog #");
-        tableModel.addColumn("Total");
-        tableModel.addColumn("Available");
-        tableModel.addColumn("Fine Rate");
+        tableModel = new PagedTableModel<>("cds", Arrays.asList(
+                PagedTableModel.Column.of("ID", Integer.class, CD::getCdId),
+                PagedTableModel.Column.of("Title", String.class, CD::getTitle),
+                PagedTableModel.Column.of("Artist", String.class, CD::getArtist),
+                PagedTableModel.Column.of("Catalog #", String.class, CD::getCatalogNumber),
+                PagedTableModel.Column.of("Total", Integer.class, CD::getQuantityTotal),
+                PagedTableModel.Column.of("Available", Integer.class, CD::getQuantityAvailable),
+                PagedTableModel.Column.of("Fine Rate", String.class,
+                        cd -> String.format("$%.2f", cd.getDailyFineRate()))), loader);
 
         cdsTable = new JTable(tableModel);
         JScrollPane scrollPane = new JScrollPane(cdsTable);
         add(scrollPane, BorderLayout.CENTER);
+        add(loader.getProgressBar(), BorderLayout.SOUTH);
     }
 
     private void loadCDs() {
-        tableModel.setRowCount(0);
-        List<CD> cds = cdService.getAllCDs();
-        for (CD cd : cds) {
-            tableModel.addRow(new Object[]{
-                    cd.getCdId(),
-                    cd.getTitle(),
-                    cd.getArtist(),
-                    cd.getCatalogNumber(),
-                    cd.getQuantityTotal(),
-                    cd.getQuantityAvailable(),
-                    String.format("$%.2f", cd.getDailyFineRate())
-            });
-        }
+        loader.load("cds", cdService::getAllCDs, tableModel::setRows,
+                e -> JOptionPane.showMessageDialog(this, "Error loading CDs: " + e.getMessage()));
     }
 
     private class AddCDAction implements ActionListener {
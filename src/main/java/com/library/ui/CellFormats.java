@@ -0,0 +1,60 @@
+package com.library.ui;
+
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableCellRenderer;
+import java.math.BigDecimal;
+import java.text.DecimalFormat;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Renderers that format dates and amounts when a cell is painted, so only visible cells are formatted.
+ */
+public final class CellFormats {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private CellFormats() {
+    }
+
+    public static void install(JTable table) {
+        table.setDefaultRenderer(LocalDate.class, new Renderer() {
+            @Override
+            String format(Object value) {
+                return DATE.format((LocalDate) value);
+            }
+        });
+        table.setDefaultRenderer(LocalDateTime.class, new Renderer() {
+            @Override
+            String format(Object value) {
+                return DATE_TIME.format((LocalDateTime) value);
+            }
+        });
+        table.setDefaultRenderer(BigDecimal.class, new AmountRenderer());
+    }
+
+    private abstract static class Renderer extends DefaultTableCellRenderer {
+        abstract String format(Object value);
+
+        @Override
+        protected void setValue(Object value) {
+            setText(value == null ? "" : format(value));
+        }
+    }
+
+    private static final class AmountRenderer extends Renderer {
+        // DecimalFormat is not thread-safe, but renderers only run on the EDT
+        private final DecimalFormat amount = new DecimalFormat("0.00");
+
+        AmountRenderer() {
+            setHorizontalAlignment(RIGHT);
+        }
+
+        @Override
+        String format(Object value) {
+            return amount.format(value);
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.library.ui;
 import com.library.service.*;
 import com.library.model.*;
 import com.library.repository.*;
+import com.library.metrics.Instrumentation;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
@@ -38,8 +39,8 @@ public class FineManagementPanel extends JPanel {
     }
 
     private void initializeServices() {
-        FineRepositoryImpl fineRepo = new FineRepositoryImpl();
-        PaymentRepositoryImpl paymentRepo = new PaymentRepositoryImpl();
+        FineRepository fineRepo = Instrumentation.instrument(FineRepository.class, new FineRepositoryImpl());
+        PaymentRepository paymentRepo = Instrumentation.instrument(PaymentRepository.class, new PaymentRepositoryImpl());
         
         this.fineService = new FineService(fineRepo, paymentRepo);
     }
@@ -0,0 +1,225 @@
+package com.library.ui;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Table model over domain objects that only materializes the rows the table asks for.
+ * Rows come from a {@link RowSource} in pages kept in a small LRU cache; missing pages
+ * are fetched through the {@link BackgroundLoader} and the next page is prefetched
+ * once the viewport passes the middle of the current one. Cells hold raw values and
+ * are formatted by the renderers from {@link CellFormats#install}.
+ * Must be used from the Event Dispatch Thread.
+ */
+public class PagedTableModel<R> extends AbstractTableModel {
+
+    public static final int DEFAULT_PAGE_SIZE = 200;
+    public static final int DEFAULT_MAX_CACHED_PAGES = 10;
+
+    private final String name;
+    private final List<Column<R>> columns;
+    private final BackgroundLoader loader;
+    private final int pageSize;
+    private final int maxCachedPages;
+    private final Map<Integer, List<R>> pages;
+    private final Set<Integer> pendingPages = new HashSet<>();
+
+    private RowSource<R> source = RowSource.of(Collections.emptyList());
+    private int rowCount;
+    private int generation;
+
+    public PagedTableModel(String name, List<Column<R>> columns, BackgroundLoader loader) {
+        this(name, columns, loader, DEFAULT_PAGE_SIZE, DEFAULT_MAX_CACHED_PAGES);
+    }
+
+    public PagedTableModel(String name, List<Column<R>> columns, BackgroundLoader loader,
+                           int pageSize, int maxCachedPages) {
+        if (pageSize <= 0 || maxCachedPages < 2) {
+            throw new IllegalArgumentException("pageSize must be positive and maxCachedPages at least 2");
+        }
+        this.name = name;
+        this.columns = new ArrayList<>(columns);
+        this.loader = loader;
+        this.pageSize = pageSize;
+        this.maxCachedPages = maxCachedPages;
+        this.pages = new LinkedHashMap<Integer, List<R>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<R>> eldest) {
+                return size() > PagedTableModel.this.maxCachedPages;
+            }
+        };
+    }
+
+    public void setRows(List<R> rows) {
+        swapSource(RowSource.of(rows), rows.size(), null);
+    }
+
+    public void load(RowSource<R> newSource, Consumer<Integer> onLoaded, Consumer<Exception> onError) {
+        loader.load(name, () -> {
+            int count = newSource.count();
+            List<R> firstPage = count > 0 ? newSource.fetch(0, pageSize) : Collections.emptyList();
+            return new Object[]{count, firstPage};
+        }, result -> {
+            @SuppressWarnings("unchecked")
+            List<R> firstPage = (List<R>) result[1];
+            int count = (Integer) result[0];
+            swapSource(newSource, count, firstPage);
+            onLoaded.accept(count);
+        }, onError);
+    }
+
+    public R getRow(int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= rowCount) {
+            return null;
+        }
+        int page = rowIndex / pageSize;
+        int offsetInPage = rowIndex % pageSize;
+        if (offsetInPage >= pageSize / 2 && (page + 1) * pageSize < rowCount) {
+            requestPage(page + 1);
+        }
+        List<R> rows = pages.get(page);
+        if (rows == null) {
+            requestPage(page);
+            rows = pages.get(page);
+        }
+        return rows != null && offsetInPage < rows.size() ? rows.get(offsetInPage) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return columns.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return columns.get(column).name;
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        return columns.get(column).type;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        R row = getRow(rowIndex);
+        return row == null ? null : columns.get(columnIndex).value.apply(row);
+    }
+
+    int cachedPageCount() {
+        return pages.size();
+    }
+
+    private void swapSource(RowSource<R> newSource, int count, List<R> firstPage) {
+        generation++;
+        source = newSource;
+        rowCount = count;
+        pages.clear();
+        for (Integer page : pendingPages) {
+            loader.cancel(pageKey(page));
+        }
+        pendingPages.clear();
+        if (firstPage != null) {
+            pages.put(0, firstPage);
+        }
+        fireTableDataChanged();
+    }
+
+    private void requestPage(int page) {
+        // A pending page whose load was cancelled from outside (e.g. a tab switch) is requested again
+        if (pages.containsKey(page) || (pendingPages.contains(page) && loader.isLoading(pageKey(page)))) {
+            return;
+        }
+        RowSource<R> requestSource = source;
+        int offset = page * pageSize;
+        if (requestSource.isInMemory()) {
+            try {
+                pages.put(page, requestSource.fetch(offset, pageSize));
+            } catch (Exception e) {
+                throw new IllegalStateException("In-memory row source failed", e);
+            }
+            return;
+        }
+        int requestGeneration = generation;
+        pendingPages.add(page);
+        loader.load(pageKey(page), () -> requestSource.fetch(offset, pageSize), rows -> {
+            if (requestGeneration != generation) {
+                return;
+            }
+            pendingPages.remove(page);
+            pages.put(page, rows);
+            int last = Math.min(offset + pageSize, rowCount) - 1;
+            if (last >= offset) {
+                fireTableRowsUpdated(offset, last);
+            }
+        }, ex -> {
+            if (requestGeneration == generation) {
+                pendingPages.remove(page);
+            }
+        });
+    }
+
+    private String pageKey(int page) {
+        return name + "#" + page;
+    }
+
+    public interface RowSource<R> {
+
+        int count() throws Exception;
+
+        List<R> fetch(int offset, int limit) throws Exception;
+
+        default boolean isInMemory() {
+            return false;
+        }
+
+        static <R> RowSource<R> of(List<R> rows) {
+            return new RowSource<R>() {
+                @Override
+                public int count() {
+                    return rows.size();
+                }
+
+                @Override
+                public List<R> fetch(int offset, int limit) {
+                    int from = Math.min(offset, rows.size());
+                    return rows.subList(from, Math.min(from + limit, rows.size()));
+                }
+
+                @Override
+                public boolean isInMemory() {
+                    return true;
+                }
+            };
+        }
+    }
+
+    public static final class Column<R> {
+        private final String name;
+        private final Class<?> type;
+        private final Function<R, ?> value;
+
+        private Column(String name, Class<?> type, Function<R, ?> value) {
+            this.name = name;
+            this.type = type;
+            this.value = value;
+        }
+
+        public static <R> Column<R> of(String name, Class<?> type, Function<R, ?> value) {
+            return new Column<>(name, type, value);
+        }
+    }
+}
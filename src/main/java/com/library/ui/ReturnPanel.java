@@ -1,15 +1,23 @@
 package com.library.ui;
 
+import com.library.model.BorrowingRecord;
+import com.library.service.ReturnService;
+import com.library.util.DateUtil;
 import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*; 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 public class ReturnPanel extends JPanel {
     private JSpinner recordIdSpinner;
     private JButton returnButton;
     private JTextArea resultArea;
     private DefaultTableModel tableModel;
+    private ReturnService returnService;
+    private final BackgroundLoader loader = new BackgroundLoader(this);
 
     public ReturnPanel() {
         setLayout(new BorderLayout());
@@ -31,7 +39,7 @@ public class ReturnPanel extends JPanel {
     }
 
     private void initializeServices() {
-        // Placeholder for service initialization
+        this.returnService = new ReturnService();
     }
 
     private JPanel createFormPanel() {
@@ -52,7 +60,7 @@ public class ReturnPanel extends JPanel {
 
     private JPanel createTablePanel() {
         JPanel panel = new JPanel(new BorderLayout());
-        panel.setBorder(BorderFactory.createTitledBorder("Overdue Items (5 Most Recent)"));
+        panel.setBorder(BorderFactory.createTitledBorder("Overdue Items (Most Overdue First)"));
         
         String[] columns = {"Record ID", "User ID", "Item ID", "Item Type", "Due Date", "Days Overdue", "Fine Amount"};
         tableModel = new DefaultTableModel(columns, 0) {
@@ -66,11 +74,14 @@ public class ReturnPanel extends JPanel {
         JScrollPane scrollPane = new JScrollPane(overdueTable);
         panel.add(scrollPane, BorderLayout.CENTER);
         
+        JPanel southPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         JButton refreshButton = new JButton("Refresh");
         refreshButton.addActionListener(e -> refreshOverdueTable());
-        panel.add(refreshButton, BorderLayout.SOUTH);
+        southPanel.add(refreshButton);
+        southPanel.add(loader.getProgressBar());
+        panel.add(southPanel, BorderLayout.SOUTH);
         
-        refreshOverdueTable();
+        SwingUtilities.invokeLater(this::refreshOverdueTable);
         return panel;
     }
 
@@ -89,11 +100,28 @@ public class ReturnPanel extends JPanel {
     }
 
     private void refreshOverdueTable() {
-        tableModel.setRowCount(0);
-        try {
-            // Display sample overdue records
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, "Error loading overdue items: " + e.getMessage());
-        }
+        loader.load("overdue", () -> {
+            LocalDate today = LocalDate.now();
+            List<BorrowingRecord> overdue = new ArrayList<>(returnService.getOverdueRecords());
+            overdue.sort(Comparator.comparing(BorrowingRecord::getDueDate));
+            List<Object[]> rows = new ArrayList<>();
+            for (BorrowingRecord record : overdue) {
+                rows.add(new Object[]{
+                    record.getRecordId(),
+                    record.getUserId(),
+                    record.getItemId(),
+                    record.getItemType(),
+                    record.getDueDate(),
+                    DateUtil.calculateDaysOverdue(record.getDueDate(), today),
+                    String.format("%.2f", returnService.estimateFine(record, today))
+                });
+            }
+            return rows;
+        }, rows -> {
+            tableModel.setRowCount(0);
+            for (Object[] row : rows) {
+                tableModel.addRow(row);
+            }
+        }, e -> JOptionPane.showMessageDialog(this, "Error loading overdue items: " + e.getMessage()));
     }
 }
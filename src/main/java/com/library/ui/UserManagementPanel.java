@@ -5,12 +5,11 @@ import com.library.model.User;
 import com.library.util.ValidationUtil;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.time.LocalDateTime;
-import java.util.List;
+import java.util.Arrays;
 
 public class UserManagementPanel extends JPanel {
     private UserService userService;
@@ -19,12 +18,13 @@ public class UserManagementPanel extends JPanel {
     private JTextField emailField;
     private JTextField phoneField;
     private JTextField memberIdField;
-    private DefaultTableModel tableModel;
+    private PagedTableModel<User> tableModel;
+    private final BackgroundLoader loader = new BackgroundLoader(this);
 
     public UserManagementPanel() {
         this.userService = new UserService();
         initializeUI();
-        loadUsers();
+        SwingUtilities.invokeLater(this::loadUsers);
     }
 
     private void initializeUI() {
@@ -74,13 +74,14 @@ public class UserManagementPanel extends JPanel {
         formPanel.add(btnWrap);
 
         // Table on the right
-        tableModel = new DefaultTableModel();
-        tableModel.addColumn("ID");
-        tableModel.addColumn("Name");
-        tableModel.addColumn("Email");
-        tableModel.addColumn("Phone");
-        tableModel.addColumn("Member ID");
-        tableModel.addColumn("Status");
+        tableModel = new PagedTableModel<>("users", Arrays.asList(
+                PagedTableModel.Column.of("ID", Integer.class, User::getUserId),
+                PagedTableModel.Column.of("Name", String.class, User::getName),
+                PagedTableModel.Column.of("Email", String.class, User::getEmail),
+                PagedTableModel.Column.of("Phone", String.class, User::getPhone),
+                PagedTableModel.Column.of("Member ID", String.class, User::getMemberId),
+                PagedTableModel.Column.of("Status", String.class,
+                        user -> user.isActive() ? "Active" : "Inactive")), loader);
 
         usersTable = new JTable(tableModel);
         usersTable.setFillsViewportHeight(true);
@@ -90,21 +91,12 @@ public class UserManagementPanel extends JPanel {
         split.setResizeWeight(0.33);
         split.setOneTouchExpandable(true);
         add(split, BorderLayout.CENTER);
+        add(loader.getProgressBar(), BorderLayout.SOUTH);
     }
 
     private void loadUsers() {
-        tableModel.setRowCount(0);
-        List<User> users = userService.getAllUsers();
-        for (User user : users) {
-            tableModel.addRow(new Object[]{
-                    user.getUserId(),
-                    user.getName(),
-                    user.getEmail(),
-                    user.getPhone(),
-                    user.getMemberId(),
-                    user.isActive() ? "Active" : "Inactive"
-            });
-        }
+        loader.load("users", userService::getAllUsers, tableModel::setRows,
+                e -> JOptionPane.showMessageDialog(this, "Error loading users: " + e.getMessage()));
     }
 
     private class RegisterUserAction implements ActionListener {
@@ -0,0 +1,184 @@
+package com.library.service;
+
+import com.library.metrics.QueryBudget;
+import com.library.model.BorrowingRecord;
+import com.library.model.Fine;
+import com.library.repository.Database;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Guards the number of SQL statements the main service operations and
+ * reports run, so that a per-row lookup added to any of them fails the
+ * build. It needs the in-memory database the build configures, as it
+ * replaces the contents of every table.
+ */
+public class ServiceQueryBudgetTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    private BorrowingService borrowingService;
+    private ReturnService returnService;
+    private FineService fineService;
+    private ReportService reportService;
+
+    @BeforeAll
+    public static void requireInMemoryDatabase() throws SQLException {
+        String url = Database.getInstance().getConnection().getMetaData().getURL();
+        assumeTrue(url.endsWith(":memory:"), "run with -Dlibrary.db.url=jdbc:sqlite::memory:, not " + url);
+    }
+
+    @BeforeEach
+    public void setUp() throws SQLException {
+        borrowingService = new BorrowingService();
+        returnService = new ReturnService();
+        fineService = new FineService();
+        reportService = new ReportService();
+
+        Connection connection = Database.getInstance().getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM payments");
+            statement.executeUpdate("DELETE FROM fines");
+            statement.executeUpdate("DELETE FROM borrowing_records");
+            statement.executeUpdate("DELETE FROM books");
+            statement.executeUpdate("DELETE FROM cds");
+            statement.executeUpdate("DELETE FROM users");
+        }
+        for (int userId = 1; userId <= 4; userId++) {
+            insertUser(connection, userId);
+        }
+        for (int itemId = 1; itemId <= 3; itemId++) {
+            insertBook(connection, itemId);
+            insertCd(connection, itemId);
+        }
+        // Four overdue items across three users, one on loan and one returned
+        insertRecord(connection, 1, 1, 1, BorrowingRecord.ItemType.BOOK, TODAY.minusDays(10), false);
+        insertRecord(connection, 2, 2, 1, BorrowingRecord.ItemType.CD, TODAY.minusDays(5), false);
+        insertRecord(connection, 3, 3, 2, BorrowingRecord.ItemType.BOOK, TODAY.minusDays(3), false);
+        insertRecord(connection, 4, 1, 2, BorrowingRecord.ItemType.CD, TODAY.minusDays(1), false);
+        insertRecord(connection, 5, 2, 3, BorrowingRecord.ItemType.BOOK, TODAY.plusDays(10), false);
+        insertRecord(connection, 6, 3, 3, BorrowingRecord.ItemType.CD, TODAY.minusDays(20), true);
+        insertFine(connection, 1, 1, 1, 5.0);
+        insertFine(connection, 2, 2, 2, 2.5);
+        insertFine(connection, 3, 3, 6, 4.0);
+    }
+
+    @Test
+    @QueryBudget(6)
+    public void testBorrowBook() throws Exception {
+        BorrowingRecord record = borrowingService.borrowBook(4, 3);
+
+        assertEquals(TODAY, record.getBorrowDate());
+    }
+
+    @Test
+    @QueryBudget(6)
+    public void testReturnOverdueItem() {
+        Fine fine = returnService.returnItem(1, TODAY);
+
+        assertNotNull(fine);
+        assertEquals(10, fine.getDaysOverdue());
+    }
+
+    @Test
+    @QueryBudget(3)
+    public void testPayFineInFull() {
+        assertNotNull(fineService.payFine(3, 4.0, "CASH"));
+    }
+
+    @Test
+    @QueryBudget(5)
+    public void testMixedMediaOverdueReportIsOneQueryPerTable() {
+        String report = reportService.generateMixedMediaOverdueReport();
+
+        assertTrue(report.contains("Total overdue items: 4"));
+        assertTrue(report.contains("Item: Book 2 by Author 2"));
+        assertTrue(report.contains("Item: CD 1 by Artist 1"));
+        assertTrue(report.contains("User: User 3"));
+        assertTrue(report.contains("Total Fines: $7.50"));
+    }
+
+    @Test
+    @QueryBudget(4)
+    public void testActiveBorrowingsReportIsOneQueryPerTable() {
+        String report = reportService.generateActiveBorrowingsReport();
+
+        assertTrue(report.contains("Total active items: 5"));
+        assertTrue(report.contains("Item: Book 3 by Author 3"));
+        assertFalse(report.contains("Unknown"));
+    }
+
+    private static void insertUser(Connection connection, int userId) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO users (user_id, name, email, member_id, registration_date, is_active) VALUES (?, ?, ?, ?, ?, 1)")) {
+            ps.setInt(1, userId);
+            ps.setString(2, "User " + userId);
+            ps.setString(3, "user" + userId + "@example.com");
+            ps.setString(4, "M" + userId);
+            ps.setString(5, LocalDateTime.now().toString());
+            ps.executeUpdate();
+        }
+    }
+
+    private static void insertBook(Connection connection, int bookId) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO books (book_id, title, author, isbn, quantity_total, quantity_available) VALUES (?, ?, ?, ?, 3, 2)")) {
+            ps.setInt(1, bookId);
+            ps.setString(2, "Book " + bookId);
+            ps.setString(3, "Author " + bookId);
+            ps.setString(4, "ISBN-" + bookId);
+            ps.executeUpdate();
+        }
+    }
+
+    private static void insertCd(Connection connection, int cdId) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO cds (cd_id, title, artist, catalog_number, quantity_total, quantity_available) VALUES (?, ?, ?, ?, 3, 2)")) {
+            ps.setInt(1, cdId);
+            ps.setString(2, "CD " + cdId);
+            ps.setString(3, "Artist " + cdId);
+            ps.setString(4, "CAT-" + cdId);
+            ps.executeUpdate();
+        }
+    }
+
+    private static void insertRecord(Connection connection, int recordId, int userId, int itemId,
+                                     BorrowingRecord.ItemType itemType, LocalDate dueDate, boolean returned) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO borrowing_records (record_id, user_id, item_id, item_type, borrow_date, due_date, return_date, is_returned) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)")) {
+            ps.setInt(1, recordId);
+            ps.setInt(2, userId);
+            ps.setInt(3, itemId);
+            ps.setString(4, itemType.name());
+            ps.setString(5, dueDate.minusDays(14).toString());
+            ps.setString(6, dueDate.toString());
+            ps.setString(7, returned ? dueDate.toString() : null);
+            ps.setInt(8, returned ? 1 : 0);
+            ps.executeUpdate();
+        }
+    }
+
+    private static void insertFine(Connection connection, int fineId, int userId, int recordId, double amount) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(
+                "INSERT INTO fines (fine_id, user_id, record_id, fine_amount, days_overdue, is_paid, calculation_date) VALUES (?, ?, ?, ?, 1, 0, ?)")) {
+            ps.setInt(1, fineId);
+            ps.setInt(2, userId);
+            ps.setInt(3, recordId);
+            ps.setDouble(4, amount);
+            ps.setString(5, LocalDateTime.now().toString());
+            ps.executeUpdate();
+        }
+    }
+}